@@ -1,6 +1,7 @@
 plugins {
     java
     id("com.github.johnrengelman.shadow") version "8.1.1"
+    id("me.champeau.jmh") version "0.7.2"
 }
 
 group = "com.chibashr.allthewebhooks"
@@ -19,7 +20,6 @@ repositories {
 
 dependencies {
     compileOnly("io.papermc.paper:paper-api:1.20.6-R0.1-SNAPSHOT")
-    implementation("org.reflections:reflections:0.10.2")
     testImplementation("org.junit.jupiter:junit-jupiter:5.10.2")
     testImplementation("org.mockito:mockito-core:5.14.2")
     testImplementation("org.mockito:mockito-junit-jupiter:5.14.2")
@@ -30,6 +30,37 @@ tasks.test {
     useJUnitPlatform()
 }
 
+// Benchmarks under src/jmh: ./gradlew jmh (-Pjmh.includes=<pattern> to pick one).
+jmh {
+    project.findProperty("jmh.includes")?.let { includes.set(listOf(it.toString())) }
+}
+
+// Event catalog: scan paper-api at build time so runtime discovery needs no classpath scan.
+// catalogGen holds the generator (run against main + paper-api); eventCatalog compiles its output.
+val eventCatalogDir = layout.buildDirectory.dir("generated/sources/eventCatalog/java")
+
+val catalogGen by sourceSets.creating {
+    compileClasspath += sourceSets.main.get().output + sourceSets.main.get().compileClasspath
+    runtimeClasspath += output + compileClasspath
+}
+
+val eventCatalog by sourceSets.creating {
+    java.srcDir(eventCatalogDir)
+    compileClasspath += sourceSets.main.get().output + sourceSets.main.get().compileClasspath
+}
+
+val generateEventCatalog by tasks.registering(JavaExec::class) {
+    description = "Generates GeneratedEventCatalog from the paper-api compile classpath."
+    classpath = catalogGen.runtimeClasspath
+    mainClass.set("com.chibashr.allthewebhooks.events.EventCatalogGenerator")
+    outputs.dir(eventCatalogDir)
+    argumentProviders.add(CommandLineArgumentProvider { listOf(eventCatalogDir.get().asFile.absolutePath) })
+}
+
+tasks.named(eventCatalog.compileJavaTaskName) {
+    dependsOn(generateEventCatalog)
+}
+
 tasks.processResources {
     filesMatching("plugin.yml") {
         expand("version" to project.version)
@@ -41,7 +72,9 @@ tasks.named<Jar>("jar") {
 }
 
 tasks.named("shadowJar") {
-    (this as org.gradle.api.tasks.bundling.Jar).archiveClassifier.set("")
+    val jar = this as org.gradle.api.tasks.bundling.Jar
+    jar.archiveClassifier.set("")
+    jar.from(eventCatalog.output)
 }
 
 tasks.named("build") {
@@ -0,0 +1,135 @@
+package com.chibashr.allthewebhooks.events;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import org.bukkit.event.Event;
+
+/**
+ * Build-time generator for {@code GeneratedEventCatalog}, run by the {@code generateEventCatalog}
+ * Gradle task with paper-api on the classpath. Uses the same scanner, key derivation and predicate
+ * builder as runtime discovery, so catalogued and scanned events are described identically.
+ * <p>
+ * Usage: {@code EventCatalogGenerator <output source root>}
+ */
+public final class EventCatalogGenerator {
+    /** Entries per generated method, keeping each well below the 64 KB bytecode limit. */
+    private static final int ENTRIES_PER_METHOD = 25;
+    private static final int NAMES_PER_METHOD = 200;
+
+    private EventCatalogGenerator() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length != 1) {
+            throw new IllegalArgumentException("Usage: EventCatalogGenerator <output source root>");
+        }
+        ClassLoader loader = EventCatalogGenerator.class.getClassLoader();
+        Set<String> names = EventClassScanner.listClassNames(loader);
+        List<Class<? extends Event>> events = EventClassScanner.loadConcreteEvents(names, loader);
+        Set<String> nonEvents = new TreeSet<>(names);
+        for (Class<? extends Event> event : events) {
+            nonEvents.remove(event.getName());
+        }
+
+        Path out = Path.of(args[0]).resolve(EventCatalog.GENERATED_CLASS.replace('.', '/') + ".java");
+        Files.createDirectories(out.getParent());
+        Files.writeString(out, render(events, nonEvents), StandardCharsets.UTF_8);
+        System.out.println("Event catalog: " + events.size() + " events, " + nonEvents.size()
+                + " other classes -> " + out);
+    }
+
+    private static String render(List<Class<? extends Event>> events, Set<String> nonEvents) {
+        StringBuilder sb = new StringBuilder();
+        sb.append("package com.chibashr.allthewebhooks.events;\n\n");
+        sb.append("import java.util.ArrayList;\n");
+        sb.append("import java.util.HashSet;\n");
+        sb.append("import java.util.List;\n");
+        sb.append("import java.util.Map;\n");
+        sb.append("import java.util.Set;\n\n");
+        sb.append("/** Generated by the generateEventCatalog task. Do not edit. */\n");
+        sb.append("final class GeneratedEventCatalog {\n\n");
+        sb.append("    private GeneratedEventCatalog() {\n    }\n\n");
+
+        int entryChunks = (events.size() + ENTRIES_PER_METHOD - 1) / ENTRIES_PER_METHOD;
+        sb.append("    static List<EventCatalog.Entry> entries() {\n");
+        sb.append("        List<EventCatalog.Entry> entries = new ArrayList<>(").append(events.size()).append(");\n");
+        for (int c = 0; c < entryChunks; c++) {
+            sb.append("        entries").append(c).append("(entries);\n");
+        }
+        sb.append("        return entries;\n    }\n\n");
+        for (int c = 0; c < entryChunks; c++) {
+            sb.append("    private static void entries").append(c).append("(List<EventCatalog.Entry> entries) {\n");
+            int end = Math.min(events.size(), (c + 1) * ENTRIES_PER_METHOD);
+            for (int i = c * ENTRIES_PER_METHOD; i < end; i++) {
+                appendEntry(sb, events.get(i));
+            }
+            sb.append("    }\n\n");
+        }
+
+        List<String> names = new ArrayList<>(nonEvents);
+        int nameChunks = (names.size() + NAMES_PER_METHOD - 1) / NAMES_PER_METHOD;
+        sb.append("    static Set<String> nonEventClasses() {\n");
+        sb.append("        Set<String> names = new HashSet<>(").append(names.size() * 2).append(");\n");
+        for (int c = 0; c < nameChunks; c++) {
+            sb.append("        nonEventClasses").append(c).append("(names);\n");
+        }
+        sb.append("        return names;\n    }\n");
+        for (int c = 0; c < nameChunks; c++) {
+            sb.append("\n    private static void nonEventClasses").append(c).append("(Set<String> names) {\n");
+            int end = Math.min(names.size(), (c + 1) * NAMES_PER_METHOD);
+            for (int i = c * NAMES_PER_METHOD; i < end; i++) {
+                sb.append("        names.add(").append(literal(names.get(i))).append(");\n");
+            }
+            sb.append("    }\n");
+        }
+        sb.append("}\n");
+        return sb.toString();
+    }
+
+    private static void appendEntry(StringBuilder sb, Class<? extends Event> eventClass) {
+        Map<String, String> predicates = new TreeMap<>(DiscoveredEventBuilder.buildPredicates(eventClass));
+        sb.append("        entries.add(new EventCatalog.Entry(")
+                .append(literal(eventClass.getName())).append(", ")
+                .append(literal(EventDiscovery.eventKeyFromClass(eventClass))).append(", ")
+                .append(literal(EventDiscovery.humanizeEventDescription(eventClass))).append(", ")
+                .append("Map.ofEntries(");
+        boolean first = true;
+        for (Map.Entry<String, String> predicate : predicates.entrySet()) {
+            if (!first) {
+                sb.append(", ");
+            }
+            sb.append("Map.entry(").append(literal(predicate.getKey())).append(", ")
+                    .append(literal(predicate.getValue())).append(")");
+            first = false;
+        }
+        sb.append(")));\n");
+    }
+
+    private static String literal(String value) {
+        StringBuilder sb = new StringBuilder("\"");
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"' -> sb.append("\\\"");
+                case '\\' -> sb.append("\\\\");
+                case '\n' -> sb.append("\\n");
+                default -> {
+                    if (c < 0x20 || c > 0x7e) {
+                        sb.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        sb.append(c);
+                    }
+                }
+            }
+        }
+        return sb.append('"').toString();
+    }
+}
@@ -0,0 +1,94 @@
+package com.chibashr.allthewebhooks.routing;
+
+import com.chibashr.allthewebhooks.config.EventConfig;
+import com.chibashr.allthewebhooks.config.EventKeyMatcher;
+import com.chibashr.allthewebhooks.config.EventRuleDefaults;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Resolving the rule for one event against {@code rules} configured keys (a mix of exact keys such
+ * as {@code player.break.block.stone_42} and wildcards such as {@code player.break.*}),
+ * {@link EventRuleResolver} with its trie index against scoring every key with
+ * {@link EventKeyMatcher}, as the resolver did before (only the key selection, not building the
+ * resolved rule). Each operation resolves the same four event keys: an exact hit, two wildcard
+ * hits and a miss.
+ * <pre>
+ *   ./gradlew jmh -Pjmh.includes=EventRuleResolverBenchmark
+ * </pre>
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class EventRuleResolverBenchmark {
+    private static final String[] EVENT_KEYS = {
+            "player.break.block.stone_42",
+            "player.break.block.obsidian",
+            "entity.damage.player",
+            "server.enable"
+    };
+    private static final String[] CATEGORIES = {"player.break.block", "player.place.block", "entity.death", "player.craft.item"};
+
+    @Param({"2000"})
+    public int rules;
+
+    private EventConfig config;
+    private EventRuleResolver resolver;
+
+    @Setup
+    public void setUp() {
+        config = new EventConfig(new EventRuleDefaults(true, "default", null, "generic", null));
+        for (int i = 0; i < rules; i++) {
+            String category = CATEGORIES[i % CATEGORIES.length];
+            String key = i % 50 == 0 ? category.substring(0, category.lastIndexOf('.')) + ".*" : category + ".stone_" + i;
+            config.putEventRule(key, null);
+        }
+        resolver = new EventRuleResolver();
+        resolver.resolve(config, EVENT_KEYS[0], null);
+    }
+
+    @Benchmark
+    public int trieIndex() {
+        int found = 0;
+        for (String eventKey : EVENT_KEYS) {
+            if (resolver.resolve(config, eventKey, null) != null) {
+                found++;
+            }
+        }
+        return found;
+    }
+
+    @Benchmark
+    public int scoreEveryKey() {
+        int found = 0;
+        for (String eventKey : EVENT_KEYS) {
+            String bestKey = null;
+            EventKeyMatcher.MatchScore bestScore = EventKeyMatcher.MatchScore.NO_MATCH;
+            for (String configuredKey : config.getEventRules().keySet()) {
+                EventKeyMatcher.MatchScore score = EventKeyMatcher.score(configuredKey, eventKey);
+                if (score.isBetterThan(bestScore)) {
+                    bestScore = score;
+                    bestKey = configuredKey;
+                }
+            }
+            if (bestKey != null) {
+                found++;
+            }
+        }
+        return found;
+    }
+}
@@ -0,0 +1,88 @@
+package com.chibashr.allthewebhooks.rules;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * One {@code contains-any} / {@code contains-word} check per operation on a 256-char chat message
+ * with no term in it (the common case, and the worst for a scan), {@link KeywordAutomaton} against a
+ * loop of {@link String#contains} over the lower-cased message. The loop grows with {@code terms};
+ * the automaton does not.
+ * <pre>
+ *   ./gradlew jmh -Pjmh.includes=KeywordMatchBenchmark
+ * </pre>
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class KeywordMatchBenchmark {
+    @Param({"10", "1000", "10000"})
+    public int terms;
+
+    private List<String> dictionary;
+    private KeywordAutomaton automaton;
+    private String message;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        dictionary = new ArrayList<>(terms);
+        for (int i = 0; i < terms; i++) {
+            dictionary.add(word(random, 5 + random.nextInt(6)) + "q");
+        }
+        automaton = KeywordAutomaton.build(dictionary);
+        StringBuilder text = new StringBuilder(256);
+        while (text.length() < 256) {
+            text.append(word(random, 1 + random.nextInt(8))).append(' ');
+        }
+        // No 'q' in the message, so no term matches.
+        message = text.substring(0, 256).replace('q', 'k').toUpperCase(Locale.ROOT);
+    }
+
+    private static String word(Random random, int length) {
+        char[] chars = new char[length];
+        for (int i = 0; i < length; i++) {
+            chars[i] = (char) ('a' + random.nextInt(26));
+        }
+        return new String(chars);
+    }
+
+    @Benchmark
+    public boolean automatonContainsAny() {
+        return automaton.containsAny(message);
+    }
+
+    @Benchmark
+    public boolean automatonContainsWord() {
+        return automaton.containsWord(message);
+    }
+
+    @Benchmark
+    public boolean naiveContainsAny() {
+        String lower = message.toLowerCase(Locale.ROOT);
+        for (String term : dictionary) {
+            if (lower.contains(term)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
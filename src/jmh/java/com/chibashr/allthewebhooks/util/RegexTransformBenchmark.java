@@ -0,0 +1,82 @@
+package com.chibashr.allthewebhooks.util;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+
+/**
+ * One regex transform ({@code replaceAll}) per operation, {@link LinearRegex} against
+ * {@link java.util.regex.Pattern}, for:
+ * <ul>
+ *   <li>{@code path}: <code>^.*&#47;([^/]+)$</code> on a world path, the common case;</li>
+ *   <li>{@code nested}: {@code (a+)+$} on {@code length} a's and a final "!", which backtracks
+ *       exponentially in java.util.regex;</li>
+ *   <li>{@code alternation}: {@code (a|aa)*b} on {@code length} a's, which backtracks like Fibonacci.</li>
+ * </ul>
+ * java.util.regex time roughly doubles per extra character on the last two; LinearRegex grows linearly.
+ * <pre>
+ *   ./gradlew jmh -Pjmh.includes=RegexTransformBenchmark
+ * </pre>
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class RegexTransformBenchmark {
+    @Param({"path", "nested", "alternation"})
+    public String pattern;
+
+    @Param({"12", "20", "24"})
+    public int length;
+
+    private Pattern javaPattern;
+    private LinearRegex linear;
+    private LinearRegex.Replacement replacement;
+    private String input;
+
+    @Setup
+    public void setUp() {
+        String source;
+        switch (pattern) {
+            case "path" -> {
+                source = "^.*/([^/]+)$";
+                input = "/srv/worlds/" + "w".repeat(length);
+            }
+            case "nested" -> {
+                source = "(a+)+$";
+                input = "a".repeat(length) + "!";
+            }
+            case "alternation" -> {
+                source = "(a|aa)*b";
+                input = "a".repeat(length);
+            }
+            default -> throw new IllegalArgumentException(pattern);
+        }
+        javaPattern = Pattern.compile(source);
+        linear = LinearRegex.compile(source);
+        replacement = linear.replacement("$1");
+    }
+
+    @Benchmark
+    public String javaRegex() {
+        return javaPattern.matcher(input).replaceAll("$1");
+    }
+
+    @Benchmark
+    public String linearRegex() {
+        return linear.replaceAll(input, replacement);
+    }
+}
@@ -0,0 +1,168 @@
+package com.chibashr.allthewebhooks.webhook;
+
+import com.chibashr.allthewebhooks.config.WebhookDefinition;
+import com.chibashr.allthewebhooks.util.WorkerThreads;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.net.InetSocketAddress;
+import java.net.http.HttpClient;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Webhook sends at about 5k messages/s to a local sink with a few millis of latency, per
+ * execution mode:
+ * <ul>
+ *   <li>{@code scheduler}: each send is handed to a shared cached pool first, the way
+ *       {@code AsyncExecutor.runAsync} goes through the server's async scheduler, and the
+ *       HttpClient uses its default executor;</li>
+ *   <li>{@code platform}: execution.virtual-threads off;</li>
+ *   <li>{@code virtual}: execution.virtual-threads on.</li>
+ * </ul>
+ * One operation is a batch of {@value #BATCH} messages submitted at the target rate and waited
+ * for until delivered. The {@code peakThreads} counter is the JVM's peak platform thread count
+ * during the iteration.
+ * <pre>
+ *   ./gradlew jmh -Pjmh.includes=DispatchExecutorBenchmark
+ * </pre>
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+@State(Scope.Benchmark)
+public class DispatchExecutorBenchmark {
+    static final int BATCH = 500;
+    private static final int MESSAGES_PER_SECOND = 5_000;
+    private static final long SINK_LATENCY_MILLIS = 5;
+
+    @Param({"scheduler", "platform", "virtual"})
+    public String mode;
+
+    private HttpServer sink;
+    private ExecutorService sinkExecutor;
+    private ExecutorService asyncPool;
+    private WorkerThreads workers;
+    private DeliveryScheduler scheduler;
+    private WebhookDefinition webhook;
+    private final Semaphore delivered = new Semaphore(0);
+
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    @State(Scope.Thread)
+    public static class Threads {
+        public long peakThreads;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            ManagementFactory.getThreadMXBean().resetPeakThreadCount();
+        }
+
+        @TearDown(Level.Iteration)
+        public void record() {
+            ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+            peakThreads = threads.getPeakThreadCount();
+        }
+    }
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        sinkExecutor = Executors.newVirtualThreadPerTaskExecutor();
+        sink = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        sink.createContext("/", DispatchExecutorBenchmark::handle);
+        sink.setExecutor(sinkExecutor);
+        sink.start();
+        String url = "http://127.0.0.1:" + sink.getAddress().getPort() + "/api/webhooks/1/token";
+        webhook = new WebhookDefinition(url, 5000, null, "sink", 0, 256, false);
+
+        workers = "virtual".equals(mode) ? WorkerThreads.virtual() : WorkerThreads.platform();
+        asyncPool = "scheduler".equals(mode) ? Executors.newCachedThreadPool() : null;
+        HttpClient client = "scheduler".equals(mode) ? HttpClient.newHttpClient() : workers.newHttpClient();
+        scheduler = new DeliveryScheduler(client, new DeliveryScheduler.Listener() {
+            @Override
+            public void delivered(PendingWebhook message, int status, long rttNanos) {
+                delivered.release();
+            }
+
+            @Override
+            public void failed(PendingWebhook message, int status, Throwable error) {
+                delivered.release();
+            }
+        }, () -> RetryPolicy.NONE, () -> CircuitBreaker.Settings.DISABLED,
+                () -> ConcurrencyLimit.Settings.FIXED, workers, BATCH * 4);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        scheduler.shutdown();
+        if (asyncPool != null) {
+            asyncPool.shutdownNow();
+        }
+        workers.close();
+        sink.stop(0);
+        sinkExecutor.shutdownNow();
+    }
+
+    @Benchmark
+    public int sendBatch(Threads threads) throws InterruptedException {
+        long interval = TimeUnit.SECONDS.toNanos(1) / MESSAGES_PER_SECOND;
+        long next = System.nanoTime();
+        for (int i = 0; i < BATCH; i++) {
+            PendingWebhook message = new PendingWebhook("player.chat", webhook, "message " + i, null, System.nanoTime());
+            if (asyncPool != null) {
+                asyncPool.execute(() -> scheduler.submit(message));
+            } else {
+                scheduler.submit(message);
+            }
+            next += interval;
+            long wait = next - System.nanoTime();
+            if (wait > 0) {
+                LockSupport.parkNanos(wait);
+            }
+        }
+        if (!delivered.tryAcquire(BATCH, 30, TimeUnit.SECONDS)) {
+            throw new IllegalStateException("batch not delivered: " + scheduler.getBacklog() + " waiting");
+        }
+        return BATCH;
+    }
+
+    /** 204 after a short delay, with a bucket that never runs out so pacing does not limit sends. */
+    private static void handle(HttpExchange exchange) throws IOException {
+        try (InputStream in = exchange.getRequestBody()) {
+            in.readAllBytes();
+        }
+        try {
+            Thread.sleep(SINK_LATENCY_MILLIS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        exchange.getResponseHeaders().add("X-RateLimit-Limit", "1000000");
+        exchange.getResponseHeaders().add("X-RateLimit-Remaining", "999999");
+        exchange.getResponseHeaders().add("X-RateLimit-Reset-After", "1.000");
+        exchange.getResponseHeaders().add("X-RateLimit-Bucket", "sink");
+        exchange.sendResponseHeaders(204, -1);
+        exchange.close();
+    }
+}
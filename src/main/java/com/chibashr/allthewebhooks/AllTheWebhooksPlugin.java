@@ -3,24 +3,25 @@ package com.chibashr.allthewebhooks;
 import com.chibashr.allthewebhooks.command.AdminCommand;
 import com.chibashr.allthewebhooks.config.ConfigManager;
 import com.chibashr.allthewebhooks.docs.DocumentationGenerator;
+import com.chibashr.allthewebhooks.events.DiscoveredListenerManager;
 import com.chibashr.allthewebhooks.events.EventContext;
 import com.chibashr.allthewebhooks.events.EventDiscovery;
+import com.chibashr.allthewebhooks.events.EventDiscoveryIndex;
 import com.chibashr.allthewebhooks.events.EventListener;
 import com.chibashr.allthewebhooks.events.EventRegistry;
 import com.chibashr.allthewebhooks.events.SubEventDiscovery;
 import com.chibashr.allthewebhooks.routing.EventRouter;
 import com.chibashr.allthewebhooks.stats.StatsTracker;
+import com.chibashr.allthewebhooks.util.AsyncExecutor;
 import com.chibashr.allthewebhooks.util.WarningTracker;
+import com.chibashr.allthewebhooks.util.WorkerThreads;
 import com.chibashr.allthewebhooks.webhook.WebhookDispatcher;
 import java.io.File;
 import java.util.List;
+import java.util.concurrent.TimeUnit;
 import org.bukkit.World;
 import org.bukkit.command.PluginCommand;
 import org.bukkit.entity.Player;
-import org.bukkit.event.Event;
-import org.bukkit.event.EventPriority;
-import org.bukkit.event.Listener;
-import org.bukkit.plugin.PluginManager;
 import org.bukkit.plugin.java.JavaPlugin;
 
 public class AllTheWebhooksPlugin extends JavaPlugin {
@@ -31,6 +32,9 @@ public class AllTheWebhooksPlugin extends JavaPlugin {
     private DocumentationGenerator documentationGenerator;
     private StatsTracker statsTracker;
     private WarningTracker warningTracker;
+    private DiscoveredListenerManager discoveredListeners;
+    private AsyncExecutor asyncExecutor;
+    private WorkerThreads workerThreads;
 
     @Override
     public void onEnable() {
@@ -38,62 +42,59 @@ public class AllTheWebhooksPlugin extends JavaPlugin {
 
         warningTracker = new WarningTracker(getLogger());
         statsTracker = new StatsTracker();
+        asyncExecutor = new AsyncExecutor(this);
         eventRegistry = EventRegistry.createDefault();
-        List<EventDiscovery.DiscoveredEvent> discovered = EventDiscovery.discover(
-                getClass().getClassLoader(),
-                eventRegistry.getBaseDefinitionKeys(),
-                EventListener.getHandledEventClasses()
-        );
-        for (EventDiscovery.DiscoveredEvent d : discovered) {
-            eventRegistry.addDiscoveredDefinition(d.definition());
-        }
-        SubEventDiscovery.discover(getServer(), eventRegistry, getLogger());
         configManager = new ConfigManager(this, warningTracker, eventRegistry);
-        configManager.reloadAll(true);
+        // Event keys are validated once discovered events are registered (see finishDiscovery).
+        configManager.reloadAll(true, true);
         eventRegistry.updateFromConfig(configManager.getSnapshot().eventConfig());
-        webhookDispatcher = new WebhookDispatcher(this, configManager, statsTracker, warningTracker);
-        eventRouter = new EventRouter(configManager, webhookDispatcher, statsTracker, warningTracker);
+        workerThreads = configManager.getSnapshot().pluginConfig().isVirtualThreads()
+                ? WorkerThreads.virtual()
+                : WorkerThreads.platform();
+        webhookDispatcher = new WebhookDispatcher(this, configManager, statsTracker, warningTracker, workerThreads);
+        eventRouter = new EventRouter(configManager, webhookDispatcher, statsTracker, warningTracker, workerThreads);
 
         getServer().getPluginManager().registerEvents(new EventListener(eventRegistry, eventRouter), this);
-
-        Listener discoveredListener = new Listener() {};
-        PluginManager pm = getServer().getPluginManager();
-        for (EventDiscovery.DiscoveredEvent d : discovered) {
-            pm.registerEvent(
-                    d.eventClass(),
-                    discoveredListener,
-                    EventPriority.MONITOR,
-                    (listener, event) -> {
-                        EventContext ctx = eventRegistry.buildContext(d.key(), (Event) event);
-                        if (ctx != null) {
-                            eventRouter.handleEvent(ctx);
-                        }
-                    },
-                    this
-            );
-        }
-
         documentationGenerator = new DocumentationGenerator(this, eventRegistry);
-        if (configManager.getSnapshot().pluginConfig().documentationGenerateOnStartup()) {
-            documentationGenerator.generateAsync();
-        }
 
         registerCommands();
         fireServerEnable();
         fireCatchUpEvents();
+        startDiscovery();
         getLogger().info("All the Webhooks enabled.");
     }
 
     @Override
     public void onDisable() {
+        // One deadline covers the whole drain: queued events, server.disable, then pending sends.
+        long drainMillis = configManager == null
+                ? 0
+                : configManager.getSnapshot().pluginConfig().getShutdownDrainDeadlineMs();
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(Math.max(0, drainMillis));
+        if (eventRouter != null) {
+            // Flush events already queued so they are sent before server.disable.
+            int unprocessed = eventRouter.shutdown(deadline);
+            if (unprocessed > 0) {
+                getLogger().warning("Shutdown drain ran out of time with " + unprocessed
+                        + " queued event(s) unprocessed; they are lost.");
+            }
+        }
         fireServerDisable();
+        if (webhookDispatcher != null) {
+            webhookDispatcher.shutdown(deadline);
+        }
+        if (workerThreads != null) {
+            workerThreads.close();
+        }
     }
 
     public void reloadAllTheWebhooks() {
-        configManager.reloadAll(false);
+        // Before discovery finishes, event keys are validated by finishDiscovery instead.
+        configManager.reloadAll(false, discoveredListeners == null);
         eventRegistry.updateFromConfig(configManager.getSnapshot().eventConfig());
         eventRouter.refresh();
         webhookDispatcher.reset();
+        refreshDiscoveredListeners();
         if (configManager.getSnapshot().pluginConfig().documentationGenerateOnReload()) {
             documentationGenerator.generateAsync();
         }
@@ -111,10 +112,77 @@ public class AllTheWebhooksPlugin extends JavaPlugin {
         return eventRouter;
     }
 
+    public WebhookDispatcher getWebhookDispatcher() {
+        return webhookDispatcher;
+    }
+
     public EventRegistry getEventRegistry() {
         return eventRegistry;
     }
 
+    /**
+     * Discovers Bukkit/Paper events and sub-events on a background thread, then registers their
+     * listeners on the main thread. Built-in EventListener events work before this completes.
+     */
+    private void startDiscovery() {
+        File indexFile = new File(getDataFolder(), "cache/event-index.bin");
+        String indexKey = getServer().getBukkitVersion() + "|" + getDescription().getVersion();
+        asyncExecutor.runAsync(() -> {
+            long start = System.nanoTime();
+            List<EventDiscovery.DiscoveredEvent> discovered;
+            try {
+                EventDiscoveryIndex.Result discovery = EventDiscoveryIndex.loadOrDiscover(
+                        indexFile,
+                        indexKey,
+                        getClass().getClassLoader(),
+                        eventRegistry.getBaseDefinitionKeys(),
+                        EventListener.getHandledEventClasses(),
+                        getLogger()
+                );
+                getLogger().info(discovery.describe());
+                discovered = discovery.events();
+                eventRegistry.addDiscoveredDefinitions(discovered.stream().map(EventDiscovery.DiscoveredEvent::definition).toList());
+                SubEventDiscovery.discover(getServer(), eventRegistry, getLogger());
+            } catch (RuntimeException | LinkageError e) {
+                getLogger().warning("Event discovery failed; only built-in events are available: " + e);
+                discovered = List.of();
+            }
+            long backgroundNanos = System.nanoTime() - start;
+            List<EventDiscovery.DiscoveredEvent> result = discovered;
+            asyncExecutor.runOnMain(() -> finishDiscovery(result, backgroundNanos));
+        });
+    }
+
+    private void finishDiscovery(List<EventDiscovery.DiscoveredEvent> discovered, long backgroundNanos) {
+        if (!isEnabled()) {
+            return;
+        }
+        long start = System.nanoTime();
+        eventRegistry.updateFromConfig(configManager.getSnapshot().eventConfig());
+        configManager.validateLoadedConfig(true);
+        discoveredListeners = new DiscoveredListenerManager(this, eventRegistry, eventRouter, discovered);
+        refreshDiscoveredListeners();
+        long mainNanos = System.nanoTime() - start;
+        getLogger().info("Event discovery ready: " + discovered.size() + " discovered events; background phase "
+                + TimeUnit.NANOSECONDS.toMillis(backgroundNanos) + " ms, main-thread registration "
+                + TimeUnit.NANOSECONDS.toMillis(mainNanos) + " ms.");
+        if (configManager.getSnapshot().pluginConfig().documentationGenerateOnStartup()) {
+            documentationGenerator.generateAsync();
+        }
+    }
+
+    private void refreshDiscoveredListeners() {
+        if (discoveredListeners == null) {
+            // Discovery still running; finishDiscovery registers against the current config.
+            return;
+        }
+        int active = discoveredListeners.refresh(configManager.getSnapshot().eventConfig());
+        if (configManager.getSnapshot().pluginConfig().isDebugLogging()) {
+            getLogger().info("Listening to " + active + " of " + discoveredListeners.getDiscoveredCount()
+                    + " discovered events (others have no matching rule).");
+        }
+    }
+
     private void registerCommands() {
         PluginCommand command = getCommand("allthewebhooks");
         if (command == null) {
@@ -165,13 +233,13 @@ public class AllTheWebhooksPlugin extends JavaPlugin {
         for (World world : getServer().getWorlds()) {
             EventContext context = eventRegistry.buildContextForWorldLoad(world);
             if (context != null) {
-                eventRouter.handleEvent(context);
+                eventRouter.submit(context);
             }
         }
         for (Player player : getServer().getOnlinePlayers()) {
             EventContext context = eventRegistry.buildContextForPlayerJoin(player);
             if (context != null) {
-                eventRouter.handleEvent(context);
+                eventRouter.submit(context);
             }
         }
     }
@@ -5,11 +5,18 @@ import com.chibashr.allthewebhooks.config.ConfigManager;
 import com.chibashr.allthewebhooks.config.PluginConfig;
 import com.chibashr.allthewebhooks.events.EventContext;
 import com.chibashr.allthewebhooks.events.EventRegistry;
+import com.chibashr.allthewebhooks.routing.EventPipeline;
 import com.chibashr.allthewebhooks.routing.EventRouter;
 import com.chibashr.allthewebhooks.stats.StatsTracker;
+import com.chibashr.allthewebhooks.webhook.ConnectionWarmer;
+import com.chibashr.allthewebhooks.webhook.DeliveryScheduler;
+import com.chibashr.allthewebhooks.webhook.DispatchQueue;
+import com.chibashr.allthewebhooks.webhook.DurableSpool;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.atomic.LongAdder;
 import org.bukkit.command.Command;
 import org.bukkit.command.CommandExecutor;
@@ -56,7 +63,7 @@ public class AdminCommand implements CommandExecutor {
                     sender.sendMessage("You do not have permission to view stats.");
                     return true;
                 }
-                sendStats(sender, plugin.getStatsTracker());
+                sendStats(sender, plugin.getStatsTracker(), plugin.getEventRouter());
                 return true;
             }
             case "docs" -> {
@@ -91,15 +98,34 @@ public class AdminCommand implements CommandExecutor {
         List<String> issues = configManager.runValidation();
         if (issues.isEmpty()) {
             sender.sendMessage("Validation passed. No issues found.");
-            return true;
-        }
-        sender.sendMessage("Validation found " + issues.size() + " issue(s):");
-        for (String issue : issues) {
-            sender.sendMessage("  " + issue);
+        } else {
+            sender.sendMessage("Validation found " + issues.size() + " issue(s):");
+            for (String issue : issues) {
+                sender.sendMessage("  " + issue);
+            }
         }
+        sendProjectedFields(sender);
         return true;
     }
 
+    /** Lists the context fields each loaded route reads; only these are extracted per event. */
+    private void sendProjectedFields(CommandSender sender) {
+        EventRouter router = plugin.getEventRouter();
+        if (router == null) {
+            return;
+        }
+        Map<String, Set<String>> routes = router.getFieldProjection().getRouteFields();
+        if (routes.isEmpty()) {
+            return;
+        }
+        sender.sendMessage("Projected context fields per route (loaded config):");
+        for (Map.Entry<String, Set<String>> entry : routes.entrySet()) {
+            Set<String> fields = entry.getValue();
+            sender.sendMessage("  " + entry.getKey() + " (" + fields.size() + "): "
+                    + (fields.isEmpty() ? "-" : String.join(", ", fields)));
+        }
+    }
+
     private boolean handleFire(CommandSender sender, String[] args) {
         if (args.length < 2) {
             sender.sendMessage("Usage: /allthewebhooks fire <eventKey> [key=value ...] [--dry-run]");
@@ -156,12 +182,62 @@ public class AdminCommand implements CommandExecutor {
         return true;
     }
 
-    private void sendStats(CommandSender sender, StatsTracker stats) {
+    private void sendStats(CommandSender sender, StatsTracker stats, EventRouter router) {
         sender.sendMessage("All the Webhooks stats:");
-        sender.sendMessage("Events sent: " + stats.getSent());
+        sender.sendMessage("Events sent: " + stats.getSent() + " (first attempt "
+                + (stats.getSent() - stats.getSentAfterRetry()) + ", after retry " + stats.getSentAfterRetry() + ")");
         sender.sendMessage("Events dropped: " + stats.getDropped());
-        sender.sendMessage("Webhook failures: " + stats.getWebhookFailures());
+        sender.sendMessage("Webhook failures (final): " + stats.getWebhookFailures());
+        sender.sendMessage("Webhook retries scheduled: " + stats.getRetries());
         sender.sendMessage("Rate limit hits: " + stats.getRateLimited());
+        sender.sendMessage("Events short-circuited (no interested rule): " + stats.getShortCircuited());
+        if (router != null) {
+            EventPipeline pipeline = router.getPipeline();
+            sender.sendMessage("Pipeline queue depth: " + pipeline.getDepth() + "/" + pipeline.getCapacity());
+            sender.sendMessage(String.format("Pipeline lag ms: last %d, avg %.1f, max %d",
+                    pipeline.getLastLagMillis(), pipeline.getAverageLagMillis(), pipeline.getMaxLagMillis()));
+            sender.sendMessage("Pipeline overflow drops: " + pipeline.getOverflowDropped());
+        }
+        DispatchQueue queue = plugin.getWebhookDispatcher() == null ? null : plugin.getWebhookDispatcher().getQueue();
+        if (queue != null) {
+            sender.sendMessage("Dispatch queue depth: " + queue.getDepth() + "/" + queue.getCapacity()
+                    + " (high-water " + queue.getHighWaterMark() + ")");
+            sender.sendMessage("Dispatch queue oldest entry age ms: " + queue.getOldestAgeMillis());
+            sender.sendMessage("Dispatch queue overflow: dropped " + queue.getOverflowDropped()
+                    + ", spilled " + queue.getSpilled() + " (" + queue.getSpillPending() + " on disk)");
+        }
+        DeliveryScheduler scheduler = plugin.getWebhookDispatcher() == null ? null : plugin.getWebhookDispatcher().getScheduler();
+        if (scheduler != null) {
+            sender.sendMessage("Delivery backlog (waiting on rate limits): " + scheduler.getBacklog()
+                    + ", in flight: " + scheduler.getInFlight());
+            sender.sendMessage("Discord 429 responses (requeued): " + scheduler.getRateLimitedResponses());
+            sender.sendMessage("Retry backlog: " + scheduler.getRetryBacklog());
+            for (DeliveryScheduler.RouteStats route : scheduler.getRouteStats()) {
+                sender.sendMessage(String.format(Locale.ROOT,
+                        "Webhook %s: breaker %s, queued %d/%d, retrying %d, in flight %d (limit %s, max %s), "
+                                + "latency p50 %.1f / p90 %.1f / p99 %.1f ms, avg %.1f ms, max %.1f ms",
+                        route.webhook(), route.breaker(), route.waiting(), route.capacity(), route.retrying(),
+                        route.inFlight(), route.concurrencyLimit() > 0 ? String.valueOf(route.concurrencyLimit()) : "-",
+                        route.maxInFlight() > 0 ? String.valueOf(route.maxInFlight()) : "-",
+                        route.p50Millis(), route.p90Millis(), route.p99Millis(),
+                        route.averageLatencyMillis(), route.maxLatencyMillis()));
+            }
+            sender.sendMessage("Dropped by open circuit breakers: " + scheduler.getShortCircuited());
+            sender.sendMessage("Queue full behind open circuit breakers: " + scheduler.getFullWhileOpen()
+                    + (plugin.getWebhookDispatcher().getSpool() != null ? " (left in the spool for the next start)" : " (dropped)"));
+            for (ConnectionWarmer.HostStats host : scheduler.getHostStats()) {
+                sender.sendMessage(String.format(Locale.ROOT,
+                        "Host %s: %s, dns %.1f ms, connect %.1f ms, request %.1f ms, probes %d (%d failed)%s",
+                        host.host(), host.version(), host.dnsMillis(), host.connectMillis(), host.requestMillis(),
+                        host.probes(), host.probeFailures(),
+                        host.lastError().isEmpty() ? "" : ", last error: " + host.lastError()));
+            }
+        }
+        DurableSpool spool = plugin.getWebhookDispatcher() == null ? null : plugin.getWebhookDispatcher().getSpool();
+        if (spool != null) {
+            sender.sendMessage("Spool pending: " + spool.getPendingRecords() + " in " + spool.getSegmentCount()
+                    + " segment(s), " + spool.getDiskBytes() / 1024 + " KiB; evicted " + spool.getEvicted());
+        }
 
         for (Map.Entry<String, LongAdder> entry : stats.getPerEventSent().entrySet()) {
             sender.sendMessage("Sent " + entry.getKey() + ": " + entry.getValue().sum());
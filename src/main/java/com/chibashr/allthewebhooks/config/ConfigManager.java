@@ -1,8 +1,10 @@
 package com.chibashr.allthewebhooks.config;
 
 import com.chibashr.allthewebhooks.events.EventRegistry;
+import com.chibashr.allthewebhooks.util.MessageResolver;
 import com.chibashr.allthewebhooks.util.WarningTracker;
 import java.io.File;
+import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
@@ -23,6 +25,14 @@ public class ConfigManager {
     }
 
     public void reloadAll(boolean startup) {
+        reloadAll(startup, false);
+    }
+
+    /**
+     * Reloads all config files. With deferValidation, event key validation is skipped so it can
+     * run via {@link #validateLoadedConfig(boolean)} once discovered events are registered.
+     */
+    public void reloadAll(boolean startup, boolean deferValidation) {
         PluginConfig pluginConfig = loadPluginConfig();
         if (pluginConfig.getWebhook("default") == null
                 || pluginConfig.getWebhook("default").url() == null
@@ -31,11 +41,21 @@ public class ConfigManager {
                     "Default webhook is missing or empty in config.yaml.");
         }
         MessageConfig messageConfig = loadMessageConfig(pluginConfig);
-        boolean validate = startup ? pluginConfig.validateOnStartup() : pluginConfig.validateOnReload();
+        boolean validate = !deferValidation
+                && (startup ? pluginConfig.validateOnStartup() : pluginConfig.validateOnReload());
         EventConfig eventConfig = loadEventConfig(pluginConfig, messageConfig, validate);
         snapshot = new ConfigurationSnapshot(pluginConfig, messageConfig, eventConfig);
     }
 
+    /** Runs the validation skipped by a deferred {@link #reloadAll(boolean, boolean)}, logging warnings. */
+    public void validateLoadedConfig(boolean startup) {
+        ConfigurationSnapshot current = snapshot;
+        PluginConfig pluginConfig = current.pluginConfig();
+        if (startup ? pluginConfig.validateOnStartup() : pluginConfig.validateOnReload()) {
+            validateEventConfigTo(pluginConfig, current.messageConfig(), current.eventConfig(), registry, null);
+        }
+    }
+
     public ConfigurationSnapshot getSnapshot() {
         return snapshot;
     }
@@ -120,7 +140,10 @@ public class ConfigManager {
                 if (username != null && username.isEmpty()) {
                     username = null;
                 }
-                builder.webhook(key, new WebhookDefinition(url, timeout, username));
+                builder.webhook(key, new WebhookDefinition(url, timeout, username, key,
+                        webhookSection.getInt("queue-capacity", 0),
+                        webhookSection.getInt("max-in-flight", WebhookDefinition.DEFAULT_MAX_IN_FLIGHT),
+                        webhookSection.getBoolean("dedicated-client", false)));
             }
         }
 
@@ -131,6 +154,40 @@ public class ConfigManager {
 
         builder.dispatchAsync(yaml.getBoolean("execution.dispatch-async", true));
         builder.foliaCompatible(yaml.getBoolean("execution.folia-compatible", true));
+        builder.eventPipeline(yaml.getBoolean("execution.event-pipeline", true));
+        builder.pipelineQueueCapacity(yaml.getInt("execution.pipeline-queue-capacity", 10000));
+        builder.virtualThreads(yaml.getBoolean("execution.virtual-threads", false));
+
+        builder.dispatchQueueCapacity(yaml.getInt("dispatch-queue.capacity", 4096));
+        builder.dispatchOverflowPolicy(yaml.getString("dispatch-queue.overflow-policy", "drop-newest"));
+        builder.dispatchBlockTimeoutMs(yaml.getLong("dispatch-queue.block-timeout-ms", 250));
+
+        builder.retryMaxAttempts(yaml.getInt("retry.max-attempts", 5));
+        builder.retryBaseDelayMs(yaml.getLong("retry.base-delay-ms", 500));
+        builder.retryMaxDelayMs(yaml.getLong("retry.max-delay-ms", 30000));
+        builder.retryDeadlineMs(yaml.getLong("retry.deadline-ms", 120000));
+
+        builder.spoolEnabled(yaml.getBoolean("spool.enabled", true));
+        builder.spoolSegmentSizeKb(yaml.getInt("spool.segment-size-kb", 1024));
+        builder.spoolMaxDiskMb(yaml.getInt("spool.max-disk-mb", 64));
+        builder.spoolFlushIntervalMs(yaml.getLong("spool.flush-interval-ms", 50));
+
+        builder.shutdownDrainDeadlineMs(yaml.getLong("shutdown.drain-deadline-ms", 3000));
+
+        builder.breakerEnabled(yaml.getBoolean("circuit-breaker.enabled", true));
+        builder.breakerFailureRatio(yaml.getDouble("circuit-breaker.failure-ratio", 0.5));
+        builder.breakerWindowSize(yaml.getInt("circuit-breaker.window-size", 20));
+        builder.breakerMinimumCalls(yaml.getInt("circuit-breaker.minimum-calls", 10));
+        builder.breakerConsecutiveTimeouts(yaml.getInt("circuit-breaker.consecutive-timeouts", 5));
+        builder.breakerOpenMs(yaml.getLong("circuit-breaker.open-ms", 30000));
+        builder.breakerWhenOpen(yaml.getString("circuit-breaker.when-open", "spool"));
+
+        builder.concurrencyAdaptive(yaml.getBoolean("concurrency.adaptive", true));
+        builder.concurrencyInitialLimit(yaml.getInt("concurrency.initial-limit", 4));
+        builder.concurrencyLatencyTolerance(yaml.getDouble("concurrency.latency-tolerance", 1.5));
+        builder.connectionWarmUp(yaml.getBoolean("connections.warm-up", true));
+        builder.connectionIdleProbeSeconds(yaml.getInt("connections.idle-probe-seconds", 45));
+        builder.connectionHttpVersion(yaml.getString("connections.http-version", "auto"));
 
         builder.redactionEnabled(yaml.getBoolean("redaction.enabled", true));
         builder.redactionFields(yaml.getStringList("redaction.fields"));
@@ -138,6 +195,7 @@ public class ConfigManager {
         builder.consoleAlerts(yaml.getBoolean("logging.console-alerts", true));
         builder.logInvalidEvents(yaml.getBoolean("logging.log-invalid-events", true));
         builder.logWebhookFailures(yaml.getBoolean("logging.log-webhook-failures", true));
+        builder.failureSummarySeconds(yaml.getInt("logging.failure-summary-seconds", 60));
         builder.debugLogging(yaml.getBoolean("logging.debug", false));
 
         builder.documentationGenerateOnStartup(yaml.getBoolean("documentation.generate-on-startup", true));
@@ -179,7 +237,7 @@ public class ConfigManager {
 
         ConfigurationSection eventsSection = yaml.getConfigurationSection("events");
         if (eventsSection != null) {
-            collectEventRules(eventsSection, "", eventConfig);
+            collectEventRules(eventsSection, "", eventConfig, wordListDirectory(file));
         }
 
         ConfigurationSection worldsSection = yaml.getConfigurationSection("worlds");
@@ -189,7 +247,7 @@ public class ConfigManager {
                 if (worldSection == null) {
                     continue;
                 }
-                WorldEventConfig worldConfig = WorldEventConfig.fromSection(worldSection);
+                WorldEventConfig worldConfig = WorldEventConfig.fromSection(worldSection, wordListDirectory(file));
                 eventConfig.putWorldConfig(worldName, worldConfig);
             }
         }
@@ -222,6 +280,15 @@ public class ConfigManager {
         for (Map.Entry<String, EventRule> entry : eventConfig.getEventRules().entrySet()) {
             String key = entry.getKey();
             EventRule rule = entry.getValue();
+            for (String problem : rule.getCompiledConditions().problems()) {
+                String msg = "events.yaml: " + key + " condition " + problem;
+                if (validationOutput != null) {
+                    validationOutput.add(msg);
+                } else {
+                    warningTracker.warnOnce("invalid-condition:" + key + ":" + problem,
+                            "Event " + key + " condition " + problem + " (condition never matches)");
+                }
+            }
             String messageId = rule.getMessage();
             if (messageId != null && !messageId.isEmpty() && !messageConfig.hasMessage(messageId)) {
                 String msg = "events.yaml: " + key + " references missing message id: " + messageId;
@@ -236,6 +303,15 @@ public class ConfigManager {
             String worldName = entry.getKey();
             for (Map.Entry<String, EventRule> ruleEntry : entry.getValue().getEventRules().entrySet()) {
                 String key = ruleEntry.getKey();
+                for (String problem : ruleEntry.getValue().getCompiledConditions().problems()) {
+                    String msg = "events.yaml: world " + worldName + " event " + key + " condition " + problem;
+                    if (validationOutput != null) {
+                        validationOutput.add(msg);
+                    } else {
+                        warningTracker.warnOnce("invalid-condition:" + worldName + ":" + key + ":" + problem,
+                                "World " + worldName + " event " + key + " condition " + problem + " (condition never matches)");
+                    }
+                }
                 String messageId = ruleEntry.getValue().getMessage();
                 if (messageId != null && !messageId.isEmpty() && !messageConfig.hasMessage(messageId)) {
                     String msg = "events.yaml: world " + worldName + " event " + key + " references missing message id: " + messageId;
@@ -247,6 +323,17 @@ public class ConfigManager {
                 }
             }
         }
+        for (Map.Entry<String, String> entry : messageConfig.getMessages().entrySet()) {
+            for (String problem : MessageResolver.regexProblems(entry.getValue())) {
+                String msg = "messages.yaml: " + entry.getKey() + " " + problem;
+                if (validationOutput != null) {
+                    validationOutput.add(msg);
+                } else {
+                    warningTracker.warnOnce("invalid-regex:" + entry.getKey() + ":" + problem,
+                            "Message " + entry.getKey() + " " + problem + " (transform skipped)");
+                }
+            }
+        }
     }
 
     private PluginConfig loadPluginConfig() {
@@ -288,7 +375,7 @@ public class ConfigManager {
 
         ConfigurationSection eventsSection = yaml.getConfigurationSection("events");
         if (eventsSection != null) {
-            collectEventRules(eventsSection, "", eventConfig);
+            collectEventRules(eventsSection, "", eventConfig, wordListDirectory(file));
         }
 
         ConfigurationSection worldsSection = yaml.getConfigurationSection("worlds");
@@ -298,7 +385,7 @@ public class ConfigManager {
                 if (worldSection == null) {
                     continue;
                 }
-                WorldEventConfig worldConfig = WorldEventConfig.fromSection(worldSection);
+                WorldEventConfig worldConfig = WorldEventConfig.fromSection(worldSection, wordListDirectory(file));
                 eventConfig.putWorldConfig(worldName, worldConfig);
             }
         }
@@ -310,7 +397,12 @@ public class ConfigManager {
         return eventConfig;
     }
 
-    private void collectEventRules(ConfigurationSection section, String prefix, EventConfig eventConfig) {
+    /** Word lists named in conditions ({@code file:...}) are read from the events.yaml folder. */
+    private static Path wordListDirectory(File eventsFile) {
+        return eventsFile.getAbsoluteFile().getParentFile().toPath();
+    }
+
+    private void collectEventRules(ConfigurationSection section, String prefix, EventConfig eventConfig, Path wordListDirectory) {
         for (String key : section.getKeys(false)) {
             ConfigurationSection ruleSection = section.getConfigurationSection(key);
             if (ruleSection == null) {
@@ -318,11 +410,11 @@ public class ConfigManager {
             }
             String path = prefix.isEmpty() ? key : prefix + "." + key;
             if (hasRuleFields(ruleSection)) {
-                EventRule rule = EventRule.fromSection(ruleSection);
+                EventRule rule = EventRule.fromSection(ruleSection, wordListDirectory);
                 eventConfig.putEventRule(path, rule);
             }
             if (!ruleSection.getKeys(false).isEmpty()) {
-                collectEventRules(ruleSection, path, eventConfig);
+                collectEventRules(ruleSection, path, eventConfig, wordListDirectory);
             }
         }
     }
@@ -10,6 +10,8 @@ public class EventConfig {
     private final EventRuleDefaults defaults;
     private final Map<String, EventRule> eventRules = new HashMap<>();
     private final Map<String, WorldEventConfig> worldConfigs = new HashMap<>();
+    /** Built on first use after the rules last changed. */
+    private volatile EventKeyIndex ruleIndex;
 
     public EventConfig(EventRuleDefaults defaults) {
         this.defaults = defaults;
@@ -20,6 +22,7 @@ public class EventConfig {
             return;
         }
         eventRules.put(key, rule == null ? new EventRule(null, null, null, null, null, Map.of(), null) : rule);
+        ruleIndex = null;
     }
 
     public void putWorldConfig(String worldName, WorldEventConfig worldConfig) {
@@ -37,6 +40,16 @@ public class EventConfig {
         return Collections.unmodifiableMap(eventRules);
     }
 
+    /** Index over {@link #getEventRules()} keys for finding the rule that best matches an event. */
+    public EventKeyIndex getRuleIndex() {
+        EventKeyIndex index = ruleIndex;
+        if (index == null) {
+            index = EventKeyIndex.build(eventRules.keySet());
+            ruleIndex = index;
+        }
+        return index;
+    }
+
     public Map<String, WorldEventConfig> getWorldConfigs() {
         return Collections.unmodifiableMap(worldConfigs);
     }
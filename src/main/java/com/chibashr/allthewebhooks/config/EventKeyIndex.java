@@ -0,0 +1,116 @@
+package com.chibashr.allthewebhooks.config;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Configured event keys as a trie of dot-separated segments, with {@code *} segments on a
+ * separate wildcard edge, so the best match for an event key is one walk over its segments
+ * instead of a {@link EventKeyMatcher#score} call per configured key.
+ * <p>
+ * {@link #bestMatch} returns exactly what scoring every key in iteration order and keeping the
+ * first with the best {@link EventKeyMatcher.MatchScore} returns: keys split like
+ * {@code split("\\.")}, deepest match wins, then the one with the fewest wildcards, then the one
+ * that came first in the collection the index was built from. Immutable and thread-safe.
+ */
+public final class EventKeyIndex {
+    private final Node root;
+
+    private EventKeyIndex(Node root) {
+        this.root = root;
+    }
+
+    /** Indexes {@code keys}; their iteration order breaks ties between equally good matches. Null keys are skipped. */
+    public static EventKeyIndex build(Collection<String> keys) {
+        Builder root = new Builder();
+        int order = 0;
+        for (String key : keys) {
+            if (key == null) {
+                continue;
+            }
+            Builder node = root;
+            for (String part : key.split("\\.")) {
+                node = node.child(part);
+            }
+            if (node.key == null) {
+                node.key = key;
+                node.order = order;
+            }
+            order++;
+        }
+        return new EventKeyIndex(root.freeze());
+    }
+
+    /** The configured key that best matches {@code eventKey}, or null if none does. */
+    public String bestMatch(String eventKey) {
+        if (eventKey == null) {
+            return null;
+        }
+        Match best = new Match();
+        walk(root, eventKey.split("\\."), 0, 0, best);
+        return best.key;
+    }
+
+    private static void walk(Node node, String[] parts, int depth, int specificity, Match best) {
+        if (node.key != null) {
+            best.offer(node, depth, specificity);
+        }
+        if (depth == parts.length) {
+            return;
+        }
+        Node literal = node.children.get(parts[depth]);
+        if (literal != null) {
+            walk(literal, parts, depth + 1, specificity + 1, best);
+        }
+        if (node.wildcard != null) {
+            walk(node.wildcard, parts, depth + 1, specificity, best);
+        }
+    }
+
+    private static final class Match {
+        private String key;
+        private int depth = -1;
+        private int specificity = -1;
+        private int order;
+
+        void offer(Node node, int depth, int specificity) {
+            if (depth != this.depth ? depth > this.depth
+                    : specificity != this.specificity ? specificity > this.specificity
+                    : node.order < order) {
+                key = node.key;
+                this.depth = depth;
+                this.specificity = specificity;
+                order = node.order;
+            }
+        }
+    }
+
+    private record Node(Map<String, Node> children, Node wildcard, String key, int order) {
+    }
+
+    private static final class Builder {
+        private final Map<String, Builder> children = new HashMap<>();
+        private Builder wildcard;
+        private String key;
+        private int order;
+
+        Builder child(String part) {
+            if ("*".equals(part)) {
+                if (wildcard == null) {
+                    wildcard = new Builder();
+                }
+                return wildcard;
+            }
+            return children.computeIfAbsent(part, ignored -> new Builder());
+        }
+
+        Node freeze() {
+            Map<String, Node> frozen = new HashMap<>();
+            for (Map.Entry<String, Builder> entry : children.entrySet()) {
+                frozen.put(entry.getKey(), entry.getValue().freeze());
+            }
+            return new Node(Map.copyOf(frozen), wildcard == null ? null : wildcard.freeze(), key, order);
+        }
+    }
+}
@@ -1,25 +1,30 @@
 package com.chibashr.allthewebhooks.config;
 
+import com.chibashr.allthewebhooks.rules.CompiledConditions;
+import com.chibashr.allthewebhooks.rules.RuleEngine;
+import java.nio.file.Path;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.Set;
 import java.util.TreeSet;
+import java.util.stream.Collectors;
 import org.bukkit.configuration.ConfigurationSection;
 
 public class EventRule {
 
     /** Operator keys used in conditions; dotted condition keys are those whose value map contains these. */
-    private static final Set<String> OPERATOR_KEYS = Set.of(
-            "equals", "not", "greater-than", "less-than",
-            "greater-than-or-equal", "less-than-or-equal"
-    );
+    private static final Set<String> OPERATOR_KEYS = Arrays.stream(RuleEngine.Operator.values())
+            .map(RuleEngine.Operator::key)
+            .collect(Collectors.toUnmodifiableSet());
     private final Boolean enabled;
     private final String webhook;
     private final String webhookUsername;
     private final String message;
     private final String requirePermission;
     private final Map<String, Object> conditions;
+    private final CompiledConditions compiledConditions;
     private final Integer rateLimitEventsPerSecond;
 
     EventRule(
@@ -30,6 +35,20 @@ public class EventRule {
             String requirePermission,
             Map<String, Object> conditions,
             Integer rateLimitEventsPerSecond
+    ) {
+        this(enabled, webhook, webhookUsername, message, requirePermission, conditions, rateLimitEventsPerSecond, null);
+    }
+
+    /** @param wordListDirectory where {@code file:} word lists in conditions are read from; may be null */
+    EventRule(
+            Boolean enabled,
+            String webhook,
+            String webhookUsername,
+            String message,
+            String requirePermission,
+            Map<String, Object> conditions,
+            Integer rateLimitEventsPerSecond,
+            Path wordListDirectory
     ) {
         this.enabled = enabled;
         this.webhook = webhook;
@@ -37,10 +56,16 @@ public class EventRule {
         this.message = message;
         this.requirePermission = requirePermission;
         this.conditions = conditions == null ? Map.of() : Collections.unmodifiableMap(conditions);
+        this.compiledConditions = CompiledConditions.compile(this.conditions, wordListDirectory);
         this.rateLimitEventsPerSecond = rateLimitEventsPerSecond;
     }
 
     public static EventRule fromSection(ConfigurationSection section) {
+        return fromSection(section, null);
+    }
+
+    /** @param wordListDirectory the events.yaml folder, for {@code file:} word lists in conditions; may be null */
+    public static EventRule fromSection(ConfigurationSection section, Path wordListDirectory) {
         if (section == null) {
             return new EventRule(null, null, null, null, null, Map.of(), null);
         }
@@ -68,7 +93,8 @@ public class EventRule {
                 section.getString("message", null),
                 section.getString("require-permission", null),
                 conditions,
-                rateLimit
+                rateLimit,
+                wordListDirectory
         );
     }
 
@@ -138,6 +164,11 @@ public class EventRule {
         return conditions;
     }
 
+    /** The conditions compiled when this rule was loaded. */
+    public CompiledConditions getCompiledConditions() {
+        return compiledConditions;
+    }
+
     public Integer getRateLimitEventsPerSecond() {
         return rateLimitEventsPerSecond;
     }
@@ -16,11 +16,40 @@ public class PluginConfig {
     private final int rateLimitWarnThresholdPercent;
     private final boolean dispatchAsync;
     private final boolean foliaCompatible;
+    private final boolean eventPipeline;
+    private final int pipelineQueueCapacity;
+    private final boolean virtualThreads;
+    private final int dispatchQueueCapacity;
+    private final String dispatchOverflowPolicy;
+    private final long dispatchBlockTimeoutMs;
+    private final int retryMaxAttempts;
+    private final long retryBaseDelayMs;
+    private final long retryMaxDelayMs;
+    private final long retryDeadlineMs;
+    private final boolean spoolEnabled;
+    private final int spoolSegmentSizeKb;
+    private final int spoolMaxDiskMb;
+    private final long spoolFlushIntervalMs;
+    private final long shutdownDrainDeadlineMs;
+    private final boolean breakerEnabled;
+    private final double breakerFailureRatio;
+    private final int breakerWindowSize;
+    private final int breakerMinimumCalls;
+    private final int breakerConsecutiveTimeouts;
+    private final long breakerOpenMs;
+    private final String breakerWhenOpen;
+    private final boolean concurrencyAdaptive;
+    private final int concurrencyInitialLimit;
+    private final double concurrencyLatencyTolerance;
+    private final boolean connectionWarmUp;
+    private final int connectionIdleProbeSeconds;
+    private final String connectionHttpVersion;
     private final boolean redactionEnabled;
     private final List<String> redactionFields;
     private final boolean consoleAlerts;
     private final boolean logInvalidEvents;
     private final boolean logWebhookFailures;
+    private final int failureSummarySeconds;
     private final boolean debugLogging;
     private final boolean documentationGenerateOnStartup;
     private final boolean documentationGenerateOnReload;
@@ -41,11 +70,40 @@ public class PluginConfig {
         this.rateLimitWarnThresholdPercent = builder.rateLimitWarnThresholdPercent;
         this.dispatchAsync = builder.dispatchAsync;
         this.foliaCompatible = builder.foliaCompatible;
+        this.eventPipeline = builder.eventPipeline;
+        this.pipelineQueueCapacity = builder.pipelineQueueCapacity;
+        this.virtualThreads = builder.virtualThreads;
+        this.dispatchQueueCapacity = builder.dispatchQueueCapacity;
+        this.dispatchOverflowPolicy = builder.dispatchOverflowPolicy;
+        this.dispatchBlockTimeoutMs = builder.dispatchBlockTimeoutMs;
+        this.retryMaxAttempts = builder.retryMaxAttempts;
+        this.retryBaseDelayMs = builder.retryBaseDelayMs;
+        this.retryMaxDelayMs = builder.retryMaxDelayMs;
+        this.retryDeadlineMs = builder.retryDeadlineMs;
+        this.spoolEnabled = builder.spoolEnabled;
+        this.spoolSegmentSizeKb = builder.spoolSegmentSizeKb;
+        this.spoolMaxDiskMb = builder.spoolMaxDiskMb;
+        this.spoolFlushIntervalMs = builder.spoolFlushIntervalMs;
+        this.shutdownDrainDeadlineMs = builder.shutdownDrainDeadlineMs;
+        this.breakerEnabled = builder.breakerEnabled;
+        this.breakerFailureRatio = builder.breakerFailureRatio;
+        this.breakerWindowSize = builder.breakerWindowSize;
+        this.breakerMinimumCalls = builder.breakerMinimumCalls;
+        this.breakerConsecutiveTimeouts = builder.breakerConsecutiveTimeouts;
+        this.breakerOpenMs = builder.breakerOpenMs;
+        this.breakerWhenOpen = builder.breakerWhenOpen;
+        this.concurrencyAdaptive = builder.concurrencyAdaptive;
+        this.concurrencyInitialLimit = builder.concurrencyInitialLimit;
+        this.concurrencyLatencyTolerance = builder.concurrencyLatencyTolerance;
+        this.connectionWarmUp = builder.connectionWarmUp;
+        this.connectionIdleProbeSeconds = builder.connectionIdleProbeSeconds;
+        this.connectionHttpVersion = builder.connectionHttpVersion;
         this.redactionEnabled = builder.redactionEnabled;
         this.redactionFields = builder.redactionFields == null ? List.of() : List.copyOf(builder.redactionFields);
         this.consoleAlerts = builder.consoleAlerts;
         this.logInvalidEvents = builder.logInvalidEvents;
         this.logWebhookFailures = builder.logWebhookFailures;
+        this.failureSummarySeconds = builder.failureSummarySeconds;
         this.debugLogging = builder.debugLogging;
         this.documentationGenerateOnStartup = builder.documentationGenerateOnStartup;
         this.documentationGenerateOnReload = builder.documentationGenerateOnReload;
@@ -108,6 +166,118 @@ public class PluginConfig {
         return foliaCompatible;
     }
 
+    public boolean isEventPipeline() {
+        return eventPipeline;
+    }
+
+    public int getPipelineQueueCapacity() {
+        return pipelineQueueCapacity;
+    }
+
+    public boolean isVirtualThreads() {
+        return virtualThreads;
+    }
+
+    public int getDispatchQueueCapacity() {
+        return dispatchQueueCapacity;
+    }
+
+    public String getDispatchOverflowPolicy() {
+        return dispatchOverflowPolicy;
+    }
+
+    public long getDispatchBlockTimeoutMs() {
+        return dispatchBlockTimeoutMs;
+    }
+
+    public int getRetryMaxAttempts() {
+        return retryMaxAttempts;
+    }
+
+    public long getRetryBaseDelayMs() {
+        return retryBaseDelayMs;
+    }
+
+    public long getRetryMaxDelayMs() {
+        return retryMaxDelayMs;
+    }
+
+    public long getRetryDeadlineMs() {
+        return retryDeadlineMs;
+    }
+
+    public boolean isSpoolEnabled() {
+        return spoolEnabled;
+    }
+
+    public int getSpoolSegmentSizeKb() {
+        return spoolSegmentSizeKb;
+    }
+
+    public int getSpoolMaxDiskMb() {
+        return spoolMaxDiskMb;
+    }
+
+    public long getSpoolFlushIntervalMs() {
+        return spoolFlushIntervalMs;
+    }
+
+    public long getShutdownDrainDeadlineMs() {
+        return shutdownDrainDeadlineMs;
+    }
+
+    public boolean isBreakerEnabled() {
+        return breakerEnabled;
+    }
+
+    public double getBreakerFailureRatio() {
+        return breakerFailureRatio;
+    }
+
+    public int getBreakerWindowSize() {
+        return breakerWindowSize;
+    }
+
+    public int getBreakerMinimumCalls() {
+        return breakerMinimumCalls;
+    }
+
+    public int getBreakerConsecutiveTimeouts() {
+        return breakerConsecutiveTimeouts;
+    }
+
+    public long getBreakerOpenMs() {
+        return breakerOpenMs;
+    }
+
+    public String getBreakerWhenOpen() {
+        return breakerWhenOpen;
+    }
+
+    public boolean isConcurrencyAdaptive() {
+        return concurrencyAdaptive;
+    }
+
+    public int getConcurrencyInitialLimit() {
+        return concurrencyInitialLimit;
+    }
+
+    public double getConcurrencyLatencyTolerance() {
+        return concurrencyLatencyTolerance;
+    }
+
+    public boolean isConnectionWarmUp() {
+        return connectionWarmUp;
+    }
+
+    public int getConnectionIdleProbeSeconds() {
+        return connectionIdleProbeSeconds;
+    }
+
+    public String getConnectionHttpVersion() {
+        return connectionHttpVersion;
+    }
+
     public boolean isRedactionEnabled() {
         return redactionEnabled;
     }
@@ -128,6 +298,10 @@ public class PluginConfig {
         return logWebhookFailures;
     }
 
+    public int getFailureSummarySeconds() {
+        return failureSummarySeconds;
+    }
+
     public boolean isDebugLogging() {
         return debugLogging;
     }
@@ -171,11 +345,40 @@ public class PluginConfig {
         private int rateLimitWarnThresholdPercent = 80;
         private boolean dispatchAsync = true;
         private boolean foliaCompatible = true;
+        private boolean eventPipeline = true;
+        private int pipelineQueueCapacity = 10000;
+        private boolean virtualThreads = false;
+        private int dispatchQueueCapacity = 4096;
+        private String dispatchOverflowPolicy = "drop-newest";
+        private long dispatchBlockTimeoutMs = 250;
+        private int retryMaxAttempts = 5;
+        private long retryBaseDelayMs = 500;
+        private long retryMaxDelayMs = 30000;
+        private long retryDeadlineMs = 120000;
+        private boolean spoolEnabled = true;
+        private int spoolSegmentSizeKb = 1024;
+        private int spoolMaxDiskMb = 64;
+        private long spoolFlushIntervalMs = 50;
+        private long shutdownDrainDeadlineMs = 3000;
+        private boolean breakerEnabled = true;
+        private double breakerFailureRatio = 0.5;
+        private int breakerWindowSize = 20;
+        private int breakerMinimumCalls = 10;
+        private int breakerConsecutiveTimeouts = 5;
+        private long breakerOpenMs = 30000;
+        private String breakerWhenOpen = "spool";
+        private boolean concurrencyAdaptive = true;
+        private int concurrencyInitialLimit = 4;
+        private double concurrencyLatencyTolerance = 1.5;
+        private boolean connectionWarmUp = true;
+        private int connectionIdleProbeSeconds = 45;
+        private String connectionHttpVersion = "auto";
         private boolean redactionEnabled = true;
         private List<String> redactionFields = List.of();
         private boolean consoleAlerts = true;
         private boolean logInvalidEvents = true;
         private boolean logWebhookFailures = true;
+        private int failureSummarySeconds = 60;
         private boolean debugLogging = false;
         private boolean documentationGenerateOnStartup = true;
         private boolean documentationGenerateOnReload = false;
@@ -237,6 +440,146 @@ public class PluginConfig {
             return this;
         }
 
+        public Builder eventPipeline(boolean value) {
+            this.eventPipeline = value;
+            return this;
+        }
+
+        public Builder pipelineQueueCapacity(int value) {
+            this.pipelineQueueCapacity = value;
+            return this;
+        }
+
+        public Builder virtualThreads(boolean value) {
+            this.virtualThreads = value;
+            return this;
+        }
+
+        public Builder dispatchQueueCapacity(int value) {
+            this.dispatchQueueCapacity = value;
+            return this;
+        }
+
+        public Builder dispatchOverflowPolicy(String value) {
+            this.dispatchOverflowPolicy = value == null ? "drop-newest" : value;
+            return this;
+        }
+
+        public Builder dispatchBlockTimeoutMs(long value) {
+            this.dispatchBlockTimeoutMs = value;
+            return this;
+        }
+
+        public Builder retryMaxAttempts(int value) {
+            this.retryMaxAttempts = value;
+            return this;
+        }
+
+        public Builder retryBaseDelayMs(long value) {
+            this.retryBaseDelayMs = value;
+            return this;
+        }
+
+        public Builder retryMaxDelayMs(long value) {
+            this.retryMaxDelayMs = value;
+            return this;
+        }
+
+        public Builder retryDeadlineMs(long value) {
+            this.retryDeadlineMs = value;
+            return this;
+        }
+
+        public Builder spoolEnabled(boolean value) {
+            this.spoolEnabled = value;
+            return this;
+        }
+
+        public Builder spoolSegmentSizeKb(int value) {
+            this.spoolSegmentSizeKb = value;
+            return this;
+        }
+
+        public Builder spoolMaxDiskMb(int value) {
+            this.spoolMaxDiskMb = value;
+            return this;
+        }
+
+        public Builder spoolFlushIntervalMs(long value) {
+            this.spoolFlushIntervalMs = value;
+            return this;
+        }
+
+        public Builder shutdownDrainDeadlineMs(long value) {
+            this.shutdownDrainDeadlineMs = value;
+            return this;
+        }
+
+        public Builder breakerEnabled(boolean value) {
+            this.breakerEnabled = value;
+            return this;
+        }
+
+        public Builder breakerFailureRatio(double value) {
+            this.breakerFailureRatio = value;
+            return this;
+        }
+
+        public Builder breakerWindowSize(int value) {
+            this.breakerWindowSize = value;
+            return this;
+        }
+
+        public Builder breakerMinimumCalls(int value) {
+            this.breakerMinimumCalls = value;
+            return this;
+        }
+
+        public Builder breakerConsecutiveTimeouts(int value) {
+            this.breakerConsecutiveTimeouts = value;
+            return this;
+        }
+
+        public Builder breakerOpenMs(long value) {
+            this.breakerOpenMs = value;
+            return this;
+        }
+
+        public Builder breakerWhenOpen(String value) {
+            this.breakerWhenOpen = value == null ? "spool" : value;
+            return this;
+        }
+
+        public Builder concurrencyAdaptive(boolean value) {
+            this.concurrencyAdaptive = value;
+            return this;
+        }
+
+        public Builder concurrencyInitialLimit(int value) {
+            this.concurrencyInitialLimit = value;
+            return this;
+        }
+
+        public Builder concurrencyLatencyTolerance(double value) {
+            this.concurrencyLatencyTolerance = value;
+            return this;
+        }
+
+        public Builder connectionWarmUp(boolean value) {
+            this.connectionWarmUp = value;
+            return this;
+        }
+
+        public Builder connectionIdleProbeSeconds(int value) {
+            this.connectionIdleProbeSeconds = value;
+            return this;
+        }
+
+        public Builder connectionHttpVersion(String value) {
+            this.connectionHttpVersion = value == null ? "auto" : value;
+            return this;
+        }
+
         public Builder redactionEnabled(boolean value) {
             this.redactionEnabled = value;
             return this;
@@ -262,6 +605,11 @@ public class PluginConfig {
             return this;
         }
 
+        public Builder failureSummarySeconds(int value) {
+            this.failureSummarySeconds = value;
+            return this;
+        }
+
         public Builder debugLogging(boolean value) {
             this.debugLogging = value;
             return this;
@@ -3,10 +3,33 @@ package com.chibashr.allthewebhooks.config;
 /**
  * Definition of a webhook endpoint (e.g. Discord).
  * Optional {@code username} is sent as the display name for the webhook message when set.
+ * <p>
+ * Each webhook is a bulkhead: {@code queueCapacity} bounds its own waiting messages (0 uses
+ * dispatch-queue.capacity), {@code maxInFlight} caps its concurrent requests (0 for no cap
+ * beyond the rate limit), and {@code dedicatedClient} gives it an HttpClient of its own, so a
+ * slow endpoint cannot hold connections the others need.
  */
-public record WebhookDefinition(String url, int timeoutMs, String username) {
+public record WebhookDefinition(
+        String url,
+        int timeoutMs,
+        String username,
+        String id,
+        int queueCapacity,
+        int maxInFlight,
+        boolean dedicatedClient
+) {
+    public static final int DEFAULT_MAX_IN_FLIGHT = 8;
 
     public WebhookDefinition(String url, int timeoutMs) {
         this(url, timeoutMs, null);
     }
+
+    public WebhookDefinition(String url, int timeoutMs, String username) {
+        this(url, timeoutMs, username, null, 0, DEFAULT_MAX_IN_FLIGHT, false);
+    }
+
+    /** Name of the webhook's queue and stats: its config id, or the URL when it has none. */
+    public String key() {
+        return id != null ? id : url;
+    }
 }
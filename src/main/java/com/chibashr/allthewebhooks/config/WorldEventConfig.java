@@ -1,5 +1,6 @@
 package com.chibashr.allthewebhooks.config;
 
+import java.nio.file.Path;
 import java.util.HashMap;
 import java.util.Map;
 import org.bukkit.configuration.ConfigurationSection;
@@ -7,18 +8,25 @@ import org.bukkit.configuration.ConfigurationSection;
 public class WorldEventConfig {
     private final Boolean enabled;
     private final Map<String, EventRule> eventRules;
+    private final EventKeyIndex ruleIndex;
 
     private WorldEventConfig(Boolean enabled, Map<String, EventRule> eventRules) {
         this.enabled = enabled;
         this.eventRules = eventRules;
+        this.ruleIndex = EventKeyIndex.build(eventRules.keySet());
     }
 
     public static WorldEventConfig fromSection(ConfigurationSection section) {
+        return fromSection(section, null);
+    }
+
+    /** @param wordListDirectory the events.yaml folder, for {@code file:} word lists in conditions; may be null */
+    public static WorldEventConfig fromSection(ConfigurationSection section, Path wordListDirectory) {
         Boolean enabled = section.contains("enabled") ? section.getBoolean("enabled") : null;
         Map<String, EventRule> eventRules = new HashMap<>();
         ConfigurationSection eventsSection = section.getConfigurationSection("events");
         if (eventsSection != null) {
-            collectEventRules(eventsSection, "", eventRules);
+            collectEventRules(eventsSection, "", eventRules, wordListDirectory);
         }
         return new WorldEventConfig(enabled, eventRules);
     }
@@ -26,7 +34,8 @@ public class WorldEventConfig {
     private static void collectEventRules(
             ConfigurationSection section,
             String prefix,
-            Map<String, EventRule> eventRules
+            Map<String, EventRule> eventRules,
+            Path wordListDirectory
     ) {
         for (String key : section.getKeys(false)) {
             ConfigurationSection ruleSection = section.getConfigurationSection(key);
@@ -35,10 +44,10 @@ public class WorldEventConfig {
             }
             String path = prefix.isEmpty() ? key : prefix + "." + key;
             if (hasRuleFields(ruleSection)) {
-                eventRules.put(path, EventRule.fromSection(ruleSection));
+                eventRules.put(path, EventRule.fromSection(ruleSection, wordListDirectory));
             }
             if (!ruleSection.getKeys(false).isEmpty()) {
-                collectEventRules(ruleSection, path, eventRules);
+                collectEventRules(ruleSection, path, eventRules, wordListDirectory);
             }
         }
     }
@@ -60,4 +69,9 @@ public class WorldEventConfig {
     public Map<String, EventRule> getEventRules() {
         return eventRules;
     }
+
+    /** Index over {@link #getEventRules()} keys for finding the rule that best matches an event. */
+    public EventKeyIndex getRuleIndex() {
+        return ruleIndex;
+    }
 }
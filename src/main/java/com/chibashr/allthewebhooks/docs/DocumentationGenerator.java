@@ -390,7 +390,12 @@ public class DocumentationGenerator {
         builder.append("<li><code>not</code> — value not in list</li>\n");
         builder.append("<li><code>greater-than</code> / <code>less-than</code> — numeric comparison</li>\n");
         builder.append("<li><code>greater-than-or-equal</code> / <code>less-than-or-equal</code> — numeric comparison (inclusive)</li>\n");
+        builder.append("<li><code>contains-any</code> — text contains any of the listed terms (ignoring case)</li>\n");
+        builder.append("<li><code>contains-word</code> — like <code>contains-any</code>, but a term must not be part of a longer word</li>\n");
+        builder.append("<li><code>starts-with-any</code> — text starts with any of the listed terms (ignoring case)</li>\n");
         builder.append("</ul>\n");
+        builder.append("<p>Operator names are not case-sensitive. An unknown operator makes its condition never match and is reported by <code>/allthewebhooks validate</code>.</p>\n");
+        builder.append("<p>Term lists for <code>contains-any</code>, <code>contains-word</code> and <code>starts-with-any</code> may include <code>file:&lt;name&gt;</code> items, which read one term per line from a file next to <code>events.yaml</code> (blank lines and lines starting with <code>#</code> are skipped). Matching takes the same time with ten terms or ten thousand.</p>\n");
         builder.append("<div class=\"example-block\">\n");
         builder.append("<div class=\"example-title\">Example: only drownings</div>\n");
         builder.append("<pre>events:\n  player.death:\n    message: death_alert\n    conditions:\n      death.message.key:\n        equals: death.attack.drown</pre>\n");
@@ -500,7 +505,7 @@ public class DocumentationGenerator {
         builder.append("<tr><td><code>last-path-segment</code></td><td>—</td><td>Last segment of a path (e.g. world from path/to/world)</td></tr>\n");
         builder.append("<tr><td><code>first-path-segment</code></td><td>—</td><td>First segment of a path</td></tr>\n");
         builder.append("<tr><td><code>map</code></td><td>key1:value1:key2:value2:...</td><td>Exact match: if value equals key1, use value1; etc.</td></tr>\n");
-        builder.append("<tr><td><code>regex</code></td><td>pattern:replacement</td><td>Java regex replace; $1, $2 for capture groups; $$ for literal $</td></tr>\n");
+        builder.append("<tr><td><code>regex</code></td><td>pattern:replacement</td><td>Java regex replace, matched in linear time (no backreferences or lookaround); $1, $2 for capture groups; \\$ for literal $</td></tr>\n");
         builder.append("</tbody></table>\n");
         builder.append("<p>Use <code>\\:</code> for literal colon in args (e.g. <code>map:foo\\:bar:baz</code>).</p>\n");
 
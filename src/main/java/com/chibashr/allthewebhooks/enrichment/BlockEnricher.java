@@ -1,8 +1,8 @@
 package com.chibashr.allthewebhooks.enrichment;
 
-import com.chibashr.allthewebhooks.events.EventContext;
 import com.chibashr.allthewebhooks.util.LocationFormatter;
 import java.util.Map;
+import java.util.function.Function;
 import org.bukkit.block.Block;
 
 /** Enriches context with block.* fields from a Block in scope. */
@@ -15,6 +15,11 @@ public final class BlockEnricher implements ContextEnricher<Block> {
             "block.location", "string"
     );
 
+    private static final Map<String, Function<Block, Object>> FIELD_EXTRACTORS = Map.of(
+            "block.type", block -> block.getType().name(),
+            "block.location", block -> LocationFormatter.format(block.getLocation())
+    );
+
     private BlockEnricher() {
     }
 
@@ -29,11 +34,7 @@ public final class BlockEnricher implements ContextEnricher<Block> {
     }
 
     @Override
-    public void enrich(EventContext ctx, Block entity) {
-        if (entity == null) {
-            return;
-        }
-        ctx.put("block.type", entity.getType().name());
-        ctx.put("block.location", LocationFormatter.format(entity.getLocation()));
+    public Map<String, Function<Block, Object>> getFieldExtractors() {
+        return FIELD_EXTRACTORS;
     }
 }
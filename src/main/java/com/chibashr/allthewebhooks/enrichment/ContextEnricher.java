@@ -2,6 +2,7 @@ package com.chibashr.allthewebhooks.enrichment;
 
 import com.chibashr.allthewebhooks.events.EventContext;
 import java.util.Map;
+import java.util.function.Function;
 
 /**
  * Populates event context with fields from an entity in scope (World, Player, Block, etc.).
@@ -15,6 +16,17 @@ public interface ContextEnricher<T> {
     /** Field name → type for documentation and validation. Single source of truth. */
     Map<String, String> getFieldSpec();
 
-    /** Populate context when entity is in scope. */
-    void enrich(EventContext ctx, T entity);
+    /**
+     * Field name → extractor. Extractors run only when a condition or template reads the field,
+     * then the value is memoized on the context.
+     */
+    Map<String, Function<T, Object>> getFieldExtractors();
+
+    /** Populate context when entity is in scope. Fields are bound lazily; nothing is read yet. */
+    default void enrich(EventContext ctx, T entity) {
+        if (entity == null) {
+            return;
+        }
+        ctx.bindLazy(this, entity);
+    }
 }
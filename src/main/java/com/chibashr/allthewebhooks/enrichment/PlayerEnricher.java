@@ -1,8 +1,8 @@
 package com.chibashr.allthewebhooks.enrichment;
 
-import com.chibashr.allthewebhooks.events.EventContext;
 import java.util.LinkedHashMap;
 import java.util.Map;
+import java.util.function.Function;
 import org.bukkit.entity.Player;
 
 /** Enriches context with player.* fields from a Player in scope. */
@@ -11,6 +11,7 @@ public final class PlayerEnricher implements ContextEnricher<Player> {
     public static final PlayerEnricher INSTANCE = new PlayerEnricher();
 
     private final Map<String, String> fieldSpec;
+    private final Map<String, Function<Player, Object>> fieldExtractors;
 
     private PlayerEnricher() {
         Map<String, String> spec = new LinkedHashMap<>();
@@ -18,6 +19,12 @@ public final class PlayerEnricher implements ContextEnricher<Player> {
         spec.put("player.uuid", "string");
         spec.put("player.gamemode", "string");
         this.fieldSpec = Map.copyOf(spec);
+
+        Map<String, Function<Player, Object>> extractors = new LinkedHashMap<>();
+        extractors.put("player.name", Player::getName);
+        extractors.put("player.uuid", player -> player.getUniqueId().toString());
+        extractors.put("player.gamemode", player -> player.getGameMode().name());
+        this.fieldExtractors = Map.copyOf(extractors);
     }
 
     @Override
@@ -31,12 +38,7 @@ public final class PlayerEnricher implements ContextEnricher<Player> {
     }
 
     @Override
-    public void enrich(EventContext ctx, Player entity) {
-        if (entity == null) {
-            return;
-        }
-        ctx.put("player.name", entity.getName());
-        ctx.put("player.uuid", entity.getUniqueId().toString());
-        ctx.put("player.gamemode", entity.getGameMode().name());
+    public Map<String, Function<Player, Object>> getFieldExtractors() {
+        return fieldExtractors;
     }
 }
@@ -1,12 +1,17 @@
 package com.chibashr.allthewebhooks.enrichment;
 
 import com.chibashr.allthewebhooks.events.EventContext;
-import com.chibashr.allthewebhooks.util.LocationFormatter;
-import java.lang.reflect.Method;
+import com.chibashr.allthewebhooks.util.PropertyAccessor;
+import com.chibashr.allthewebhooks.util.ValueFormatters;
+import java.io.File;
+import java.util.ArrayList;
 import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
 import org.bukkit.Location;
 import org.bukkit.World;
 import org.bukkit.block.Block;
@@ -15,58 +20,80 @@ import org.bukkit.entity.Player;
 
 /**
  * Reflects on classes to discover getters and extract values for context enrichment.
- * Shared logic for entity field discovery and runtime value extraction.
+ * Shared logic for entity field discovery and runtime value extraction. Getter tables
+ * (context key, bound accessor, formatter) are built once per class and prefix.
  */
 final class ReflectedPropertyExtractor {
 
     private static final Set<String> SKIP_PROPERTIES = Set.of("class", "handlers");
 
+    private static final ClassValue<Map<String, Property[]>> TABLES = new ClassValue<>() {
+        @Override
+        protected Map<String, Property[]> computeValue(Class<?> type) {
+            return new ConcurrentHashMap<>();
+        }
+    };
+
     private ReflectedPropertyExtractor() {
     }
 
     static Map<String, String> buildFieldSpec(Class<?> cls, String prefix) {
         Map<String, String> spec = new LinkedHashMap<>();
-        for (Method m : getDiscoverableGetters(cls)) {
-            String property = propertyNameFromGetter(m.getName());
-            if (property == null || SKIP_PROPERTIES.contains(property)) {
-                continue;
-            }
-            Class<?> returnType = m.getReturnType();
-            if (shouldSkipReturnType(returnType)) {
-                continue;
-            }
-            String key = prefix + "." + toSnakeCase(property);
-            String type = predicateTypeFor(returnType);
-            spec.put(key, type);
+        for (Property property : propertiesOf(cls, prefix)) {
+            spec.put(property.key, predicateTypeFor(property.accessor.returnType()));
         }
         return Map.copyOf(spec);
     }
 
-    static void enrichFromObject(Object source, EventContext ctx, String prefix, Class<?> cls) {
+    /**
+     * Puts prefix.&lt;property&gt; values from the source's getters into the context. When fields
+     * is non-null, only getters whose key is in it are invoked.
+     */
+    static void enrichFromObject(Object source, EventContext ctx, String prefix, Class<?> cls, Set<String> fields) {
         if (source == null) {
             return;
         }
-        for (Method m : getDiscoverableGetters(cls)) {
-            String property = propertyNameFromGetter(m.getName());
-            if (property == null || SKIP_PROPERTIES.contains(property)) {
-                continue;
-            }
-            Class<?> returnType = m.getReturnType();
-            if (shouldSkipReturnType(returnType)) {
+        for (Property property : propertiesOf(cls, prefix)) {
+            if (fields != null && !fields.contains(property.key)) {
                 continue;
             }
             Object value;
             try {
-                value = m.invoke(source);
+                value = property.accessor.get(source);
             } catch (Exception e) {
-                ctx.put(prefix + "." + toSnakeCase(property), "");
+                ctx.put(property.key, "");
                 continue;
             }
-            Object formatted = formatValue(value);
-            ctx.put(prefix + "." + toSnakeCase(property), formatted);
+            ctx.put(property.key, property.formatter.apply(value));
         }
     }
 
+    private static Property[] propertiesOf(Class<?> cls, String prefix) {
+        return TABLES.get(cls).computeIfAbsent(prefix, p -> buildProperties(cls, p));
+    }
+
+    private static Property[] buildProperties(Class<?> cls, String prefix) {
+        List<Property> properties = new ArrayList<>();
+        for (PropertyAccessor accessor : PropertyAccessor.gettersOf(cls)) {
+            if (SKIP_PROPERTIES.contains(accessor.property()) || shouldSkipReturnType(accessor.returnType())) {
+                continue;
+            }
+            String key = (prefix + "." + toSnakeCase(accessor.property())).intern();
+            properties.add(new Property(key, accessor, formatterFor(accessor.returnType())));
+        }
+        return properties.toArray(Property[]::new);
+    }
+
+    private static Function<Object, Object> formatterFor(Class<?> returnType) {
+        if (File.class.isAssignableFrom(returnType)) {
+            return v -> v == null ? "" : ((File) v).getName();
+        }
+        return ValueFormatters.forType(returnType, ReflectedPropertyExtractor::formatValue);
+    }
+
+    private record Property(String key, PropertyAccessor accessor, Function<Object, Object> formatter) {
+    }
+
     private static boolean shouldSkipReturnType(Class<?> returnType) {
         if (returnType.isArray()) {
             return true;
@@ -93,32 +120,6 @@ final class ReflectedPropertyExtractor {
         return false;
     }
 
-    private static Method[] getDiscoverableGetters(Class<?> cls) {
-        return java.util.Arrays.stream(cls.getMethods())
-                .filter(m -> m.getDeclaringClass() != Object.class)
-                .filter(m -> m.getParameterCount() == 0)
-                .filter(m -> m.getReturnType() != void.class)
-                .filter(m -> {
-                    String name = m.getName();
-                    return (name.startsWith("get") && name.length() > 3)
-                            || (name.startsWith("is") && name.length() > 2
-                            && (m.getReturnType() == boolean.class || m.getReturnType() == Boolean.class));
-                })
-                .toArray(Method[]::new);
-    }
-
-    private static String propertyNameFromGetter(String methodName) {
-        if (methodName.startsWith("get") && methodName.length() > 3) {
-            String rest = methodName.substring(3);
-            return rest.isEmpty() ? null : Character.toLowerCase(rest.charAt(0)) + rest.substring(1);
-        }
-        if (methodName.startsWith("is") && methodName.length() > 2) {
-            String rest = methodName.substring(2);
-            return rest.isEmpty() ? null : Character.toLowerCase(rest.charAt(0)) + rest.substring(1);
-        }
-        return null;
-    }
-
     private static String toSnakeCase(String camelCase) {
         if (camelCase == null || camelCase.isEmpty()) {
             return camelCase;
@@ -155,31 +156,9 @@ final class ReflectedPropertyExtractor {
     }
 
     private static Object formatValue(Object value) {
-        if (value == null) {
-            return "";
-        }
-        if (value instanceof String || value instanceof Number || value instanceof Boolean
-                || value instanceof UUID || value.getClass().isEnum()) {
-            return value;
-        }
-        if (value instanceof Player p) {
-            return p.getName();
-        }
-        if (value instanceof World w) {
-            return w.getName();
-        }
-        if (value instanceof Block b) {
-            return b.getType().name() + " " + LocationFormatter.format(b.getLocation());
-        }
-        if (value instanceof Location loc) {
-            return LocationFormatter.format(loc);
-        }
-        if (value instanceof Entity e) {
-            return e.getUniqueId().toString();
-        }
-        if (value instanceof java.io.File f) {
+        if (value instanceof File f) {
             return f.getName();
         }
-        return String.valueOf(value);
+        return ValueFormatters.format(value);
     }
 }
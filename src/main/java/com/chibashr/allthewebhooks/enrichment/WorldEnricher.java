@@ -1,8 +1,8 @@
 package com.chibashr.allthewebhooks.enrichment;
 
-import com.chibashr.allthewebhooks.events.EventContext;
 import com.chibashr.allthewebhooks.util.LocationFormatter;
 import java.util.Map;
+import java.util.function.Function;
 import org.bukkit.World;
 
 /** Enriches context with world.* fields from a World in scope. */
@@ -24,6 +24,20 @@ public final class WorldEnricher implements ContextEnricher<World> {
             Map.entry("world.time", "number")
     );
 
+    private static final Map<String, Function<World, Object>> FIELD_EXTRACTORS = Map.ofEntries(
+            Map.entry("world.name", World::getName),
+            Map.entry("world.seed", World::getSeed),
+            Map.entry("world.environment", world -> world.getEnvironment().name()),
+            Map.entry("world.difficulty", world -> world.getDifficulty().name()),
+            Map.entry("world.min_height", World::getMinHeight),
+            Map.entry("world.max_height", World::getMaxHeight),
+            Map.entry("world.hardcore", World::isHardcore),
+            Map.entry("world.spawn_location", world -> LocationFormatter.format(world.getSpawnLocation())),
+            Map.entry("world.structures", World::canGenerateStructures),
+            Map.entry("world.folder", world -> world.getWorldFolder().getName()),
+            Map.entry("world.time", World::getTime)
+    );
+
     private WorldEnricher() {
     }
 
@@ -38,20 +52,7 @@ public final class WorldEnricher implements ContextEnricher<World> {
     }
 
     @Override
-    public void enrich(EventContext ctx, World entity) {
-        if (entity == null) {
-            return;
-        }
-        ctx.put("world.name", entity.getName());
-        ctx.put("world.seed", entity.getSeed());
-        ctx.put("world.environment", entity.getEnvironment().name());
-        ctx.put("world.difficulty", entity.getDifficulty().name());
-        ctx.put("world.min_height", entity.getMinHeight());
-        ctx.put("world.max_height", entity.getMaxHeight());
-        ctx.put("world.hardcore", entity.isHardcore());
-        ctx.put("world.spawn_location", LocationFormatter.format(entity.getSpawnLocation()));
-        ctx.put("world.structures", entity.canGenerateStructures());
-        ctx.put("world.folder", entity.getWorldFolder().getName());
-        ctx.put("world.time", entity.getTime());
+    public Map<String, Function<World, Object>> getFieldExtractors() {
+        return FIELD_EXTRACTORS;
     }
 }
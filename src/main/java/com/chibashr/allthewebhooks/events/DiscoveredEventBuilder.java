@@ -1,22 +1,24 @@
 package com.chibashr.allthewebhooks.events;
 
-import com.chibashr.allthewebhooks.util.LocationFormatter;
-import java.lang.reflect.Method;
+import com.chibashr.allthewebhooks.util.PropertyAccessor;
+import com.chibashr.allthewebhooks.util.ValueFormatters;
+import java.util.ArrayList;
 import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.UUID;
-import org.bukkit.Location;
+import java.util.function.Function;
 import org.bukkit.World;
 import org.bukkit.block.Block;
-import org.bukkit.entity.Entity;
 import org.bukkit.entity.Player;
 import org.bukkit.event.Event;
 
 /**
- * Builds predicate maps and context builders for discovered event classes by
- * reflecting on public getters (getX / isX). Uses manual reflection instead of
- * java.beans.Introspector to avoid the java.desktop dependency on server runtimes.
+ * Builds predicate maps and context builders for discovered event classes from their public
+ * getters (getX / isX). Getters come from {@link PropertyAccessor}, which binds each one once per
+ * class, so building a context does not go through Method.invoke. Uses manual reflection
+ * instead of java.beans.Introspector to avoid the java.desktop dependency on server runtimes.
  */
 final class DiscoveredEventBuilder {
 
@@ -34,13 +36,8 @@ final class DiscoveredEventBuilder {
         Map<String, String> predicates = new LinkedHashMap<>();
         predicates.put("event.name", "string");
         predicates.put("event.class", "string");
-        for (Method m : getDiscoverableGetters(eventClass)) {
-            String property = propertyNameFromGetter(m.getName());
-            if (property == null || SKIP_PROPERTIES.contains(property)) {
-                continue;
-            }
-            String type = predicateTypeFor(m.getReturnType());
-            predicates.put("event." + property, type);
+        for (PropertyAccessor getter : discoverableGetters(eventClass)) {
+            predicates.put("event." + getter.property(), predicateTypeFor(getter.returnType()));
         }
         return Map.copyOf(predicates);
     }
@@ -48,31 +45,80 @@ final class DiscoveredEventBuilder {
     /**
      * Builds a context builder that fills EventContext with event.name, event.class,
      * and values from each discovered getter (formatted for conditions/messages).
+     * Context keys and per-type formatters are computed once per event class, on the first
+     * build, so creating builders for every discovered class at startup stays cheap.
+     * When given projected fields, only getters whose event.&lt;property&gt; key is projected run,
+     * plus getters that can return a Player, World, or Block (those bind entity scope, which
+     * world routing and permission checks need).
      */
-    @SuppressWarnings("unchecked")
     static EventContextBuilder<Event> buildContextBuilder(
             Class<? extends Event> eventClass,
             String key
     ) {
-        Method[] getters = getDiscoverableGetters(eventClass);
-        return (Event event) -> {
-            EventContext ctx = new EventContext(key);
-            ctx.put("event.name", key);
-            ctx.put("event.class", event.getClass().getSimpleName());
-            for (Method m : getters) {
-                String property = propertyNameFromGetter(m.getName());
-                if (property == null || SKIP_PROPERTIES.contains(property)) {
+        String eventClassName = eventClass.getSimpleName();
+        return new EventContextBuilder<>() {
+            private volatile GetterTable table;
+
+            @Override
+            public EventContext build(Event event) {
+                return build(event, null);
+            }
+
+            @Override
+            public EventContext build(Event event, Set<String> fields) {
+                GetterTable getters = table;
+                if (getters == null) {
+                    getters = new GetterTable(eventClass);
+                    table = getters;
+                }
+                EventContext ctx = new EventContext(key);
+                ctx.put("event.name", key);
+                ctx.put("event.class", event.getClass() == eventClass ? eventClassName : event.getClass().getSimpleName());
+                getters.fill(ctx, event, fields);
+                return ctx;
+            }
+        };
+    }
+
+    /** Accessors, interned context keys and formatters for one event class's getters. */
+    private static final class GetterTable {
+        private final PropertyAccessor[] accessors;
+        private final String[] keys;
+        private final Function<Object, Object>[] formatters;
+        private final boolean[] bindsScope;
+
+        @SuppressWarnings("unchecked")
+        GetterTable(Class<? extends Event> eventClass) {
+            accessors = discoverableGetters(eventClass).toArray(PropertyAccessor[]::new);
+            keys = new String[accessors.length];
+            formatters = new Function[accessors.length];
+            bindsScope = new boolean[accessors.length];
+            for (int i = 0; i < accessors.length; i++) {
+                Class<?> returnType = accessors[i].returnType();
+                keys[i] = ("event." + accessors[i].property()).intern();
+                formatters[i] = ValueFormatters.forType(returnType);
+                bindsScope[i] = mayReturnScopeEntity(returnType);
+            }
+        }
+
+        void fill(EventContext ctx, Event event, Set<String> fields) {
+            for (int i = 0; i < accessors.length; i++) {
+                boolean projected = fields == null || fields.contains(keys[i]);
+                if (!projected && !bindsScope[i]) {
                     continue;
                 }
                 Object value;
                 try {
-                    value = m.invoke(event);
+                    value = accessors[i].get(event);
                 } catch (Exception e) {
-                    ctx.put("event." + property, "");
+                    if (projected) {
+                        ctx.put(keys[i], "");
+                    }
                     continue;
                 }
-                Object formatted = formatValue(value);
-                ctx.put("event." + property, formatted);
+                if (projected) {
+                    ctx.put(keys[i], formatters[i].apply(value));
+                }
                 if (value instanceof Player player) {
                     ctx.setPlayer(player);
                 }
@@ -83,33 +129,26 @@ final class DiscoveredEventBuilder {
                     ctx.setBlock(block);
                 }
             }
-            return ctx;
-        };
+        }
     }
 
-    private static Method[] getDiscoverableGetters(Class<? extends Event> eventClass) {
-        return java.util.Arrays.stream(eventClass.getMethods())
-                .filter(m -> m.getParameterCount() == 0)
-                .filter(m -> m.getReturnType() != void.class)
-                .filter(m -> {
-                    String name = m.getName();
-                    return (name.startsWith("get") && name.length() > 3)
-                            || (name.startsWith("is") && name.length() > 2
-                            && (m.getReturnType() == boolean.class || m.getReturnType() == Boolean.class));
-                })
-                .toArray(Method[]::new);
+    private static boolean mayReturnScopeEntity(Class<?> returnType) {
+        if (returnType == Object.class) {
+            return false;
+        }
+        return returnType.isAssignableFrom(Player.class)
+                || returnType.isAssignableFrom(World.class)
+                || returnType.isAssignableFrom(Block.class);
     }
 
-    private static String propertyNameFromGetter(String methodName) {
-        if (methodName.startsWith("get") && methodName.length() > 3) {
-            String rest = methodName.substring(3);
-            return rest.isEmpty() ? null : Character.toLowerCase(rest.charAt(0)) + rest.substring(1);
-        }
-        if (methodName.startsWith("is") && methodName.length() > 2) {
-            String rest = methodName.substring(2);
-            return rest.isEmpty() ? null : Character.toLowerCase(rest.charAt(0)) + rest.substring(1);
+    private static List<PropertyAccessor> discoverableGetters(Class<? extends Event> eventClass) {
+        List<PropertyAccessor> getters = new ArrayList<>();
+        for (PropertyAccessor getter : PropertyAccessor.gettersOf(eventClass)) {
+            if (!SKIP_PROPERTIES.contains(getter.property())) {
+                getters.add(getter);
+            }
         }
-        return null;
+        return getters;
     }
 
     private static String predicateTypeFor(Class<?> returnType) {
@@ -127,30 +166,4 @@ final class DiscoveredEventBuilder {
         }
         return "string";
     }
-
-    private static Object formatValue(Object value) {
-        if (value == null) {
-            return "";
-        }
-        if (value instanceof String || value instanceof Number || value instanceof Boolean
-                || value instanceof UUID || value.getClass().isEnum()) {
-            return value;
-        }
-        if (value instanceof Player p) {
-            return p.getName();
-        }
-        if (value instanceof World w) {
-            return w.getName();
-        }
-        if (value instanceof Block b) {
-            return b.getType().name() + " " + LocationFormatter.format(b.getLocation());
-        }
-        if (value instanceof Location loc) {
-            return LocationFormatter.format(loc);
-        }
-        if (value instanceof Entity e) {
-            return e.getUniqueId().toString();
-        }
-        return String.valueOf(value);
-    }
 }
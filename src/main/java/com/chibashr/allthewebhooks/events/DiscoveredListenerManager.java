@@ -0,0 +1,141 @@
+package com.chibashr.allthewebhooks.events;
+
+import com.chibashr.allthewebhooks.config.EventConfig;
+import com.chibashr.allthewebhooks.config.EventKeyMatcher;
+import com.chibashr.allthewebhooks.routing.EventRouter;
+import java.lang.reflect.Method;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import org.bukkit.event.Event;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.HandlerList;
+import org.bukkit.event.Listener;
+import org.bukkit.plugin.PluginManager;
+import org.bukkit.plugin.java.JavaPlugin;
+
+/**
+ * Registers Bukkit executors for discovered events on demand. Only event classes whose key can be
+ * matched by a configured rule (global, world override, or wildcard) get a MONITOR executor; the
+ * rest stay unregistered so hot events like PlayerMoveEvent cost nothing when nobody listens.
+ * Call {@link #refresh(EventConfig)} after every config reload.
+ */
+public class DiscoveredListenerManager {
+    private final JavaPlugin plugin;
+    private final EventRegistry registry;
+    private final EventRouter router;
+    private final List<EventDiscovery.DiscoveredEvent> discovered;
+    private final Map<Class<? extends Event>, Listener> registered = new LinkedHashMap<>();
+
+    public DiscoveredListenerManager(
+            JavaPlugin plugin,
+            EventRegistry registry,
+            EventRouter router,
+            List<EventDiscovery.DiscoveredEvent> discovered
+    ) {
+        this.plugin = plugin;
+        this.registry = registry;
+        this.router = router;
+        this.discovered = List.copyOf(discovered);
+    }
+
+    /**
+     * Registers executors for discovered events that some configured rule can match and
+     * unregisters the ones that no rule matches anymore. Must run on the main thread.
+     *
+     * @return number of discovered event classes with an active executor
+     */
+    public int refresh(EventConfig config) {
+        Set<String> configuredKeys = config == null ? Set.of() : config.getAllConfiguredKeys();
+        PluginManager pm = plugin.getServer().getPluginManager();
+        for (EventDiscovery.DiscoveredEvent d : discovered) {
+            boolean wanted = isMatchedByAny(configuredKeys, d.key());
+            boolean active = registered.containsKey(d.eventClass());
+            if (wanted && !active) {
+                register(pm, d);
+            } else if (!wanted && active) {
+                unregister(d.eventClass());
+            }
+        }
+        return registered.size();
+    }
+
+    /** Unregisters every executor this manager registered. */
+    public void unregisterAll() {
+        for (Class<? extends Event> eventClass : List.copyOf(registered.keySet())) {
+            unregister(eventClass);
+        }
+    }
+
+    public int getRegisteredCount() {
+        return registered.size();
+    }
+
+    public int getDiscoveredCount() {
+        return discovered.size();
+    }
+
+    static boolean isMatchedByAny(Set<String> configuredKeys, String eventKey) {
+        for (String configuredKey : configuredKeys) {
+            if (EventKeyMatcher.matches(configuredKey, eventKey)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void register(PluginManager pm, EventDiscovery.DiscoveredEvent d) {
+        // One listener instance per class so it can be removed from exactly that HandlerList.
+        Listener listener = new Listener() {};
+        String key = d.key();
+        pm.registerEvent(
+                d.eventClass(),
+                listener,
+                EventPriority.MONITOR,
+                (l, event) -> {
+                    if (!router.isInterestedInAnyWorld(key)) {
+                        return;
+                    }
+                    EventContext ctx = registry.buildContext(key, (Event) event, router.projectedFields(key));
+                    if (ctx != null) {
+                        router.submit(ctx);
+                    }
+                },
+                plugin
+        );
+        registered.put(d.eventClass(), listener);
+    }
+
+    private void unregister(Class<? extends Event> eventClass) {
+        Listener listener = registered.remove(eventClass);
+        if (listener == null) {
+            return;
+        }
+        HandlerList handlers = handlerListFor(eventClass);
+        if (handlers != null) {
+            handlers.unregister(listener);
+        } else {
+            HandlerList.unregisterAll(listener);
+        }
+    }
+
+    /**
+     * Finds the HandlerList Bukkit registered the executor in: the static getHandlerList() on the
+     * event class or its nearest superclass that declares one.
+     */
+    private static HandlerList handlerListFor(Class<?> eventClass) {
+        for (Class<?> cls = eventClass; cls != null && Event.class.isAssignableFrom(cls); cls = cls.getSuperclass()) {
+            try {
+                Method method = cls.getDeclaredMethod("getHandlerList");
+                method.setAccessible(true);
+                return (HandlerList) method.invoke(null);
+            } catch (NoSuchMethodException e) {
+                // Keep walking up; Bukkit does the same when registering.
+            } catch (ReflectiveOperationException | RuntimeException e) {
+                return null;
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,62 @@
+package com.chibashr.allthewebhooks.events;
+
+import java.lang.reflect.Method;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Event catalog generated at build time by the {@code generateEventCatalog} Gradle task from the
+ * paper-api compile classpath. The generated class ({@value #GENERATED_CLASS}) lists every concrete
+ * event class with its key, description and predicate types, plus the class names under the event
+ * packages that are not concrete events, so discovery only has to inspect classes the build did
+ * not see (e.g. on a newer Paper build).
+ * <p>
+ * Getter accessors are not emitted as method references: they are bound on first use by
+ * {@link com.chibashr.allthewebhooks.util.PropertyAccessor}, so a catalog built against one API
+ * version still loads when a listed class or getter is missing at runtime.
+ */
+final class EventCatalog {
+    static final String GENERATED_CLASS = "com.chibashr.allthewebhooks.events.GeneratedEventCatalog";
+
+    /** One catalogued event class. */
+    record Entry(String className, String key, String description, Map<String, String> predicates) {
+    }
+
+    static final EventCatalog EMPTY = new EventCatalog(List.of(), Set.of());
+
+    private final List<Entry> entries;
+    private final Set<String> knownClasses;
+
+    EventCatalog(List<Entry> entries, Set<String> nonEventClasses) {
+        this.entries = List.copyOf(entries);
+        Set<String> known = new HashSet<>(nonEventClasses);
+        for (Entry entry : entries) {
+            known.add(entry.className());
+        }
+        this.knownClasses = Set.copyOf(known);
+    }
+
+    /** Loads the generated catalog, or {@link #EMPTY} when the build did not include one (e.g. tests). */
+    @SuppressWarnings("unchecked")
+    static EventCatalog load(ClassLoader classLoader) {
+        try {
+            Class<?> generated = Class.forName(GENERATED_CLASS, true, classLoader);
+            Method entries = generated.getDeclaredMethod("entries");
+            Method nonEvents = generated.getDeclaredMethod("nonEventClasses");
+            return new EventCatalog((List<Entry>) entries.invoke(null), (Set<String>) nonEvents.invoke(null));
+        } catch (ReflectiveOperationException | LinkageError e) {
+            return EMPTY;
+        }
+    }
+
+    List<Entry> entries() {
+        return entries;
+    }
+
+    /** True if the build saw this class name, whether or not it is a concrete event. */
+    boolean isKnown(String className) {
+        return knownClasses.contains(className);
+    }
+}
@@ -0,0 +1,119 @@
+package com.chibashr.allthewebhooks.events;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.reflect.Modifier;
+import java.net.JarURLConnection;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.net.URLConnection;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Enumeration;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.jar.JarEntry;
+import java.util.jar.JarFile;
+import org.bukkit.event.Event;
+
+/**
+ * Lists class names under the Bukkit/Paper event packages by reading jar entries (or class files
+ * in a directory) through the classloader's resources. Listing does not load classes; only
+ * {@link #loadConcreteEvents} does, for the names it is given. Replaces a general-purpose
+ * classpath scanning library for the one query discovery needs.
+ */
+final class EventClassScanner {
+    /** Resource paths of the packages scanned for events. */
+    static final List<String> PACKAGES = List.of("org/bukkit/event", "io/papermc/paper/event");
+
+    private EventClassScanner() {
+    }
+
+    /** Binary names of all classes under {@link #PACKAGES} visible to the classloader, sorted. */
+    static Set<String> listClassNames(ClassLoader classLoader) {
+        Set<String> names = new TreeSet<>();
+        for (String pkg : PACKAGES) {
+            Enumeration<URL> roots;
+            try {
+                roots = classLoader.getResources(pkg);
+            } catch (IOException e) {
+                continue;
+            }
+            while (roots.hasMoreElements()) {
+                URL root = roots.nextElement();
+                try {
+                    if ("jar".equals(root.getProtocol())) {
+                        listJar(root, pkg, names);
+                    } else if ("file".equals(root.getProtocol())) {
+                        listDirectory(new File(root.toURI()), pkg, names);
+                    }
+                } catch (IOException | URISyntaxException e) {
+                    // Unreadable root: skip it, other roots may still hold the package.
+                }
+            }
+        }
+        return names;
+    }
+
+    /**
+     * Loads the named classes (without initializing them) and returns the concrete Event
+     * subclasses. Names that fail to load or are not events are skipped.
+     */
+    static List<Class<? extends Event>> loadConcreteEvents(Collection<String> classNames, ClassLoader classLoader) {
+        List<Class<? extends Event>> events = new ArrayList<>();
+        for (String name : classNames) {
+            Class<?> cls;
+            try {
+                cls = Class.forName(name, false, classLoader);
+            } catch (ClassNotFoundException | LinkageError e) {
+                continue;
+            }
+            if (cls != Event.class && Event.class.isAssignableFrom(cls)
+                    && !cls.isInterface() && !Modifier.isAbstract(cls.getModifiers())) {
+                events.add(cls.asSubclass(Event.class));
+            }
+        }
+        return events;
+    }
+
+    private static void listJar(URL root, String pkg, Set<String> names) throws IOException {
+        URLConnection connection = root.openConnection();
+        if (!(connection instanceof JarURLConnection jarConnection)) {
+            return;
+        }
+        jarConnection.setUseCaches(false);
+        try (JarFile jar = jarConnection.getJarFile()) {
+            Enumeration<JarEntry> entries = jar.entries();
+            while (entries.hasMoreElements()) {
+                String entry = entries.nextElement().getName();
+                if (entry.startsWith(pkg + "/")) {
+                    addClassName(entry, names);
+                }
+            }
+        }
+    }
+
+    private static void listDirectory(File dir, String path, Set<String> names) {
+        File[] children = dir.listFiles();
+        if (children == null) {
+            return;
+        }
+        for (File child : children) {
+            String childPath = path + "/" + child.getName();
+            if (child.isDirectory()) {
+                listDirectory(child, childPath, names);
+            } else {
+                addClassName(childPath, names);
+            }
+        }
+    }
+
+    private static void addClassName(String resourcePath, Set<String> names) {
+        if (!resourcePath.endsWith(".class") || resourcePath.endsWith("package-info.class")
+                || resourcePath.endsWith("module-info.class")) {
+            return;
+        }
+        names.add(resourcePath.substring(0, resourcePath.length() - ".class".length()).replace('/', '.'));
+    }
+}
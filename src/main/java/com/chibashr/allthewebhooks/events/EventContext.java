@@ -1,21 +1,46 @@
 package com.chibashr.allthewebhooks.events;
 
 import com.chibashr.allthewebhooks.enrichment.BlockEnricher;
+import com.chibashr.allthewebhooks.enrichment.ContextEnricher;
 import com.chibashr.allthewebhooks.enrichment.PlayerEnricher;
 import com.chibashr.allthewebhooks.enrichment.WorldEnricher;
+import com.chibashr.allthewebhooks.util.WarningTracker;
+import java.util.AbstractMap;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
 import org.bukkit.World;
 import org.bukkit.block.Block;
 import org.bukkit.entity.Player;
 
+/**
+ * Event key plus the key/value map that conditions and templates read.
+ * <p>
+ * Entity fields (player.*, world.*, block.*) are lazy: {@link #setPlayer}, {@link #setWorld} and
+ * {@link #setBlock} only bind the entity to its enricher, and each field is extracted the first
+ * time {@link #get} (or the {@link #getValues()} view) reads it, then memoized. Explicit
+ * {@link #put} values always win over lazily extracted ones. Not thread-safe; a context is built
+ * and read by one thread at a time.
+ * <p>
+ * {@link #capture} copies the fields a route needs into a detached context that holds no entity
+ * references, so it can be handed to another thread after the event handler returns.
+ */
 public class EventContext {
     private final String eventKey;
     private final Map<String, Object> values = new HashMap<>();
+    private final Map<String, Object> extracted = new HashMap<>();
+    private final Map<String, Binding<?>> bindings = new LinkedHashMap<>(4);
+    private final Map<String, Object> valuesView = new ValuesView();
     private Player player;
     private World world;
     private Block block;
+    private String worldName;
+    private String playerName;
+    private Map<String, Boolean> permissions = Map.of();
+    private WarningTracker warningTracker;
 
     public EventContext(String eventKey) {
         this.eventKey = eventKey;
@@ -60,6 +85,82 @@ public class EventContext {
         return block;
     }
 
+    /** Name of the bound world, or the captured name for a detached context. */
+    public String getWorldName() {
+        return world != null ? world.getName() : worldName;
+    }
+
+    /** Name of the bound player, or the captured name for a detached context. */
+    public String getPlayerName() {
+        return player != null ? player.getName() : playerName;
+    }
+
+    /**
+     * Checks a permission against the bound player; a detached context answers from the
+     * permissions checked at capture time (unchecked ones are denied).
+     */
+    public boolean hasPermission(String permission) {
+        if (player != null) {
+            return player.hasPermission(permission);
+        }
+        return Boolean.TRUE.equals(permissions.get(permission));
+    }
+
+    /**
+     * Copies this context into a detached one for processing off the event thread. Only the
+     * listed fields (plus event.name) are copied, forcing lazy extraction now, while the event
+     * is still live; null copies every field. Each listed permission is checked against the
+     * player once. The copy keeps world and player names but no entity references.
+     */
+    public EventContext capture(Set<String> fields, Set<String> permissionChecks) {
+        EventContext copy = new EventContext(eventKey);
+        if (fields == null) {
+            copy.values.putAll(materialize());
+        } else {
+            for (String key : fields) {
+                Object value = get(key);
+                if (value != null) {
+                    copy.values.put(key, value);
+                }
+            }
+        }
+        copy.worldName = getWorldName();
+        copy.playerName = getPlayerName();
+        if (player == null) {
+            copy.permissions = permissions;
+        } else if (permissionChecks != null && !permissionChecks.isEmpty()) {
+            Map<String, Boolean> granted = new HashMap<>(permissionChecks.size() * 2);
+            for (String permission : permissionChecks) {
+                granted.put(permission, player.hasPermission(permission));
+            }
+            copy.permissions = granted;
+        }
+        return copy;
+    }
+
+    /**
+     * Binds an entity to its enricher so the enricher's fields resolve on first read. Rebinding
+     * the same entity type replaces earlier values for those fields, as an eager enrich would.
+     */
+    public <T> void bindLazy(ContextEnricher<T> enricher, T entity) {
+        if (enricher == null || entity == null) {
+            return;
+        }
+        for (String key : enricher.getFieldExtractors().keySet()) {
+            values.remove(key);
+            extracted.remove(key);
+        }
+        bindings.put(enricher.getEntityType(), new Binding<>(enricher.getFieldExtractors(), entity));
+    }
+
+    /**
+     * Where a failing field extractor is reported, once per field; the field then reads as an
+     * empty string. Without a tracker the failure is silent.
+     */
+    public void setWarningTracker(WarningTracker warningTracker) {
+        this.warningTracker = warningTracker;
+    }
+
     public void put(String key, Object value) {
         if (key == null || key.isEmpty()) {
             return;
@@ -68,10 +169,87 @@ public class EventContext {
     }
 
     public Object get(String key) {
-        return values.get(key);
+        Object value = values.get(key);
+        if (value != null || values.containsKey(key)) {
+            return value;
+        }
+        value = extracted.get(key);
+        if (value != null || extracted.containsKey(key)) {
+            return value;
+        }
+        for (Binding<?> binding : bindings.values()) {
+            if (binding.provides(key)) {
+                value = binding.extract(key, warningTracker);
+                extracted.put(key, value);
+                return value;
+            }
+        }
+        return null;
     }
 
+    /**
+     * Read-only view of all values. {@code get} resolves lazy fields on demand; iterating the
+     * view extracts every bound field.
+     */
     public Map<String, Object> getValues() {
-        return Collections.unmodifiableMap(values);
+        return valuesView;
+    }
+
+    private boolean containsKey(String key) {
+        if (values.containsKey(key) || extracted.containsKey(key)) {
+            return true;
+        }
+        for (Binding<?> binding : bindings.values()) {
+            if (binding.provides(key)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private Map<String, Object> materialize() {
+        for (Binding<?> binding : bindings.values()) {
+            for (String key : binding.extractors.keySet()) {
+                get(key);
+            }
+        }
+        Map<String, Object> all = new HashMap<>(extracted);
+        all.putAll(values);
+        return Collections.unmodifiableMap(all);
+    }
+
+    private record Binding<T>(Map<String, Function<T, Object>> extractors, T entity) {
+        boolean provides(String key) {
+            return extractors.containsKey(key);
+        }
+
+        Object extract(String key, WarningTracker warningTracker) {
+            try {
+                return extractors.get(key).apply(entity);
+            } catch (RuntimeException e) {
+                if (warningTracker != null) {
+                    warningTracker.warnOnce("context-field-error:" + key,
+                            "Could not read field " + key + ": " + e + ", using an empty value");
+                }
+                return "";
+            }
+        }
+    }
+
+    private final class ValuesView extends AbstractMap<String, Object> {
+        @Override
+        public Object get(Object key) {
+            return key instanceof String s ? EventContext.this.get(s) : null;
+        }
+
+        @Override
+        public boolean containsKey(Object key) {
+            return key instanceof String s && EventContext.this.containsKey(s);
+        }
+
+        @Override
+        public Set<Entry<String, Object>> entrySet() {
+            return materialize().entrySet();
+        }
     }
 }
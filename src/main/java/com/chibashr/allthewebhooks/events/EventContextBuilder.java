@@ -1,8 +1,18 @@
 package com.chibashr.allthewebhooks.events;
 
+import java.util.Set;
 import org.bukkit.event.Event;
 
 @FunctionalInterface
 public interface EventContextBuilder<E extends Event> {
     EventContext build(E event);
+
+    /**
+     * Builds a context that only needs to carry the given keys (see
+     * {@link com.chibashr.allthewebhooks.routing.FieldProjection}). Builders whose fields are
+     * cheap may ignore the hint; null means every field.
+     */
+    default EventContext build(E event, Set<String> fields) {
+        return build(event);
+    }
 }
@@ -1,17 +1,16 @@
 package com.chibashr.allthewebhooks.events;
 
-import java.lang.reflect.Modifier;
 import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import org.bukkit.event.Event;
-import org.reflections.Reflections;
-import org.reflections.util.ConfigurationBuilder;
 
 /**
- * Discovers Bukkit/Paper event classes on the classpath and produces event keys and
- * definitions with predicates and context derived from each event class's public getters.
+ * Discovers Bukkit/Paper event classes (from the build-time catalog, then the classpath) and
+ * produces event keys and definitions with predicates and context derived from each event
+ * class's public getters.
  * Uses reflection (no java.desktop) to discover getX/isX methods and expose them as
  * predicates and context values.
  */
@@ -32,9 +31,13 @@ public final class EventDiscovery {
     }
 
     /**
-     * Scans org.bukkit.event and io.papermc.paper.event for concrete Event subclasses,
+     * Finds concrete Event subclasses in org.bukkit.event and io.papermc.paper.event,
      * computes an event key for each, and returns definitions only for events not
      * already covered by base definitions or by the dedicated listener.
+     * <p>
+     * Classes listed in the build-time {@link EventCatalog} use its keys, descriptions and
+     * predicates without reflection. Class names on the classpath that the catalog does not know
+     * (e.g. events added in a newer Paper build) are loaded and reflected on as a fallback.
      *
      * @param classLoader     classloader that can load Bukkit/Paper event classes
      * @param existingKeys    keys already defined (e.g. base definitions); these are skipped
@@ -46,51 +49,85 @@ public final class EventDiscovery {
             Set<String> existingKeys,
             Set<Class<? extends Event>> handledClasses
     ) {
-        List<DiscoveredEvent> result = new ArrayList<>();
-        Set<String> addedKeys = new java.util.HashSet<>();
-
-        Reflections reflections = new Reflections(
-                new ConfigurationBuilder()
-                        .setClassLoaders(new ClassLoader[]{classLoader})
-                        .forPackages("org.bukkit.event", "io.papermc.paper.event")
-        );
+        EventCatalog catalog = EventCatalog.load(classLoader);
 
-        @SuppressWarnings("unchecked")
-        Set<Class<? extends Event>> eventClasses = reflections.getSubTypesOf(Event.class);
+        // Loading classes and reflecting on getters is independent per class, so both passes run
+        // on the common fork-join pool; the ordered results are then de-duplicated sequentially.
+        List<DiscoveredEvent> candidates = new ArrayList<>(catalog.entries().parallelStream()
+                .map(entry -> {
+                    Class<? extends Event> eventClass = loadCatalogued(entry.className(), classLoader);
+                    return eventClass == null
+                            ? null
+                            : describe(eventClass, entry.key(), entry.description(), entry.predicates());
+                })
+                .toList());
 
-        for (Class<? extends Event> eventClass : eventClasses) {
-            if (eventClass == Event.class) {
-                continue;
+        List<String> unknown = new ArrayList<>();
+        for (String className : EventClassScanner.listClassNames(classLoader)) {
+            if (!catalog.isKnown(className)) {
+                unknown.add(className);
             }
-            if (Modifier.isAbstract(eventClass.getModifiers())) {
+        }
+        candidates.addAll(EventClassScanner.loadConcreteEvents(unknown, classLoader).parallelStream()
+                .map(eventClass -> describe(
+                        eventClass,
+                        eventKeyFromClass(eventClass),
+                        humanizeEventDescription(eventClass),
+                        DiscoveredEventBuilder.buildPredicates(eventClass)
+                ))
+                .toList());
+
+        List<DiscoveredEvent> result = new ArrayList<>();
+        Set<String> addedKeys = new HashSet<>();
+        for (DiscoveredEvent candidate : candidates) {
+            if (candidate == null) {
                 continue;
             }
-            String key = eventKeyFromClass(eventClass);
-            if (existingKeys.contains(key) || addedKeys.contains(key)) {
+            if (existingKeys.contains(candidate.key()) || addedKeys.contains(candidate.key())) {
                 continue;
             }
-            if (handledClasses != null && handledClasses.contains(eventClass)) {
+            if (handledClasses != null && handledClasses.contains(candidate.eventClass())) {
                 continue;
             }
-            String category = key.contains(".") ? key.substring(0, key.indexOf('.')) : "event";
-            Map<String, String> predicates = DiscoveredEventBuilder.buildPredicates(eventClass);
-            String description = humanizeEventDescription(eventClass);
-            EventDefinition definition = new EventDefinition(
-                    key,
-                    category,
-                    description,
-                    predicates,
-                    List.of(key + ".*"),
-                    key + ":\n  message: generic",
-                    DiscoveredEventBuilder.buildContextBuilder(eventClass, key)
-            );
-            result.add(new DiscoveredEvent(eventClass, key, definition));
-            addedKeys.add(key);
+            result.add(candidate);
+            addedKeys.add(candidate.key());
         }
 
         return result;
     }
 
+    private static Class<? extends Event> loadCatalogued(String className, ClassLoader classLoader) {
+        try {
+            Class<?> cls = Class.forName(className, false, classLoader);
+            return Event.class.isAssignableFrom(cls) ? cls.asSubclass(Event.class) : null;
+        } catch (ClassNotFoundException | LinkageError e) {
+            return null;
+        }
+    }
+
+    /**
+     * Builds the discovered event for a class whose key, description and predicates are already
+     * known (from a scan or from {@link EventDiscoveryIndex}).
+     */
+    static DiscoveredEvent describe(
+            Class<? extends Event> eventClass,
+            String key,
+            String description,
+            Map<String, String> predicates
+    ) {
+        String category = key.contains(".") ? key.substring(0, key.indexOf('.')) : "event";
+        EventDefinition definition = new EventDefinition(
+                key,
+                category,
+                description,
+                predicates,
+                List.of(key + ".*"),
+                key + ":\n  message: generic",
+                DiscoveredEventBuilder.buildContextBuilder(eventClass, key)
+        );
+        return new DiscoveredEvent(eventClass, key, definition);
+    }
+
     /**
      * Builds a short human-readable description from an event class name.
      * E.g. PlayerJoinEvent -> "Fired when a player joins.", BlockBreakEvent -> "Fired when a block breaks."
@@ -0,0 +1,174 @@
+package com.chibashr.allthewebhooks.events;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Logger;
+import org.bukkit.event.Event;
+
+/**
+ * Caches the result of {@link EventDiscovery#discover} in a small binary file so later startups
+ * skip the classpath scan and getter reflection. The index is keyed by server version and plugin
+ * version; a different key, an unreadable file, or a class that no longer loads triggers a full
+ * scan and a rewrite.
+ * <p>
+ * Layout (DataOutputStream): magic, format version, index key, scan duration in nanos, entry
+ * count, then per entry: class name, event key, description, predicate count and
+ * (field, type) pairs.
+ */
+public final class EventDiscoveryIndex {
+    private static final int MAGIC = 0x41545749;
+    private static final int FORMAT_VERSION = 1;
+
+    private EventDiscoveryIndex() {
+    }
+
+    /**
+     * Outcome of {@link #loadOrDiscover}: the discovered events, whether they came from the
+     * index, how long this startup took, and how long the full scan took when the index was
+     * built (for reporting the savings).
+     */
+    public record Result(
+            List<EventDiscovery.DiscoveredEvent> events,
+            boolean fromIndex,
+            long elapsedNanos,
+            long scanNanos
+    ) {
+        /** One-line timing summary for the startup log. */
+        public String describe() {
+            long elapsedMs = TimeUnit.NANOSECONDS.toMillis(elapsedNanos);
+            if (!fromIndex) {
+                return "Event discovery: scanned " + events.size() + " events in " + elapsedMs
+                        + " ms (index rebuilt).";
+            }
+            long scanMs = TimeUnit.NANOSECONDS.toMillis(scanNanos);
+            return "Event discovery: loaded " + events.size() + " events from index in " + elapsedMs
+                    + " ms (full scan took " + scanMs + " ms, saved " + Math.max(0, scanMs - elapsedMs) + " ms).";
+        }
+    }
+
+    /**
+     * Loads discovered events from the index file when its key matches, otherwise runs
+     * {@link EventDiscovery#discover} and writes a fresh index. Failures to read or write the
+     * index are logged and never prevent discovery.
+     *
+     * @param indexFile       index location under the plugin data folder
+     * @param indexKey        server version + plugin version; any change invalidates the index
+     * @param classLoader     classloader that can load Bukkit/Paper event classes
+     * @param existingKeys    keys already defined; passed through to a scan
+     * @param handledClasses  classes handled by EventListener; passed through to a scan
+     */
+    public static Result loadOrDiscover(
+            File indexFile,
+            String indexKey,
+            ClassLoader classLoader,
+            Set<String> existingKeys,
+            Set<Class<? extends Event>> handledClasses,
+            Logger logger
+    ) {
+        long start = System.nanoTime();
+        if (indexFile.isFile()) {
+            try {
+                Loaded loaded = read(indexFile, indexKey, classLoader);
+                if (loaded != null) {
+                    return new Result(loaded.events, true, System.nanoTime() - start, loaded.scanNanos);
+                }
+            } catch (IOException | RuntimeException e) {
+                logger.warning("Event discovery index unreadable, rescanning: " + e.getMessage());
+            }
+        }
+        List<EventDiscovery.DiscoveredEvent> events = EventDiscovery.discover(classLoader, existingKeys, handledClasses);
+        long scanNanos = System.nanoTime() - start;
+        try {
+            write(indexFile, indexKey, scanNanos, events);
+        } catch (IOException e) {
+            logger.warning("Could not write event discovery index " + indexFile + ": " + e.getMessage());
+        }
+        return new Result(events, false, scanNanos, scanNanos);
+    }
+
+    private record Loaded(List<EventDiscovery.DiscoveredEvent> events, long scanNanos) {
+    }
+
+    /** Returns null when the index is for another key or names a class that no longer loads. */
+    private static Loaded read(File file, String indexKey, ClassLoader classLoader) throws IOException {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+            if (in.readInt() != MAGIC || in.readInt() != FORMAT_VERSION || !indexKey.equals(in.readUTF())) {
+                return null;
+            }
+            long scanNanos = in.readLong();
+            int count = in.readInt();
+            List<EventDiscovery.DiscoveredEvent> events = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                String className = in.readUTF();
+                String key = in.readUTF();
+                String description = in.readUTF();
+                int predicateCount = in.readInt();
+                Map<String, String> predicates = new LinkedHashMap<>();
+                for (int p = 0; p < predicateCount; p++) {
+                    predicates.put(in.readUTF(), in.readUTF());
+                }
+                Class<? extends Event> eventClass = loadEventClass(className, classLoader);
+                if (eventClass == null) {
+                    return null;
+                }
+                events.add(EventDiscovery.describe(eventClass, key, description, Map.copyOf(predicates)));
+            }
+            return new Loaded(events, scanNanos);
+        }
+    }
+
+    private static Class<? extends Event> loadEventClass(String className, ClassLoader classLoader) {
+        try {
+            Class<?> cls = Class.forName(className, false, classLoader);
+            return Event.class.isAssignableFrom(cls) ? cls.asSubclass(Event.class) : null;
+        } catch (ClassNotFoundException | LinkageError e) {
+            return null;
+        }
+    }
+
+    private static void write(
+            File file,
+            String indexKey,
+            long scanNanos,
+            List<EventDiscovery.DiscoveredEvent> events
+    ) throws IOException {
+        File parent = file.getParentFile();
+        if (parent != null && !parent.exists() && !parent.mkdirs()) {
+            throw new IOException("cannot create " + parent);
+        }
+        File tmp = new File(file.getPath() + ".tmp");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(tmp)))) {
+            out.writeInt(MAGIC);
+            out.writeInt(FORMAT_VERSION);
+            out.writeUTF(indexKey);
+            out.writeLong(scanNanos);
+            out.writeInt(events.size());
+            for (EventDiscovery.DiscoveredEvent event : events) {
+                out.writeUTF(event.eventClass().getName());
+                out.writeUTF(event.key());
+                out.writeUTF(event.definition().getDescription());
+                Map<String, String> predicates = event.definition().getPredicateFields();
+                out.writeInt(predicates.size());
+                for (Map.Entry<String, String> predicate : predicates.entrySet()) {
+                    out.writeUTF(predicate.getKey());
+                    out.writeUTF(predicate.getValue());
+                }
+            }
+        }
+        Files.move(tmp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+}
@@ -2,6 +2,7 @@ package com.chibashr.allthewebhooks.events;
 
 import com.chibashr.allthewebhooks.routing.EventRouter;
 import java.util.Set;
+import org.bukkit.World;
 import org.bukkit.event.Event;
 import org.bukkit.event.EventHandler;
 import org.bukkit.event.EventPriority;
@@ -48,56 +49,67 @@ public class EventListener implements Listener {
 
     @EventHandler(priority = EventPriority.MONITOR)
     public void onPlayerJoin(PlayerJoinEvent event) {
-        router.handleEvent(registry.buildContext("player.join", event));
+        route("player.join", event.getPlayer().getWorld(), event);
     }
 
     @EventHandler(priority = EventPriority.MONITOR)
     public void onPlayerQuit(PlayerQuitEvent event) {
-        router.handleEvent(registry.buildContext("player.quit", event));
+        route("player.quit", event.getPlayer().getWorld(), event);
     }
 
     @EventHandler(priority = EventPriority.MONITOR)
     public void onPlayerChat(AsyncPlayerChatEvent event) {
-        router.handleEvent(registry.buildContext("player.chat", event));
+        route("player.chat", event.getPlayer().getWorld(), event);
     }
 
     @EventHandler(priority = EventPriority.MONITOR)
     public void onPlayerCommand(PlayerCommandPreprocessEvent event) {
-        router.handleEvent(registry.buildContext("player.command", event));
+        route("player.command", event.getPlayer().getWorld(), event);
     }
 
     @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
     public void onPlayerBreak(BlockBreakEvent event) {
-        router.handleEvent(registry.buildContext("player.break.block", event));
+        route("player.break.block", event.getPlayer().getWorld(), event);
     }
 
     @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
     public void onPlayerPlace(BlockPlaceEvent event) {
-        router.handleEvent(registry.buildContext("player.place.block", event));
+        route("player.place.block", event.getPlayer().getWorld(), event);
     }
 
     @EventHandler(priority = EventPriority.MONITOR)
     public void onPlayerDeath(PlayerDeathEvent event) {
-        router.handleEvent(registry.buildContext("player.death", event));
+        route("player.death", event.getEntity().getWorld(), event);
     }
 
     @EventHandler(priority = EventPriority.MONITOR)
     public void onEntityDamage(EntityDamageEvent event) {
-        router.handleEvent(registry.buildContext("entity.damage.player", event));
+        route("entity.damage.player", event.getEntity().getWorld(), event);
     }
 
     @EventHandler(priority = EventPriority.MONITOR)
     public void onInventoryOpen(InventoryOpenEvent event) {
-        router.handleEvent(registry.buildContext("inventory.open", event));
+        route("inventory.open", event.getPlayer().getWorld(), event);
     }
 
     @EventHandler(priority = EventPriority.MONITOR)
     public void onWorldTimeSkip(TimeSkipEvent event) {
-        router.handleEvent(registry.buildContext("world.time.change", event));
+        route("world.time.change", event.getWorld(), event);
     }
 
     @EventHandler(priority = EventPriority.MONITOR)
     public void onWorldLoad(WorldLoadEvent event) {
-        router.handleEvent(registry.buildContext("world.load", event));
+        route("world.load", event.getWorld(), event);
+    }
+
+    /**
+     * Builds and routes the context only when some enabled rule could fire for this key in the
+     * event's world; otherwise returns before any enrichment happens.
+     */
+    private void route(String key, World world, Event event) {
+        if (!router.isInterested(key, world)) {
+            return;
+        }
+        router.submit(registry.buildContext(key, event));
     }
 }
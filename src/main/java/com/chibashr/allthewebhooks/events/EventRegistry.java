@@ -23,13 +23,19 @@ import org.bukkit.event.player.PlayerCommandPreprocessEvent;
 import org.bukkit.event.world.TimeSkipEvent;
 import org.bukkit.event.world.WorldLoadEvent;
 
+/**
+ * Event definitions by key. Both maps are immutable snapshots replaced on every change
+ * (copy-on-write), so listeners on the main thread can read while discovery adds definitions
+ * from a background thread.
+ */
 public class EventRegistry {
-    private final Map<String, EventDefinition> baseDefinitions;
-    private final Map<String, EventDefinition> definitions;
+    private volatile Map<String, EventDefinition> baseDefinitions;
+    private volatile Map<String, EventDefinition> definitions;
+    private EventConfig lastConfig;
 
     private EventRegistry(Map<String, EventDefinition> baseDefinitions) {
-        this.baseDefinitions = new LinkedHashMap<>(baseDefinitions);
-        this.definitions = new LinkedHashMap<>(baseDefinitions);
+        this.baseDefinitions = Collections.unmodifiableMap(new LinkedHashMap<>(baseDefinitions));
+        this.definitions = this.baseDefinitions;
     }
 
     public static EventRegistry createDefault() {
@@ -246,33 +252,46 @@ public class EventRegistry {
         return new EventRegistry(definitions);
     }
 
-    public void updateFromConfig(EventConfig config) {
-        definitions.clear();
-        definitions.putAll(baseDefinitions);
-        if (config == null) {
-            return;
-        }
-        for (String key : config.getAllConfiguredKeys()) {
-            if (!definitions.containsKey(key)) {
-                EventDefinition derived = deriveDefinition(key);
-                if (derived != null) {
-                    definitions.put(key, derived);
+    public synchronized void updateFromConfig(EventConfig config) {
+        lastConfig = config;
+        Map<String, EventDefinition> updated = new LinkedHashMap<>(baseDefinitions);
+        if (config != null) {
+            for (String key : config.getAllConfiguredKeys()) {
+                if (!updated.containsKey(key)) {
+                    EventDefinition derived = deriveDefinition(key);
+                    if (derived != null) {
+                        updated.put(key, derived);
+                    }
                 }
             }
         }
+        definitions = Collections.unmodifiableMap(updated);
     }
 
     public Set<String> getBaseDefinitionKeys() {
-        return Collections.unmodifiableSet(baseDefinitions.keySet());
+        return baseDefinitions.keySet();
     }
 
     public void addDiscoveredDefinition(EventDefinition definition) {
         if (definition == null) {
             return;
         }
-        String key = definition.getKey();
-        baseDefinitions.put(key, definition);
-        definitions.put(key, definition);
+        addDiscoveredDefinitions(List.of(definition));
+    }
+
+    /**
+     * Adds discovered definitions in one step and re-derives config keys against them, so
+     * readers see either none or all of the batch.
+     */
+    public synchronized void addDiscoveredDefinitions(Collection<EventDefinition> discovered) {
+        Map<String, EventDefinition> base = new LinkedHashMap<>(baseDefinitions);
+        for (EventDefinition definition : discovered) {
+            if (definition != null) {
+                base.put(definition.getKey(), definition);
+            }
+        }
+        baseDefinitions = Collections.unmodifiableMap(base);
+        updateFromConfig(lastConfig);
     }
 
     public Collection<EventDefinition> getDefinitions() {
@@ -376,8 +395,16 @@ public class EventRegistry {
         return ctx;
     }
 
-    @SuppressWarnings("unchecked")
     public <E extends org.bukkit.event.Event> EventContext buildContext(String key, E event) {
+        return buildContext(key, event, null);
+    }
+
+    /**
+     * Builds a context carrying only the given projected fields where the builder supports it
+     * (null = every field).
+     */
+    @SuppressWarnings("unchecked")
+    public <E extends org.bukkit.event.Event> EventContext buildContext(String key, E event, Set<String> fields) {
         EventDefinition definition = definitions.get(key);
         if (definition == null) {
             return null;
@@ -386,7 +413,7 @@ public class EventRegistry {
         if (builder == null) {
             return null;
         }
-        return builder.build(event);
+        return builder.build(event, fields);
     }
 
     /**
@@ -94,6 +94,7 @@ public final class SubEventDiscovery {
             keys.add("player.death." + fallSuffix);
         }
 
+        List<EventDefinition> discovered = new ArrayList<>();
         for (String key : keys) {
             if (registry.getDefinition(key) != null) {
                 continue;
@@ -115,8 +116,9 @@ public final class SubEventDiscovery {
                     null,
                     "player.death"
             );
-            registry.addDiscoveredDefinition(def);
+            discovered.add(def);
         }
+        registry.addDiscoveredDefinitions(discovered);
     }
 
     private static void discoverEntityDamageEvents(EventRegistry registry) {
@@ -127,6 +129,7 @@ public final class SubEventDiscovery {
         Map<String, String> predicates = new LinkedHashMap<>(base.getPredicateFields());
         Map<String, String> predicateMap = Map.copyOf(predicates);
 
+        List<EventDefinition> discovered = new ArrayList<>();
         for (EntityDamageEvent.DamageCause cause : EntityDamageEvent.DamageCause.values()) {
             String suffix = cause.name().toLowerCase();
             String key = "entity.damage.player." + suffix;
@@ -147,7 +150,8 @@ public final class SubEventDiscovery {
                     null,
                     "entity.damage.player"
             );
-            registry.addDiscoveredDefinition(def);
+            discovered.add(def);
         }
+        registry.addDiscoveredDefinitions(discovered);
     }
 }
@@ -0,0 +1,123 @@
+package com.chibashr.allthewebhooks.routing;
+
+import com.chibashr.allthewebhooks.config.EventConfig;
+import com.chibashr.allthewebhooks.config.EventRule;
+import com.chibashr.allthewebhooks.config.WorldEventConfig;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Per-snapshot answer to "could any enabled rule fire for this event key in this world?".
+ * Listeners consult it before building an {@link com.chibashr.allthewebhooks.events.EventContext},
+ * so events with no rule, a disabled rule, or a disabled world return without enrichment.
+ * <p>
+ * A key is interesting if the resolver would pick an enabled rule for it, or if an enabled rule
+ * is configured for a more specific key below it (e.g. player.death.attack.lava makes the
+ * player.death listener interesting, since its builder emits the specific key). Results are
+ * computed once per key and memoized; repeat lookups are two hash probes and do not allocate.
+ */
+public class EventInterestIndex {
+    private final EventConfig config;
+    private final EventRuleResolver resolver = new EventRuleResolver();
+    private final Map<String, KeyInterest> cache = new ConcurrentHashMap<>();
+
+    public EventInterestIndex(EventConfig config) {
+        this.config = config;
+    }
+
+    /**
+     * True if an event with this key fired in the named world (null = no world in scope)
+     * could be dispatched by some enabled rule.
+     */
+    public boolean isInterested(String eventKey, String worldName) {
+        KeyInterest interest = interestFor(eventKey);
+        if (worldName == null) {
+            return interest.noWorld;
+        }
+        Boolean perWorld = interest.configuredWorlds.get(worldName);
+        return perWorld != null ? perWorld : interest.noWorld;
+    }
+
+    /** True if the key is interesting in at least one world; use when the world is not known yet. */
+    public boolean isInterestedInAnyWorld(String eventKey) {
+        return interestFor(eventKey).anyWorld;
+    }
+
+    private KeyInterest interestFor(String eventKey) {
+        if (eventKey == null) {
+            return KeyInterest.NONE;
+        }
+        KeyInterest interest = cache.get(eventKey);
+        if (interest == null) {
+            interest = compute(eventKey);
+            cache.putIfAbsent(eventKey, interest);
+        }
+        return interest;
+    }
+
+    private KeyInterest compute(String eventKey) {
+        if (config == null) {
+            return KeyInterest.NONE;
+        }
+        String[] eventParts = eventKey.split("\\.");
+        boolean globalDescendant = hasEnabledDescendantRule(config.getEventRules(), eventParts);
+        boolean noWorld = isEnabled(resolver.resolve(config, eventKey, null)) || globalDescendant;
+        boolean anyWorld = noWorld;
+        Map<String, Boolean> configuredWorlds = new HashMap<>();
+        for (Map.Entry<String, WorldEventConfig> entry : config.getWorldConfigs().entrySet()) {
+            WorldEventConfig worldConfig = entry.getValue();
+            boolean interested;
+            if (worldConfig.getEnabled() != null && !worldConfig.getEnabled()) {
+                interested = false;
+            } else {
+                interested = isEnabled(resolver.resolve(config, eventKey, entry.getKey()))
+                        || globalDescendant
+                        || hasEnabledDescendantRule(worldConfig.getEventRules(), eventParts);
+            }
+            configuredWorlds.put(entry.getKey(), interested);
+            anyWorld |= interested;
+        }
+        return new KeyInterest(noWorld, anyWorld, Map.copyOf(configuredWorlds));
+    }
+
+    private static boolean isEnabled(ResolvedEventRule resolved) {
+        return resolved != null && resolved.isEnabled();
+    }
+
+    /**
+     * True if an enabled rule targets a key strictly below eventKey (longer, with every shared
+     * segment equal or a wildcard). Such rules can match keys a builder derives from eventKey.
+     */
+    private boolean hasEnabledDescendantRule(Map<String, EventRule> rules, String[] eventParts) {
+        for (Map.Entry<String, EventRule> entry : rules.entrySet()) {
+            String[] configuredParts = entry.getKey().split("\\.");
+            if (configuredParts.length <= eventParts.length) {
+                continue;
+            }
+            if (!sharedSegmentsMatch(configuredParts, eventParts)) {
+                continue;
+            }
+            EventRule rule = entry.getValue();
+            boolean enabled = rule.getEnabled() == null ? config.getDefaults().isEnabled() : rule.getEnabled();
+            if (enabled) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean sharedSegmentsMatch(String[] configuredParts, String[] eventParts) {
+        for (int i = 0; i < eventParts.length; i++) {
+            String configured = configuredParts[i];
+            if (!"*".equals(configured) && !configured.equals(eventParts[i])) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private record KeyInterest(boolean noWorld, boolean anyWorld, Map<String, Boolean> configuredWorlds) {
+        static final KeyInterest NONE = new KeyInterest(false, false, Map.of());
+    }
+}
@@ -0,0 +1,179 @@
+package com.chibashr.allthewebhooks.routing;
+
+import com.chibashr.allthewebhooks.events.EventContext;
+import com.chibashr.allthewebhooks.util.WarningTracker;
+import com.chibashr.allthewebhooks.util.WorkerThreads;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+/**
+ * Second stage of event handling: a bounded queue of captured (detached) contexts drained by one
+ * dedicated daemon thread, which runs rule resolution, conditions, rendering and dispatch.
+ * {@link #offer} never blocks the event thread; when the queue is full the event is dropped and
+ * counted. Processing lag is the time from enqueue to the worker picking the event up.
+ * <p>
+ * The worker starts on the first offer, so a router that never uses the pipeline never starts
+ * a thread.
+ */
+public class EventPipeline {
+    private static final String THREAD_NAME = "AllTheWebhooks-event-pipeline";
+
+    private record Pending(EventContext context, long enqueuedNanos) {
+    }
+
+    /** Queued by {@link #shutdown} to wake a worker blocked on an empty queue. */
+    private static final Pending STOP = new Pending(null, 0);
+
+    private final BlockingQueue<Pending> queue;
+    private final int capacity;
+    private final Consumer<EventContext> processor;
+    private final WarningTracker warningTracker;
+    private final LongAdder overflowDropped = new LongAdder();
+    private final LongAdder processed = new LongAdder();
+    private final LongAdder totalLagNanos = new LongAdder();
+    private final AtomicLong lastLagNanos = new AtomicLong();
+    private final AtomicLong maxLagNanos = new AtomicLong();
+    private final ThreadFactory threadFactory;
+    private volatile Thread worker;
+    private volatile boolean closed;
+    /** Set when the shutdown deadline passed: the worker stops after its current event. */
+    private volatile boolean abandoned;
+
+    public EventPipeline(int capacity, Consumer<EventContext> processor, WarningTracker warningTracker) {
+        this(capacity, processor, warningTracker, WorkerThreads.platform());
+    }
+
+    /** @param workers supplies the worker thread (platform or virtual, see execution.virtual-threads) */
+    public EventPipeline(int capacity, Consumer<EventContext> processor, WarningTracker warningTracker,
+                         WorkerThreads workers) {
+        this.threadFactory = workers.factory(THREAD_NAME);
+        this.capacity = Math.max(1, capacity);
+        this.queue = new ArrayBlockingQueue<>(this.capacity);
+        this.processor = processor;
+        this.warningTracker = warningTracker;
+    }
+
+    /**
+     * Enqueues a captured context for the worker. Returns false (and counts an overflow drop)
+     * when the queue is full or the pipeline is shut down.
+     */
+    public boolean offer(EventContext context) {
+        if (closed) {
+            overflowDropped.increment();
+            return false;
+        }
+        if (worker == null) {
+            ensureStarted();
+        }
+        if (!queue.offer(new Pending(context, System.nanoTime()))) {
+            overflowDropped.increment();
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Stops accepting events and lets the worker finish what is queued for up to the given time;
+     * only a worker still busy after that is interrupted. Events still queued then are dropped,
+     * counted with the overflow drops, and their number returned so the caller can log it.
+     */
+    public int shutdown(long timeout, TimeUnit unit) {
+        closed = true;
+        Thread current = worker;
+        if (current == null) {
+            return 0;
+        }
+        // If the queue is full the worker is not blocked in take(); it sees closed once drained.
+        queue.offer(STOP);
+        try {
+            current.join(Math.max(1, unit.toMillis(timeout)));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (current.isAlive()) {
+            abandoned = true;
+            current.interrupt();
+        }
+        List<Pending> leftovers = new ArrayList<>();
+        queue.drainTo(leftovers);
+        leftovers.remove(STOP);
+        overflowDropped.add(leftovers.size());
+        return leftovers.size();
+    }
+
+    public int getDepth() {
+        return queue.size();
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    public long getOverflowDropped() {
+        return overflowDropped.sum();
+    }
+
+    public long getProcessed() {
+        return processed.sum();
+    }
+
+    public long getLastLagMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(lastLagNanos.get());
+    }
+
+    public long getMaxLagMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(maxLagNanos.get());
+    }
+
+    public double getAverageLagMillis() {
+        long count = processed.sum();
+        return count == 0 ? 0.0 : totalLagNanos.sum() / (double) count / 1_000_000.0;
+    }
+
+    private synchronized void ensureStarted() {
+        if (worker != null || closed) {
+            return;
+        }
+        worker = threadFactory.newThread(this::run);
+        worker.start();
+    }
+
+    private void run() {
+        while (!abandoned) {
+            Pending pending;
+            try {
+                pending = closed ? queue.poll() : queue.take();
+            } catch (InterruptedException e) {
+                if (closed) {
+                    continue;
+                }
+                return;
+            }
+            if (pending == null) {
+                return;
+            }
+            if (pending == STOP) {
+                continue;
+            }
+            long lag = System.nanoTime() - pending.enqueuedNanos();
+            lastLagNanos.set(lag);
+            maxLagNanos.accumulateAndGet(lag, Math::max);
+            totalLagNanos.add(lag);
+            processed.increment();
+            try {
+                processor.accept(pending.context());
+            } catch (RuntimeException e) {
+                String eventKey = pending.context().getEventKey();
+                warningTracker.warnOnce("pipeline-failure:" + eventKey,
+                        "Event pipeline failed to process " + eventKey + ": " + e);
+            }
+        }
+    }
+}
@@ -2,18 +2,22 @@ package com.chibashr.allthewebhooks.routing;
 
 import com.chibashr.allthewebhooks.config.ConfigManager;
 import com.chibashr.allthewebhooks.config.ConfigurationSnapshot;
+import com.chibashr.allthewebhooks.config.MessageConfig;
 import com.chibashr.allthewebhooks.config.PluginConfig;
 import com.chibashr.allthewebhooks.config.WebhookDefinition;
 import com.chibashr.allthewebhooks.events.EventContext;
-import com.chibashr.allthewebhooks.rules.RuleEngine;
 import com.chibashr.allthewebhooks.stats.StatsTracker;
 import com.chibashr.allthewebhooks.util.MessageResolver;
+import com.chibashr.allthewebhooks.util.MessageTemplate;
 import com.chibashr.allthewebhooks.util.RedactionPolicy;
 import com.chibashr.allthewebhooks.util.WarningTracker;
+import com.chibashr.allthewebhooks.util.WorkerThreads;
 import com.chibashr.allthewebhooks.webhook.WebhookDispatcher;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
 import java.util.function.Consumer;
 import org.bukkit.World;
-import org.bukkit.entity.Player;
 
 public class EventRouter {
     private final ConfigManager configManager;
@@ -21,26 +25,121 @@ public class EventRouter {
     private final StatsTracker statsTracker;
     private final WarningTracker warningTracker;
     private final EventRuleResolver resolver = new EventRuleResolver();
-    private final RuleEngine ruleEngine = new RuleEngine();
+    private final EventPipeline pipeline;
 
     private volatile RedactionPolicy redactionPolicy;
+    private volatile EventInterestIndex interestIndex;
+    private volatile FieldProjection fieldProjection;
+    private volatile CompiledMessages compiledMessages;
+    private volatile boolean closed;
 
     public EventRouter(
             ConfigManager configManager,
             WebhookDispatcher dispatcher,
             StatsTracker statsTracker,
             WarningTracker warningTracker
+    ) {
+        this(configManager, dispatcher, statsTracker, warningTracker, WorkerThreads.platform());
+    }
+
+    public EventRouter(
+            ConfigManager configManager,
+            WebhookDispatcher dispatcher,
+            StatsTracker statsTracker,
+            WarningTracker warningTracker,
+            WorkerThreads workers
     ) {
         this.configManager = configManager;
         this.dispatcher = dispatcher;
         this.statsTracker = statsTracker;
         this.warningTracker = warningTracker;
+        this.pipeline = new EventPipeline(configManager.getSnapshot().pluginConfig().getPipelineQueueCapacity(),
+                this::handleEvent, warningTracker, workers);
         refresh();
     }
 
     public void refresh() {
         PluginConfig config = configManager.getSnapshot().pluginConfig();
         this.redactionPolicy = new RedactionPolicy(config.isRedactionEnabled(), config.getRedactionFields());
+        this.interestIndex = new EventInterestIndex(configManager.getSnapshot().eventConfig());
+        this.fieldProjection = new FieldProjection(configManager.getSnapshot(), redactionPolicy);
+        MessageConfig messages = configManager.getSnapshot().messageConfig();
+        this.compiledMessages = new CompiledMessages(messages,
+                MessageTemplate.compileAll(messages.getMessages(), redactionPolicy));
+    }
+
+    /** Templates compiled for one message config; used only while that config is current. */
+    private record CompiledMessages(MessageConfig source, Map<String, MessageTemplate> templates) {
+    }
+
+    /** Context keys the current config can read for this event key; see {@link FieldProjection}. */
+    public Set<String> projectedFields(String eventKey) {
+        return fieldProjection.fieldsFor(eventKey);
+    }
+
+    public FieldProjection getFieldProjection() {
+        return fieldProjection;
+    }
+
+    /**
+     * Cheap pre-check for listeners: false when no enabled rule can fire for this key in the
+     * given world (or the world is disabled), so the caller can skip building a context.
+     * Short-circuited events are counted in {@link StatsTracker#getShortCircuited()}.
+     */
+    public boolean isInterested(String eventKey, World world) {
+        if (interestIndex.isInterested(eventKey, world == null ? null : world.getName())) {
+            return true;
+        }
+        statsTracker.incrementShortCircuited();
+        return false;
+    }
+
+    /** Like {@link #isInterested(String, World)} for events whose world is only known after building the context. */
+    public boolean isInterestedInAnyWorld(String eventKey) {
+        if (interestIndex.isInterestedInAnyWorld(eventKey)) {
+            return true;
+        }
+        statsTracker.incrementShortCircuited();
+        return false;
+    }
+
+    /**
+     * Entry point for listeners. With execution.event-pipeline enabled, captures the fields and
+     * permissions the configured routes read (see {@link FieldProjection}) while the event is
+     * still live and queues the detached copy for the {@link EventPipeline} worker; resolution,
+     * conditions, rendering and dispatch then run off the event thread. Otherwise handles the
+     * event inline. A full queue drops the event and counts it as dropped.
+     */
+    public void submit(EventContext context) {
+        if (context == null || closed) {
+            return;
+        }
+        context.setWarningTracker(warningTracker);
+        if (!configManager.getSnapshot().pluginConfig().isEventPipeline()) {
+            handleEvent(context);
+            return;
+        }
+        String eventKey = context.getEventKey();
+        FieldProjection projection = fieldProjection;
+        EventContext captured = context.capture(projection.fieldsFor(eventKey), projection.permissionsFor(eventKey));
+        if (!pipeline.offer(captured)) {
+            statsTracker.incrementDropped(eventKey);
+        }
+    }
+
+    public EventPipeline getPipeline() {
+        return pipeline;
+    }
+
+    /**
+     * Stops accepting events and lets the pipeline worker finish what is queued until the
+     * deadline ({@link System#nanoTime()}).
+     *
+     * @return events still queued at the deadline, which are dropped
+     */
+    public int shutdown(long deadlineNanos) {
+        closed = true;
+        return pipeline.shutdown(Math.max(0, deadlineNanos - System.nanoTime()), TimeUnit.NANOSECONDS);
     }
 
     public void handleEvent(EventContext context) {
@@ -59,11 +158,11 @@ public class EventRouter {
             }
             return;
         }
+        context.setWarningTracker(warningTracker);
 
         ConfigurationSnapshot snapshot = configManager.getSnapshot();
         PluginConfig pluginConfig = snapshot.pluginConfig();
-        World world = context.getWorld();
-        String worldName = world == null ? null : world.getName();
+        String worldName = context.getWorldName();
 
         if (report != null) {
             report.accept("[All the Webhooks] Fire: eventKey=" + context.getEventKey()
@@ -88,20 +187,19 @@ public class EventRouter {
             return;
         }
 
-        Player player = context.getPlayer();
         String permission = resolved.getPermission();
         if (permission != null && !permission.isEmpty()) {
-            if (player == null || !player.hasPermission(permission)) {
+            if (context.getPlayerName() == null || !context.hasPermission(permission)) {
                 if (report != null) {
                     report.accept("[All the Webhooks] Permission check failed: " + permission + " (player="
-                            + (player == null ? "null" : player.getName()) + ").");
+                            + context.getPlayerName() + ").");
                 }
                 statsTracker.incrementDropped(context.getEventKey());
                 return;
             }
         }
 
-        if (!ruleEngine.evaluate(resolved.getConditions(), context.getValues())) {
+        if (!resolved.getCompiledConditions().test(context.getValues())) {
             if (report != null) {
                 report.accept("[All the Webhooks] Conditions did not match; event not fired.");
             }
@@ -129,7 +227,14 @@ public class EventRouter {
             return;
         }
 
-        String content = MessageResolver.resolve(template, context.getValues(), redactionPolicy, warningTracker, pluginConfig);
+        CompiledMessages compiled = compiledMessages;
+        MessageTemplate compiledTemplate = compiled.source() == snapshot.messageConfig()
+                ? compiled.templates().get(messageId)
+                : null;
+        String content = compiledTemplate != null
+                ? compiledTemplate.render(context.getValues(), warningTracker, pluginConfig)
+                // Reloaded but not refreshed yet: compile this one on the fly.
+                : MessageResolver.resolve(template, context.getValues(), redactionPolicy, warningTracker, pluginConfig);
         if (report != null) {
             report.accept("[All the Webhooks] Message resolved (template=" + messageId + ").");
         }
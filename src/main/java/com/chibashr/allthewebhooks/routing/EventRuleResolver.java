@@ -1,7 +1,7 @@
 package com.chibashr.allthewebhooks.routing;
 
 import com.chibashr.allthewebhooks.config.EventConfig;
-import com.chibashr.allthewebhooks.config.EventKeyMatcher;
+import com.chibashr.allthewebhooks.config.EventKeyIndex;
 import com.chibashr.allthewebhooks.config.EventRule;
 import com.chibashr.allthewebhooks.config.EventRuleDefaults;
 import com.chibashr.allthewebhooks.config.WorldEventConfig;
@@ -16,31 +16,25 @@ public class EventRuleResolver {
             return ResolvedEventRule.disabled(eventKey);
         }
 
-        ResolvedEventRule resolved = resolveFromRules(
-                worldConfig == null ? Map.of() : worldConfig.getEventRules(),
+        ResolvedEventRule resolved = worldConfig == null ? null : resolveFromRules(
+                worldConfig.getEventRules(),
+                worldConfig.getRuleIndex(),
                 eventKey,
                 defaults
         );
         if (resolved != null) {
             return resolved;
         }
-        return resolveFromRules(config.getEventRules(), eventKey, defaults);
+        return resolveFromRules(config.getEventRules(), config.getRuleIndex(), eventKey, defaults);
     }
 
     private ResolvedEventRule resolveFromRules(
             Map<String, EventRule> rules,
+            EventKeyIndex index,
             String eventKey,
             EventRuleDefaults defaults
     ) {
-        String bestKey = null;
-        EventKeyMatcher.MatchScore bestScore = EventKeyMatcher.MatchScore.NO_MATCH;
-        for (String configuredKey : rules.keySet()) {
-            EventKeyMatcher.MatchScore score = EventKeyMatcher.score(configuredKey, eventKey);
-            if (score.isBetterThan(bestScore)) {
-                bestScore = score;
-                bestKey = configuredKey;
-            }
-        }
+        String bestKey = index.bestMatch(eventKey);
         if (bestKey == null) {
             return null;
         }
@@ -58,7 +52,7 @@ public class EventRuleResolver {
                 webhookUsername,
                 message,
                 permission,
-                rule.getConditions(),
+                rule.getCompiledConditions(),
                 rule.getRateLimitEventsPerSecond()
         );
     }
@@ -0,0 +1,162 @@
+package com.chibashr.allthewebhooks.routing;
+
+import com.chibashr.allthewebhooks.config.ConfigurationSnapshot;
+import com.chibashr.allthewebhooks.config.EventConfig;
+import com.chibashr.allthewebhooks.config.EventKeyMatcher;
+import com.chibashr.allthewebhooks.config.EventRule;
+import com.chibashr.allthewebhooks.config.MessageConfig;
+import com.chibashr.allthewebhooks.config.WorldEventConfig;
+import com.chibashr.allthewebhooks.util.MessageResolver;
+import com.chibashr.allthewebhooks.util.RedactionPolicy;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Per-snapshot set of context keys each configured route can read: its condition fields plus
+ * the placeholders of its message template, minus redacted placeholders (those render as
+ * [REDACTED] and are never read). Context builders use {@link #fieldsFor(String)} to skip
+ * extracting event properties nobody looks at.
+ * <p>
+ * For an event key the projection is the union over every rule that could resolve for it in any
+ * world, including rules on more specific keys a builder may derive from it. The union is a
+ * superset of what the winning rule reads, so projection never hides a field. Results are
+ * memoized per key. {@link #permissionsFor(String)} is the matching union of the routes'
+ * required permissions, which a detached context checks up front.
+ */
+public class FieldProjection {
+    private final EventConfig eventConfig;
+    private final Map<String, Set<String>> routes;
+    private final Map<String, String> routePermissions;
+    private final Map<String, Set<String>> cache = new ConcurrentHashMap<>();
+    private final Map<String, Set<String>> permissionCache = new ConcurrentHashMap<>();
+
+    public FieldProjection(ConfigurationSnapshot snapshot, RedactionPolicy redactionPolicy) {
+        this.eventConfig = snapshot.eventConfig();
+        Map<String, Set<String>> collected = new LinkedHashMap<>();
+        Map<String, String> permissions = new LinkedHashMap<>();
+        MessageConfig messages = snapshot.messageConfig();
+        for (Map.Entry<String, EventRule> entry : eventConfig.getEventRules().entrySet()) {
+            collected.put(entry.getKey(), fieldsOf(entry.getValue(), messages, redactionPolicy));
+            permissions.put(entry.getKey(), permissionOf(entry.getValue()));
+        }
+        for (Map.Entry<String, WorldEventConfig> world : eventConfig.getWorldConfigs().entrySet()) {
+            for (Map.Entry<String, EventRule> entry : world.getValue().getEventRules().entrySet()) {
+                String route = "worlds." + world.getKey() + "." + entry.getKey();
+                collected.put(route, fieldsOf(entry.getValue(), messages, redactionPolicy));
+                permissions.put(route, permissionOf(entry.getValue()));
+            }
+        }
+        this.routes = Collections.unmodifiableMap(collected);
+        this.routePermissions = permissions;
+    }
+
+    /**
+     * Projected fields per configured route, keyed by rule key (world overrides as
+     * worlds.&lt;world&gt;.&lt;key&gt;). Used by /allthewebhooks validate.
+     */
+    public Map<String, Set<String>> getRouteFields() {
+        return routes;
+    }
+
+    /** Context keys any rule that can fire for this event key may read. Never null. */
+    public Set<String> fieldsFor(String eventKey) {
+        if (eventKey == null) {
+            return Set.of();
+        }
+        Set<String> fields = cache.get(eventKey);
+        if (fields == null) {
+            fields = compute(eventKey);
+            cache.putIfAbsent(eventKey, fields);
+        }
+        return fields;
+    }
+
+    /** Permissions any rule that can fire for this event key may require. Never null. */
+    public Set<String> permissionsFor(String eventKey) {
+        if (eventKey == null) {
+            return Set.of();
+        }
+        Set<String> permissions = permissionCache.get(eventKey);
+        if (permissions == null) {
+            permissions = new TreeSet<>();
+            for (String route : matchingRoutes(eventKey)) {
+                String permission = routePermissions.get(route);
+                if (permission != null && !permission.isEmpty()) {
+                    permissions.add(permission);
+                }
+            }
+            permissions = Set.copyOf(permissions);
+            permissionCache.putIfAbsent(eventKey, permissions);
+        }
+        return permissions;
+    }
+
+    private Set<String> compute(String eventKey) {
+        Set<String> fields = new TreeSet<>();
+        for (String route : matchingRoutes(eventKey)) {
+            fields.addAll(routes.get(route));
+        }
+        return Set.copyOf(fields);
+    }
+
+    private List<String> matchingRoutes(String eventKey) {
+        List<String> matching = new ArrayList<>();
+        String[] eventParts = eventKey.split("\\.");
+        for (String ruleKey : eventConfig.getEventRules().keySet()) {
+            if (canFireFor(ruleKey, eventKey, eventParts)) {
+                matching.add(ruleKey);
+            }
+        }
+        for (Map.Entry<String, WorldEventConfig> world : eventConfig.getWorldConfigs().entrySet()) {
+            for (String ruleKey : world.getValue().getEventRules().keySet()) {
+                if (canFireFor(ruleKey, eventKey, eventParts)) {
+                    matching.add("worlds." + world.getKey() + "." + ruleKey);
+                }
+            }
+        }
+        return matching;
+    }
+
+    private static boolean canFireFor(String ruleKey, String eventKey, String[] eventParts) {
+        if (EventKeyMatcher.matches(ruleKey, eventKey)) {
+            return true;
+        }
+        String[] ruleParts = ruleKey.split("\\.");
+        if (ruleParts.length <= eventParts.length) {
+            return false;
+        }
+        for (int i = 0; i < eventParts.length; i++) {
+            if (!"*".equals(ruleParts[i]) && !ruleParts[i].equals(eventParts[i])) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private String permissionOf(EventRule rule) {
+        return rule.getRequirePermission() == null
+                ? eventConfig.getDefaults().getRequirePermission()
+                : rule.getRequirePermission();
+    }
+
+    private Set<String> fieldsOf(EventRule rule, MessageConfig messages, RedactionPolicy redactionPolicy) {
+        Set<String> fields = new TreeSet<>();
+        if (rule.getConditions() != null) {
+            fields.addAll(rule.getConditions().keySet());
+        }
+        String messageId = rule.getMessage() == null ? eventConfig.getDefaults().getMessage() : rule.getMessage();
+        String template = messageId == null || messages == null ? null : messages.getMessage(messageId);
+        for (String placeholder : MessageResolver.placeholderKeys(template)) {
+            if (redactionPolicy == null || !redactionPolicy.isRedacted(placeholder)) {
+                fields.add(placeholder);
+            }
+        }
+        return Collections.unmodifiableSet(fields);
+    }
+}
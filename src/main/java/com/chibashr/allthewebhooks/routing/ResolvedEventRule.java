@@ -1,6 +1,6 @@
 package com.chibashr.allthewebhooks.routing;
 
-import java.util.Collections;
+import com.chibashr.allthewebhooks.rules.CompiledConditions;
 import java.util.Map;
 
 public class ResolvedEventRule {
@@ -11,7 +11,7 @@ public class ResolvedEventRule {
     private final String webhookUsername;
     private final String message;
     private final String permission;
-    private final Map<String, Object> conditions;
+    private final CompiledConditions conditions;
     private final Integer rateLimitEventsPerSecond;
 
     public ResolvedEventRule(
@@ -22,7 +22,7 @@ public class ResolvedEventRule {
             String webhookUsername,
             String message,
             String permission,
-            Map<String, Object> conditions,
+            CompiledConditions conditions,
             Integer rateLimitEventsPerSecond
     ) {
         this.eventKey = eventKey;
@@ -32,12 +32,12 @@ public class ResolvedEventRule {
         this.webhookUsername = webhookUsername;
         this.message = message;
         this.permission = permission;
-        this.conditions = conditions == null ? Map.of() : Collections.unmodifiableMap(conditions);
+        this.conditions = conditions == null ? CompiledConditions.ALWAYS : conditions;
         this.rateLimitEventsPerSecond = rateLimitEventsPerSecond;
     }
 
     public static ResolvedEventRule disabled(String eventKey) {
-        return new ResolvedEventRule(eventKey, null, false, null, null, null, null, Map.of(), null);
+        return new ResolvedEventRule(eventKey, null, false, null, null, null, null, CompiledConditions.ALWAYS, null);
     }
 
     public String getEventKey() {
@@ -69,6 +69,10 @@ public class ResolvedEventRule {
     }
 
     public Map<String, Object> getConditions() {
+        return conditions.source();
+    }
+
+    public CompiledConditions getCompiledConditions() {
         return conditions;
     }
 
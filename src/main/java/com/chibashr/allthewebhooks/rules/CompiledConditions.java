@@ -0,0 +1,281 @@
+package com.chibashr.allthewebhooks.rules;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * A rule's conditions compiled once when the config loads: one check per field, each holding its
+ * operators as resolved nodes. Equality literals are case-folded up front (lists of more than
+ * {@value #SET_THRESHOLD} become a hash set) and numeric literals parsed to double, so a test only
+ * folds or parses the event's own value.
+ * <p>
+ * Matches what {@link RuleEngine#evaluate(Map, Map)} always did: {@code equals} compares like
+ * {@link String#equalsIgnoreCase} and a list matches any item, numbers that do not parse count as 0,
+ * and an unknown operator never matches (it is listed in {@link #problems()} for validation).
+ * <p>
+ * {@code contains-any}, {@code contains-word} and {@code starts-with-any} take a term or list of
+ * terms and build a {@link KeywordAutomaton} once, so a check is linear in the field's length
+ * whatever the number of terms. An item {@code file:<name>} adds the terms of a word-list file in
+ * the events.yaml folder: one per line, blank lines and lines starting with # skipped.
+ * Instances are immutable and thread-safe.
+ */
+public final class CompiledConditions {
+    public static final CompiledConditions ALWAYS = new CompiledConditions(Map.of(), new FieldCheck[0], List.of());
+
+    static final int SET_THRESHOLD = 4;
+    static final String WORD_LIST_PREFIX = "file:";
+    private static final Check NEVER = value -> false;
+
+    private final Map<String, Object> source;
+    private final FieldCheck[] checks;
+    private final List<String> problems;
+
+    private CompiledConditions(Map<String, Object> source, FieldCheck[] checks, List<String> problems) {
+        this.source = source;
+        this.checks = checks;
+        this.problems = problems;
+    }
+
+    /** Compiles a rule's condition map (field to operator map, or to a value for short-form equals). */
+    public static CompiledConditions compile(Map<String, Object> conditions) {
+        return compile(conditions, null);
+    }
+
+    /**
+     * Like {@link #compile(Map)}, resolving {@code file:} word lists against {@code wordListDirectory}
+     * (null when there is none, which makes such items a problem).
+     */
+    @SuppressWarnings("unchecked")
+    public static CompiledConditions compile(Map<String, Object> conditions, Path wordListDirectory) {
+        if (conditions == null || conditions.isEmpty()) {
+            return ALWAYS;
+        }
+        List<FieldCheck> fieldChecks = new ArrayList<>();
+        List<String> problems = new ArrayList<>();
+        for (Map.Entry<String, Object> entry : conditions.entrySet()) {
+            String field = entry.getKey();
+            List<Check> checks = new ArrayList<>();
+            if (entry.getValue() instanceof Map<?, ?> map) {
+                for (Map.Entry<Object, Object> operatorEntry : ((Map<Object, Object>) map).entrySet()) {
+                    String key = String.valueOf(operatorEntry.getKey());
+                    RuleEngine.Operator operator = RuleEngine.Operator.fromKey(key);
+                    if (operator == null) {
+                        problems.add(field + ": unknown operator '" + key + "'");
+                        checks.add(NEVER);
+                    } else {
+                        checks.add(compile(operator, operatorEntry.getValue(), field, wordListDirectory, problems));
+                    }
+                }
+            } else {
+                checks.add(compile(RuleEngine.Operator.EQUALS, entry.getValue(), field, wordListDirectory, problems));
+            }
+            fieldChecks.add(new FieldCheck(field, checks.toArray(new Check[0])));
+        }
+        return new CompiledConditions(conditions, fieldChecks.toArray(new FieldCheck[0]), List.copyOf(problems));
+    }
+
+    public boolean test(Map<String, Object> context) {
+        for (FieldCheck check : checks) {
+            if (!check.test(context.get(check.field))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /** The condition map this was compiled from. */
+    public Map<String, Object> source() {
+        return source;
+    }
+
+    /** What validation should report, e.g. "block.type: unknown operator 'equal'". */
+    public List<String> problems() {
+        return problems;
+    }
+
+    private static Check compile(RuleEngine.Operator operator, Object value, String field,
+                                 Path wordListDirectory, List<String> problems) {
+        return switch (operator) {
+            case EQUALS -> EqualsCheck.of(value, false);
+            case NOT -> EqualsCheck.of(value, true);
+            case GREATER_THAN -> {
+                double bound = toNumber(value);
+                yield fieldValue -> Double.compare(toNumber(fieldValue), bound) > 0;
+            }
+            case LESS_THAN -> {
+                double bound = toNumber(value);
+                yield fieldValue -> Double.compare(toNumber(fieldValue), bound) < 0;
+            }
+            case GREATER_THAN_OR_EQUAL -> {
+                double bound = toNumber(value);
+                yield fieldValue -> Double.compare(toNumber(fieldValue), bound) >= 0;
+            }
+            case LESS_THAN_OR_EQUAL -> {
+                double bound = toNumber(value);
+                yield fieldValue -> Double.compare(toNumber(fieldValue), bound) <= 0;
+            }
+            case CONTAINS_ANY -> {
+                KeywordAutomaton terms = keywords(operator, value, field, wordListDirectory, problems);
+                yield fieldValue -> fieldValue != null && terms.containsAny(String.valueOf(fieldValue));
+            }
+            case CONTAINS_WORD -> {
+                KeywordAutomaton terms = keywords(operator, value, field, wordListDirectory, problems);
+                yield fieldValue -> fieldValue != null && terms.containsWord(String.valueOf(fieldValue));
+            }
+            case STARTS_WITH_ANY -> {
+                KeywordAutomaton terms = keywords(operator, value, field, wordListDirectory, problems);
+                yield fieldValue -> fieldValue != null && terms.startsWithAny(String.valueOf(fieldValue));
+            }
+        };
+    }
+
+    private static KeywordAutomaton keywords(RuleEngine.Operator operator, Object value, String field,
+                                             Path wordListDirectory, List<String> problems) {
+        List<Object> items = new ArrayList<>();
+        EqualsCheck.flatten(value, items);
+        List<String> terms = new ArrayList<>();
+        for (Object item : items) {
+            if (item == null) {
+                continue;
+            }
+            String term = String.valueOf(item);
+            if (term.startsWith(WORD_LIST_PREFIX)) {
+                String problem = readWordList(term.substring(WORD_LIST_PREFIX.length()).trim(), wordListDirectory, terms);
+                if (problem != null) {
+                    problems.add(field + ": " + operator.key() + " " + problem);
+                }
+            } else {
+                terms.add(term);
+            }
+        }
+        return KeywordAutomaton.build(terms);
+    }
+
+    /** Adds a word-list file's terms; returns a problem description, or null if it was read. */
+    private static String readWordList(String name, Path directory, List<String> terms) {
+        if (directory == null) {
+            return "word list " + name + " cannot be read (no events.yaml folder)";
+        }
+        Path file = directory.resolve(name).normalize();
+        if (!file.startsWith(directory.normalize())) {
+            return "word list " + name + " is outside the events.yaml folder";
+        }
+        try {
+            for (String line : Files.readAllLines(file, StandardCharsets.UTF_8)) {
+                String term = line.strip();
+                if (!term.isEmpty() && !term.startsWith("#")) {
+                    terms.add(term);
+                }
+            }
+            return null;
+        } catch (IOException e) {
+            return "word list " + name + " cannot be read: " + e;
+        }
+    }
+
+    static double toNumber(Object value) {
+        if (value instanceof Number number) {
+            return number.doubleValue();
+        }
+        if (value == null) {
+            return 0;
+        }
+        try {
+            return Double.parseDouble(String.valueOf(value));
+        } catch (NumberFormatException ex) {
+            return 0;
+        }
+    }
+
+    /**
+     * Case fold under which two strings are equal exactly when {@link String#equalsIgnoreCase} says
+     * so: each code point maps to {@code toLowerCase(toUpperCase(c))}. ASCII without capitals is
+     * returned as is.
+     */
+    static String fold(String value) {
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c >= 0x80 || (c >= 'A' && c <= 'Z')) {
+                StringBuilder folded = new StringBuilder(value.length()).append(value, 0, i);
+                value.substring(i).codePoints()
+                        .forEach(codePoint -> folded.appendCodePoint(Character.toLowerCase(Character.toUpperCase(codePoint))));
+                return folded.toString();
+            }
+        }
+        return value;
+    }
+
+    @FunctionalInterface
+    private interface Check {
+        boolean test(Object fieldValue);
+    }
+
+    private record FieldCheck(String field, Check[] checks) {
+        boolean test(Object fieldValue) {
+            for (Check check : checks) {
+                if (!check.test(fieldValue)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+
+    /**
+     * {@code equals} (or {@code not} when negated). A null literal matches a missing value, and also
+     * the text "null", as String.valueOf did.
+     */
+    private record EqualsCheck(boolean negate, boolean matchesNull, String[] values, Set<String> valueSet) implements Check {
+        static EqualsCheck of(Object condition, boolean negate) {
+            List<Object> items = new ArrayList<>();
+            flatten(condition, items);
+            boolean matchesNull = false;
+            List<String> folded = new ArrayList<>(items.size());
+            for (Object item : items) {
+                matchesNull |= item == null;
+                folded.add(fold(String.valueOf(item)));
+            }
+            Set<String> set = folded.size() > SET_THRESHOLD ? Collections.unmodifiableSet(new HashSet<>(folded)) : null;
+            return new EqualsCheck(negate, matchesNull, folded.toArray(new String[0]), set);
+        }
+
+        private static void flatten(Object condition, List<Object> out) {
+            if (condition instanceof List<?> list) {
+                for (Object item : list) {
+                    flatten(item, out);
+                }
+            } else {
+                out.add(condition);
+            }
+        }
+
+        @Override
+        public boolean test(Object fieldValue) {
+            return matches(fieldValue) != negate;
+        }
+
+        private boolean matches(Object fieldValue) {
+            if (fieldValue == null) {
+                return matchesNull;
+            }
+            String folded = fold(String.valueOf(fieldValue));
+            if (valueSet != null) {
+                return valueSet.contains(folded);
+            }
+            for (String value : values) {
+                if (value.equals(folded)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+}
@@ -0,0 +1,222 @@
+package com.chibashr.allthewebhooks.rules;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Aho-Corasick automaton over a fixed set of terms, for the {@code contains-any},
+ * {@code contains-word} and {@code starts-with-any} operators. Terms and text are compared
+ * ignoring case (each char folded as {@code toLowerCase(toUpperCase(c))}). One pass over the
+ * text finds every term occurrence, so a check costs time linear in the text however many terms
+ * there are.
+ * <p>
+ * The trie is stored flat: each state's outgoing edges are a sorted slice of {@code edgeChars} /
+ * {@code edgeTargets}, with a dense table for ASCII edges out of the root. Immutable and
+ * thread-safe once built.
+ */
+final class KeywordAutomaton {
+    private static final int ROOT = 0;
+
+    private final int terms;
+    private final int[] edgeStart;
+    private final char[] edgeChars;
+    private final int[] edgeTargets;
+    private final int[] rootAscii;
+    private final int[] fail;
+    /** Length of the term ending at this state, or 0 if none. */
+    private final int[] termLength;
+    /** Nearest state on the failure chain (excluding this one) where a term ends, or -1. */
+    private final int[] outputLink;
+
+    private KeywordAutomaton(int terms, int[] edgeStart, char[] edgeChars, int[] edgeTargets,
+                             int[] fail, int[] termLength, int[] outputLink) {
+        this.terms = terms;
+        this.edgeStart = edgeStart;
+        this.edgeChars = edgeChars;
+        this.edgeTargets = edgeTargets;
+        this.fail = fail;
+        this.termLength = termLength;
+        this.outputLink = outputLink;
+        this.rootAscii = new int[128];
+        Arrays.fill(rootAscii, -1);
+        for (int e = edgeStart[ROOT]; e < edgeStart[ROOT + 1]; e++) {
+            if (edgeChars[e] < 128) {
+                rootAscii[edgeChars[e]] = edgeTargets[e];
+            }
+        }
+    }
+
+    /** Builds the automaton; empty and null terms are skipped. */
+    static KeywordAutomaton build(Collection<String> terms) {
+        // Trie with edges keyed by (state << 16 | char) while building.
+        Map<Long, Integer> edges = new HashMap<>();
+        int[] length = new int[16];
+        int states = 1;
+        int count = 0;
+        for (String term : terms) {
+            if (term == null || term.isEmpty()) {
+                continue;
+            }
+            int state = ROOT;
+            for (int i = 0; i < term.length(); i++) {
+                long key = ((long) state << 16) | fold(term.charAt(i));
+                Integer next = edges.get(key);
+                if (next == null) {
+                    next = states++;
+                    edges.put(key, next);
+                    if (states > length.length) {
+                        length = Arrays.copyOf(length, length.length * 2);
+                    }
+                }
+                state = next;
+            }
+            if (length[state] == 0) {
+                count++;
+            }
+            length[state] = term.length();
+        }
+
+        long[] keys = new long[edges.size()];
+        int k = 0;
+        for (long key : edges.keySet()) {
+            keys[k++] = key;
+        }
+        Arrays.sort(keys);
+        int[] edgeStart = new int[states + 1];
+        char[] edgeChars = new char[keys.length];
+        int[] edgeTargets = new int[keys.length];
+        for (int e = 0; e < keys.length; e++) {
+            int from = (int) (keys[e] >>> 16);
+            edgeStart[from + 1]++;
+            edgeChars[e] = (char) keys[e];
+            edgeTargets[e] = edges.get(keys[e]);
+        }
+        for (int s = 0; s < states; s++) {
+            edgeStart[s + 1] += edgeStart[s];
+        }
+
+        KeywordAutomaton automaton = new KeywordAutomaton(count, edgeStart, edgeChars, edgeTargets,
+                new int[states], Arrays.copyOf(length, states), new int[states]);
+        automaton.link();
+        return automaton;
+    }
+
+    /** Breadth-first over the trie, so a state's failure target is final before its children need it. */
+    private void link() {
+        Arrays.fill(outputLink, -1);
+        ArrayDeque<Integer> queue = new ArrayDeque<>();
+        for (int e = edgeStart[ROOT]; e < edgeStart[ROOT + 1]; e++) {
+            fail[edgeTargets[e]] = ROOT;
+            queue.add(edgeTargets[e]);
+        }
+        while (!queue.isEmpty()) {
+            int state = queue.poll();
+            for (int e = edgeStart[state]; e < edgeStart[state + 1]; e++) {
+                int child = edgeTargets[e];
+                char c = edgeChars[e];
+                int f = fail[state];
+                int target;
+                while ((target = next(f, c)) < 0 && f != ROOT) {
+                    f = fail[f];
+                }
+                fail[child] = target < 0 ? ROOT : target;
+                int failState = fail[child];
+                outputLink[child] = termLength[failState] > 0 ? failState : outputLink[failState];
+                queue.add(child);
+            }
+        }
+    }
+
+    /** Number of distinct terms (after case folding). */
+    int size() {
+        return terms;
+    }
+
+    /** True if any term occurs in {@code text}. */
+    boolean containsAny(String text) {
+        int state = ROOT;
+        for (int i = 0; i < text.length(); i++) {
+            state = step(state, fold(text.charAt(i)));
+            if (termLength[state] > 0 || outputLink[state] >= 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /** True if any term occurs in {@code text} as a whole word: not preceded or followed by a letter, digit or underscore. */
+    boolean containsWord(String text) {
+        int state = ROOT;
+        for (int i = 0; i < text.length(); i++) {
+            state = step(state, fold(text.charAt(i)));
+            if (i + 1 < text.length() && isWordChar(text.charAt(i + 1))) {
+                // Anything ending here is followed by a word character.
+                continue;
+            }
+            for (int match = termLength[state] > 0 ? state : outputLink[state]; match >= 0; match = outputLink[match]) {
+                int start = i + 1 - termLength[match];
+                if (start == 0 || !isWordChar(text.charAt(start - 1))) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /** True if {@code text} starts with any term. */
+    boolean startsWithAny(String text) {
+        int state = ROOT;
+        for (int i = 0; i < text.length(); i++) {
+            state = next(state, fold(text.charAt(i)));
+            if (state < 0) {
+                return false;
+            }
+            if (termLength[state] > 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private int step(int state, char c) {
+        int target;
+        while ((target = next(state, c)) < 0 && state != ROOT) {
+            state = fail[state];
+        }
+        return target < 0 ? ROOT : target;
+    }
+
+    private int next(int state, char c) {
+        if (state == ROOT && c < 128) {
+            return rootAscii[c];
+        }
+        int low = edgeStart[state];
+        int high = edgeStart[state + 1] - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            char edge = edgeChars[mid];
+            if (edge < c) {
+                low = mid + 1;
+            } else if (edge > c) {
+                high = mid - 1;
+            } else {
+                return edgeTargets[mid];
+            }
+        }
+        return -1;
+    }
+
+    private static char fold(char c) {
+        if (c < 128) {
+            return c >= 'A' && c <= 'Z' ? (char) (c + 32) : c;
+        }
+        return Character.toLowerCase(Character.toUpperCase(c));
+    }
+
+    private static boolean isWordChar(char c) {
+        return c == '_' || Character.isLetterOrDigit(c);
+    }
+}
@@ -1,94 +1,46 @@
 package com.chibashr.allthewebhooks.rules;
 
-import java.util.List;
 import java.util.Map;
 
 public class RuleEngine {
-    public boolean evaluate(Map<String, Object> conditions, Map<String, Object> context) {
-        if (conditions == null || conditions.isEmpty()) {
-            return true;
-        }
-        for (Map.Entry<String, Object> entry : conditions.entrySet()) {
-            String field = entry.getKey();
-            Object condition = entry.getValue();
-            Object fieldValue = context.get(field);
-            if (!evaluateCondition(fieldValue, condition)) {
-                return false;
-            }
-        }
-        return true;
-    }
+    /** Condition operators by their events.yaml key; keys match ignoring case. */
+    public enum Operator {
+        EQUALS("equals"),
+        NOT("not"),
+        GREATER_THAN("greater-than"),
+        LESS_THAN("less-than"),
+        GREATER_THAN_OR_EQUAL("greater-than-or-equal"),
+        LESS_THAN_OR_EQUAL("less-than-or-equal"),
+        CONTAINS_ANY("contains-any"),
+        CONTAINS_WORD("contains-word"),
+        STARTS_WITH_ANY("starts-with-any");
 
-    @SuppressWarnings("unchecked")
-    private boolean evaluateCondition(Object fieldValue, Object condition) {
-        if (condition instanceof Map<?, ?> map) {
-            for (Map.Entry<Object, Object> entry : ((Map<Object, Object>) map).entrySet()) {
-                String operator = String.valueOf(entry.getKey());
-                Object value = entry.getValue();
-                if (!evaluateOperator(fieldValue, operator, value)) {
-                    return false;
-                }
-            }
-            return true;
-        }
-        return evaluateOperator(fieldValue, "equals", condition);
-    }
+        private final String key;
 
-    @SuppressWarnings("unchecked")
-    private boolean evaluateOperator(Object fieldValue, String operator, Object value) {
-        if ("equals".equalsIgnoreCase(operator)) {
-            return matchesEquals(fieldValue, value);
-        }
-        if ("not".equalsIgnoreCase(operator)) {
-            return !matchesEquals(fieldValue, value);
-        }
-        if ("greater-than".equalsIgnoreCase(operator)) {
-            return compareNumbers(fieldValue, value) > 0;
+        Operator(String key) {
+            this.key = key;
         }
-        if ("less-than".equalsIgnoreCase(operator)) {
-            return compareNumbers(fieldValue, value) < 0;
-        }
-        if ("greater-than-or-equal".equalsIgnoreCase(operator)) {
-            return compareNumbers(fieldValue, value) >= 0;
-        }
-        if ("less-than-or-equal".equalsIgnoreCase(operator)) {
-            return compareNumbers(fieldValue, value) <= 0;
+
+        public String key() {
+            return key;
         }
-        return false;
-    }
 
-    private boolean matchesEquals(Object fieldValue, Object conditionValue) {
-        if (conditionValue instanceof List<?> list) {
-            for (Object item : list) {
-                if (matchesEquals(fieldValue, item)) {
-                    return true;
+        /** The operator for a config key, or null if there is none. */
+        public static Operator fromKey(String key) {
+            for (Operator operator : values()) {
+                if (operator.key.equalsIgnoreCase(key)) {
+                    return operator;
                 }
             }
-            return false;
-        }
-        if (fieldValue == null) {
-            return conditionValue == null;
+            return null;
         }
-        return String.valueOf(fieldValue).equalsIgnoreCase(String.valueOf(conditionValue));
     }
 
-    private int compareNumbers(Object fieldValue, Object conditionValue) {
-        double fieldNumber = toNumber(fieldValue);
-        double conditionNumber = toNumber(conditionValue);
-        return Double.compare(fieldNumber, conditionNumber);
-    }
-
-    private double toNumber(Object value) {
-        if (value instanceof Number number) {
-            return number.doubleValue();
-        }
-        if (value == null) {
-            return 0;
-        }
-        try {
-            return Double.parseDouble(String.valueOf(value));
-        } catch (NumberFormatException ex) {
-            return 0;
-        }
+    /**
+     * Evaluates a condition map against an event context. Compiles the conditions on every call;
+     * the router evaluates conditions compiled once per config load instead (see {@link CompiledConditions}).
+     */
+    public boolean evaluate(Map<String, Object> conditions, Map<String, Object> context) {
+        return CompiledConditions.compile(conditions).test(context);
     }
 }
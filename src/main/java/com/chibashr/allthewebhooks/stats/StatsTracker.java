@@ -10,6 +10,9 @@ public class StatsTracker {
     private final LongAdder dropped = new LongAdder();
     private final LongAdder webhookFailures = new LongAdder();
     private final LongAdder rateLimited = new LongAdder();
+    private final LongAdder shortCircuited = new LongAdder();
+    private final LongAdder sentAfterRetry = new LongAdder();
+    private final LongAdder retries = new LongAdder();
     private final Map<String, LongAdder> perEventSent = new ConcurrentHashMap<>();
     private final Map<String, LongAdder> perEventDropped = new ConcurrentHashMap<>();
     private final Map<String, LongAdder> perEventFailures = new ConcurrentHashMap<>();
@@ -35,6 +38,21 @@ public class StatsTracker {
         perEventRateLimited.computeIfAbsent(eventKey, key -> new LongAdder()).increment();
     }
 
+    /** Counts an event skipped before context building because no enabled rule could fire for it. */
+    public void incrementShortCircuited() {
+        shortCircuited.increment();
+    }
+
+    /** Counts a send that succeeded only after one or more retries (also counted by incrementSent). */
+    public void incrementSentAfterRetry() {
+        sentAfterRetry.increment();
+    }
+
+    /** Counts a failed send that was scheduled for another attempt. */
+    public void incrementRetried() {
+        retries.increment();
+    }
+
     public long getSent() {
         return sent.sum();
     }
@@ -51,6 +69,18 @@ public class StatsTracker {
         return rateLimited.sum();
     }
 
+    public long getShortCircuited() {
+        return shortCircuited.sum();
+    }
+
+    public long getSentAfterRetry() {
+        return sentAfterRetry.sum();
+    }
+
+    public long getRetries() {
+        return retries.sum();
+    }
+
     public Map<String, LongAdder> getPerEventSent() {
         return Collections.unmodifiableMap(perEventSent);
     }
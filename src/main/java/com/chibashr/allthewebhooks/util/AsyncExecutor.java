@@ -17,4 +17,13 @@ public class AsyncExecutor {
             Bukkit.getScheduler().runTaskAsynchronously(plugin, task);
         }
     }
+
+    /** Runs the task on the main (global region) thread on the next tick. */
+    public void runOnMain(Runnable task) {
+        try {
+            Bukkit.getGlobalRegionScheduler().execute(plugin, task);
+        } catch (NoSuchMethodError error) {
+            Bukkit.getScheduler().runTask(plugin, task);
+        }
+    }
 }
@@ -0,0 +1,1101 @@
+package com.chibashr.allthewebhooks.util;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Regular expressions matched in time linear in the input (a Pike VM, as in RE2), for the
+ * {@code regex} placeholder transform. The pattern compiles to a small NFA program; matching runs
+ * all NFA threads in lockstep over the input, so no pattern can backtrack exponentially, and it
+ * runs on the calling thread. Thread priority follows the order a backtracking engine would try
+ * alternatives, so which match is found and what the groups capture agree with
+ * {@link java.util.regex.Pattern}. Like Java, a repetition stops after an iteration that matched
+ * empty; each such loop records its iteration start in an extra thread slot to check this. Group
+ * captures can still differ from Java's in rare nested repetitions whose body can match empty,
+ * since threads that reach the same state are merged.
+ * <p>
+ * Supported: literals, {@code .}, classes ({@code [a-z]}, {@code [^...]}, {@code \d \w \s} and
+ * their negations), groups (capturing, {@code (?<name>...)}, {@code (?:...)}), alternation, greedy
+ * and lazy quantifiers ({@code * + ? {n} {n,} {n,m}}), {@code ^ $ \A \z \Z \b \B}, {@code \Q...\E},
+ * and the {@code (?i)} flag (ASCII case folding, as in Java). Features that need backtracking
+ * (backreferences, lookaround, possessive and atomic groups) and other flags are rejected when
+ * the pattern is compiled, with an {@link IllegalArgumentException}.
+ * <p>
+ * Compiled instances are immutable and thread-safe.
+ */
+final class LinearRegex {
+    /** Upper bound on program size, so counted repetition like {@code (x{100}){100}} is rejected. */
+    static final int MAX_PROGRAM = 10_000;
+
+    private static final int CLASS = 0;
+    private static final int MATCH = 1;
+    private static final int JMP = 2;
+    private static final int SPLIT = 3;
+    private static final int SAVE = 4;
+    private static final int ASSERT = 5;
+    /** Jumps to args2 if the position equals slot args (the loop body matched empty), else falls through. */
+    private static final int EMPTY_CHECK = 6;
+
+    private static final int BEGIN = 0;
+    private static final int END = 1;
+    private static final int END_BEFORE_TERMINATOR = 2;
+    private static final int WORD_BOUNDARY = 3;
+    private static final int NOT_WORD_BOUNDARY = 4;
+
+    private static final int MAX_CODE_POINT = Character.MAX_CODE_POINT;
+    private static final int[] DIGIT = {'0', '9'};
+    private static final int[] WORD = {'0', '9', 'A', 'Z', '_', '_', 'a', 'z'};
+    private static final int[] SPACE = {'\t', '\r', ' ', ' '};
+    private static final int[] LINE_TERMINATORS = {'\n', '\n', '\r', '\r', 0x85, 0x85, 0x2028, 0x2029};
+
+    private final String pattern;
+    private final int[] ops;
+    private final int[] args;
+    private final int[] args2;
+    /** Start slot of the innermost empty-checked loop around each instruction, or -1. */
+    private final int[] loops;
+    private final int[][] classes;
+    private final int groupCount;
+    /** Capture slots (two per group, group 0 included) followed by loop start slots. */
+    private final int slots;
+    private final Map<String, Integer> groupNames;
+
+    private LinearRegex(String pattern, Program program, int groupCount, Map<String, Integer> groupNames) {
+        this.pattern = pattern;
+        this.ops = Arrays.copyOf(program.ops, program.size);
+        this.args = Arrays.copyOf(program.args, program.size);
+        this.args2 = Arrays.copyOf(program.args2, program.size);
+        this.loops = Arrays.copyOf(program.loops, program.size);
+        this.classes = program.classes.toArray(new int[0][]);
+        this.groupCount = groupCount;
+        this.slots = program.slots;
+        this.groupNames = Map.copyOf(groupNames);
+    }
+
+    /** Compiles a pattern; unsupported or malformed patterns throw {@link IllegalArgumentException}. */
+    static LinearRegex compile(String pattern) {
+        Parser parser = new Parser(pattern);
+        Node root = parser.parse();
+        Program program = new Program(2 * (parser.groups + 1));
+        program.emit(SAVE, 0, 0);
+        root.emit(program);
+        program.emit(SAVE, 1, 0);
+        program.emit(MATCH, 0, 0);
+        return new LinearRegex(pattern, program, parser.groups, parser.names);
+    }
+
+    String pattern() {
+        return pattern;
+    }
+
+    int groupCount() {
+        return groupCount;
+    }
+
+    /** True if the pattern matches somewhere in {@code input}. */
+    boolean find(String input) {
+        return search(input, 0, new Matcher(this)) != null;
+    }
+
+    /**
+     * Like {@link String#replaceAll(String, String)}: {@code $n} and {@code ${name}} insert groups,
+     * a backslash quotes the next character, and an empty match advances by one character.
+     */
+    String replaceAll(String input, Replacement replacement) {
+        Matcher matcher = new Matcher(this);
+        int[] groups = search(input, 0, matcher);
+        if (groups == null) {
+            return input;
+        }
+        replacement.check();
+        StringBuilder builder = new StringBuilder(input.length() + 16);
+        int appendFrom = 0;
+        while (groups != null) {
+            builder.append(input, appendFrom, groups[0]);
+            replacement.appendTo(builder, input, groups);
+            appendFrom = groups[1];
+            int next = groups[1];
+            if (groups[1] == groups[0]) {
+                if (next >= input.length()) {
+                    break;
+                }
+                next += Character.charCount(input.codePointAt(next));
+            }
+            groups = next > input.length() ? null : search(input, next, matcher);
+        }
+        builder.append(input, appendFrom, input.length());
+        return builder.toString();
+    }
+
+    /** Parses a {@link String#replaceAll}-style replacement for this pattern's groups. */
+    Replacement replacement(String replacement) {
+        return new Replacement(replacement, groupCount, groupNames);
+    }
+
+    /** Leftmost match at or after {@code from}: group boundaries (start, end pairs; -1 if unset), or null. */
+    private int[] search(String input, int from, Matcher matcher) {
+        ThreadList current = matcher.current;
+        ThreadList next = matcher.next;
+        current.clear();
+        int length = input.length();
+        int[] matched = null;
+        int[] initial = new int[slots];
+        Arrays.fill(initial, -1);
+        int pos = from;
+        while (true) {
+            if (matched == null) {
+                addThread(current, 0, initial, input, pos, matcher);
+            }
+            if (current.size == 0 && matched != null) {
+                break;
+            }
+            int codePoint = pos < length ? input.codePointAt(pos) : -1;
+            int nextPos = pos + (codePoint >= Character.MIN_SUPPLEMENTARY_CODE_POINT ? 2 : 1);
+            next.clear();
+            for (int i = 0; i < current.size; i++) {
+                int pc = current.pcs[i];
+                int[] caps = current.caps[i];
+                if (ops[pc] == MATCH) {
+                    matched = caps;
+                    // Lower-priority threads lose to this match.
+                    break;
+                }
+                if (codePoint >= 0 && inClass(classes[args[pc]], codePoint)) {
+                    addThread(next, pc + 1, caps, input, nextPos, matcher);
+                }
+            }
+            ThreadList swap = current;
+            current = next;
+            next = swap;
+            if (pos >= length) {
+                break;
+            }
+            pos = nextPos;
+        }
+        matcher.current = current;
+        matcher.next = next;
+        return matched;
+    }
+
+    /** Follows jumps, splits, saves and assertions from {@code start}, adding runnable threads in priority order. */
+    private void addThread(ThreadList list, int start, int[] startCaps, String input, int pos, Matcher matcher) {
+        int[] stackPcs = matcher.stackPcs;
+        int[][] stackCaps = matcher.stackCaps;
+        int top = 0;
+        stackPcs[top] = start;
+        stackCaps[top++] = startCaps;
+        while (top > 0) {
+            int pc = stackPcs[--top];
+            int[] caps = stackCaps[top];
+            stackCaps[top] = null;
+            // Threads inside a loop that just started an iteration here are kept apart from ones
+            // continuing an earlier iteration: only the former leave the loop at EMPTY_CHECK.
+            int loop = loops[pc];
+            int key = loop >= 0 && caps[loop] == pos ? 2 * pc + 1 : 2 * pc;
+            if (list.mark[key] == list.generation) {
+                continue;
+            }
+            list.mark[key] = list.generation;
+            switch (ops[pc]) {
+                case JMP -> {
+                    stackPcs[top] = args[pc];
+                    stackCaps[top++] = caps;
+                }
+                case SPLIT -> {
+                    // Second branch pushed first so the first is explored first.
+                    stackPcs[top] = args2[pc];
+                    stackCaps[top++] = caps;
+                    stackPcs[top] = args[pc];
+                    stackCaps[top++] = caps;
+                }
+                case SAVE -> {
+                    int[] copy = caps.clone();
+                    copy[args[pc]] = pos;
+                    stackPcs[top] = pc + 1;
+                    stackCaps[top++] = copy;
+                }
+                case EMPTY_CHECK -> {
+                    stackPcs[top] = caps[args[pc]] == pos ? args2[pc] : pc + 1;
+                    stackCaps[top++] = caps;
+                }
+                case ASSERT -> {
+                    if (holds(args[pc], input, pos)) {
+                        stackPcs[top] = pc + 1;
+                        stackCaps[top++] = caps;
+                    }
+                }
+                default -> list.add(pc, caps);
+            }
+        }
+    }
+
+    private static boolean holds(int assertion, String input, int pos) {
+        int length = input.length();
+        return switch (assertion) {
+            case BEGIN -> pos == 0;
+            case END -> pos == length;
+            case END_BEFORE_TERMINATOR -> {
+                if (pos == length) {
+                    yield true;
+                }
+                if (pos == length - 1) {
+                    char c = input.charAt(pos);
+                    if (c == '\n') {
+                        yield pos == 0 || input.charAt(pos - 1) != '\r';
+                    }
+                    yield c == '\r' || c == '\u0085' || c == 0x2028 || c == 0x2029;
+                }
+                yield pos == length - 2 && input.charAt(pos) == '\r' && input.charAt(pos + 1) == '\n';
+            }
+            case WORD_BOUNDARY, NOT_WORD_BOUNDARY -> {
+                boolean before = pos > 0 && isWord(input.codePointBefore(pos));
+                boolean after = pos < length && isWord(input.codePointAt(pos));
+                yield (before != after) == (assertion == WORD_BOUNDARY);
+            }
+            default -> false;
+        };
+    }
+
+    private static boolean isWord(int codePoint) {
+        return codePoint == '_' || Character.isLetterOrDigit(codePoint);
+    }
+
+    private static boolean inClass(int[] ranges, int codePoint) {
+        int low = 0;
+        int high = ranges.length / 2 - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            if (codePoint < ranges[2 * mid]) {
+                high = mid - 1;
+            } else if (codePoint > ranges[2 * mid + 1]) {
+                low = mid + 1;
+            } else {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /** Per-call scratch: two thread lists and the addThread stack. */
+    private static final class Matcher {
+        private ThreadList current;
+        private ThreadList next;
+        private final int[] stackPcs;
+        private final int[][] stackCaps;
+
+        Matcher(LinearRegex regex) {
+            int size = regex.ops.length;
+            current = new ThreadList(size);
+            next = new ThreadList(size);
+            // Each instruction is visited at most twice per addThread, and a split pushes two entries.
+            stackPcs = new int[4 * size + 2];
+            stackCaps = new int[4 * size + 2][];
+        }
+    }
+
+    private static final class ThreadList {
+        private final int[] pcs;
+        private final int[][] caps;
+        private final int[] mark;
+        private int generation = 1;
+        private int size;
+
+        ThreadList(int programSize) {
+            pcs = new int[2 * programSize];
+            caps = new int[2 * programSize][];
+            mark = new int[2 * programSize];
+        }
+
+        void clear() {
+            Arrays.fill(caps, 0, size, null);
+            size = 0;
+            generation++;
+        }
+
+        void add(int pc, int[] threadCaps) {
+            pcs[size] = pc;
+            caps[size++] = threadCaps;
+        }
+    }
+
+    /** A parsed replacement string; a malformed one fails on the first match, as in {@link java.util.regex.Matcher}. */
+    static final class Replacement {
+        private final List<Object> parts = new ArrayList<>();
+        private final RuntimeException error;
+
+        private Replacement(String replacement, int groupCount, Map<String, Integer> names) {
+            RuntimeException failure = null;
+            try {
+                parse(replacement, groupCount, names);
+            } catch (RuntimeException e) {
+                failure = e;
+            }
+            this.error = failure;
+        }
+
+        private void parse(String replacement, int groupCount, Map<String, Integer> names) {
+            StringBuilder literal = new StringBuilder();
+            int i = 0;
+            while (i < replacement.length()) {
+                char c = replacement.charAt(i++);
+                if (c == '\\') {
+                    if (i == replacement.length()) {
+                        throw new IllegalArgumentException("character to be escaped is missing");
+                    }
+                    literal.append(replacement.charAt(i++));
+                } else if (c == '$') {
+                    if (i == replacement.length()) {
+                        throw new IllegalArgumentException("Illegal group reference: group index is missing");
+                    }
+                    int group;
+                    if (replacement.charAt(i) == '{') {
+                        int close = replacement.indexOf('}', i);
+                        if (close < 0) {
+                            throw new IllegalArgumentException("named capturing group is missing trailing '}'");
+                        }
+                        String name = replacement.substring(i + 1, close);
+                        Integer index = names.get(name);
+                        if (index == null) {
+                            throw new IllegalArgumentException("No group with name {" + name + "}");
+                        }
+                        group = index;
+                        i = close + 1;
+                    } else {
+                        int digit = replacement.charAt(i) - '0';
+                        if (digit < 0 || digit > 9) {
+                            throw new IllegalArgumentException("Illegal group reference");
+                        }
+                        group = digit;
+                        i++;
+                        while (i < replacement.length()) {
+                            int more = replacement.charAt(i) - '0';
+                            if (more < 0 || more > 9 || group * 10 + more > groupCount) {
+                                break;
+                            }
+                            group = group * 10 + more;
+                            i++;
+                        }
+                        if (group > groupCount) {
+                            throw new IndexOutOfBoundsException("No group " + group);
+                        }
+                    }
+                    if (!literal.isEmpty()) {
+                        parts.add(literal.toString());
+                        literal.setLength(0);
+                    }
+                    parts.add(group);
+                } else {
+                    literal.append(c);
+                }
+            }
+            if (!literal.isEmpty()) {
+                parts.add(literal.toString());
+            }
+        }
+
+        private void check() {
+            if (error != null) {
+                throw error;
+            }
+        }
+
+        private void appendTo(StringBuilder builder, String input, int[] groups) {
+            for (Object part : parts) {
+                if (part instanceof String literal) {
+                    builder.append(literal);
+                } else {
+                    int group = (Integer) part;
+                    if (groups[2 * group] >= 0 && groups[2 * group + 1] >= 0) {
+                        builder.append(input, groups[2 * group], groups[2 * group + 1]);
+                    }
+                }
+            }
+        }
+    }
+
+    /** Instruction buffer used while compiling. */
+    private static final class Program {
+        private int[] ops = new int[64];
+        private int[] args = new int[64];
+        private int[] args2 = new int[64];
+        private int[] loops = new int[64];
+        private final List<int[]> classes = new ArrayList<>();
+        private int size;
+        private int slots;
+        private int loop = -1;
+
+        Program(int captureSlots) {
+            this.slots = captureSlots;
+        }
+
+        int emit(int op, int arg, int arg2) {
+            if (size == MAX_PROGRAM) {
+                throw new IllegalArgumentException("pattern too large (more than " + MAX_PROGRAM + " instructions)");
+            }
+            if (size == ops.length) {
+                ops = Arrays.copyOf(ops, size * 2);
+                args = Arrays.copyOf(args, size * 2);
+                args2 = Arrays.copyOf(args2, size * 2);
+                loops = Arrays.copyOf(loops, size * 2);
+            }
+            ops[size] = op;
+            args[size] = arg;
+            args2[size] = arg2;
+            loops[size] = loop;
+            return size++;
+        }
+
+        void patch(int pc, int arg, int arg2) {
+            args[pc] = arg;
+            args2[pc] = arg2;
+        }
+
+        int newSlot() {
+            return slots++;
+        }
+
+        int classIndex(int[] ranges) {
+            classes.add(ranges);
+            return classes.size() - 1;
+        }
+    }
+
+    private sealed interface Node permits Chars, Sequence, Alternation, Repeat, Capture, Assertion {
+        void emit(Program program);
+
+        /** True if the node can match without consuming input. */
+        boolean nullable();
+    }
+
+    private record Chars(int[] ranges) implements Node {
+        @Override
+        public void emit(Program program) {
+            program.emit(CLASS, program.classIndex(ranges), 0);
+        }
+
+        @Override
+        public boolean nullable() {
+            return false;
+        }
+    }
+
+    private record Sequence(List<Node> nodes) implements Node {
+        @Override
+        public void emit(Program program) {
+            for (Node node : nodes) {
+                node.emit(program);
+            }
+        }
+
+        @Override
+        public boolean nullable() {
+            return nodes.stream().allMatch(Node::nullable);
+        }
+    }
+
+    private record Alternation(List<Node> branches) implements Node {
+        @Override
+        public void emit(Program program) {
+            List<Integer> jumps = new ArrayList<>();
+            for (int i = 0; i < branches.size() - 1; i++) {
+                int split = program.emit(SPLIT, 0, 0);
+                branches.get(i).emit(program);
+                jumps.add(program.emit(JMP, 0, 0));
+                program.patch(split, split + 1, program.size);
+            }
+            branches.get(branches.size() - 1).emit(program);
+            for (int jump : jumps) {
+                program.patch(jump, program.size, 0);
+            }
+        }
+
+        @Override
+        public boolean nullable() {
+            return branches.stream().anyMatch(Node::nullable);
+        }
+    }
+
+    /** {@code max} is -1 for unbounded. */
+    private record Repeat(Node node, int min, int max, boolean greedy) implements Node {
+        @Override
+        public void emit(Program program) {
+            for (int i = 0; i < min; i++) {
+                node.emit(program);
+            }
+            // A body that can match empty records where each optional iteration started and leaves
+            // the loop if it consumed nothing, as java.util.regex does.
+            int slot = node.nullable() ? program.newSlot() : -1;
+            List<Integer> exits = new ArrayList<>();
+            if (max < 0) {
+                // L: split body, out; body; jmp L
+                int split = program.emit(SPLIT, 0, 0);
+                iteration(program, slot, exits);
+                program.emit(JMP, split, 0);
+                branch(program, split, split + 1, program.size);
+            } else {
+                List<Integer> splits = new ArrayList<>();
+                for (int i = min; i < max; i++) {
+                    splits.add(program.emit(SPLIT, 0, 0));
+                    iteration(program, slot, exits);
+                }
+                for (int split : splits) {
+                    branch(program, split, split + 1, program.size);
+                }
+            }
+            for (int exit : exits) {
+                program.patch(exit, slot, program.size);
+            }
+        }
+
+        private void iteration(Program program, int slot, List<Integer> exits) {
+            if (slot < 0) {
+                node.emit(program);
+                return;
+            }
+            int outer = program.loop;
+            program.emit(SAVE, slot, 0);
+            program.loop = slot;
+            node.emit(program);
+            exits.add(program.emit(EMPTY_CHECK, slot, 0));
+            program.loop = outer;
+        }
+
+        private void branch(Program program, int split, int body, int out) {
+            if (greedy) {
+                program.patch(split, body, out);
+            } else {
+                program.patch(split, out, body);
+            }
+        }
+
+        @Override
+        public boolean nullable() {
+            return min == 0 || node.nullable();
+        }
+    }
+
+    private record Capture(Node node, int group) implements Node {
+        @Override
+        public void emit(Program program) {
+            program.emit(SAVE, 2 * group, 0);
+            node.emit(program);
+            program.emit(SAVE, 2 * group + 1, 0);
+        }
+
+        @Override
+        public boolean nullable() {
+            return node.nullable();
+        }
+    }
+
+    private record Assertion(int kind) implements Node {
+        @Override
+        public void emit(Program program) {
+            program.emit(ASSERT, kind, 0);
+        }
+
+        @Override
+        public boolean nullable() {
+            return true;
+        }
+    }
+
+    /** Recursive-descent parser for the supported subset of java.util.regex syntax. */
+    private static final class Parser {
+        private final String pattern;
+        private int pos;
+        private int groups;
+        private final Map<String, Integer> names = new HashMap<>();
+        private boolean caseInsensitive;
+
+        Parser(String pattern) {
+            this.pattern = pattern;
+        }
+
+        Node parse() {
+            Node node = alternation();
+            if (pos < pattern.length()) {
+                throw error("Unmatched closing ')'");
+            }
+            return node;
+        }
+
+        private Node alternation() {
+            List<Node> branches = new ArrayList<>();
+            branches.add(sequence());
+            while (pos < pattern.length() && pattern.charAt(pos) == '|') {
+                pos++;
+                branches.add(sequence());
+            }
+            return branches.size() == 1 ? branches.get(0) : new Alternation(branches);
+        }
+
+        private Node sequence() {
+            List<Node> nodes = new ArrayList<>();
+            while (pos < pattern.length()) {
+                char c = pattern.charAt(pos);
+                if (c == '|' || c == ')') {
+                    break;
+                }
+                Node atom = atom();
+                if (atom != null) {
+                    nodes.add(quantified(atom));
+                }
+            }
+            return nodes.size() == 1 ? nodes.get(0) : new Sequence(nodes);
+        }
+
+        private Node quantified(Node atom) {
+            if (pos >= pattern.length()) {
+                return atom;
+            }
+            char c = pattern.charAt(pos);
+            int min;
+            int max;
+            switch (c) {
+                case '*' -> {
+                    min = 0;
+                    max = -1;
+                    pos++;
+                }
+                case '+' -> {
+                    min = 1;
+                    max = -1;
+                    pos++;
+                }
+                case '?' -> {
+                    min = 0;
+                    max = 1;
+                    pos++;
+                }
+                case '{' -> {
+                    int close = pattern.indexOf('}', pos);
+                    if (close < 0) {
+                        throw error("Illegal repetition");
+                    }
+                    String body = pattern.substring(pos + 1, close);
+                    int comma = body.indexOf(',');
+                    try {
+                        min = Integer.parseInt(comma < 0 ? body : body.substring(0, comma));
+                        max = comma < 0 ? min : comma == body.length() - 1 ? -1 : Integer.parseInt(body.substring(comma + 1));
+                    } catch (NumberFormatException e) {
+                        throw error("Illegal repetition");
+                    }
+                    if (min < 0 || (max >= 0 && max < min)) {
+                        throw error("Illegal repetition range");
+                    }
+                    if (min > MAX_PROGRAM || max > MAX_PROGRAM) {
+                        throw error("repetition count too large");
+                    }
+                    pos = close + 1;
+                }
+                default -> {
+                    return atom;
+                }
+            }
+            boolean greedy = true;
+            if (pos < pattern.length()) {
+                char suffix = pattern.charAt(pos);
+                if (suffix == '?') {
+                    greedy = false;
+                    pos++;
+                } else if (suffix == '+') {
+                    throw error("possessive quantifiers are not supported");
+                }
+            }
+            if (pos < pattern.length() && "*+?{".indexOf(pattern.charAt(pos)) >= 0) {
+                throw error("Dangling meta character '" + pattern.charAt(pos) + "'");
+            }
+            return new Repeat(atom, min, max, greedy);
+        }
+
+        /** One atom, or null for a construct that matches nothing by itself (a flag group). */
+        private Node atom() {
+            char c = pattern.charAt(pos);
+            switch (c) {
+                case '(' -> {
+                    return group();
+                }
+                case '[' -> {
+                    pos++;
+                    return new Chars(characterClass());
+                }
+                case '.' -> {
+                    pos++;
+                    return new Chars(complement(LINE_TERMINATORS));
+                }
+                case '^' -> {
+                    pos++;
+                    return new Assertion(BEGIN);
+                }
+                case '$' -> {
+                    pos++;
+                    return new Assertion(END_BEFORE_TERMINATOR);
+                }
+                case '\\' -> {
+                    pos++;
+                    return escape();
+                }
+                case '*', '+', '?', '{' -> throw error("Dangling meta character '" + c + "'");
+                default -> {
+                    int codePoint = pattern.codePointAt(pos);
+                    pos += Character.charCount(codePoint);
+                    return literal(codePoint);
+                }
+            }
+        }
+
+        private Node group() {
+            pos++;
+            boolean savedCase = caseInsensitive;
+            int group = -1;
+            if (pattern.startsWith("?", pos)) {
+                pos++;
+                if (pos >= pattern.length()) {
+                    throw error("Unknown group type");
+                }
+                char kind = pattern.charAt(pos);
+                if (kind == ':') {
+                    pos++;
+                } else if (kind == '<' && pos + 1 < pattern.length()
+                        && pattern.charAt(pos + 1) != '=' && pattern.charAt(pos + 1) != '!') {
+                    int close = pattern.indexOf('>', pos);
+                    if (close < 0) {
+                        throw error("named capturing group is missing trailing '>'");
+                    }
+                    String name = pattern.substring(pos + 1, close);
+                    if (name.isEmpty() || !Character.isLetter(name.charAt(0))
+                            || !name.chars().allMatch(Character::isLetterOrDigit)) {
+                        throw error("capturing group name does not start with a Latin letter");
+                    }
+                    group = ++groups;
+                    if (names.putIfAbsent(name, group) != null) {
+                        throw error("Named capturing group <" + name + "> is already defined");
+                    }
+                    pos = close + 1;
+                } else if (kind == '=' || kind == '!' || kind == '<') {
+                    throw error("lookaround is not supported");
+                } else if (kind == '>') {
+                    throw error("atomic groups are not supported");
+                } else {
+                    boolean enable = true;
+                    boolean flags = caseInsensitive;
+                    while (pos < pattern.length() && pattern.charAt(pos) != ')' && pattern.charAt(pos) != ':') {
+                        char flag = pattern.charAt(pos++);
+                        if (flag == '-') {
+                            enable = false;
+                        } else if (flag == 'i') {
+                            flags = enable;
+                        } else {
+                            throw error("flag '" + flag + "' is not supported");
+                        }
+                    }
+                    if (pos >= pattern.length()) {
+                        throw error("Unknown inline modifier");
+                    }
+                    if (pattern.charAt(pos) == ')') {
+                        // (?i) applies to the rest of the enclosing group.
+                        pos++;
+                        caseInsensitive = flags;
+                        return null;
+                    }
+                    pos++;
+                    caseInsensitive = flags;
+                }
+            } else {
+                group = ++groups;
+            }
+            Node body = alternation();
+            if (pos >= pattern.length() || pattern.charAt(pos) != ')') {
+                throw error("Unclosed group");
+            }
+            pos++;
+            caseInsensitive = savedCase;
+            return group < 0 ? body : new Capture(body, group);
+        }
+
+        private Node escape() {
+            if (pos >= pattern.length()) {
+                throw error("Unexpected internal error");
+            }
+            char c = pattern.charAt(pos++);
+            switch (c) {
+                case 'd' -> {
+                    return new Chars(DIGIT);
+                }
+                case 'D' -> {
+                    return new Chars(complement(DIGIT));
+                }
+                case 'w' -> {
+                    return new Chars(WORD);
+                }
+                case 'W' -> {
+                    return new Chars(complement(WORD));
+                }
+                case 's' -> {
+                    return new Chars(SPACE);
+                }
+                case 'S' -> {
+                    return new Chars(complement(SPACE));
+                }
+                case 'b' -> {
+                    return new Assertion(WORD_BOUNDARY);
+                }
+                case 'B' -> {
+                    return new Assertion(NOT_WORD_BOUNDARY);
+                }
+                case 'A' -> {
+                    return new Assertion(BEGIN);
+                }
+                case 'z' -> {
+                    return new Assertion(END);
+                }
+                case 'Z' -> {
+                    return new Assertion(END_BEFORE_TERMINATOR);
+                }
+                case 'Q' -> {
+                    int end = pattern.indexOf("\\E", pos);
+                    String quoted = pattern.substring(pos, end < 0 ? pattern.length() : end);
+                    pos = end < 0 ? pattern.length() : end + 2;
+                    List<Node> nodes = new ArrayList<>();
+                    quoted.codePoints().forEach(codePoint -> nodes.add(literal(codePoint)));
+                    return new Sequence(nodes);
+                }
+                default -> {
+                    pos--;
+                    return literal(charEscape());
+                }
+            }
+        }
+
+        /** A single-character escape (after the backslash); shared by atoms and classes. */
+        private int charEscape() {
+            char c = pattern.charAt(pos++);
+            switch (c) {
+                case 't' -> {
+                    return '\t';
+                }
+                case 'n' -> {
+                    return '\n';
+                }
+                case 'r' -> {
+                    return '\r';
+                }
+                case 'f' -> {
+                    return '\f';
+                }
+                case 'a' -> {
+                    return 0x07;
+                }
+                case 'e' -> {
+                    return 0x1B;
+                }
+                case '0' -> {
+                    int value = 0;
+                    int digits = 0;
+                    while (digits < 3 && pos < pattern.length() && pattern.charAt(pos) >= '0' && pattern.charAt(pos) <= '7'
+                            && value * 8 + (pattern.charAt(pos) - '0') <= 0377) {
+                        value = value * 8 + (pattern.charAt(pos++) - '0');
+                        digits++;
+                    }
+                    if (digits == 0) {
+                        throw error("Illegal octal escape sequence");
+                    }
+                    return value;
+                }
+                case 'x' -> {
+                    if (pattern.startsWith("{", pos)) {
+                        int close = pattern.indexOf('}', pos);
+                        if (close < 0) {
+                            throw error("Unclosed hexadecimal escape sequence");
+                        }
+                        int value = hex(pattern.substring(pos + 1, close));
+                        pos = close + 1;
+                        return value;
+                    }
+                    return hexDigits(2);
+                }
+                case 'u' -> {
+                    return hexDigits(4);
+                }
+                case 'c' -> {
+                    if (pos >= pattern.length()) {
+                        throw error("Illegal control escape sequence");
+                    }
+                    return pattern.charAt(pos++) ^ 64;
+                }
+                default -> {
+                    if (c >= '1' && c <= '9' || c == 'k') {
+                        throw error("backreferences are not supported");
+                    }
+                    if (Character.isLetterOrDigit(c)) {
+                        throw error("escape \\" + c + " is not supported");
+                    }
+                    return c;
+                }
+            }
+        }
+
+        private int hexDigits(int count) {
+            if (pos + count > pattern.length()) {
+                throw error("Illegal hexadecimal escape sequence");
+            }
+            int value = hex(pattern.substring(pos, pos + count));
+            pos += count;
+            return value;
+        }
+
+        private int hex(String digits) {
+            try {
+                int value = Integer.parseInt(digits, 16);
+                if (digits.isEmpty() || value > MAX_CODE_POINT) {
+                    throw error("Illegal hexadecimal escape sequence");
+                }
+                return value;
+            } catch (NumberFormatException e) {
+                throw error("Illegal hexadecimal escape sequence");
+            }
+        }
+
+        /** Class body after '['; returns sorted, merged ranges. */
+        private int[] characterClass() {
+            boolean negated = false;
+            if (pos < pattern.length() && pattern.charAt(pos) == '^') {
+                negated = true;
+                pos++;
+            }
+            List<int[]> ranges = new ArrayList<>();
+            boolean first = true;
+            while (true) {
+                if (pos >= pattern.length()) {
+                    throw error("Unclosed character class");
+                }
+                char c = pattern.charAt(pos);
+                if (c == ']' && !first) {
+                    pos++;
+                    break;
+                }
+                first = false;
+                if (c == '[' || pattern.startsWith("&&", pos)) {
+                    throw error("nested classes and intersections are not supported");
+                }
+                int low;
+                if (c == '\\') {
+                    pos++;
+                    if (pos >= pattern.length()) {
+                        throw error("Unclosed character class");
+                    }
+                    int[] shorthand = switch (pattern.charAt(pos)) {
+                        case 'd' -> DIGIT;
+                        case 'D' -> complement(DIGIT);
+                        case 'w' -> WORD;
+                        case 'W' -> complement(WORD);
+                        case 's' -> SPACE;
+                        case 'S' -> complement(SPACE);
+                        default -> null;
+                    };
+                    if (shorthand != null) {
+                        pos++;
+                        ranges.add(shorthand);
+                        continue;
+                    }
+                    if (pattern.charAt(pos) == 'Q' || pattern.charAt(pos) == 'b') {
+                        throw error("escape \\" + pattern.charAt(pos) + " is not supported in a class");
+                    }
+                    low = charEscape();
+                } else {
+                    low = pattern.codePointAt(pos);
+                    pos += Character.charCount(low);
+                }
+                int high = low;
+                if (pos + 1 < pattern.length() && pattern.charAt(pos) == '-' && pattern.charAt(pos + 1) != ']') {
+                    pos++;
+                    if (pattern.charAt(pos) == '\\') {
+                        pos++;
+                        high = charEscape();
+                    } else if (pattern.charAt(pos) == '[') {
+                        throw error("nested classes and intersections are not supported");
+                    } else {
+                        high = pattern.codePointAt(pos);
+                        pos += Character.charCount(high);
+                    }
+                    if (high < low) {
+                        throw error("Illegal character range");
+                    }
+                }
+                ranges.add(caseInsensitive ? foldCase(low, high) : new int[] {low, high});
+            }
+            int[] merged = merge(ranges);
+            return negated ? complement(merged) : merged;
+        }
+
+        private Node literal(int codePoint) {
+            return new Chars(caseInsensitive ? foldCase(codePoint, codePoint) : new int[] {codePoint, codePoint});
+        }
+
+        /** The range plus the other ASCII case of its ASCII letters, as Java's (?i) without u. */
+        private static int[] foldCase(int low, int high) {
+            List<int[]> ranges = new ArrayList<>();
+            ranges.add(new int[] {low, high});
+            int upperLow = Math.max(low, 'A');
+            int upperHigh = Math.min(high, 'Z');
+            if (upperLow <= upperHigh) {
+                ranges.add(new int[] {upperLow + 32, upperHigh + 32});
+            }
+            int lowerLow = Math.max(low, 'a');
+            int lowerHigh = Math.min(high, 'z');
+            if (lowerLow <= lowerHigh) {
+                ranges.add(new int[] {lowerLow - 32, lowerHigh - 32});
+            }
+            return merge(ranges);
+        }
+
+        private IllegalArgumentException error(String message) {
+            return new IllegalArgumentException(message + " near index " + pos + "\n" + pattern);
+        }
+    }
+
+    /** Sorts and merges lists of [low, high, low, high, ...] ranges. */
+    private static int[] merge(List<int[]> lists) {
+        List<int[]> pairs = new ArrayList<>();
+        for (int[] list : lists) {
+            for (int i = 0; i < list.length; i += 2) {
+                pairs.add(new int[] {list[i], list[i + 1]});
+            }
+        }
+        pairs.sort((a, b) -> Integer.compare(a[0], b[0]));
+        int[] merged = new int[pairs.size() * 2];
+        int size = 0;
+        for (int[] pair : pairs) {
+            if (size > 0 && pair[0] <= merged[size - 1] + 1) {
+                merged[size - 1] = Math.max(merged[size - 1], pair[1]);
+            } else {
+                merged[size++] = pair[0];
+                merged[size++] = pair[1];
+            }
+        }
+        return Arrays.copyOf(merged, size);
+    }
+
+    private static int[] complement(int[] ranges) {
+        int[] sorted = merge(List.of(ranges));
+        int[] result = new int[sorted.length + 2];
+        int size = 0;
+        int next = 0;
+        for (int i = 0; i < sorted.length; i += 2) {
+            if (sorted[i] > next) {
+                result[size++] = next;
+                result[size++] = sorted[i] - 1;
+            }
+            next = sorted[i + 1] + 1;
+        }
+        if (next <= MAX_CODE_POINT) {
+            result[size++] = next;
+            result[size++] = MAX_CODE_POINT;
+        }
+        return Arrays.copyOf(result, size);
+    }
+}
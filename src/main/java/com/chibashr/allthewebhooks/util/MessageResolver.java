@@ -3,25 +3,15 @@ package com.chibashr.allthewebhooks.util;
 import com.chibashr.allthewebhooks.config.PluginConfig;
 import java.util.ArrayList;
 import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
-import java.util.concurrent.Callable;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
-import java.util.concurrent.TimeUnit;
-import java.util.concurrent.TimeoutException;
+import java.util.Set;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
 public final class MessageResolver {
     private static final Pattern PLACEHOLDER_PATTERN = Pattern.compile("\\{([^}]+)\\}");
-    private static final long REGEX_TIMEOUT_MS = 300;
-
-    private static final ExecutorService REGEX_EXECUTOR = Executors.newSingleThreadExecutor(r -> {
-        Thread t = new Thread(r, "message-resolver-regex");
-        t.setDaemon(true);
-        return t;
-    });
 
     /** Interface for transforms: apply(value, args) -> result. */
     @FunctionalInterface
@@ -72,6 +62,10 @@ public final class MessageResolver {
     private MessageResolver() {
     }
 
+    /**
+     * Renders a template against an event context. Compiles the template on every call; the
+     * router renders templates compiled once per config load instead (see {@link MessageTemplate}).
+     */
     public static String resolve(
             String template,
             Map<String, Object> context,
@@ -82,36 +76,25 @@ public final class MessageResolver {
         if (template == null) {
             return "";
         }
+        return MessageTemplate.compile(template, redactionPolicy).render(context, warningTracker, pluginConfig);
+    }
+
+    /**
+     * Returns the context keys a template reads, in order of first appearance (transforms
+     * stripped). Empty for a null template.
+     */
+    public static Set<String> placeholderKeys(String template) {
+        if (template == null) {
+            return Set.of();
+        }
+        Set<String> keys = new LinkedHashSet<>();
         Matcher matcher = PLACEHOLDER_PATTERN.matcher(template);
-        StringBuffer buffer = new StringBuffer();
         while (matcher.find()) {
             String placeholder = matcher.group(1);
-            String key;
-            String transformSpec;
             int pipe = placeholder.indexOf('|');
-            if (pipe < 0) {
-                key = placeholder;
-                transformSpec = null;
-            } else {
-                key = placeholder.substring(0, pipe).trim();
-                transformSpec = placeholder.substring(pipe + 1);
-            }
-            String replacement;
-            if (redactionPolicy != null && redactionPolicy.isRedacted(key)) {
-                replacement = "[REDACTED]";
-            } else {
-                Object value = context.get(key);
-                if (value == null && pluginConfig.shouldValidate()) {
-                    warningTracker.warnOnce("missing-placeholder:" + key,
-                            "Missing placeholder value for {" + key + "}");
-                }
-                String raw = value == null ? "" : String.valueOf(value);
-                replacement = applyTransforms(raw, transformSpec, key, warningTracker);
-            }
-            matcher.appendReplacement(buffer, Matcher.quoteReplacement(replacement));
+            keys.add(pipe < 0 ? placeholder : placeholder.substring(0, pipe).trim());
         }
-        matcher.appendTail(buffer);
-        return buffer.toString();
+        return keys;
     }
 
     /**
@@ -120,66 +103,133 @@ public final class MessageResolver {
      * invalid, returns value unchanged.
      */
     static String applyTransforms(String value, String transformSpec, String key, WarningTracker warningTracker) {
+        String current = value;
+        for (BoundTransform transform : compileTransforms(transformSpec)) {
+            current = transform.apply(current, key, warningTracker);
+        }
+        return current;
+    }
+
+    /** One parsed transform with its arguments bound (and regex compiled); failures fall back to the input. */
+    @FunctionalInterface
+    interface BoundTransform {
+        String apply(String value, String key, WarningTracker warningTracker);
+    }
+
+    static final BoundTransform[] NO_TRANSFORMS = new BoundTransform[0];
+
+    /** Parses a transform chain once; unknown or malformed transforms are left out. */
+    static BoundTransform[] compileTransforms(String transformSpec) {
         if (transformSpec == null || transformSpec.isEmpty()) {
-            return value;
+            return NO_TRANSFORMS;
         }
-        List<String> specs = splitByUnescapedPipe(transformSpec);
-        String current = value;
-        for (String spec : specs) {
+        List<BoundTransform> chain = new ArrayList<>();
+        for (String spec : splitByUnescapedPipe(transformSpec)) {
             String trimmed = spec.trim();
             if (trimmed.isEmpty()) {
                 continue;
             }
-            current = applySingleTransform(current, trimmed, key, warningTracker);
+            BoundTransform bound = bindTransform(parseTransformSpec(trimmed));
+            if (bound != null) {
+                chain.add(bound);
+            }
         }
-        return current;
+        return chain.toArray(NO_TRANSFORMS);
     }
 
-    private static String applySingleTransform(String value, String spec, String key, WarningTracker warningTracker) {
-        TransformSpec parsed = parseTransformSpec(spec);
+    private static BoundTransform bindTransform(TransformSpec parsed) {
         if (parsed == null) {
-            return value;
+            return null;
         }
         if ("regex".equals(parsed.name)) {
-            return applyRegexTransform(value, parsed.args, key, warningTracker);
+            return bindRegexTransform(parsed.args);
         }
         ValueTransform transform = TRANSFORM_REGISTRY.get(parsed.name);
         if (transform == null) {
-            return value;
+            return null;
         }
-        try {
-            return transform.apply(value, parsed.args);
-        } catch (Exception e) {
-            if (warningTracker != null) {
-                warningTracker.warnOnce("placeholder-transform-error:" + key + ":" + parsed.name,
-                        "Transform " + parsed.name + " failed for placeholder {" + key + "}: " + e.getMessage() + ", using untransformed value");
+        String name = parsed.name;
+        List<String> args = parsed.args;
+        return (value, key, warningTracker) -> {
+            try {
+                return transform.apply(value, args);
+            } catch (Exception e) {
+                if (warningTracker != null) {
+                    warningTracker.warnOnce("placeholder-transform-error:" + key + ":" + name,
+                            "Transform " + name + " failed for placeholder {" + key + "}: " + e.getMessage() + ", using untransformed value");
+                }
+                return value;
             }
-            return value;
-        }
+        };
     }
 
-    private static String applyRegexTransform(String value, List<String> args, String key, WarningTracker warningTracker) {
+    /**
+     * Binds {@code regex:pattern:replacement}. The pattern runs on {@link LinearRegex}, which matches
+     * in linear time on the calling thread; a pattern it rejects (backreferences, lookaround, ...)
+     * leaves the value unchanged and warns once.
+     */
+    private static BoundTransform bindRegexTransform(List<String> args) {
         if (args.size() < 2) {
-            return value;
+            return null;
         }
-        String pattern = args.get(0);
-        String replacement = args.get(1);
+        LinearRegex regex;
         try {
-            Pattern p = Pattern.compile(pattern);
-            Callable<String> task = () -> p.matcher(value).replaceAll(replacement);
-            return REGEX_EXECUTOR.submit(task).get(REGEX_TIMEOUT_MS, TimeUnit.MILLISECONDS);
-        } catch (TimeoutException e) {
-            if (warningTracker != null) {
-                warningTracker.warnOnce("placeholder-regex-timeout:" + key,
-                        "Regex transform timed out for placeholder {" + key + "}, using untransformed value");
+            regex = LinearRegex.compile(args.get(0));
+        } catch (RuntimeException e) {
+            String error = e.getMessage();
+            return (value, key, warningTracker) -> {
+                warnRegexError(key, error, warningTracker);
+                return value;
+            };
+        }
+        LinearRegex.Replacement replacement = regex.replacement(args.get(1));
+        return (value, key, warningTracker) -> {
+            try {
+                return regex.replaceAll(value, replacement);
+            } catch (RuntimeException e) {
+                warnRegexError(key, e.getMessage(), warningTracker);
+                return value;
+            }
+        };
+    }
+
+    /**
+     * Describes each regex transform in a template that cannot be compiled, as
+     * "{key}: regex pattern: reason". Used by config validation to report them at load.
+     */
+    public static List<String> regexProblems(String template) {
+        if (template == null) {
+            return List.of();
+        }
+        List<String> problems = new ArrayList<>();
+        Matcher matcher = PLACEHOLDER_PATTERN.matcher(template);
+        while (matcher.find()) {
+            String placeholder = matcher.group(1);
+            int pipe = placeholder.indexOf('|');
+            if (pipe < 0) {
+                continue;
             }
-            return value;
-        } catch (Exception e) {
-            if (warningTracker != null) {
-                warningTracker.warnOnce("placeholder-regex-error:" + key,
-                        "Regex transform failed for placeholder {" + key + "}: " + e.getMessage() + ", using untransformed value");
+            String key = placeholder.substring(0, pipe).trim();
+            for (String spec : splitByUnescapedPipe(placeholder.substring(pipe + 1))) {
+                TransformSpec parsed = parseTransformSpec(spec.trim());
+                if (parsed == null || !"regex".equals(parsed.name) || parsed.args.size() < 2) {
+                    continue;
+                }
+                try {
+                    LinearRegex.compile(parsed.args.get(0));
+                } catch (RuntimeException e) {
+                    String reason = e.getMessage() == null ? "" : e.getMessage().lines().findFirst().orElse("");
+                    problems.add("{" + key + "}: regex " + parsed.args.get(0) + ": " + reason);
+                }
             }
-            return value;
+        }
+        return problems;
+    }
+
+    private static void warnRegexError(String key, String error, WarningTracker warningTracker) {
+        if (warningTracker != null) {
+            warningTracker.warnOnce("placeholder-regex-error:" + key,
+                    "Regex transform failed for placeholder {" + key + "}: " + error + ", using untransformed value");
         }
     }
 
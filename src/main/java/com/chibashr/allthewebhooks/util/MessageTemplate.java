@@ -0,0 +1,117 @@
+package com.chibashr.allthewebhooks.util;
+
+import com.chibashr.allthewebhooks.config.PluginConfig;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * A message template parsed once: literal chunks and placeholder nodes, each placeholder with
+ * its key, whether redaction hides it, and its transform chain already parsed and bound (regex
+ * patterns compiled). Rendering is one pass over the segments into a presized builder; a
+ * template without placeholders renders as the template itself.
+ * <p>
+ * Output is the same as {@link MessageResolver#resolve} (which compiles and renders). Compiled
+ * templates are immutable and safe to share between threads.
+ */
+public final class MessageTemplate {
+    private static final Pattern PLACEHOLDER_PATTERN = Pattern.compile("\\{([^}]+)\\}");
+    private static final String REDACTED = "[REDACTED]";
+    private static final MessageTemplate EMPTY = new MessageTemplate("", new Object[0], 0);
+
+    /** Literal chunks are Strings, placeholders are {@link Placeholder}s. */
+    private final Object[] segments;
+    /** The template itself when it has no placeholders, else null. */
+    private final String constant;
+    private final int sizeHint;
+
+    private MessageTemplate(String constant, Object[] segments, int sizeHint) {
+        this.constant = constant;
+        this.segments = segments;
+        this.sizeHint = sizeHint;
+    }
+
+    /**
+     * Compiles a template. Placeholders are {@code {key}} or {@code {key|transform|...}}; see
+     * {@link MessageResolver#applyTransforms} for the transform syntax.
+     *
+     * @param redactionPolicy decides once per placeholder key whether it renders as [REDACTED]; may be null
+     */
+    public static MessageTemplate compile(String template, RedactionPolicy redactionPolicy) {
+        if (template == null || template.isEmpty()) {
+            return EMPTY;
+        }
+        Matcher matcher = PLACEHOLDER_PATTERN.matcher(template);
+        List<Object> segments = new ArrayList<>();
+        int literalLength = 0;
+        int last = 0;
+        while (matcher.find()) {
+            if (matcher.start() > last) {
+                segments.add(template.substring(last, matcher.start()));
+                literalLength += matcher.start() - last;
+            }
+            String placeholder = matcher.group(1);
+            int pipe = placeholder.indexOf('|');
+            String key = pipe < 0 ? placeholder : placeholder.substring(0, pipe).trim();
+            boolean redacted = redactionPolicy != null && redactionPolicy.isRedacted(key);
+            segments.add(new Placeholder(key, redacted,
+                    redacted || pipe < 0 ? MessageResolver.NO_TRANSFORMS
+                            : MessageResolver.compileTransforms(placeholder.substring(pipe + 1))));
+            last = matcher.end();
+        }
+        if (segments.isEmpty()) {
+            return new MessageTemplate(template, null, template.length());
+        }
+        if (last < template.length()) {
+            segments.add(template.substring(last));
+            literalLength += template.length() - last;
+        }
+        int placeholders = segments.size() - (int) segments.stream().filter(String.class::isInstance).count();
+        return new MessageTemplate(null, segments.toArray(), literalLength + 16 * placeholders);
+    }
+
+    /** Compiles every template of a message config (message id to template). */
+    public static Map<String, MessageTemplate> compileAll(Map<String, String> templates, RedactionPolicy redactionPolicy) {
+        Map<String, MessageTemplate> compiled = new HashMap<>();
+        for (Map.Entry<String, String> entry : templates.entrySet()) {
+            compiled.put(entry.getKey(), compile(entry.getValue(), redactionPolicy));
+        }
+        return Collections.unmodifiableMap(compiled);
+    }
+
+    public String render(Map<String, Object> context, WarningTracker warningTracker, PluginConfig pluginConfig) {
+        if (constant != null) {
+            return constant;
+        }
+        StringBuilder builder = new StringBuilder(sizeHint);
+        for (Object segment : segments) {
+            if (segment instanceof String literal) {
+                builder.append(literal);
+                continue;
+            }
+            Placeholder placeholder = (Placeholder) segment;
+            if (placeholder.redacted) {
+                builder.append(REDACTED);
+                continue;
+            }
+            Object value = context.get(placeholder.key);
+            if (value == null && pluginConfig.shouldValidate()) {
+                warningTracker.warnOnce("missing-placeholder:" + placeholder.key,
+                        "Missing placeholder value for {" + placeholder.key + "}");
+            }
+            String current = value == null ? "" : String.valueOf(value);
+            for (MessageResolver.BoundTransform transform : placeholder.transforms) {
+                current = transform.apply(current, placeholder.key, warningTracker);
+            }
+            builder.append(current);
+        }
+        return builder.toString();
+    }
+
+    private record Placeholder(String key, boolean redacted, MessageResolver.BoundTransform[] transforms) {
+    }
+}
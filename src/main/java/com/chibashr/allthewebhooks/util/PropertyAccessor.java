@@ -0,0 +1,128 @@
+package com.chibashr.allthewebhooks.util;
+
+import java.lang.invoke.CallSite;
+import java.lang.invoke.LambdaMetafactory;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * A public no-arg getter (getX, or isX returning boolean) compiled once into a {@link Function}
+ * via {@link LambdaMetafactory}, so reading it costs an interface call rather than
+ * {@link Method#invoke}. Getters the metafactory cannot bind (e.g. declared on a non-public
+ * class) fall back to reflection. Tables are cached per class in a {@link ClassValue}.
+ */
+public final class PropertyAccessor {
+    private static final MethodHandles.Lookup LOOKUP = MethodHandles.lookup();
+    private static final MethodType FUNCTION_FACTORY = MethodType.methodType(Function.class);
+    private static final MethodType FUNCTION_APPLY = MethodType.methodType(Object.class, Object.class);
+
+    private static final ClassValue<List<PropertyAccessor>> GETTERS = new ClassValue<>() {
+        @Override
+        protected List<PropertyAccessor> computeValue(Class<?> type) {
+            return buildGetters(type);
+        }
+    };
+
+    private final String property;
+    private final Class<?> returnType;
+    private final Method method;
+    private final Function<Object, Object> accessor;
+
+    private PropertyAccessor(String property, Method method, Function<Object, Object> accessor) {
+        this.property = property;
+        this.returnType = method.getReturnType();
+        this.method = method;
+        this.accessor = accessor;
+    }
+
+    /** Getters of the class in {@link Class#getMethods()} order, excluding Object's. */
+    public static List<PropertyAccessor> gettersOf(Class<?> cls) {
+        return GETTERS.get(cls);
+    }
+
+    /** Property name derived from the getter (getFooBar / isFooBar → fooBar). */
+    public String property() {
+        return property;
+    }
+
+    public Class<?> returnType() {
+        return returnType;
+    }
+
+    public Method method() {
+        return method;
+    }
+
+    /** Reads the property. Exceptions thrown by the getter propagate unchecked. */
+    public Object get(Object target) {
+        return accessor.apply(target);
+    }
+
+    private static List<PropertyAccessor> buildGetters(Class<?> cls) {
+        List<PropertyAccessor> getters = new ArrayList<>();
+        for (Method m : cls.getMethods()) {
+            if (m.getDeclaringClass() == Object.class || m.getParameterCount() != 0
+                    || m.getReturnType() == void.class) {
+                continue;
+            }
+            String property = propertyNameFromGetter(m);
+            if (property == null) {
+                continue;
+            }
+            getters.add(new PropertyAccessor(property, m, bind(m)));
+        }
+        return List.copyOf(getters);
+    }
+
+    static String propertyNameFromGetter(Method m) {
+        String name = m.getName();
+        String rest;
+        if (name.startsWith("get") && name.length() > 3) {
+            rest = name.substring(3);
+        } else if (name.startsWith("is") && name.length() > 2
+                && (m.getReturnType() == boolean.class || m.getReturnType() == Boolean.class)) {
+            rest = name.substring(2);
+        } else {
+            return null;
+        }
+        return Character.toLowerCase(rest.charAt(0)) + rest.substring(1);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Function<Object, Object> bind(Method m) {
+        try {
+            MethodHandle handle = LOOKUP.unreflect(m);
+            CallSite site = LambdaMetafactory.metafactory(
+                    LOOKUP,
+                    "apply",
+                    FUNCTION_FACTORY,
+                    FUNCTION_APPLY,
+                    handle,
+                    MethodType.methodType(m.getReturnType(), m.getDeclaringClass())
+            );
+            return (Function<Object, Object>) site.getTarget().invokeExact();
+        } catch (Throwable e) {
+            return target -> invokeReflectively(m, target);
+        }
+    }
+
+    private static Object invokeReflectively(Method m, Object target) {
+        try {
+            return m.invoke(target);
+        } catch (InvocationTargetException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            throw new IllegalStateException(cause);
+        } catch (IllegalAccessException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,78 @@
+package com.chibashr.allthewebhooks.util;
+
+import java.util.UUID;
+import java.util.function.Function;
+import org.bukkit.Location;
+import org.bukkit.World;
+import org.bukkit.block.Block;
+import org.bukkit.entity.Entity;
+import org.bukkit.entity.Player;
+
+/**
+ * Formats reflected property values for conditions and messages. {@link #forType} picks the
+ * formatter once from a getter's declared return type so per-event formatting skips the
+ * instanceof chain; declared types that may hold several kinds (Entity, Object) keep the
+ * dynamic {@link #format}.
+ */
+public final class ValueFormatters {
+    private static final Function<Object, Object> PASS_THROUGH = v -> v == null ? "" : v;
+
+    private ValueFormatters() {
+    }
+
+    /** Formatter for values of the declared type; fallback handles types with no fixed format. */
+    public static Function<Object, Object> forType(Class<?> type, Function<Object, Object> fallback) {
+        if (type.isPrimitive() || type == String.class || type == Boolean.class || type == UUID.class
+                || Number.class.isAssignableFrom(type) || type.isEnum()) {
+            return PASS_THROUGH;
+        }
+        if (Player.class.isAssignableFrom(type)) {
+            return v -> v == null ? "" : ((Player) v).getName();
+        }
+        if (World.class.isAssignableFrom(type)) {
+            return v -> v == null ? "" : ((World) v).getName();
+        }
+        if (Block.class.isAssignableFrom(type)) {
+            return v -> v == null ? "" : formatBlock((Block) v);
+        }
+        if (Location.class.isAssignableFrom(type)) {
+            return v -> v == null ? "" : LocationFormatter.format((Location) v);
+        }
+        return fallback;
+    }
+
+    public static Function<Object, Object> forType(Class<?> type) {
+        return forType(type, ValueFormatters::format);
+    }
+
+    /** Formats a value whose type is only known at runtime. */
+    public static Object format(Object value) {
+        if (value == null) {
+            return "";
+        }
+        if (value instanceof String || value instanceof Number || value instanceof Boolean
+                || value instanceof UUID || value.getClass().isEnum()) {
+            return value;
+        }
+        if (value instanceof Player p) {
+            return p.getName();
+        }
+        if (value instanceof World w) {
+            return w.getName();
+        }
+        if (value instanceof Block b) {
+            return formatBlock(b);
+        }
+        if (value instanceof Location loc) {
+            return LocationFormatter.format(loc);
+        }
+        if (value instanceof Entity e) {
+            return e.getUniqueId().toString();
+        }
+        return String.valueOf(value);
+    }
+
+    private static String formatBlock(Block b) {
+        return b.getType().name() + " " + LocationFormatter.format(b.getLocation());
+    }
+}
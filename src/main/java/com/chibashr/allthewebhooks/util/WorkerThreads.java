@@ -0,0 +1,88 @@
+package com.chibashr.allthewebhooks.util;
+
+import java.net.http.HttpClient;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Threads the plugin runs its own event and webhook work on (execution.virtual-threads).
+ * <p>
+ * In platform mode the pipeline worker and queue drainer are daemon platform threads, timer
+ * callbacks run on the timer thread, and each HttpClient uses its default executor. In virtual
+ * mode the plugin owns one virtual-thread-per-task executor: the worker and drainer are virtual
+ * threads, timer callbacks (retries, rate-limit wake-ups) and response handling are handed to the
+ * executor, and every HttpClient is built on it, so no send work lands on the server's shared
+ * async pool or on a cached pool per client. {@link #close()} shuts the executor down on disable.
+ */
+public final class WorkerThreads implements AutoCloseable {
+    private final ExecutorService executor;
+
+    private WorkerThreads(ExecutorService executor) {
+        this.executor = executor;
+    }
+
+    public static WorkerThreads platform() {
+        return new WorkerThreads(null);
+    }
+
+    public static WorkerThreads virtual() {
+        return new WorkerThreads(Executors.newVirtualThreadPerTaskExecutor());
+    }
+
+    public boolean isVirtual() {
+        return executor != null;
+    }
+
+    /** Factory for a long-lived named worker: a daemon platform thread or a virtual thread. */
+    public ThreadFactory factory(String name) {
+        if (executor != null) {
+            return Thread.ofVirtual().name(name).factory();
+        }
+        return task -> {
+            Thread thread = new Thread(task, name);
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    /** Runs a short task: on a new virtual thread, or inline on the calling thread in platform mode. */
+    public void execute(Runnable task) {
+        if (executor == null) {
+            task.run();
+            return;
+        }
+        try {
+            executor.execute(task);
+        } catch (RuntimeException e) {
+            // Executor closed (disable): run where we are rather than lose the task.
+            task.run();
+        }
+    }
+
+    public HttpClient newHttpClient() {
+        HttpClient.Builder builder = HttpClient.newBuilder();
+        if (executor != null) {
+            builder.executor(executor);
+        }
+        return builder.build();
+    }
+
+    /** Stops the executor, waiting briefly for running tasks. A no-op in platform mode. */
+    @Override
+    public void close() {
+        if (executor == null) {
+            return;
+        }
+        executor.shutdown();
+        try {
+            if (!executor.awaitTermination(1, TimeUnit.SECONDS)) {
+                executor.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            executor.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+    }
+}
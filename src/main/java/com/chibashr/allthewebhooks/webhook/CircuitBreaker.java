@@ -0,0 +1,169 @@
+package com.chibashr.allthewebhooks.webhook;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Closed / open / half-open breaker for one webhook route. Closed, it records the outcome of the
+ * last {@code windowSize} responses and opens when at least {@code minimumCalls} have been seen
+ * and the failure share reaches {@code failureRatio}, or after {@code consecutiveTimeouts}
+ * timeouts in a row. Open, nothing is sent for {@code openMillis}; then one probe request goes
+ * out (half-open). The probe closing or reopening the breaker decides what happens next.
+ * <p>
+ * Not thread-safe: the {@link DeliveryScheduler} calls it under its lock.
+ */
+final class CircuitBreaker {
+
+    enum State {
+        CLOSED,
+        OPEN,
+        HALF_OPEN
+    }
+
+    /** Breaker thresholds (config.yaml circuit-breaker); read on every use so reloads apply. */
+    record Settings(boolean enabled, double failureRatio, int windowSize, int minimumCalls,
+                    int consecutiveTimeouts, long openMillis, boolean dropWhenOpen) {
+        static final Settings DISABLED = new Settings(false, 1.0, 1, 1, 0, 0, false);
+    }
+
+    private State state = State.CLOSED;
+    private boolean[] window = new boolean[0];
+    private int recorded;
+    private int failures;
+    private int next;
+    private int consecutiveTimeouts;
+    private long openUntilNanos;
+    private boolean probeInFlight;
+    private String lastReason = "";
+
+    State state() {
+        return state;
+    }
+
+    /** Why the breaker last opened, e.g. "12/20 requests failed". */
+    String lastReason() {
+        return lastReason;
+    }
+
+    /** True if the breaker lets a request through now (without taking the probe slot). */
+    boolean permits(Settings settings, long now) {
+        if (!settings.enabled()) {
+            return true;
+        }
+        return switch (state) {
+            case CLOSED -> true;
+            case OPEN -> now >= openUntilNanos;
+            case HALF_OPEN -> !probeInFlight;
+        };
+    }
+
+    /** True while open and the open period has not passed: sends are short-circuited. */
+    boolean isOpen(Settings settings, long now) {
+        return settings.enabled() && state == State.OPEN && now < openUntilNanos;
+    }
+
+    long openRemainingNanos(long now) {
+        return Math.max(0, openUntilNanos - now);
+    }
+
+    /** Called for each request sent; returns true if the breaker moved to half-open (this is the probe). */
+    boolean onSend(Settings settings, long now) {
+        if (!settings.enabled() || state == State.CLOSED) {
+            return false;
+        }
+        probeInFlight = true;
+        if (state == State.OPEN) {
+            state = State.HALF_OPEN;
+            return true;
+        }
+        return false;
+    }
+
+    /** Records a successful response; returns true if the breaker closed. */
+    boolean onSuccess(Settings settings) {
+        if (!settings.enabled()) {
+            return reset();
+        }
+        consecutiveTimeouts = 0;
+        if (state == State.OPEN) {
+            // A late response to a request sent before the breaker opened; wait for the probe.
+            return false;
+        }
+        if (state == State.HALF_OPEN) {
+            return reset();
+        }
+        record(settings, false);
+        return false;
+    }
+
+    /** A 429 says nothing about the endpoint's health; a probe that got one may be sent again. */
+    void onRateLimited() {
+        probeInFlight = false;
+    }
+
+    /** Records a failed response; returns true if the breaker opened (or reopened after a probe). */
+    boolean onFailure(Settings settings, boolean timeout, long now) {
+        if (!settings.enabled()) {
+            return false;
+        }
+        consecutiveTimeouts = timeout ? consecutiveTimeouts + 1 : 0;
+        if (state == State.HALF_OPEN) {
+            lastReason = "probe failed";
+            return open(settings, now);
+        }
+        if (state == State.OPEN) {
+            return false;
+        }
+        record(settings, true);
+        if (settings.consecutiveTimeouts() > 0 && consecutiveTimeouts >= settings.consecutiveTimeouts()) {
+            lastReason = consecutiveTimeouts + " timeouts in a row";
+            return open(settings, now);
+        }
+        if (recorded >= Math.max(1, settings.minimumCalls())
+                && failures >= settings.failureRatio() * recorded) {
+            lastReason = failures + "/" + recorded + " requests failed";
+            return open(settings, now);
+        }
+        return false;
+    }
+
+    private void record(Settings settings, boolean failed) {
+        int size = Math.max(1, settings.windowSize());
+        if (window.length != size) {
+            window = new boolean[size];
+            recorded = 0;
+            failures = 0;
+            next = 0;
+        }
+        if (recorded == size) {
+            if (window[next]) {
+                failures--;
+            }
+        } else {
+            recorded++;
+        }
+        window[next] = failed;
+        if (failed) {
+            failures++;
+        }
+        next = (next + 1) % size;
+    }
+
+    private boolean open(Settings settings, long now) {
+        state = State.OPEN;
+        probeInFlight = false;
+        openUntilNanos = now + TimeUnit.MILLISECONDS.toNanos(Math.max(0, settings.openMillis()));
+        return true;
+    }
+
+    private boolean reset() {
+        boolean changed = state != State.CLOSED;
+        state = State.CLOSED;
+        probeInFlight = false;
+        window = new boolean[0];
+        recorded = 0;
+        failures = 0;
+        next = 0;
+        consecutiveTimeouts = 0;
+        return changed;
+    }
+}
@@ -0,0 +1,93 @@
+package com.chibashr.allthewebhooks.webhook;
+
+/**
+ * Adaptive in-flight limit for one webhook route, after the gradient algorithm in Netflix's
+ * concurrency-limits. Each response compares its round-trip time (short RTT) with a slow moving
+ * average of past RTTs (long RTT, the endpoint's no-load latency; a plain mean over the first
+ * {@value #WARMUP_SAMPLES} samples, then an exponential average over about 600 samples):
+ * <pre>
+ *   gradient = clamp(tolerance * longRtt / shortRtt, 0.5, 1.0)
+ *   newLimit = limit * gradient + queueSize        (queueSize = sqrt(limit))
+ * </pre>
+ * While latency stays flat the gradient is 1 and the limit grows by the queue size; once requests
+ * start queueing at the endpoint (RTT above {@code tolerance} times the baseline) it shrinks. A
+ * failed request (5xx, timeout, connection error) backs the limit off multiplicatively. The limit
+ * only grows while the route actually uses at least half of it, and moves by a smoothing factor
+ * per sample. It stays within 1 and the webhook's max-in-flight.
+ * <p>
+ * Not thread-safe: the {@link DeliveryScheduler} calls it under its lock.
+ */
+final class ConcurrencyLimit {
+    private static final double SMOOTHING = 0.2;
+    private static final double BACKOFF = 0.9;
+    private static final double LONG_WINDOW = 600;
+    private static final int WARMUP_SAMPLES = 10;
+
+    /** Adaptive limit settings (config.yaml concurrency); read on every sample so reloads apply. */
+    record Settings(boolean adaptive, int initialLimit, double tolerance) {
+        static final Settings FIXED = new Settings(false, 1, 2.0);
+    }
+
+    private double limit = -1;
+    private double longRttNanos;
+    private long samples;
+
+    /**
+     * Current in-flight limit. With adaptive limiting off this is {@code maxInFlight}
+     * (0 meaning no cap).
+     */
+    int limit(Settings settings, int maxInFlight) {
+        if (!settings.adaptive()) {
+            return maxInFlight;
+        }
+        int ceiling = maxInFlight > 0 ? maxInFlight : Integer.MAX_VALUE;
+        if (limit < 0) {
+            limit = Math.max(1, Math.min(settings.initialLimit(), ceiling));
+        }
+        return (int) Math.max(1, Math.min(ceiling, Math.round(limit)));
+    }
+
+    /** Baseline RTT in millis, 0 before the first sample. */
+    double longRttMillis() {
+        return longRttNanos / 1_000_000.0;
+    }
+
+    /**
+     * Feeds one completed request.
+     *
+     * @param inFlight requests in flight on the route when this one completed (including it)
+     * @param failed   true for a 5xx, timeout or connection error
+     */
+    void onSample(Settings settings, int maxInFlight, long rttNanos, int inFlight, boolean failed) {
+        if (!settings.adaptive() || rttNanos <= 0) {
+            return;
+        }
+        limit(settings, maxInFlight);
+        double current = limit;
+        samples++;
+        if (samples <= WARMUP_SAMPLES) {
+            longRttNanos += (rttNanos - longRttNanos) / samples;
+        } else {
+            double alpha = 2.0 / (LONG_WINDOW + 1);
+            longRttNanos = longRttNanos * (1 - alpha) + rttNanos * alpha;
+            // Latency improved a lot (e.g. a burst of slow responses ended): let the baseline follow.
+            if (longRttNanos / rttNanos > 2) {
+                longRttNanos *= 0.95;
+            }
+        }
+        double next;
+        if (failed) {
+            next = current * BACKOFF;
+        } else {
+            if (inFlight * 2 < current) {
+                // Not using the limit: latency says nothing about whether more would help.
+                return;
+            }
+            double gradient = Math.max(0.5, Math.min(1.0, Math.max(1.0, settings.tolerance()) * longRttNanos / rttNanos));
+            next = current * gradient + Math.sqrt(current);
+        }
+        limit = current * (1 - SMOOTHING) + next * SMOOTHING;
+        int ceiling = maxInFlight > 0 ? maxInFlight : Integer.MAX_VALUE;
+        limit = Math.max(1, Math.min(ceiling, limit));
+    }
+}
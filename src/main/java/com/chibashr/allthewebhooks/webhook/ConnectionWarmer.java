@@ -0,0 +1,256 @@
+package com.chibashr.allthewebhooks.webhook;
+
+import com.chibashr.allthewebhooks.util.WorkerThreads;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Opens connections to webhook hosts before the first message needs them and keeps them open
+ * (config.yaml connections). Hosts are keyed by HttpClient and origin, since each client has its
+ * own connection pool.
+ * <p>
+ * Warm-up, on config load, resolves the host name and sends two HEAD requests to a webhook URL
+ * on that host. Any HTTP status counts: the point is the connection. The first request pays for
+ * TCP and TLS; the second reuses the connection. Their difference is reported as the connect
+ * time, and the second as the request time. Afterwards a host with no traffic for
+ * {@code idleProbeMillis} gets another HEAD, so the idle connection is not closed by the server
+ * before the next real message.
+ * <p>
+ * With {@code httpVersion} "auto", plain-http hosts use HTTP/1.1 (no h2c upgrade round-trip) and
+ * https hosts use whatever ALPN negotiated on warm-up: HTTP/2 multiplexes every send to the host
+ * over one connection, HTTP/1.1 falls back to the client's per-host connection pool.
+ * <p>
+ * Warm-ups and probes run one at a time on a single background thread.
+ */
+public final class ConnectionWarmer {
+    private static final Duration PROBE_TIMEOUT = Duration.ofSeconds(10);
+    private static final long IDLE_CHECK_MILLIS = 1000;
+
+    /** Connection settings (config.yaml connections); replaced on each config load. */
+    record Settings(boolean warmUp, long idleProbeMillis, String httpVersion) {
+        static final Settings DISABLED = new Settings(false, 0, "auto");
+    }
+
+    /** Point-in-time view of one host for /allthewebhooks stats; times are 0 until measured. */
+    public record HostStats(String host, String version, double dnsMillis, double connectMillis,
+                           double requestMillis, long probes, long probeFailures, String lastError) {
+    }
+
+    private record Key(HttpClient client, String origin) {
+    }
+
+    /** One origin on one client. Version and activity are read by senders without a lock. */
+    static final class Host {
+        private final HttpClient client;
+        private final String origin;
+        private final URI probeUri;
+        private volatile HttpClient.Version version;
+        private volatile long lastActivityNanos = System.nanoTime();
+        private volatile double dnsMillis;
+        private volatile double connectMillis;
+        private volatile double requestMillis;
+        private volatile long probes;
+        private volatile long probeFailures;
+        private volatile String lastError = "";
+        private volatile boolean warmed;
+
+        private Host(HttpClient client, String origin, URI probeUri) {
+            this.client = client;
+            this.origin = origin;
+            this.probeUri = probeUri;
+        }
+
+        /** Protocol to send with, or null for the client default (before warm-up decides). */
+        HttpClient.Version version() {
+            return version;
+        }
+
+        void touch() {
+            lastActivityNanos = System.nanoTime();
+        }
+    }
+
+    private final Map<Key, Host> hosts = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService executor;
+    private volatile Settings settings = Settings.DISABLED;
+
+    ConnectionWarmer(WorkerThreads workers) {
+        this.executor = Executors.newSingleThreadScheduledExecutor(workers.factory("AllTheWebhooks-warmup"));
+        executor.scheduleWithFixedDelay(this::probeIdle, IDLE_CHECK_MILLIS, IDLE_CHECK_MILLIS, TimeUnit.MILLISECONDS);
+    }
+
+    /** The host for {@code url} on {@code client}; null if the URL has no scheme or host. */
+    Host host(HttpClient client, String url) {
+        URI uri;
+        try {
+            uri = URI.create(url);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+        if (uri.getScheme() == null || uri.getHost() == null) {
+            return null;
+        }
+        String scheme = uri.getScheme().toLowerCase(Locale.ROOT);
+        int port = uri.getPort() >= 0 ? uri.getPort() : "https".equals(scheme) ? 443 : 80;
+        String origin = scheme + "://" + uri.getHost().toLowerCase(Locale.ROOT) + ":" + port;
+        Host host = hosts.computeIfAbsent(new Key(client, origin), key -> new Host(client, origin, uri));
+        if (host.version == null) {
+            host.version = forcedVersion(settings, scheme);
+        }
+        return host;
+    }
+
+    /**
+     * Applies new settings, forgets hosts not in {@code configured}, and warms the configured
+     * hosts not warmed yet (all of them again if the HTTP version setting changed).
+     */
+    void configure(Settings settings, Collection<Host> configured) {
+        boolean versionChanged = !settings.httpVersion().equals(this.settings.httpVersion());
+        this.settings = settings;
+        Set<Host> keep = Set.copyOf(configured);
+        hosts.values().removeIf(host -> !keep.contains(host));
+        for (Host host : keep) {
+            if (versionChanged) {
+                host.version = forcedVersion(settings, scheme(host));
+                host.warmed = false;
+            }
+        }
+        if (!settings.warmUp()) {
+            return;
+        }
+        try {
+            executor.execute(() -> {
+                for (Host host : keep) {
+                    if (!host.warmed) {
+                        host.warmed = true;
+                        warm(host);
+                    }
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            // Shutting down.
+        }
+    }
+
+    public List<HostStats> getHostStats() {
+        List<HostStats> stats = new ArrayList<>();
+        for (Host host : hosts.values()) {
+            HttpClient.Version version = host.version;
+            stats.add(new HostStats(host.origin, version == null ? "auto" : label(version), host.dnsMillis,
+                    host.connectMillis, host.requestMillis, host.probes, host.probeFailures, host.lastError));
+        }
+        stats.sort((a, b) -> a.host().compareTo(b.host()));
+        return stats;
+    }
+
+    void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private void warm(Host host) {
+        long start = System.nanoTime();
+        try {
+            InetAddress.getAllByName(host.probeUri.getHost());
+            host.dnsMillis = millisSince(start);
+        } catch (IOException e) {
+            host.probeFailures++;
+            host.lastError = "DNS: " + describe(e);
+            return;
+        }
+        long cold = probe(host);
+        if (cold < 0) {
+            return;
+        }
+        long warm = probe(host);
+        if (warm < 0) {
+            return;
+        }
+        host.connectMillis = Math.max(0, cold - warm) / 1_000_000.0;
+        host.requestMillis = warm / 1_000_000.0;
+    }
+
+    private void probeIdle() {
+        Settings current = settings;
+        if (!current.warmUp() || current.idleProbeMillis() <= 0) {
+            return;
+        }
+        long idleNanos = TimeUnit.MILLISECONDS.toNanos(current.idleProbeMillis());
+        for (Host host : hosts.values()) {
+            if (System.nanoTime() - host.lastActivityNanos >= idleNanos) {
+                long rtt = probe(host);
+                if (rtt >= 0) {
+                    host.requestMillis = rtt / 1_000_000.0;
+                }
+            }
+        }
+    }
+
+    /** Sends one HEAD; returns its round-trip time, or -1 on a connection error. */
+    private long probe(Host host) {
+        host.touch();
+        HttpRequest.Builder request = HttpRequest.newBuilder(host.probeUri)
+                .method("HEAD", HttpRequest.BodyPublishers.noBody())
+                .timeout(PROBE_TIMEOUT);
+        if (host.version != null) {
+            request.version(host.version);
+        }
+        long start = System.nanoTime();
+        try {
+            HttpResponse<Void> response = host.client.send(request.build(), HttpResponse.BodyHandlers.discarding());
+            long rtt = System.nanoTime() - start;
+            host.probes++;
+            if (host.version == null && "auto".equals(settings.httpVersion())) {
+                host.version = response.version();
+            }
+            return rtt;
+        } catch (IOException | RuntimeException e) {
+            host.probeFailures++;
+            host.lastError = describe(e);
+            return -1;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return -1;
+        }
+    }
+
+    private static HttpClient.Version forcedVersion(Settings settings, String scheme) {
+        return switch (settings.httpVersion().toLowerCase(Locale.ROOT)) {
+            case "http2", "h2" -> HttpClient.Version.HTTP_2;
+            case "http1.1", "http/1.1", "http1" -> HttpClient.Version.HTTP_1_1;
+            default -> "http".equals(scheme) ? HttpClient.Version.HTTP_1_1 : null;
+        };
+    }
+
+    private static String scheme(Host host) {
+        return host.probeUri.getScheme().toLowerCase(Locale.ROOT);
+    }
+
+    private static String label(HttpClient.Version version) {
+        return version == HttpClient.Version.HTTP_2 ? "HTTP/2" : "HTTP/1.1";
+    }
+
+    private static double millisSince(long startNanos) {
+        return (System.nanoTime() - startNanos) / 1_000_000.0;
+    }
+
+    private static String describe(Exception e) {
+        return e.getMessage() == null ? e.getClass().getSimpleName() : e.getClass().getSimpleName() + ": " + e.getMessage();
+    }
+}
@@ -0,0 +1,673 @@
+package com.chibashr.allthewebhooks.webhook;
+
+import com.chibashr.allthewebhooks.config.WebhookDefinition;
+import com.chibashr.allthewebhooks.util.WorkerThreads;
+import java.net.http.HttpClient;
+import java.net.http.HttpHeaders;
+import java.net.http.HttpResponse;
+import java.net.http.HttpTimeoutException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Paces sends per Discord rate-limit bucket. Each webhook ({@link WebhookDefinition#key()}) is a
+ * route with a FIFO of waiting messages; routes point at a {@link Bucket}, first a private one and
+ * then the shared bucket named by {@code X-RateLimit-Bucket}. A route sends while its bucket has
+ * requests left in the current window and otherwise waits until the window resets, so bursts queue
+ * up and drain at the allowed rate instead of drawing 429s. Until the first response arrives, one
+ * request at a time is in flight. A bucket whose successful responses carry no rate-limit headers
+ * (a local relay, a non-Discord receiver) is unmetered: only the route's in-flight cap applies.
+ * <p>
+ * Headers read: {@code X-RateLimit-Limit}, {@code X-RateLimit-Remaining},
+ * {@code X-RateLimit-Reset-After}, {@code X-RateLimit-Bucket}, {@code Retry-After} and
+ * {@code X-RateLimit-Global}/{@code X-RateLimit-Scope}. A 429 puts the message back at the head
+ * of its route and pauses the bucket (or every route, for a global limit) until the reset.
+ * <p>
+ * Other retryable failures (see {@link RetryPolicy#isRetryable}) wait out a jittered backoff and
+ * then join the route's retry queue, kept apart from fresh messages: a route sends at most one
+ * retry per {@value #FRESH_PER_RETRY} fresh messages while both are waiting, so a failing
+ * backlog cannot starve new events (and new events cannot starve retries).
+ * <p>
+ * Routes are bulkheads: each has its own queue capacity, in-flight cap and optionally its own
+ * HttpClient (see {@link WebhookDefinition}), so a slow or dead endpoint fills only its own queue
+ * and cannot delay sends to the others. Within the cap, a {@link ConcurrencyLimit} adapts the
+ * allowed in-flight requests to the route's observed latency and errors.
+ * <p>
+ * Each route also has a {@link CircuitBreaker}. While it is open the route sends nothing: new
+ * messages either wait in the route's queue or, with {@code dropWhenOpen}, are rejected at once.
+ * <p>
+ * All route and bucket state is guarded by this object's lock; HTTP calls are started outside it.
+ */
+public class DeliveryScheduler {
+    private static final long DEFAULT_RETRY_AFTER_NANOS = TimeUnit.SECONDS.toNanos(1);
+    private static final int FRESH_PER_RETRY = 4;
+
+    /** Delivery outcome callbacks, called on HttpClient threads. */
+    interface Listener {
+        void delivered(PendingWebhook message, int status, long rttNanos);
+
+        /** Final failure: not retryable, out of attempts, past the deadline, or retry queue full. */
+        void failed(PendingWebhook message, int status, Throwable error);
+
+        /** The message failed and will be resent after the given backoff. */
+        default void retrying(PendingWebhook message, int status, Throwable error, long delayNanos) {
+        }
+
+        /** The webhook's circuit breaker changed state; called once per transition, under the scheduler lock. */
+        default void breakerChanged(String webhook, CircuitBreaker.State state, String reason) {
+        }
+    }
+
+    /** What {@link #offer} did with a message. */
+    enum Admission {
+        QUEUED,
+        /** The route's breaker is open and set to drop. */
+        SHORT_CIRCUITED,
+        /** The route's queue is full. */
+        FULL,
+        /** The route's queue is full while its breaker is open: an outage, not a burst. */
+        FULL_WHILE_OPEN
+    }
+
+    /** Requests allowed per window for one Discord bucket, as last reported by the server. */
+    static final class Bucket {
+        private final String id;
+        private int limit = -1;
+        private int remaining = -1;
+        private long resetAtNanos;
+        /** A success came back without rate-limit headers: only the route's in-flight cap applies. */
+        private boolean unmetered;
+
+        Bucket(String id) {
+            this.id = id;
+        }
+
+        /** Starts a new window once the reset time has passed. */
+        private void refresh(long now) {
+            if (resetAtNanos != 0 && now >= resetAtNanos) {
+                remaining = limit;
+                resetAtNanos = 0;
+            }
+        }
+    }
+
+    /** Point-in-time view of one webhook's route for /allthewebhooks stats. */
+    public record RouteStats(String webhook, int waiting, int retrying, int inFlight, int maxInFlight,
+                             int capacity, long completed, double averageLatencyMillis, double maxLatencyMillis,
+                             String breaker, int concurrencyLimit, double p50Millis, double p90Millis,
+                             double p99Millis) {
+    }
+
+    private static final class Route {
+        private final String key;
+        private final HttpClient client;
+        private final Deque<PendingWebhook> waiting = new ArrayDeque<>();
+        private final Deque<PendingWebhook> retries = new ArrayDeque<>();
+        private final CircuitBreaker breaker = new CircuitBreaker();
+        private final ConcurrencyLimit concurrency = new ConcurrencyLimit();
+        private final LatencyRecorder latencies = new LatencyRecorder();
+        private volatile ConnectionWarmer.Host host;
+        private String url;
+        private Bucket bucket;
+        private int capacity;
+        private int maxInFlight;
+        private int inFlight;
+        private int freshSinceRetry;
+        private boolean wakeScheduled;
+        private long completed;
+        private long totalLatencyNanos;
+        private long maxLatencyNanos;
+
+        Route(String key, HttpClient client) {
+            this.key = key;
+            this.client = client;
+            this.bucket = new Bucket("route:" + key);
+        }
+    }
+
+    private final HttpClient httpClient;
+    private final Listener listener;
+    private final Supplier<RetryPolicy> retryPolicy;
+    private final Supplier<CircuitBreaker.Settings> breakerSettings;
+    private final Supplier<ConcurrencyLimit.Settings> concurrencySettings;
+    private final WorkerThreads workers;
+    private final int routeCapacity;
+    private final ScheduledExecutorService timer;
+    private final WebhookRequests requests = new WebhookRequests();
+    private final ConnectionWarmer warmer;
+    private final Map<String, Route> routes = new HashMap<>();
+    private final Map<String, Bucket> buckets = new HashMap<>();
+    private final LongAdder rateLimitedResponses = new LongAdder();
+    private final LongAdder overflowDropped = new LongAdder();
+    private final LongAdder shortCircuited = new LongAdder();
+    private final LongAdder fullWhileOpen = new LongAdder();
+    private final AtomicInteger retryPending = new AtomicInteger();
+    private long globalResumeAtNanos;
+
+    /**
+     * @param retryPolicy   read on each failure, so config reloads apply to later retries
+     * @param routeCapacity max messages waiting per webhook (fresh and retry queues each) unless
+     *                      the webhook sets its own queue capacity; beyond it {@link #submit} rejects
+     */
+    DeliveryScheduler(HttpClient httpClient, Listener listener, Supplier<RetryPolicy> retryPolicy, int routeCapacity) {
+        this(httpClient, listener, retryPolicy, () -> CircuitBreaker.Settings.DISABLED, routeCapacity);
+    }
+
+    DeliveryScheduler(HttpClient httpClient, Listener listener, Supplier<RetryPolicy> retryPolicy,
+                      Supplier<CircuitBreaker.Settings> breakerSettings, int routeCapacity) {
+        this(httpClient, listener, retryPolicy, breakerSettings, () -> ConcurrencyLimit.Settings.FIXED, routeCapacity);
+    }
+
+    /**
+     * @param breakerSettings     read on every send and response, so config reloads apply
+     * @param concurrencySettings likewise for the adaptive in-flight limit
+     */
+    DeliveryScheduler(HttpClient httpClient, Listener listener, Supplier<RetryPolicy> retryPolicy,
+                      Supplier<CircuitBreaker.Settings> breakerSettings,
+                      Supplier<ConcurrencyLimit.Settings> concurrencySettings, int routeCapacity) {
+        this(httpClient, listener, retryPolicy, breakerSettings, concurrencySettings, WorkerThreads.platform(), routeCapacity);
+    }
+
+    /**
+     * @param workers runs timer callbacks (retries, rate-limit wake-ups) and builds dedicated
+     *                HttpClients; see execution.virtual-threads
+     */
+    DeliveryScheduler(HttpClient httpClient, Listener listener, Supplier<RetryPolicy> retryPolicy,
+                      Supplier<CircuitBreaker.Settings> breakerSettings,
+                      Supplier<ConcurrencyLimit.Settings> concurrencySettings, WorkerThreads workers,
+                      int routeCapacity) {
+        this.workers = workers;
+        this.httpClient = httpClient;
+        this.listener = listener;
+        this.retryPolicy = retryPolicy;
+        this.breakerSettings = breakerSettings;
+        this.concurrencySettings = concurrencySettings;
+        this.routeCapacity = Math.max(1, routeCapacity);
+        this.timer = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "AllTheWebhooks-webhook-scheduler");
+            t.setDaemon(true);
+            return t;
+        });
+        this.warmer = new ConnectionWarmer(workers);
+    }
+
+    /**
+     * Queues a message on its route and sends whatever the bucket allows now. False if the route
+     * is full, or its breaker is open and set to drop.
+     */
+    boolean submit(PendingWebhook message) {
+        return offer(message) == Admission.QUEUED;
+    }
+
+    /** Like {@link #submit}, saying why a message was not queued. */
+    Admission offer(PendingWebhook message) {
+        List<PendingWebhook> ready;
+        Route route;
+        synchronized (this) {
+            route = route(message.webhook());
+            CircuitBreaker.Settings settings = breakerSettings.get();
+            long now = System.nanoTime();
+            boolean open = route.breaker.isOpen(settings, now);
+            if (settings.dropWhenOpen() && open) {
+                shortCircuited.increment();
+                return Admission.SHORT_CIRCUITED;
+            }
+            if (route.waiting.size() >= route.capacity) {
+                if (open) {
+                    fullWhileOpen.increment();
+                    return Admission.FULL_WHILE_OPEN;
+                }
+                overflowDropped.increment();
+                return Admission.FULL;
+            }
+            route.waiting.addLast(message);
+            ready = collect(route, now);
+        }
+        send(route, ready);
+        return Admission.QUEUED;
+    }
+
+    /** Fresh messages waiting on rate limits across all routes. */
+    public synchronized int getBacklog() {
+        int backlog = 0;
+        for (Route route : routes.values()) {
+            backlog += route.waiting.size();
+        }
+        return backlog;
+    }
+
+    /** Failed messages waiting for their backoff or for a send slot. */
+    public int getRetryBacklog() {
+        return retryPending.get();
+    }
+
+    /** Requests currently awaiting a response. */
+    public synchronized int getInFlight() {
+        int inFlight = 0;
+        for (Route route : routes.values()) {
+            inFlight += route.inFlight;
+        }
+        return inFlight;
+    }
+
+    /** 429 responses received; each one requeued its message. */
+    public long getRateLimitedResponses() {
+        return rateLimitedResponses.sum();
+    }
+
+    public long getOverflowDropped() {
+        return overflowDropped.sum();
+    }
+
+    /** Messages rejected at once because their webhook's breaker was open (drop mode). */
+    public long getShortCircuited() {
+        return shortCircuited.sum();
+    }
+
+    /** Messages turned away because their route's queue was full while its breaker was open. */
+    public long getFullWhileOpen() {
+        return fullWhileOpen.sum();
+    }
+
+    /** Per-webhook queue depth, in-flight requests and limit, and latency, ordered by webhook. */
+    public synchronized List<RouteStats> getRouteStats() {
+        List<RouteStats> stats = new ArrayList<>();
+        ConcurrencyLimit.Settings concurrency = concurrencySettings.get();
+        for (Route route : routes.values()) {
+            double average = route.completed == 0 ? 0 : route.totalLatencyNanos / (double) route.completed / 1_000_000.0;
+            double[] percentiles = route.latencies.percentilesMillis(50, 90, 99);
+            stats.add(new RouteStats(route.key, route.waiting.size(), route.retries.size(), route.inFlight,
+                    route.maxInFlight, route.capacity, route.completed, average, route.maxLatencyNanos / 1_000_000.0,
+                    route.breaker.state().name().toLowerCase(Locale.ROOT).replace('_', '-'),
+                    route.concurrency.limit(concurrency, route.maxInFlight),
+                    percentiles[0], percentiles[1], percentiles[2]));
+        }
+        stats.sort((a, b) -> a.webhook().compareTo(b.webhook()));
+        return stats;
+    }
+
+    /** Messages not yet finished: waiting, in flight, or waiting out a retry backoff. */
+    public synchronized int getOutstanding() {
+        return getBacklog() + getInFlight() + retryPending.get();
+    }
+
+    /**
+     * Waits until every submitted message has finished (delivered or finally failed) or the
+     * deadline passes. Sends keep going at the pace the rate-limit buckets allow; a retry whose
+     * backoff ends after the deadline is not waited for.
+     *
+     * @return true if nothing is outstanding
+     */
+    synchronized boolean awaitIdle(long deadlineNanos) throws InterruptedException {
+        while (getOutstanding() > 0) {
+            long remaining = deadlineNanos - System.nanoTime();
+            if (remaining <= 0) {
+                return false;
+            }
+            wait(Math.max(1, Math.min(TimeUnit.NANOSECONDS.toMillis(remaining), 50)));
+        }
+        return true;
+    }
+
+    /**
+     * On config load: precompiles request encoders, creates the routes of the configured webhooks
+     * and hands their hosts to the {@link ConnectionWarmer}.
+     */
+    void prepare(Collection<WebhookDefinition> webhooks, ConnectionWarmer.Settings connections) {
+        requests.compile(webhooks);
+        List<ConnectionWarmer.Host> hosts = new ArrayList<>();
+        synchronized (this) {
+            for (WebhookDefinition webhook : webhooks) {
+                ConnectionWarmer.Host host = route(webhook).host;
+                if (host != null) {
+                    hosts.add(host);
+                }
+            }
+        }
+        warmer.configure(connections, hosts);
+    }
+
+    /** Per-host protocol, connect time and request time from warm-up and idle probes. */
+    public List<ConnectionWarmer.HostStats> getHostStats() {
+        return warmer.getHostStats();
+    }
+
+    /** Runs a task periodically on the scheduler thread (e.g. log summaries). */
+    void every(long period, TimeUnit unit, Runnable task) {
+        timer.scheduleAtFixedRate(task, period, period, unit);
+    }
+
+    public void shutdown() {
+        timer.shutdownNow();
+        warmer.shutdown();
+        synchronized (this) {
+            for (Route route : routes.values()) {
+                if (route.client != httpClient) {
+                    route.client.shutdownNow();
+                }
+            }
+        }
+    }
+
+    /** The webhook's route, created on first use; queue and in-flight limits follow config reloads. */
+    private Route route(WebhookDefinition webhook) {
+        Route route = routes.computeIfAbsent(webhook.key(),
+                key -> new Route(key, webhook.dedicatedClient() ? workers.newHttpClient() : httpClient));
+        route.capacity = webhook.queueCapacity() > 0 ? webhook.queueCapacity() : routeCapacity;
+        route.maxInFlight = Math.max(0, webhook.maxInFlight());
+        if (!webhook.url().equals(route.url)) {
+            route.url = webhook.url();
+            route.host = warmer.host(route.client, webhook.url());
+        }
+        return route;
+    }
+
+    /** Takes the messages the route's bucket allows right now; schedules a wake-up for the rest. */
+    private List<PendingWebhook> collect(Route route, long now) {
+        if (route.waiting.isEmpty() && route.retries.isEmpty()) {
+            return List.of();
+        }
+        if (now < globalResumeAtNanos) {
+            scheduleWake(route, globalResumeAtNanos - now);
+            return List.of();
+        }
+        Bucket bucket = route.bucket;
+        bucket.refresh(now);
+        CircuitBreaker.Settings settings = breakerSettings.get();
+        int limit = route.concurrency.limit(concurrencySettings.get(), route.maxInFlight);
+        List<PendingWebhook> ready = new ArrayList<>();
+        while (!route.waiting.isEmpty() || !route.retries.isEmpty()) {
+            if (limit > 0 && route.inFlight >= limit) {
+                break;
+            }
+            if (!route.breaker.permits(settings, now)) {
+                if (route.breaker.isOpen(settings, now)) {
+                    scheduleWake(route, route.breaker.openRemainingNanos(now));
+                }
+                break;
+            }
+            if (bucket.remaining == 0) {
+                scheduleWake(route, bucket.resetAtNanos == 0 ? DEFAULT_RETRY_AFTER_NANOS : bucket.resetAtNanos - now);
+                break;
+            } else if (bucket.remaining > 0) {
+                bucket.remaining--;
+            } else if (!bucket.unmetered && inFlight(bucket) > 0) {
+                break;
+            }
+            if (route.breaker.onSend(settings, now)) {
+                listener.breakerChanged(route.key, CircuitBreaker.State.HALF_OPEN, "sending a probe request");
+            }
+            route.inFlight++;
+            ready.add(next(route));
+        }
+        return ready;
+    }
+
+    /** Fresh messages first, but a waiting retry goes out after every {@value #FRESH_PER_RETRY} fresh sends. */
+    private PendingWebhook next(Route route) {
+        if (!route.retries.isEmpty() && (route.waiting.isEmpty() || route.freshSinceRetry >= FRESH_PER_RETRY)) {
+            route.freshSinceRetry = 0;
+            retryPending.decrementAndGet();
+            return route.retries.pollFirst();
+        }
+        route.freshSinceRetry++;
+        return route.waiting.pollFirst();
+    }
+
+    /** Waits out the backoff, then queues the retry; the caller has already counted it in {@code retryPending}. */
+    private void scheduleRetry(Route route, PendingWebhook message, int status, Throwable error, long delayNanos) {
+        Runnable enqueue = () -> {
+            List<PendingWebhook> ready;
+            synchronized (this) {
+                if (route.retries.size() >= route.capacity) {
+                    retryPending.decrementAndGet();
+                    ready = null;
+                } else {
+                    route.retries.addLast(message);
+                    ready = collect(route, System.nanoTime());
+                }
+            }
+            if (ready == null) {
+                listener.failed(message, status, error);
+                idleCheck();
+            } else {
+                send(route, ready);
+            }
+        };
+        try {
+            timer.schedule(() -> workers.execute(enqueue), delayNanos, TimeUnit.NANOSECONDS);
+        } catch (RuntimeException e) {
+            retryPending.decrementAndGet();
+            listener.failed(message, status, error);
+        }
+    }
+
+    private int inFlight(Bucket bucket) {
+        int inFlight = 0;
+        for (Route route : routes.values()) {
+            if (route.bucket == bucket) {
+                inFlight += route.inFlight;
+            }
+        }
+        return inFlight;
+    }
+
+    private void scheduleWake(Route route, long delayNanos) {
+        if (route.wakeScheduled) {
+            return;
+        }
+        route.wakeScheduled = true;
+        try {
+            timer.schedule(() -> workers.execute(() -> wake(route)), Math.max(0, delayNanos), TimeUnit.NANOSECONDS);
+        } catch (RuntimeException e) {
+            // Scheduler shut down: the waiting messages are abandoned with the plugin.
+            route.wakeScheduled = false;
+        }
+    }
+
+    private void wake(Route route) {
+        List<PendingWebhook> ready;
+        synchronized (this) {
+            route.wakeScheduled = false;
+            ready = collect(route, System.nanoTime());
+        }
+        send(route, ready);
+    }
+
+    private void send(Route route, List<PendingWebhook> ready) {
+        ConnectionWarmer.Host host = route.host;
+        for (PendingWebhook message : ready) {
+            long sentAt = System.nanoTime();
+            try {
+                if (host != null) {
+                    host.touch();
+                }
+                route.client.sendAsync(requests.build(message, host == null ? null : host.version()), HttpResponse.BodyHandlers.discarding())
+                        .whenCompleteAsync((response, error) -> complete(route, message, sentAt, response, error), workers::execute);
+            } catch (RuntimeException e) {
+                complete(route, message, sentAt, null, e);
+            }
+        }
+    }
+
+    private void complete(Route route, PendingWebhook message, long sentAt, HttpResponse<?> response, Throwable error) {
+        long now = System.nanoTime();
+        int status = response == null ? -1 : response.statusCode();
+        List<Route> pumped = new ArrayList<>();
+        List<List<PendingWebhook>> readyLists = new ArrayList<>();
+        boolean success = error == null && status >= 200 && status < 300;
+        boolean rateLimited = status == 429;
+        long retryDelay = -1;
+        synchronized (this) {
+            RetryPolicy policy = retryPolicy.get();
+            if (rateLimited) {
+                rateLimited = !policy.isPastDeadline(message, now);
+            } else if (!success && RetryPolicy.isRetryable(status, error)) {
+                retryDelay = policy.nextDelayNanos(message, now);
+            }
+            if (retryDelay >= 0) {
+                // Reserved before inFlight drops, so awaitIdle never sees zero while a retry is pending.
+                retryPending.incrementAndGet();
+            }
+            long rtt = now - sentAt;
+            if (status != 429) {
+                boolean failed = error != null || status == 408 || status >= 500;
+                route.concurrency.onSample(concurrencySettings.get(), route.maxInFlight, rtt, route.inFlight, failed);
+            }
+            route.inFlight--;
+            route.completed++;
+            route.totalLatencyNanos += rtt;
+            route.maxLatencyNanos = Math.max(route.maxLatencyNanos, rtt);
+            route.latencies.record(rtt);
+            if (response != null) {
+                updateBucket(route, status, response.headers(), now);
+                if (status == 429) {
+                    rateLimitedResponses.increment();
+                    applyRetryAfter(route, response.headers(), now);
+                    if (rateLimited) {
+                        route.waiting.addFirst(message);
+                    }
+                }
+            }
+            recordOutcome(route, status, error, now);
+            // Wake every route sharing the bucket; a response can free capacity for all of them.
+            for (Route other : routes.values()) {
+                if (other.bucket == route.bucket) {
+                    pumped.add(other);
+                    readyLists.add(collect(other, now));
+                }
+            }
+        }
+        for (int i = 0; i < pumped.size(); i++) {
+            send(pumped.get(i), readyLists.get(i));
+        }
+        if (rateLimited) {
+            return;
+        }
+        if (success) {
+            listener.delivered(message, status, now - sentAt);
+        } else if (retryDelay < 0) {
+            listener.failed(message, status, error);
+        } else {
+            listener.retrying(message, status, error, retryDelay);
+            scheduleRetry(route, message.nextAttempt(), status, error, retryDelay);
+        }
+        idleCheck();
+    }
+
+    private void recordOutcome(Route route, int status, Throwable error, long now) {
+        CircuitBreaker.Settings settings = breakerSettings.get();
+        boolean changed;
+        if (status == 429) {
+            route.breaker.onRateLimited();
+            return;
+        } else if (error == null && status >= 200 && status < 300) {
+            changed = route.breaker.onSuccess(settings);
+        } else {
+            changed = route.breaker.onFailure(settings, isTimeout(error), now);
+        }
+        if (changed) {
+            CircuitBreaker.State state = route.breaker.state();
+            listener.breakerChanged(route.key, state,
+                    state == CircuitBreaker.State.CLOSED ? "probe request succeeded" : route.breaker.lastReason());
+        }
+    }
+
+    private static boolean isTimeout(Throwable error) {
+        Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+        return cause instanceof HttpTimeoutException;
+    }
+
+    /** Wakes {@link #awaitIdle} after a message finishes. */
+    private synchronized void idleCheck() {
+        notifyAll();
+    }
+
+    private void updateBucket(Route route, int status, HttpHeaders headers, long now) {
+        String bucketId = headers.firstValue("X-RateLimit-Bucket").orElse(null);
+        if (bucketId != null && !bucketId.equals(route.bucket.id)) {
+            Bucket shared = buckets.computeIfAbsent(bucketId, Bucket::new);
+            if (shared.limit < 0) {
+                shared.limit = route.bucket.limit;
+                shared.remaining = route.bucket.remaining;
+                shared.resetAtNanos = route.bucket.resetAtNanos;
+                shared.unmetered = route.bucket.unmetered;
+            }
+            route.bucket = shared;
+        }
+        Bucket bucket = route.bucket;
+        int limit = parseInt(headers.firstValue("X-RateLimit-Limit").orElse(null));
+        int remaining = parseInt(headers.firstValue("X-RateLimit-Remaining").orElse(null));
+        long resetAfter = parseSeconds(headers.firstValue("X-RateLimit-Reset-After").orElse(null));
+        if (limit >= 0) {
+            bucket.limit = limit;
+        }
+        if (remaining < 0 || resetAfter < 0) {
+            if (status >= 200 && status < 300) {
+                bucket.unmetered = true;
+            }
+            return;
+        }
+        bucket.unmetered = false;
+        // Requests still in flight were sent against this window but are not in the header yet.
+        int available = Math.max(0, remaining - inFlight(bucket));
+        boolean sameWindow = bucket.resetAtNanos != 0 && now < bucket.resetAtNanos && bucket.remaining >= 0;
+        bucket.remaining = sameWindow ? Math.min(bucket.remaining, available) : available;
+        bucket.resetAtNanos = now + resetAfter;
+    }
+
+    private void applyRetryAfter(Route route, HttpHeaders headers, long now) {
+        long retryAfter = parseSeconds(headers.firstValue("Retry-After").orElse(null));
+        if (retryAfter < 0) {
+            retryAfter = parseSeconds(headers.firstValue("X-RateLimit-Reset-After").orElse(null));
+        }
+        if (retryAfter < 0) {
+            retryAfter = DEFAULT_RETRY_AFTER_NANOS;
+        }
+        boolean global = headers.firstValue("X-RateLimit-Global").map("true"::equalsIgnoreCase).orElse(false)
+                || headers.firstValue("X-RateLimit-Scope").map("global"::equalsIgnoreCase).orElse(false);
+        if (global) {
+            globalResumeAtNanos = Math.max(globalResumeAtNanos, now + retryAfter);
+        } else {
+            route.bucket.remaining = 0;
+            route.bucket.resetAtNanos = now + retryAfter;
+        }
+    }
+
+    private static int parseInt(String value) {
+        if (value == null) {
+            return -1;
+        }
+        try {
+            return Integer.parseInt(value.trim());
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    /** Parses a seconds value (Discord sends fractions, e.g. "1.337") into nanos; -1 if absent. */
+    private static long parseSeconds(String value) {
+        if (value == null) {
+            return -1;
+        }
+        try {
+            double seconds = Double.parseDouble(value.trim());
+            return seconds < 0 ? -1 : (long) (seconds * 1_000_000_000L);
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+}
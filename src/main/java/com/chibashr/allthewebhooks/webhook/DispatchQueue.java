@@ -0,0 +1,283 @@
+package com.chibashr.allthewebhooks.webhook;
+
+import com.chibashr.allthewebhooks.stats.StatsTracker;
+import com.chibashr.allthewebhooks.util.WarningTracker;
+import com.chibashr.allthewebhooks.util.WorkerThreads;
+import java.io.File;
+import java.io.IOException;
+import java.util.Locale;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.BooleanSupplier;
+import java.util.function.Consumer;
+
+/**
+ * Bounded hand-off between rendering and HTTP: producers put rendered messages into a
+ * {@link DispatchRing}, and one drainer thread takes them off and hands them to the sender.
+ * Replaces one scheduler task per message with a fixed, visible backlog.
+ * <p>
+ * When the ring is full the configured {@link OverflowPolicy} applies. {@code block} waits for
+ * space up to a timeout, but only off the server thread; on the server thread it falls back to
+ * dropping the new message. {@code spill} appends to a {@link SpillQueue} file, which the drainer
+ * sends from once the ring is empty (so spilled messages may go out after newer ones).
+ * <p>
+ * The drainer starts on the first enqueue.
+ */
+public class DispatchQueue {
+    private static final String THREAD_NAME = "AllTheWebhooks-webhook-dispatch";
+    private static final long IDLE_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(50);
+    private static final long BLOCK_PARK_NANOS = TimeUnit.MICROSECONDS.toNanos(200);
+
+    /** What to do with a message when the ring is full (dispatch-queue.overflow-policy). */
+    public enum OverflowPolicy {
+        DROP_NEWEST,
+        DROP_OLDEST,
+        BLOCK,
+        SPILL;
+
+        /** Parses a config value such as {@code drop-oldest}; unknown values fall back to drop-newest. */
+        public static OverflowPolicy fromConfig(String value) {
+            if (value == null) {
+                return DROP_NEWEST;
+            }
+            try {
+                return valueOf(value.trim().toUpperCase(Locale.ROOT).replace('-', '_'));
+            } catch (IllegalArgumentException e) {
+                return DROP_NEWEST;
+            }
+        }
+    }
+
+    private final DispatchRing<PendingWebhook> ring;
+    private final SpillQueue spill;
+    private final Consumer<PendingWebhook> sender;
+    private final Consumer<PendingWebhook> onDiscard;
+    private final StatsTracker statsTracker;
+    private final WarningTracker warningTracker;
+    private final BooleanSupplier onServerThread;
+    private final ThreadFactory threadFactory;
+    private final LongAdder overflowDropped = new LongAdder();
+    private final LongAdder spilled = new LongAdder();
+    private volatile Thread drainer;
+    private volatile boolean drainerParked;
+    private volatile boolean closed;
+
+    /**
+     * @param capacity       ring capacity (rounded up to a power of two)
+     * @param spillFile      file used by the spill policy; leftovers from a previous run are replayed
+     * @param sender         sends one message; called on the drainer thread
+     * @param onDiscard      told about each message dropped by the overflow policy or a failed send
+     * @param onServerThread true on a thread that must never block (server/region thread)
+     */
+    DispatchQueue(
+            int capacity,
+            File spillFile,
+            Consumer<PendingWebhook> sender,
+            Consumer<PendingWebhook> onDiscard,
+            StatsTracker statsTracker,
+            WarningTracker warningTracker,
+            BooleanSupplier onServerThread
+    ) {
+        this(capacity, spillFile, sender, onDiscard, statsTracker, warningTracker, onServerThread, WorkerThreads.platform());
+    }
+
+    /** @param workers supplies the drainer thread (platform or virtual, see execution.virtual-threads) */
+    DispatchQueue(
+            int capacity,
+            File spillFile,
+            Consumer<PendingWebhook> sender,
+            Consumer<PendingWebhook> onDiscard,
+            StatsTracker statsTracker,
+            WarningTracker warningTracker,
+            BooleanSupplier onServerThread,
+            WorkerThreads workers
+    ) {
+        this.threadFactory = workers.factory(THREAD_NAME);
+        this.ring = new DispatchRing<>(capacity);
+        this.spill = new SpillQueue(spillFile);
+        this.sender = sender;
+        this.onDiscard = onDiscard;
+        this.statsTracker = statsTracker;
+        this.warningTracker = warningTracker;
+        this.onServerThread = onServerThread;
+        if (spill.pending() > 0) {
+            ensureStarted();
+        }
+    }
+
+    /** Queues a message, applying the overflow policy when the ring is full. */
+    void enqueue(PendingWebhook message, OverflowPolicy policy, long blockTimeoutMs) {
+        if (closed) {
+            // Not discarded: a spooled message stays pending for the next start.
+            overflowDropped.increment();
+            statsTracker.incrementDropped(message.eventKey());
+            return;
+        }
+        if (drainer == null) {
+            ensureStarted();
+        }
+        if (ring.offer(message)) {
+            wakeDrainer();
+            return;
+        }
+        switch (policy) {
+            case DROP_OLDEST -> {
+                while (!ring.offer(message)) {
+                    PendingWebhook oldest = ring.poll();
+                    if (oldest != null) {
+                        drop(oldest);
+                    }
+                }
+            }
+            case BLOCK -> {
+                if (onServerThread.getAsBoolean() || !offerWithin(message, blockTimeoutMs)) {
+                    drop(message);
+                    return;
+                }
+            }
+            case SPILL -> {
+                try {
+                    spill.append(message);
+                    spilled.increment();
+                } catch (IOException e) {
+                    warningTracker.warnOnce("dispatch-spill-failed",
+                            "Could not spill webhook message to disk, dropping overflow: " + e.getMessage());
+                    drop(message);
+                    return;
+                }
+            }
+            default -> {
+                drop(message);
+                return;
+            }
+        }
+        wakeDrainer();
+    }
+
+    /**
+     * Stops accepting messages and lets the drainer send what is already queued for up to the
+     * given time. Spilled messages stay on disk for the next start.
+     */
+    public void shutdown(long timeout, TimeUnit unit) {
+        closed = true;
+        Thread current = drainer;
+        if (current != null) {
+            LockSupport.unpark(current);
+            try {
+                current.join(Math.max(1, unit.toMillis(timeout)));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        spill.close();
+    }
+
+    public int getDepth() {
+        return ring.size();
+    }
+
+    public int getCapacity() {
+        return ring.capacity();
+    }
+
+    public long getHighWaterMark() {
+        return ring.getHighWaterMark();
+    }
+
+    /** Age of the message at the head of the ring, 0 when empty. */
+    public long getOldestAgeMillis() {
+        PendingWebhook head = ring.peek();
+        return head == null ? 0 : TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - head.enqueuedNanos());
+    }
+
+    public long getOverflowDropped() {
+        return overflowDropped.sum();
+    }
+
+    public long getSpilled() {
+        return spilled.sum();
+    }
+
+    public long getSpillPending() {
+        return spill.pending();
+    }
+
+    private boolean offerWithin(PendingWebhook message, long timeoutMs) {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(Math.max(0, timeoutMs));
+        while (System.nanoTime() < deadline) {
+            LockSupport.parkNanos(BLOCK_PARK_NANOS);
+            if (ring.offer(message)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void drop(PendingWebhook message) {
+        overflowDropped.increment();
+        statsTracker.incrementDropped(message.eventKey());
+        onDiscard.accept(message);
+    }
+
+    private void wakeDrainer() {
+        if (drainerParked) {
+            Thread current = drainer;
+            if (current != null) {
+                LockSupport.unpark(current);
+            }
+        }
+    }
+
+    private synchronized void ensureStarted() {
+        if (drainer != null) {
+            return;
+        }
+        Thread thread = threadFactory.newThread(this::drain);
+        drainer = thread;
+        thread.start();
+    }
+
+    private void drain() {
+        while (true) {
+            PendingWebhook message = ring.poll();
+            if (message == null && !closed) {
+                message = pollSpill();
+            }
+            if (message != null) {
+                send(message);
+                continue;
+            }
+            if (closed) {
+                return;
+            }
+            drainerParked = true;
+            if (ring.isEmpty() && spill.pending() == 0 && !closed) {
+                LockSupport.parkNanos(this, IDLE_PARK_NANOS);
+            }
+            drainerParked = false;
+        }
+    }
+
+    private PendingWebhook pollSpill() {
+        try {
+            return spill.poll();
+        } catch (IOException e) {
+            warningTracker.warnOnce("dispatch-spill-read-failed",
+                    "Could not read spilled webhook messages: " + e.getMessage());
+            return null;
+        }
+    }
+
+    private void send(PendingWebhook message) {
+        try {
+            sender.accept(message);
+        } catch (RuntimeException e) {
+            statsTracker.incrementWebhookFailure(message.eventKey());
+            onDiscard.accept(message);
+            warningTracker.warnOnce("dispatch-send-failed:" + message.eventKey(),
+                    "Webhook dispatch failed for " + message.eventKey() + ": " + e);
+        }
+    }
+}
@@ -0,0 +1,104 @@
+package com.chibashr.allthewebhooks.webhook;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Preallocated, lock-free bounded ring buffer (sequence-per-slot, as in Disruptor and Vyukov's
+ * bounded MPMC queue). Each slot carries a sequence number that tells producers and consumers
+ * whose turn it is, so {@link #offer} and {@link #poll} claim a slot with one CAS on the tail or
+ * head counter and never take a lock or allocate.
+ * <p>
+ * Multiple producers are allowed (pipeline worker, fire command, inline dispatch) and
+ * {@link #poll} is safe from any thread, which drop-oldest relies on. Capacity is rounded up to
+ * a power of two.
+ */
+public class DispatchRing<T> {
+    private final int mask;
+    private final AtomicReferenceArray<T> items;
+    private final AtomicLongArray sequences;
+    private final AtomicLong tail = new AtomicLong();
+    private final AtomicLong head = new AtomicLong();
+    private final AtomicLong highWaterMark = new AtomicLong();
+
+    public DispatchRing(int requestedCapacity) {
+        int capacity = 1;
+        while (capacity < Math.max(2, requestedCapacity) && capacity < (1 << 30)) {
+            capacity <<= 1;
+        }
+        this.mask = capacity - 1;
+        this.items = new AtomicReferenceArray<>(capacity);
+        this.sequences = new AtomicLongArray(capacity);
+        for (int i = 0; i < capacity; i++) {
+            sequences.set(i, i);
+        }
+    }
+
+    /** Adds the item at the tail; false when the ring is full. */
+    public boolean offer(T item) {
+        while (true) {
+            long position = tail.get();
+            int index = (int) (position & mask);
+            long diff = sequences.get(index) - position;
+            if (diff == 0) {
+                if (tail.compareAndSet(position, position + 1)) {
+                    items.lazySet(index, item);
+                    sequences.set(index, position + 1);
+                    highWaterMark.accumulateAndGet(position + 1 - head.get(), Math::max);
+                    return true;
+                }
+            } else if (diff < 0) {
+                return false;
+            } else {
+                Thread.onSpinWait();
+            }
+        }
+    }
+
+    /** Removes and returns the head item, or null when the ring is empty. */
+    public T poll() {
+        while (true) {
+            long position = head.get();
+            int index = (int) (position & mask);
+            long diff = sequences.get(index) - (position + 1);
+            if (diff == 0) {
+                if (head.compareAndSet(position, position + 1)) {
+                    T item = items.get(index);
+                    items.lazySet(index, null);
+                    sequences.set(index, position + mask + 1);
+                    return item;
+                }
+            } else if (diff < 0) {
+                return null;
+            } else {
+                Thread.onSpinWait();
+            }
+        }
+    }
+
+    /** Best-effort look at the head item without removing it; null when empty or contended. */
+    public T peek() {
+        long position = head.get();
+        int index = (int) (position & mask);
+        return sequences.get(index) == position + 1 ? items.get(index) : null;
+    }
+
+    public int size() {
+        long size = tail.get() - head.get();
+        return (int) Math.max(0, Math.min(size, capacity()));
+    }
+
+    public boolean isEmpty() {
+        return size() == 0;
+    }
+
+    public int capacity() {
+        return mask + 1;
+    }
+
+    /** Highest depth observed since construction. */
+    public long getHighWaterMark() {
+        return highWaterMark.get();
+    }
+}
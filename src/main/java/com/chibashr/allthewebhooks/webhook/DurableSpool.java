@@ -0,0 +1,451 @@
+package com.chibashr.allthewebhooks.webhook;
+
+import com.chibashr.allthewebhooks.config.WebhookDefinition;
+import com.chibashr.allthewebhooks.util.WarningTracker;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.zip.CRC32;
+
+/**
+ * Write-ahead spool for outgoing webhooks, so queued and in-flight messages survive a crash or
+ * restart. Every dispatched message is appended as a record to a fixed-size memory-mapped
+ * segment file under {@code spool/} and acknowledged when it is delivered, finally fails, or is
+ * dropped. On startup the records that were never acknowledged are handed back for replay.
+ * <p>
+ * Appends are a copy into the mapped segment under a short lock; a background thread forces
+ * dirty segments to disk every flush interval (group commit), so a crash loses at most that
+ * interval. A segment whose records are all acknowledged is recycled for reuse. When the spool
+ * would grow past its disk budget, the oldest segment is evicted with its pending records.
+ * <p>
+ * Segment layout: int magic, long sequence, then records. Record layout: int body length, int
+ * CRC32 (over the segment sequence and body), byte state (0 pending, 1 acked), body. Body:
+ * long enqueue epoch millis, webhook url (the webhook's identity), int timeout ms, webhook
+ * username, event key, message username, content; strings are an int byte length (-1 for null)
+ * plus UTF-8 bytes. Scanning stops at a zero length or a CRC mismatch, which also rejects stale
+ * records left in a recycled file (they carry an older sequence).
+ */
+public class DurableSpool {
+    /** {@link PendingWebhook#spoolRef()} of a message that has no spool record. */
+    static final long NO_REF = -1;
+
+    private static final int MAGIC = 0x41545753;
+    private static final int SEGMENT_HEADER = 12;
+    private static final int RECORD_HEADER = 9;
+    private static final byte PENDING = 0;
+    private static final byte ACKED = 1;
+    private static final int MAX_FREE_SEGMENTS = 2;
+
+    private static final class Segment {
+        private final File file;
+        private final FileChannel channel;
+        private final MappedByteBuffer buffer;
+        private long sequence;
+        private int position;
+        private int pending;
+        private boolean dirty;
+
+        Segment(File file, FileChannel channel, MappedByteBuffer buffer) {
+            this.file = file;
+            this.channel = channel;
+            this.buffer = buffer;
+        }
+    }
+
+    private final File directory;
+    private final int segmentSize;
+    private final long maxBytes;
+    private final WarningTracker warningTracker;
+    private final TreeMap<Long, Segment> segments = new TreeMap<>();
+    private final Deque<Segment> free = new ArrayDeque<>();
+    private final List<PendingWebhook> recovered = new ArrayList<>();
+    private final LongAdder evicted = new LongAdder();
+    private final ScheduledExecutorService flusher;
+    private final long firstSequence;
+    private Segment active;
+    private long nextSequence = 1;
+    private int nextSlot;
+    private boolean closed;
+
+    /**
+     * Opens the spool directory and recovers pending records from existing segments.
+     *
+     * @param segmentSize     bytes per segment file
+     * @param maxBytes        disk budget across all segment files (at least two segments)
+     * @param flushIntervalMs group-commit interval for forcing segments to disk
+     */
+    public DurableSpool(File directory, int segmentSize, long maxBytes, long flushIntervalMs, WarningTracker warningTracker)
+            throws IOException {
+        this.directory = directory;
+        this.segmentSize = Math.max(64 * 1024, segmentSize);
+        this.maxBytes = Math.max(2L * this.segmentSize, maxBytes);
+        this.warningTracker = warningTracker;
+        if (!directory.isDirectory() && !directory.mkdirs()) {
+            throw new IOException("cannot create " + directory);
+        }
+        recover();
+        this.firstSequence = nextSequence;
+        this.flusher = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "AllTheWebhooks-spool-flush");
+            t.setDaemon(true);
+            return t;
+        });
+        long interval = Math.max(1, flushIntervalMs);
+        flusher.scheduleWithFixedDelay(this::flush, interval, interval, TimeUnit.MILLISECONDS);
+    }
+
+    /** Messages left pending by the previous run, oldest first. Returned once. */
+    public synchronized List<PendingWebhook> takeRecovered() {
+        List<PendingWebhook> messages = List.copyOf(recovered);
+        recovered.clear();
+        return messages;
+    }
+
+    /**
+     * Appends a record for the message and returns it with its spool reference set. Returns the
+     * message unchanged (not durable) if it cannot be written.
+     */
+    PendingWebhook append(PendingWebhook message) {
+        byte[] body = encode(message);
+        int needed = RECORD_HEADER + body.length;
+        if (needed > segmentSize - SEGMENT_HEADER - 4) {
+            warningTracker.warnOnce("spool-record-too-large",
+                    "Webhook message too large for a spool segment; it will not survive a restart.");
+            return message;
+        }
+        CRC32 crc = new CRC32();
+        synchronized (this) {
+            if (closed) {
+                return message;
+            }
+            try {
+                if (active == null || active.position + needed + 4 > segmentSize) {
+                    roll();
+                }
+            } catch (IOException e) {
+                warningTracker.warnOnce("spool-write-failed", "Could not extend the webhook spool: " + e.getMessage());
+                return message;
+            }
+            crc.update(sequenceBytes(active.sequence));
+            crc.update(body);
+            int offset = active.position;
+            ByteBuffer buffer = active.buffer;
+            buffer.put(offset + RECORD_HEADER, body);
+            buffer.put(offset + 8, PENDING);
+            buffer.putInt(offset + 4, (int) crc.getValue());
+            buffer.putInt(offset, body.length);
+            active.position += needed;
+            buffer.putInt(active.position, 0);
+            active.pending++;
+            active.dirty = true;
+            return message.withSpoolRef(ref(active.sequence, offset));
+        }
+    }
+
+    /**
+     * True when the message's record was written by a previous run. Such records are replayed from
+     * {@link #takeRecovered()}, so another copy of the message (e.g. from the spill file) is a duplicate.
+     */
+    boolean isFromPreviousRun(PendingWebhook message) {
+        return message.spoolRef() != NO_REF && (message.spoolRef() >>> 32) < firstSequence;
+    }
+
+    /** Marks the message's record delivered (or abandoned); a no-op for unspooled or evicted messages. */
+    synchronized void ack(PendingWebhook message) {
+        long ref = message.spoolRef();
+        if (ref == NO_REF) {
+            return;
+        }
+        Segment segment = segments.get(ref >>> 32);
+        int offset = (int) ref;
+        if (segment == null || segment.buffer.get(offset + 8) != PENDING) {
+            return;
+        }
+        segment.buffer.put(offset + 8, ACKED);
+        segment.dirty = true;
+        segment.pending--;
+        if (segment.pending == 0 && segment != active) {
+            recycle(segment);
+        }
+    }
+
+    public synchronized int getPendingRecords() {
+        int pending = 0;
+        for (Segment segment : segments.values()) {
+            pending += segment.pending;
+        }
+        return pending;
+    }
+
+    public synchronized int getSegmentCount() {
+        return segments.size() + free.size();
+    }
+
+    public long getDiskBytes() {
+        return (long) getSegmentCount() * segmentSize;
+    }
+
+    /** Pending records discarded because the disk budget was reached. */
+    public long getEvicted() {
+        return evicted.sum();
+    }
+
+    /** Forces every segment to disk and releases the files. */
+    public void close() {
+        flusher.shutdownNow();
+        flush();
+        synchronized (this) {
+            closed = true;
+            for (Segment segment : segments.values()) {
+                closeQuietly(segment);
+            }
+            for (Segment segment : free) {
+                closeQuietly(segment);
+            }
+            segments.clear();
+            free.clear();
+            active = null;
+        }
+    }
+
+    private void flush() {
+        List<Segment> dirty = new ArrayList<>();
+        synchronized (this) {
+            for (Segment segment : segments.values()) {
+                if (segment.dirty) {
+                    segment.dirty = false;
+                    dirty.add(segment);
+                }
+            }
+        }
+        for (Segment segment : dirty) {
+            try {
+                segment.buffer.force();
+            } catch (RuntimeException e) {
+                warningTracker.warnOnce("spool-flush-failed", "Could not flush the webhook spool: " + e.getMessage());
+            }
+        }
+    }
+
+    private void recover() throws IOException {
+        File[] files = directory.listFiles((dir, name) -> name.startsWith("segment-") && name.endsWith(".dat"));
+        if (files == null) {
+            return;
+        }
+        Map<Long, List<PendingWebhook>> bySequence = new TreeMap<>();
+        for (File file : files) {
+            nextSlot = Math.max(nextSlot, slotOf(file) + 1);
+            Segment segment = map(file);
+            ByteBuffer buffer = segment.buffer;
+            if (buffer.getInt(0) != MAGIC) {
+                free.add(segment);
+                continue;
+            }
+            segment.sequence = buffer.getLong(4);
+            nextSequence = Math.max(nextSequence, segment.sequence + 1);
+            List<PendingWebhook> pending = new ArrayList<>();
+            segment.position = scan(segment, pending);
+            segment.pending = pending.size();
+            if (segment.pending == 0) {
+                free.add(segment);
+            } else {
+                segments.put(segment.sequence, segment);
+                bySequence.put(segment.sequence, pending);
+            }
+        }
+        while (free.size() > MAX_FREE_SEGMENTS) {
+            discard(free.poll());
+        }
+        for (List<PendingWebhook> pending : bySequence.values()) {
+            recovered.addAll(pending);
+        }
+    }
+
+    /** Reads valid records from a segment, collecting pending ones; returns the end position. */
+    private int scan(Segment segment, List<PendingWebhook> pending) {
+        ByteBuffer buffer = segment.buffer;
+        byte[] sequence = sequenceBytes(segment.sequence);
+        int position = SEGMENT_HEADER;
+        while (position + RECORD_HEADER <= segmentSize) {
+            int length = buffer.getInt(position);
+            if (length <= 0 || position + RECORD_HEADER + length > segmentSize) {
+                break;
+            }
+            byte[] body = new byte[length];
+            buffer.get(position + RECORD_HEADER, body);
+            CRC32 crc = new CRC32();
+            crc.update(sequence);
+            crc.update(body);
+            if ((int) crc.getValue() != buffer.getInt(position + 4)) {
+                break;
+            }
+            if (buffer.get(position + 8) == PENDING) {
+                PendingWebhook message = decode(body);
+                if (message != null) {
+                    pending.add(message.withSpoolRef(ref(segment.sequence, position)));
+                }
+            }
+            position += RECORD_HEADER + length;
+        }
+        return position;
+    }
+
+    /** Starts a new active segment, reusing a recycled file or evicting the oldest one at the budget. */
+    private void roll() throws IOException {
+        Segment previous = active;
+        active = null;
+        if (previous != null && previous.pending == 0) {
+            recycle(previous);
+        }
+        Segment segment = free.poll();
+        if (segment == null && (long) (segments.size() + 1) * segmentSize > maxBytes && !segments.isEmpty()) {
+            segment = segments.pollFirstEntry().getValue();
+            evicted.add(segment.pending);
+            warningTracker.warnOnce("spool-evicted",
+                    "Webhook spool reached its disk budget; evicting the oldest undelivered messages.");
+        }
+        if (segment == null) {
+            segment = map(new File(directory, "segment-" + nextSlot++ + ".dat"));
+        }
+        segment.sequence = nextSequence++;
+        segment.position = SEGMENT_HEADER;
+        segment.pending = 0;
+        segment.buffer.putInt(0, MAGIC);
+        segment.buffer.putLong(4, segment.sequence);
+        segment.buffer.putInt(SEGMENT_HEADER, 0);
+        segment.dirty = true;
+        segments.put(segment.sequence, segment);
+        active = segment;
+    }
+
+    private void recycle(Segment segment) {
+        segments.remove(segment.sequence);
+        if (free.size() < MAX_FREE_SEGMENTS) {
+            free.add(segment);
+        } else {
+            discard(segment);
+        }
+    }
+
+    private void discard(Segment segment) {
+        closeQuietly(segment);
+        if (!segment.file.delete()) {
+            segment.file.deleteOnExit();
+        }
+    }
+
+    private Segment map(File file) throws IOException {
+        FileChannel channel = FileChannel.open(file.toPath(),
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        try {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, segmentSize);
+            return new Segment(file, channel, buffer);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    private static int slotOf(File file) {
+        String name = file.getName();
+        try {
+            return Integer.parseInt(name.substring("segment-".length(), name.length() - ".dat".length()));
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    private static long ref(long sequence, int offset) {
+        return (sequence << 32) | offset;
+    }
+
+    private static byte[] sequenceBytes(long sequence) {
+        return ByteBuffer.allocate(8).putLong(0, sequence).array();
+    }
+
+    private static byte[] encode(PendingWebhook message) {
+        byte[][] strings = {
+                bytes(message.webhook().url()),
+                bytes(message.webhook().username()),
+                bytes(message.eventKey()),
+                bytes(message.username()),
+                bytes(message.content())
+        };
+        int size = 8 + 4;
+        for (byte[] value : strings) {
+            size += 4 + (value == null ? 0 : value.length);
+        }
+        ByteBuffer buffer = ByteBuffer.allocate(size);
+        long ageMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - message.enqueuedNanos());
+        buffer.putLong(System.currentTimeMillis() - ageMillis);
+        putString(buffer, strings[0]);
+        buffer.putInt(message.webhook().timeoutMs());
+        for (int i = 1; i < strings.length; i++) {
+            putString(buffer, strings[i]);
+        }
+        return buffer.array();
+    }
+
+    private static PendingWebhook decode(byte[] body) {
+        try {
+            ByteBuffer buffer = ByteBuffer.wrap(body);
+            long enqueuedMillis = buffer.getLong();
+            String url = getString(buffer);
+            int timeoutMs = buffer.getInt();
+            String webhookUsername = getString(buffer);
+            String eventKey = getString(buffer);
+            String username = getString(buffer);
+            String content = getString(buffer);
+            long ageNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(0, System.currentTimeMillis() - enqueuedMillis));
+            return new PendingWebhook(eventKey, new WebhookDefinition(url, timeoutMs, webhookUsername),
+                    content, username, System.nanoTime() - ageNanos);
+        } catch (RuntimeException e) {
+            return null;
+        }
+    }
+
+    private static byte[] bytes(String value) {
+        return value == null ? null : value.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static void putString(ByteBuffer buffer, byte[] value) {
+        if (value == null) {
+            buffer.putInt(-1);
+        } else {
+            buffer.putInt(value.length).put(value);
+        }
+    }
+
+    private static String getString(ByteBuffer buffer) {
+        int length = buffer.getInt();
+        if (length < 0) {
+            return null;
+        }
+        byte[] value = new byte[length];
+        buffer.get(value);
+        return new String(value, StandardCharsets.UTF_8);
+    }
+
+    private static void closeQuietly(Segment segment) {
+        try {
+            segment.buffer.force();
+            segment.channel.close();
+        } catch (IOException | RuntimeException e) {
+            // Nothing useful to do on close.
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package com.chibashr.allthewebhooks.webhook;
+
+import java.net.http.HttpTimeoutException;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CompletionException;
+
+/**
+ * Collects webhook failures between log flushes so the console gets one summary line per
+ * interval instead of one warning per failed request.
+ */
+final class FailureSummary {
+    private final Map<String, Map<String, Integer>> finalFailures = new TreeMap<>();
+    private int finalCount;
+    private int retryCount;
+
+    synchronized void failed(String eventKey, int status, Throwable error) {
+        finalFailures.computeIfAbsent(eventKey, key -> new TreeMap<>()).merge(reason(status, error), 1, Integer::sum);
+        finalCount++;
+    }
+
+    synchronized void retried() {
+        retryCount++;
+    }
+
+    /**
+     * Returns the summary since the last call and resets it, or null when nothing failed.
+     * Example: {@code Webhook failures in the last 60s: 3 final, 5 retried. player.join: 2x status 500, 1x timeout}
+     */
+    synchronized String drain(long intervalSeconds) {
+        if (finalCount == 0 && retryCount == 0) {
+            return null;
+        }
+        StringBuilder sb = new StringBuilder("Webhook failures in the last ").append(intervalSeconds).append("s: ")
+                .append(finalCount).append(" final, ").append(retryCount).append(" retried.");
+        for (Map.Entry<String, Map<String, Integer>> event : finalFailures.entrySet()) {
+            sb.append(' ').append(event.getKey()).append(':');
+            boolean first = true;
+            for (Map.Entry<String, Integer> reason : event.getValue().entrySet()) {
+                sb.append(first ? " " : ", ").append(reason.getValue()).append("x ").append(reason.getKey());
+                first = false;
+            }
+            sb.append(';');
+        }
+        finalFailures.clear();
+        finalCount = 0;
+        retryCount = 0;
+        return sb.toString();
+    }
+
+    static String reason(int status, Throwable error) {
+        if (error == null) {
+            return "status " + status;
+        }
+        Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+        if (cause instanceof HttpTimeoutException) {
+            return "timeout";
+        }
+        return cause.getClass().getSimpleName();
+    }
+}
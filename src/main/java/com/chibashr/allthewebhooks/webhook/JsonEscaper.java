@@ -1,6 +1,11 @@
 package com.chibashr.allthewebhooks.webhook;
 
 public final class JsonEscaper {
+    /** Most bytes one char can take in {@link #escapeUtf8}: a control character as a six-byte unicode escape. */
+    static final int MAX_BYTES_PER_CHAR = 6;
+
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+
     private JsonEscaper() {
     }
 
@@ -8,17 +13,113 @@ public final class JsonEscaper {
         if (input == null) {
             return "";
         }
-        StringBuilder builder = new StringBuilder();
-        for (char c : input.toCharArray()) {
+        int length = input.length();
+        int first = 0;
+        while (first < length && !needsEscape(input.charAt(first))) {
+            first++;
+        }
+        if (first == length) {
+            return input;
+        }
+        StringBuilder builder = new StringBuilder(length + 16);
+        builder.append(input, 0, first);
+        for (int i = first; i < length; i++) {
+            char c = input.charAt(i);
             switch (c) {
                 case '\\' -> builder.append("\\\\");
                 case '"' -> builder.append("\\\"");
                 case '\n' -> builder.append("\\n");
                 case '\r' -> builder.append("\\r");
                 case '\t' -> builder.append("\\t");
-                default -> builder.append(c);
+                case '\b' -> builder.append("\\b");
+                case '\f' -> builder.append("\\f");
+                default -> {
+                    if (c < 0x20) {
+                        builder.append("\\u00").append(HEX[c >> 4]).append(HEX[c & 0xF]);
+                    } else {
+                        builder.append(c);
+                    }
+                }
             }
         }
         return builder.toString();
     }
+
+    /**
+     * Writes the escaped UTF-8 bytes of {@code input} into {@code out} from {@code pos} and returns
+     * the position after them. {@code out} must have room for {@link #MAX_BYTES_PER_CHAR} bytes per
+     * char. Runs of plain ASCII are copied in one bulk call; a lone surrogate is written as '?',
+     * as {@link String#getBytes(java.nio.charset.Charset)} does.
+     */
+    @SuppressWarnings("deprecation")
+    static int escapeUtf8(String input, byte[] out, int pos) {
+        if (input == null) {
+            return pos;
+        }
+        int length = input.length();
+        int i = 0;
+        while (i < length) {
+            int start = i;
+            char c = input.charAt(i);
+            while (c < 0x80 && !needsEscape(c)) {
+                if (++i == length) {
+                    break;
+                }
+                c = input.charAt(i);
+            }
+            if (i > start) {
+                // Copies the low byte of each char: exact for ASCII, and a single intrinsic copy.
+                input.getBytes(start, i, out, pos);
+                pos += i - start;
+                if (i == length) {
+                    break;
+                }
+            }
+            i++;
+            if (c < 0x80) {
+                pos = escapeAscii(c, out, pos);
+            } else if (c < 0x800) {
+                out[pos++] = (byte) (0xC0 | (c >> 6));
+                out[pos++] = (byte) (0x80 | (c & 0x3F));
+            } else if (Character.isHighSurrogate(c) && i < length && Character.isLowSurrogate(input.charAt(i))) {
+                int codePoint = Character.toCodePoint(c, input.charAt(i++));
+                out[pos++] = (byte) (0xF0 | (codePoint >> 18));
+                out[pos++] = (byte) (0x80 | ((codePoint >> 12) & 0x3F));
+                out[pos++] = (byte) (0x80 | ((codePoint >> 6) & 0x3F));
+                out[pos++] = (byte) (0x80 | (codePoint & 0x3F));
+            } else if (Character.isSurrogate(c)) {
+                out[pos++] = '?';
+            } else {
+                out[pos++] = (byte) (0xE0 | (c >> 12));
+                out[pos++] = (byte) (0x80 | ((c >> 6) & 0x3F));
+                out[pos++] = (byte) (0x80 | (c & 0x3F));
+            }
+        }
+        return pos;
+    }
+
+    private static boolean needsEscape(char c) {
+        return c < 0x20 || c == '"' || c == '\\';
+    }
+
+    private static int escapeAscii(char c, byte[] out, int pos) {
+        out[pos++] = '\\';
+        switch (c) {
+            case '\\' -> out[pos++] = '\\';
+            case '"' -> out[pos++] = '"';
+            case '\n' -> out[pos++] = 'n';
+            case '\r' -> out[pos++] = 'r';
+            case '\t' -> out[pos++] = 't';
+            case '\b' -> out[pos++] = 'b';
+            case '\f' -> out[pos++] = 'f';
+            default -> {
+                out[pos++] = 'u';
+                out[pos++] = '0';
+                out[pos++] = '0';
+                out[pos++] = (byte) HEX[c >> 4];
+                out[pos++] = (byte) HEX[c & 0xF];
+            }
+        }
+        return pos;
+    }
 }
@@ -0,0 +1,40 @@
+package com.chibashr.allthewebhooks.webhook;
+
+import java.util.Arrays;
+
+/**
+ * Keeps the last {@value #SIZE} round-trip times of a route for percentile reporting. Recording is
+ * a store into a ring; percentiles sort a copy, which only happens when stats are requested.
+ * <p>
+ * Not thread-safe: the {@link DeliveryScheduler} calls it under its lock.
+ */
+final class LatencyRecorder {
+    private static final int SIZE = 1024;
+
+    private final long[] samples = new long[SIZE];
+    private int count;
+    private int next;
+
+    void record(long rttNanos) {
+        samples[next] = rttNanos;
+        next = (next + 1) & (SIZE - 1);
+        if (count < SIZE) {
+            count++;
+        }
+    }
+
+    /** Millis at each requested percentile (0..100), nearest-rank; zeros before any sample. */
+    double[] percentilesMillis(double... percentiles) {
+        double[] result = new double[percentiles.length];
+        if (count == 0) {
+            return result;
+        }
+        long[] sorted = Arrays.copyOf(samples, count);
+        Arrays.sort(sorted);
+        for (int i = 0; i < percentiles.length; i++) {
+            int rank = (int) Math.ceil(percentiles[i] / 100.0 * count);
+            result[i] = sorted[Math.max(0, Math.min(count - 1, rank - 1))] / 1_000_000.0;
+        }
+        return result;
+    }
+}
@@ -0,0 +1,36 @@
+package com.chibashr.allthewebhooks.webhook;
+
+import com.chibashr.allthewebhooks.config.WebhookDefinition;
+
+/**
+ * A rendered webhook message waiting in the {@link DispatchQueue}. {@code enqueuedNanos} is
+ * {@link System#nanoTime()} at enqueue (restamped when a spilled or spooled message is read
+ * back) and also starts the retry deadline; {@code attempt} is 1 for the first send.
+ * {@code spoolRef} locates the message's record in the {@link DurableSpool}, or is
+ * {@link DurableSpool#NO_REF} when it was not spooled.
+ */
+record PendingWebhook(
+        String eventKey,
+        WebhookDefinition webhook,
+        String content,
+        String username,
+        long enqueuedNanos,
+        int attempt,
+        long spoolRef
+) {
+    PendingWebhook(String eventKey, WebhookDefinition webhook, String content, String username, long enqueuedNanos) {
+        this(eventKey, webhook, content, username, enqueuedNanos, 1, DurableSpool.NO_REF);
+    }
+
+    PendingWebhook nextAttempt() {
+        return new PendingWebhook(eventKey, webhook, content, username, enqueuedNanos, attempt + 1, spoolRef);
+    }
+
+    PendingWebhook withSpoolRef(long ref) {
+        return new PendingWebhook(eventKey, webhook, content, username, enqueuedNanos, attempt, ref);
+    }
+
+    PendingWebhook withWebhook(WebhookDefinition definition) {
+        return new PendingWebhook(eventKey, definition, content, username, enqueuedNanos, attempt, spoolRef);
+    }
+}
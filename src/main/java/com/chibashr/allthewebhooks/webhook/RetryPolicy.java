@@ -0,0 +1,61 @@
+package com.chibashr.allthewebhooks.webhook;
+
+import java.io.IOException;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * When and how long to wait before resending a failed webhook (config.yaml {@code retry}).
+ * Backoff is exponential with full jitter: attempt n waits a uniformly random time in
+ * [0, min(max-delay, base-delay * 2^(n-1))], which spreads retries from many messages instead
+ * of sending them in lockstep. A message is never retried past its deadline, measured from
+ * when it was first queued.
+ */
+public record RetryPolicy(int maxAttempts, long baseDelayMs, long maxDelayMs, long deadlineMs) {
+
+    /** Retries disabled: every failure is final. */
+    public static final RetryPolicy NONE = new RetryPolicy(1, 0, 0, 0);
+
+    /** True for failures worth retrying: timeouts, connection errors, 408 and 5xx. */
+    public static boolean isRetryable(int status, Throwable error) {
+        if (error != null) {
+            Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+            // HttpTimeoutException and connection failures are both IOExceptions.
+            return cause instanceof IOException;
+        }
+        return status == 408 || status >= 500;
+    }
+
+    /** Random backoff before attempt {@code nextAttempt} (2 for the first retry). */
+    public long backoffNanos(int nextAttempt) {
+        int exponent = Math.min(30, Math.max(0, nextAttempt - 2));
+        long ceiling = Math.min(maxDelayMs, baseDelayMs << exponent);
+        if (ceiling <= 0) {
+            return 0;
+        }
+        return TimeUnit.MILLISECONDS.toNanos(ThreadLocalRandom.current().nextLong(ceiling + 1));
+    }
+
+    /**
+     * True once the message has been queued for longer than the deadline. Rate-limited (429)
+     * messages are requeued without using an attempt, until this says so. A deadline of 0 (as in
+     * {@link #NONE}) never expires.
+     */
+    boolean isPastDeadline(PendingWebhook message, long now) {
+        return deadlineMs > 0 && now - message.enqueuedNanos() > TimeUnit.MILLISECONDS.toNanos(deadlineMs);
+    }
+
+    /**
+     * Backoff in nanos before the next attempt, or -1 when the message must not be retried
+     * (attempts used up, or the retry would start after the deadline).
+     */
+    long nextDelayNanos(PendingWebhook message, long now) {
+        if (message.attempt() >= maxAttempts) {
+            return -1;
+        }
+        long delay = backoffNanos(message.attempt() + 1);
+        long deadline = message.enqueuedNanos() + TimeUnit.MILLISECONDS.toNanos(deadlineMs);
+        return now + delay > deadline ? -1 : delay;
+    }
+}
@@ -0,0 +1,161 @@
+package com.chibashr.allthewebhooks.webhook;
+
+import com.chibashr.allthewebhooks.config.WebhookDefinition;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * FIFO of overflow messages in an append-only file, used by the spill overflow policy. Writes
+ * are flushed per record and read back through a second stream on the same file; once every
+ * record has been read the file is deleted. Records left from a previous run are counted at
+ * construction and replayed. A truncated trailing record (crash mid-write) ends the file.
+ * <p>
+ * Record layout (DataOutputStream): event key, url, timeout ms, webhook username, message
+ * username, content, spool reference. Strings are an int byte length (-1 for null) plus UTF-8 bytes.
+ */
+final class SpillQueue {
+    private final File file;
+    private DataOutputStream out;
+    private DataInputStream in;
+    private long pending;
+
+    SpillQueue(File file) {
+        this.file = file;
+        if (file.isFile()) {
+            try (DataInputStream reader = open()) {
+                while (read(reader) != null) {
+                    pending++;
+                }
+            } catch (IOException e) {
+                // Unreadable tail: replay what could be counted.
+            }
+        }
+    }
+
+    synchronized void append(PendingWebhook message) throws IOException {
+        if (out == null) {
+            File parent = file.getParentFile();
+            if (parent != null && !parent.exists() && !parent.mkdirs()) {
+                throw new IOException("cannot create " + parent);
+            }
+            out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file, true)));
+        }
+        writeString(out, message.eventKey());
+        writeString(out, message.webhook().url());
+        out.writeInt(message.webhook().timeoutMs());
+        writeString(out, message.webhook().username());
+        writeString(out, message.username());
+        writeString(out, message.content());
+        out.writeLong(message.spoolRef());
+        out.flush();
+        pending++;
+    }
+
+    /**
+     * Oldest spilled message, or null when none are pending. A read failure discards the rest
+     * of the file so the caller does not retry it forever.
+     */
+    synchronized PendingWebhook poll() throws IOException {
+        if (pending == 0) {
+            return null;
+        }
+        PendingWebhook message;
+        try {
+            if (in == null) {
+                in = open();
+            }
+            message = read(in);
+        } catch (IOException e) {
+            pending = 0;
+            reset();
+            throw e;
+        }
+        if (message == null) {
+            pending = 0;
+        } else {
+            pending--;
+        }
+        if (pending == 0) {
+            reset();
+        }
+        return message;
+    }
+
+    synchronized long pending() {
+        return pending;
+    }
+
+    synchronized void close() {
+        closeQuietly(in);
+        closeQuietly(out);
+        in = null;
+        out = null;
+    }
+
+    private void reset() {
+        close();
+        if (file.exists() && !file.delete()) {
+            file.deleteOnExit();
+        }
+    }
+
+    private DataInputStream open() throws IOException {
+        return new DataInputStream(new BufferedInputStream(new FileInputStream(file)));
+    }
+
+    private static PendingWebhook read(DataInputStream reader) throws IOException {
+        try {
+            String eventKey = readString(reader);
+            String url = readString(reader);
+            int timeoutMs = reader.readInt();
+            String webhookUsername = readString(reader);
+            String username = readString(reader);
+            String content = readString(reader);
+            long spoolRef = reader.readLong();
+            return new PendingWebhook(eventKey, new WebhookDefinition(url, timeoutMs, webhookUsername),
+                    content, username, System.nanoTime(), 1, spoolRef);
+        } catch (EOFException e) {
+            return null;
+        }
+    }
+
+    private static void writeString(DataOutputStream stream, String value) throws IOException {
+        if (value == null) {
+            stream.writeInt(-1);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        stream.writeInt(bytes.length);
+        stream.write(bytes);
+    }
+
+    private static String readString(DataInputStream stream) throws IOException {
+        int length = stream.readInt();
+        if (length < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        stream.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static void closeQuietly(Closeable closeable) {
+        if (closeable == null) {
+            return;
+        }
+        try {
+            closeable.close();
+        } catch (IOException e) {
+            // Nothing useful to do on close.
+        }
+    }
+}
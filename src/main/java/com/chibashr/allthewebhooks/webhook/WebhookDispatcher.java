@@ -4,16 +4,19 @@ import com.chibashr.allthewebhooks.config.ConfigManager;
 import com.chibashr.allthewebhooks.config.PluginConfig;
 import com.chibashr.allthewebhooks.config.WebhookDefinition;
 import com.chibashr.allthewebhooks.stats.StatsTracker;
-import com.chibashr.allthewebhooks.util.AsyncExecutor;
 import com.chibashr.allthewebhooks.util.WarningTracker;
-import java.net.URI;
+import com.chibashr.allthewebhooks.util.WorkerThreads;
+import java.io.File;
+import java.io.IOException;
 import java.net.http.HttpClient;
-import java.net.http.HttpRequest;
-import java.net.http.HttpResponse;
-import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import org.bukkit.Bukkit;
 import org.bukkit.plugin.java.JavaPlugin;
 
 public class WebhookDispatcher {
@@ -21,23 +24,89 @@ public class WebhookDispatcher {
     private final ConfigManager configManager;
     private final StatsTracker statsTracker;
     private final WarningTracker warningTracker;
-    private final HttpClient httpClient = HttpClient.newHttpClient();
-    private final AsyncExecutor asyncExecutor;
+    private final HttpClient httpClient;
+    private final DeliveryScheduler scheduler;
+    private final FailureSummary failureSummary = new FailureSummary();
+    private final DispatchQueue queue;
+    private final DurableSpool spool;
     private final RateLimiter globalLimiter = new RateLimiter(100);
     private final Map<String, RateLimiter> eventLimiters = new ConcurrentHashMap<>();
     private final Set<String> disabledEvents = ConcurrentHashMap.newKeySet();
+    /** Spooled messages that found their webhook's queue full behind an open breaker, by webhook key. */
+    private final Map<String, Deque<PendingWebhook>> heldWhileOpen = new ConcurrentHashMap<>();
+    private final WorkerThreads workers;
+    private volatile boolean closed;
 
     public WebhookDispatcher(
             JavaPlugin plugin,
             ConfigManager configManager,
             StatsTracker statsTracker,
             WarningTracker warningTracker
+    ) {
+        this(plugin, configManager, statsTracker, warningTracker, WorkerThreads.platform());
+    }
+
+    /** @param workers threads and HttpClient executor for sends (see execution.virtual-threads) */
+    public WebhookDispatcher(
+            JavaPlugin plugin,
+            ConfigManager configManager,
+            StatsTracker statsTracker,
+            WarningTracker warningTracker,
+            WorkerThreads workers
     ) {
         this.plugin = plugin;
+        this.workers = workers;
+        this.httpClient = workers.newHttpClient();
         this.configManager = configManager;
         this.statsTracker = statsTracker;
         this.warningTracker = warningTracker;
-        this.asyncExecutor = new AsyncExecutor(plugin);
+        PluginConfig initial = configManager.getSnapshot().pluginConfig();
+        int capacity = initial.getDispatchQueueCapacity();
+        this.scheduler = new DeliveryScheduler(httpClient, new DeliveryScheduler.Listener() {
+            @Override
+            public void delivered(PendingWebhook message, int status, long rttNanos) {
+                WebhookDispatcher.this.delivered(message);
+                ack(message);
+                releaseHeld(message.webhook().key());
+            }
+
+            @Override
+            public void failed(PendingWebhook message, int status, Throwable error) {
+                WebhookDispatcher.this.failed(message, status, error);
+                ack(message);
+            }
+
+            @Override
+            public void retrying(PendingWebhook message, int status, Throwable error, long delayNanos) {
+                statsTracker.incrementRetried();
+                failureSummary.retried();
+            }
+
+            @Override
+            public void breakerChanged(String webhook, CircuitBreaker.State state, String reason) {
+                logBreakerChange(webhook, state, reason);
+                if (state == CircuitBreaker.State.CLOSED && heldWhileOpen.containsKey(webhook)) {
+                    workers.execute(() -> releaseHeld(webhook));
+                }
+            }
+        }, this::retryPolicy, this::breakerSettings, this::concurrencySettings, workers, capacity);
+        long summarySeconds = Math.max(1, initial.getFailureSummarySeconds());
+        scheduler.every(summarySeconds, TimeUnit.SECONDS, () -> logFailureSummary(summarySeconds));
+        scheduler.prepare(initial.getWebhooks().values(), connectionSettings(initial));
+        this.spool = initial.isSpoolEnabled() ? openSpool(initial) : null;
+        this.queue = new DispatchQueue(
+                capacity,
+                new File(plugin.getDataFolder(), "cache/dispatch-spill.bin"),
+                this::schedule,
+                this::ack,
+                statsTracker,
+                warningTracker,
+                Bukkit::isPrimaryThread,
+                workers
+        );
+        if (spool != null) {
+            replay(initial);
+        }
     }
 
     public boolean allowDispatch(String eventKey, Integer eventLimitOverride) {
@@ -70,62 +139,249 @@ public class WebhookDispatcher {
         return false;
     }
 
+    /**
+     * Sends a rendered message. With execution.dispatch-async the message goes through the
+     * bounded {@link DispatchQueue} (see dispatch-queue in config.yaml); otherwise it is handed
+     * to the {@link DeliveryScheduler} from the calling thread. Either way the scheduler paces
+     * the HTTP call by the webhook's Discord rate-limit bucket. With spool.enabled the message is
+     * first written to the {@link DurableSpool}.
+     */
     public void dispatch(String eventKey, WebhookDefinition webhook, String content, String username) {
-        PluginConfig config = configManager.getSnapshot().pluginConfig();
-        Runnable task = () -> sendWebhook(eventKey, webhook, content, username, config);
-        if (config.isDispatchAsync()) {
-            asyncExecutor.runAsync(task);
-        } else {
-            task.run();
+        if (closed) {
+            statsTracker.incrementDropped(eventKey);
+            return;
+        }
+        PendingWebhook message = new PendingWebhook(eventKey, webhook, content, username, System.nanoTime());
+        if (spool != null) {
+            message = spool.append(message);
         }
+        send(message, configManager.getSnapshot().pluginConfig());
+    }
+
+    public DispatchQueue getQueue() {
+        return queue;
+    }
+
+    public DeliveryScheduler getScheduler() {
+        return scheduler;
+    }
+
+    /** The durable spool, or null when spool.enabled is false. */
+    public DurableSpool getSpool() {
+        return spool;
     }
 
     public void reset() {
         disabledEvents.clear();
         eventLimiters.clear();
+        PluginConfig config = configManager.getSnapshot().pluginConfig();
+        scheduler.prepare(config.getWebhooks().values(), connectionSettings(config));
     }
 
-    private void sendWebhook(String eventKey, WebhookDefinition webhook, String content, String username, PluginConfig config) {
+    /**
+     * Shutdown drain: stops accepting messages, hands everything queued to the scheduler and waits
+     * for the sends to finish, at the pace the rate limits allow, until the deadline. Messages
+     * still unsent after that stay pending in the spool for the next start, or are logged as lost
+     * when the spool is off.
+     *
+     * @param deadlineNanos {@link System#nanoTime()} by which the drain gives up
+     */
+    public void shutdown(long deadlineNanos) {
+        closed = true;
+        queue.shutdown(Math.max(0, deadlineNanos - System.nanoTime()), TimeUnit.NANOSECONDS);
+        boolean idle;
         try {
-            String effectiveUsername = username != null && !username.isEmpty() ? username : webhook.username();
-            StringBuilder json = new StringBuilder();
-            json.append("{\"content\":\"").append(JsonEscaper.escape(content)).append("\"");
-            if (effectiveUsername != null && !effectiveUsername.isEmpty()) {
-                json.append(",\"username\":\"").append(JsonEscaper.escape(effectiveUsername)).append("\"");
+            idle = scheduler.awaitIdle(deadlineNanos);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            idle = false;
+        }
+        int undelivered = queue.getDepth() + heldCount() + (idle ? 0 : scheduler.getOutstanding());
+        scheduler.shutdown();
+        logFailureSummary(configManager.getSnapshot().pluginConfig().getFailureSummarySeconds());
+        if (undelivered > 0) {
+            plugin.getLogger().warning("Shutdown drain ran out of time with " + undelivered
+                    + " webhook message(s) undelivered; " + (spool != null
+                    ? "they stay in the spool and are sent on the next start."
+                    : "they are lost (spool.enabled is false)."));
+        }
+        if (spool != null) {
+            spool.close();
+        }
+    }
+
+    private RetryPolicy retryPolicy() {
+        PluginConfig config = configManager.getSnapshot().pluginConfig();
+        return new RetryPolicy(config.getRetryMaxAttempts(), config.getRetryBaseDelayMs(),
+                config.getRetryMaxDelayMs(), config.getRetryDeadlineMs());
+    }
+
+    private CircuitBreaker.Settings breakerSettings() {
+        PluginConfig config = configManager.getSnapshot().pluginConfig();
+        return new CircuitBreaker.Settings(config.isBreakerEnabled(), config.getBreakerFailureRatio(),
+                config.getBreakerWindowSize(), config.getBreakerMinimumCalls(), config.getBreakerConsecutiveTimeouts(),
+                config.getBreakerOpenMs(), "drop".equalsIgnoreCase(config.getBreakerWhenOpen()));
+    }
+
+    private ConcurrencyLimit.Settings concurrencySettings() {
+        PluginConfig config = configManager.getSnapshot().pluginConfig();
+        return new ConcurrencyLimit.Settings(config.isConcurrencyAdaptive(), config.getConcurrencyInitialLimit(),
+                config.getConcurrencyLatencyTolerance());
+    }
+
+    private static ConnectionWarmer.Settings connectionSettings(PluginConfig config) {
+        return new ConnectionWarmer.Settings(config.isConnectionWarmUp(),
+                TimeUnit.SECONDS.toMillis(Math.max(0, config.getConnectionIdleProbeSeconds())),
+                config.getConnectionHttpVersion());
+    }
+
+    /** One line per breaker transition, instead of a warning per failed message. */
+    private void logBreakerChange(String webhook, CircuitBreaker.State state, String reason) {
+        PluginConfig config = configManager.getSnapshot().pluginConfig();
+        switch (state) {
+            case OPEN -> plugin.getLogger().warning("Circuit breaker for webhook " + webhook + " opened (" + reason
+                    + "); pausing sends for " + config.getBreakerOpenMs() + " ms.");
+            case HALF_OPEN -> plugin.getLogger().info("Circuit breaker for webhook " + webhook + " half-open; "
+                    + reason + ".");
+            case CLOSED -> plugin.getLogger().info("Circuit breaker for webhook " + webhook + " closed; "
+                    + reason + ".");
+        }
+    }
+
+    private void logFailureSummary(long intervalSeconds) {
+        String summary = failureSummary.drain(intervalSeconds);
+        if (summary != null && configManager.getSnapshot().pluginConfig().isLogWebhookFailures()) {
+            plugin.getLogger().warning(summary);
+        }
+    }
+
+    private void send(PendingWebhook message, PluginConfig config) {
+        if (config.isDispatchAsync()) {
+            queue.enqueue(message,
+                    DispatchQueue.OverflowPolicy.fromConfig(config.getDispatchOverflowPolicy()),
+                    config.getDispatchBlockTimeoutMs());
+        } else {
+            schedule(message);
+        }
+    }
+
+    private void schedule(PendingWebhook message) {
+        if (spool != null && spool.isFromPreviousRun(message)) {
+            // A spill-file copy of a message already replayed from the spool.
+            return;
+        }
+        if (message.webhook().id() == null) {
+            message = message.withWebhook(resolveWebhook(message.webhook()));
+        }
+        DeliveryScheduler.Admission admission = scheduler.offer(message);
+        if (admission == DeliveryScheduler.Admission.QUEUED) {
+            return;
+        }
+        if (admission == DeliveryScheduler.Admission.FULL_WHILE_OPEN && message.spoolRef() != DurableSpool.NO_REF) {
+            // when-open: spool during an outage longer than the route's queue: the record stays
+            // pending and the message is re-offered once the breaker closes.
+            Deque<PendingWebhook> held = heldWhileOpen.computeIfAbsent(message.webhook().key(), key -> new ArrayDeque<>());
+            synchronized (held) {
+                held.addLast(message);
+            }
+            return;
+        }
+        statsTracker.incrementDropped(message.eventKey());
+        ack(message);
+    }
+
+    /**
+     * Re-offers a webhook's held messages oldest first, once its breaker has closed, until its
+     * queue fills up again; each later delivery to the webhook frees a slot and resumes here.
+     */
+    private void releaseHeld(String webhook) {
+        Deque<PendingWebhook> held = heldWhileOpen.get(webhook);
+        if (held == null) {
+            return;
+        }
+        synchronized (held) {
+            PendingWebhook message;
+            while ((message = held.pollFirst()) != null) {
+                if (scheduler.offer(message) != DeliveryScheduler.Admission.QUEUED) {
+                    held.addFirst(message);
+                    return;
+                }
+            }
+        }
+    }
+
+    private int heldCount() {
+        int count = 0;
+        for (Deque<PendingWebhook> held : heldWhileOpen.values()) {
+            synchronized (held) {
+                count += held.size();
             }
-            json.append("}");
-            String payload = json.toString();
-            HttpRequest request = HttpRequest.newBuilder()
-                    .uri(URI.create(webhook.url()))
-                    .timeout(Duration.ofMillis(webhook.timeoutMs()))
-                    .POST(HttpRequest.BodyPublishers.ofString(payload))
-                    .header("Content-Type", "application/json")
-                    .build();
-
-            httpClient.sendAsync(request, HttpResponse.BodyHandlers.discarding())
-                    .whenComplete((response, throwable) -> {
-                        if (throwable != null) {
-                            statsTracker.incrementWebhookFailure(eventKey);
-                            if (config.isLogWebhookFailures()) {
-                                plugin.getLogger().warning("Webhook failure for " + eventKey + ": " + throwable.getMessage());
-                            }
-                            return;
-                        }
-                        int status = response.statusCode();
-                        if (status < 200 || status >= 300) {
-                            statsTracker.incrementWebhookFailure(eventKey);
-                            if (config.isLogWebhookFailures()) {
-                                plugin.getLogger().warning("Webhook failed for " + eventKey + " with status " + status);
-                            }
-                        } else {
-                            statsTracker.incrementSent(eventKey);
-                        }
-                    });
-        } catch (Exception ex) {
-            statsTracker.incrementWebhookFailure(eventKey);
-            if (config.isLogWebhookFailures()) {
-                plugin.getLogger().warning("Webhook exception for " + eventKey + ": " + ex.getMessage());
+        }
+        return count;
+    }
+
+    /**
+     * Spooled and spilled messages only record the webhook's URL; map them back to the configured
+     * webhook with that URL so they land in its queue and limits.
+     */
+    private WebhookDefinition resolveWebhook(WebhookDefinition recorded) {
+        for (WebhookDefinition configured : configManager.getSnapshot().pluginConfig().getWebhooks().values()) {
+            if (configured.url().equals(recorded.url())) {
+                return configured;
             }
         }
+        return recorded;
+    }
+
+    private void ack(PendingWebhook message) {
+        if (spool != null) {
+            spool.ack(message);
+        }
+    }
+
+    private DurableSpool openSpool(PluginConfig config) {
+        try {
+            return new DurableSpool(
+                    new File(plugin.getDataFolder(), "spool"),
+                    Math.max(1, config.getSpoolSegmentSizeKb()) * 1024,
+                    Math.max(1L, config.getSpoolMaxDiskMb()) * 1024 * 1024,
+                    config.getSpoolFlushIntervalMs(),
+                    warningTracker
+            );
+        } catch (IOException e) {
+            warningTracker.warnOnce("spool-open-failed",
+                    "Could not open the webhook spool, continuing without it: " + e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Re-sends messages left pending by the previous run. Each is written as a new record before
+     * its old one is acknowledged, so a crash during replay loses nothing.
+     */
+    private void replay(PluginConfig config) {
+        List<PendingWebhook> recovered = spool.takeRecovered();
+        if (recovered.isEmpty()) {
+            return;
+        }
+        plugin.getLogger().info("Replaying " + recovered.size() + " undelivered webhook message(s) from the spool.");
+        for (PendingWebhook old : recovered) {
+            PendingWebhook message = spool.append(old.withSpoolRef(DurableSpool.NO_REF));
+            spool.ack(old);
+            send(message, config);
+        }
+    }
+
+    private void delivered(PendingWebhook message) {
+        statsTracker.incrementSent(message.eventKey());
+        if (message.attempt() > 1) {
+            statsTracker.incrementSentAfterRetry();
+        }
+    }
+
+    /** Final failure; logged in the next periodic summary rather than one line each. */
+    private void failed(PendingWebhook message, int status, Throwable error) {
+        statsTracker.incrementWebhookFailure(message.eventKey());
+        failureSummary.failed(message.eventKey(), status, error);
     }
 }
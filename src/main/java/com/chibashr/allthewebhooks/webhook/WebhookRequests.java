@@ -0,0 +1,126 @@
+package com.chibashr.allthewebhooks.webhook;
+
+import com.chibashr.allthewebhooks.config.WebhookDefinition;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * Builds the Discord-style JSON POST for a queued message.
+ * <p>
+ * Each webhook gets an encoder holding its parsed URI, a request template and the constant bytes
+ * around the content: {@code {"content":"} before it, and after it the closing quote, the default
+ * username field and the closing brace. {@link #compile} builds encoders for the configured
+ * webhooks on config load; a webhook not seen there (a spool replay from an older config) is
+ * compiled on first use. The body is escaped straight to UTF-8 into a pooled scratch buffer and
+ * sent with {@code ofByteArray}.
+ */
+final class WebhookRequests {
+    private static final byte[] CONTENT_PREFIX = ascii("{\"content\":\"");
+    private static final byte[] USERNAME_FIELD = ascii("\",\"username\":\"");
+    private static final byte[] CLOSE = ascii("\"}");
+    private static final int INITIAL_BUFFER = 4096;
+    private static final int MAX_POOLED_BUFFER = 64 * 1024;
+
+    private volatile Map<WebhookDefinition, Encoder> encoders = new ConcurrentHashMap<>();
+    private final Queue<byte[]> buffers = new ConcurrentLinkedQueue<>();
+
+    /** Replaces the encoders with ones for {@code webhooks}; a webhook with an invalid URL is left to fail on send. */
+    void compile(Collection<WebhookDefinition> webhooks) {
+        Map<WebhookDefinition, Encoder> compiled = new ConcurrentHashMap<>();
+        for (WebhookDefinition webhook : webhooks) {
+            try {
+                compiled.put(webhook, new Encoder(webhook));
+            } catch (IllegalArgumentException e) {
+                // Reported by config validation; send reports it per message.
+            }
+        }
+        encoders = compiled;
+    }
+
+    HttpRequest build(PendingWebhook message) {
+        return build(message, null);
+    }
+
+    /** @param version protocol for this request, or null for the client's default */
+    HttpRequest build(PendingWebhook message, HttpClient.Version version) {
+        Encoder encoder = encoders.computeIfAbsent(message.webhook(), Encoder::new);
+        String username = message.username() != null && !message.username().isEmpty() ? message.username() : null;
+        String content = message.content() == null ? "" : message.content();
+        int needed = CONTENT_PREFIX.length + CLOSE.length + USERNAME_FIELD.length + encoder.suffix.length
+                + (content.length() + (username == null ? 0 : username.length())) * JsonEscaper.MAX_BYTES_PER_CHAR;
+        byte[] buffer = acquire(needed);
+        try {
+            System.arraycopy(CONTENT_PREFIX, 0, buffer, 0, CONTENT_PREFIX.length);
+            int pos = JsonEscaper.escapeUtf8(content, buffer, CONTENT_PREFIX.length);
+            if (username != null) {
+                System.arraycopy(USERNAME_FIELD, 0, buffer, pos, USERNAME_FIELD.length);
+                pos = JsonEscaper.escapeUtf8(username, buffer, pos + USERNAME_FIELD.length);
+                System.arraycopy(CLOSE, 0, buffer, pos, CLOSE.length);
+                pos += CLOSE.length;
+            } else {
+                System.arraycopy(encoder.suffix, 0, buffer, pos, encoder.suffix.length);
+                pos += encoder.suffix.length;
+            }
+            // The publisher reads the array after this returns, so it gets its own exact copy.
+            byte[] body = Arrays.copyOf(buffer, pos);
+            HttpRequest.Builder request = encoder.template.copy().POST(HttpRequest.BodyPublishers.ofByteArray(body));
+            if (version != null) {
+                request.version(version);
+            }
+            return request.build();
+        } finally {
+            release(buffer);
+        }
+    }
+
+    private byte[] acquire(int size) {
+        byte[] buffer = buffers.poll();
+        if (buffer == null || buffer.length < size) {
+            return new byte[Math.max(size, INITIAL_BUFFER)];
+        }
+        return buffer;
+    }
+
+    private void release(byte[] buffer) {
+        if (buffer.length <= MAX_POOLED_BUFFER) {
+            buffers.offer(buffer);
+        }
+    }
+
+    private static byte[] ascii(String value) {
+        return value.getBytes(StandardCharsets.US_ASCII);
+    }
+
+    private static final class Encoder {
+        private final HttpRequest.Builder template;
+        /** Closing quote, the default username field if any, closing brace. */
+        private final byte[] suffix;
+
+        Encoder(WebhookDefinition webhook) {
+            this.template = HttpRequest.newBuilder()
+                    .uri(URI.create(webhook.url()))
+                    .timeout(Duration.ofMillis(webhook.timeoutMs()))
+                    .header("Content-Type", "application/json");
+            String username = webhook.username();
+            if (username == null || username.isEmpty()) {
+                this.suffix = CLOSE;
+            } else {
+                byte[] field = new byte[USERNAME_FIELD.length + username.length() * JsonEscaper.MAX_BYTES_PER_CHAR + CLOSE.length];
+                System.arraycopy(USERNAME_FIELD, 0, field, 0, USERNAME_FIELD.length);
+                int pos = JsonEscaper.escapeUtf8(username, field, USERNAME_FIELD.length);
+                System.arraycopy(CLOSE, 0, field, pos, CLOSE.length);
+                this.suffix = Arrays.copyOf(field, pos + CLOSE.length);
+            }
+        }
+    }
+}
@@ -0,0 +1,179 @@
+package com.chibashr.allthewebhooks.events;
+
+import com.chibashr.allthewebhooks.enrichment.ContextEnricher;
+import com.chibashr.allthewebhooks.util.WarningTracker;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.logging.Handler;
+import java.util.logging.LogRecord;
+import java.util.logging.Logger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for {@link EventContext} lazy fields.
+ */
+class EventContextTest {
+
+    @Test
+    void bindLazy_defersExtractionAndMemoizes() {
+        CountingEnricher enricher = new CountingEnricher();
+        EventContext context = new EventContext("thing.test");
+        context.bindLazy(enricher, "Stone");
+        assertEquals(0, enricher.calls.get());
+
+        assertEquals("Stone", context.get("thing.name"));
+        assertEquals("Stone", context.get("thing.name"));
+        assertEquals(1, enricher.calls.get());
+        assertNull(context.get("thing.missing"));
+    }
+
+    @Test
+    void put_winsOverExtractedValue() {
+        CountingEnricher enricher = new CountingEnricher();
+        EventContext context = new EventContext("thing.test");
+        context.bindLazy(enricher, "Stone");
+        context.put("thing.name", "explicit");
+        assertEquals("explicit", context.get("thing.name"));
+        assertEquals("explicit", context.getValues().get("thing.name"));
+        assertEquals(0, enricher.calls.get());
+        assertEquals("explicit", context.getValues().entrySet().stream()
+                .filter(entry -> entry.getKey().equals("thing.name")).findFirst().orElseThrow().getValue());
+        // Materializing extracts thing.length but never the overridden thing.name.
+        assertEquals(1, enricher.calls.get());
+    }
+
+    @Test
+    void rebind_clearsEarlierValues() {
+        CountingEnricher enricher = new CountingEnricher();
+        EventContext context = new EventContext("thing.test");
+        context.bindLazy(enricher, "Stone");
+        assertEquals("Stone", context.get("thing.name"));
+        context.put("thing.length", 99);
+
+        context.bindLazy(enricher, "Dirt");
+        assertEquals("Dirt", context.get("thing.name"));
+        assertEquals(4, context.get("thing.length"));
+        assertEquals(3, enricher.calls.get());
+    }
+
+    @Test
+    void throwingExtractor_yieldsEmptyString() {
+        EventContext context = new EventContext("thing.test");
+        context.bindLazy(new CountingEnricher(), "Stone");
+        assertEquals("", context.get("thing.broken"));
+        assertTrue(context.getValues().containsKey("thing.broken"));
+    }
+
+    @Test
+    void throwingExtractor_warnsOncePerField() {
+        List<String> warnings = new ArrayList<>();
+        Logger logger = Logger.getLogger("EventContextTest");
+        logger.setUseParentHandlers(false);
+        logger.addHandler(new Handler() {
+            @Override
+            public void publish(LogRecord record) {
+                warnings.add(record.getMessage());
+            }
+
+            @Override
+            public void flush() {
+            }
+
+            @Override
+            public void close() {
+            }
+        });
+        WarningTracker tracker = new WarningTracker(logger);
+        for (int i = 0; i < 2; i++) {
+            EventContext context = new EventContext("thing.test");
+            context.setWarningTracker(tracker);
+            context.bindLazy(new CountingEnricher(), "Stone");
+            assertEquals("", context.get("thing.broken"));
+        }
+        assertEquals(1, warnings.size());
+        assertTrue(warnings.get(0).contains("thing.broken"));
+        assertTrue(warnings.get(0).contains("boom"));
+    }
+
+    @Test
+    void valuesView_containsKeyWithoutExtracting_entrySetMaterializes() {
+        CountingEnricher enricher = new CountingEnricher();
+        EventContext context = new EventContext("thing.test");
+        context.bindLazy(enricher, "Stone");
+        context.put("extra", null);
+
+        Map<String, Object> values = context.getValues();
+        assertTrue(values.containsKey("thing.name"));
+        assertTrue(values.containsKey("event.name"));
+        assertTrue(values.containsKey("extra"));
+        assertFalse(values.containsKey("thing.missing"));
+        assertFalse(values.containsKey(42));
+        assertEquals(0, enricher.calls.get());
+
+        Map<String, Object> copy = new LinkedHashMap<>();
+        for (Map.Entry<String, Object> entry : values.entrySet()) {
+            copy.put(entry.getKey(), entry.getValue());
+        }
+        assertEquals(Set.of("event.name", "extra", "thing.name", "thing.length", "thing.broken"), copy.keySet());
+        assertEquals("thing.test", copy.get("event.name"));
+        assertEquals("Stone", copy.get("thing.name"));
+        assertEquals(5, copy.get("thing.length"));
+        assertEquals("", copy.get("thing.broken"));
+        assertEquals(5, values.size());
+        assertThrows(UnsupportedOperationException.class, () -> values.entrySet().clear());
+    }
+
+    @Test
+    void capture_copiesListedFieldsOnly() {
+        CountingEnricher enricher = new CountingEnricher();
+        EventContext context = new EventContext("thing.test");
+        context.bindLazy(enricher, "Stone");
+        EventContext copy = context.capture(Set.of("thing.name"), null);
+        assertEquals(1, enricher.calls.get());
+        assertEquals(Map.of("event.name", "thing.test", "thing.name", "Stone"), Map.copyOf(copy.getValues()));
+        assertFalse(copy.hasPermission("anything"));
+    }
+
+    /** Enricher over a plain string that counts extractor calls. */
+    private static final class CountingEnricher implements ContextEnricher<String> {
+        private final AtomicInteger calls = new AtomicInteger();
+        private final Map<String, Function<String, Object>> extractors = new LinkedHashMap<>();
+
+        CountingEnricher() {
+            extractors.put("thing.name", value -> {
+                calls.incrementAndGet();
+                return value;
+            });
+            extractors.put("thing.length", value -> {
+                calls.incrementAndGet();
+                return value.length();
+            });
+            extractors.put("thing.broken", value -> {
+                throw new IllegalStateException("boom");
+            });
+        }
+
+        @Override
+        public String getEntityType() {
+            return "thing";
+        }
+
+        @Override
+        public Map<String, String> getFieldSpec() {
+            return Map.of("name", "string", "length", "number", "broken", "string");
+        }
+
+        @Override
+        public Map<String, Function<String, Object>> getFieldExtractors() {
+            return extractors;
+        }
+    }
+}
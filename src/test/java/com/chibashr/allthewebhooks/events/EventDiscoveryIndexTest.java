@@ -0,0 +1,63 @@
+package com.chibashr.allthewebhooks.events;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.util.List;
+import java.util.Set;
+import java.util.logging.Logger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for {@link EventDiscoveryIndex}.
+ */
+class EventDiscoveryIndexTest {
+
+    private static final Logger LOGGER = Logger.getLogger("EventDiscoveryIndexTest");
+
+    @Test
+    void secondStartup_loadsFromIndex() throws Exception {
+        File index = new File(Files.createTempDirectory("atw-index").toFile(), "cache/event-index.bin");
+        EventDiscoveryIndex.Result first = discover(index, "1.20.6|1.0");
+        assertFalse(first.fromIndex());
+        assertTrue(index.isFile());
+
+        EventDiscoveryIndex.Result second = discover(index, "1.20.6|1.0");
+        assertTrue(second.fromIndex());
+        assertEquals(keys(first.events()), keys(second.events()));
+        for (int i = 0; i < first.events().size(); i++) {
+            EventDefinition expected = first.events().get(i).definition();
+            EventDefinition actual = second.events().get(i).definition();
+            assertEquals(expected.getPredicateFields(), actual.getPredicateFields());
+            assertEquals(expected.getDescription(), actual.getDescription());
+            assertNotNull(actual.getContextBuilder());
+        }
+    }
+
+    @Test
+    void changedKey_rescans() throws Exception {
+        File index = new File(Files.createTempDirectory("atw-index").toFile(), "event-index.bin");
+        discover(index, "1.20.6|1.0");
+        assertFalse(discover(index, "1.21|1.0").fromIndex());
+        assertTrue(discover(index, "1.21|1.0").fromIndex());
+    }
+
+    @Test
+    void corruptIndex_rescans() throws Exception {
+        File index = new File(Files.createTempDirectory("atw-index").toFile(), "event-index.bin");
+        Files.writeString(index.toPath(), "not an index");
+        assertFalse(discover(index, "1.20.6|1.0").fromIndex());
+        assertTrue(discover(index, "1.20.6|1.0").fromIndex());
+    }
+
+    private static EventDiscoveryIndex.Result discover(File index, String key) {
+        return EventDiscoveryIndex.loadOrDiscover(
+                index, key, EventDiscoveryIndexTest.class.getClassLoader(), Set.of(), Set.of(), LOGGER);
+    }
+
+    private static List<String> keys(List<EventDiscovery.DiscoveredEvent> events) {
+        return events.stream().map(EventDiscovery.DiscoveredEvent::key).toList();
+    }
+}
@@ -0,0 +1,106 @@
+package com.chibashr.allthewebhooks.routing;
+
+import com.chibashr.allthewebhooks.config.EventConfig;
+import com.chibashr.allthewebhooks.config.EventRule;
+import com.chibashr.allthewebhooks.config.EventRuleDefaults;
+import com.chibashr.allthewebhooks.config.TestEventRuleFactory;
+import com.chibashr.allthewebhooks.config.WorldEventConfig;
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Constructor;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for {@link EventInterestIndex}.
+ */
+class EventInterestIndexTest {
+
+    private final EventRuleDefaults enabledDefaults = new EventRuleDefaults(true, "default", null, "generic", null);
+    private final EventRuleDefaults disabledDefaults = new EventRuleDefaults(false, "default", null, "generic", null);
+
+    @Test
+    void noRules_notInterested() {
+        EventInterestIndex index = new EventInterestIndex(new EventConfig(enabledDefaults));
+        assertFalse(index.isInterested("player.join", null));
+        assertFalse(index.isInterestedInAnyWorld("player.join"));
+    }
+
+    @Test
+    void enabledExactRule_interested() {
+        EventConfig config = new EventConfig(enabledDefaults);
+        config.putEventRule("player.join", TestEventRuleFactory.create("player_join", "default"));
+        EventInterestIndex index = new EventInterestIndex(config);
+        assertTrue(index.isInterested("player.join", null));
+        assertTrue(index.isInterested("player.join", "world"));
+        assertFalse(index.isInterested("player.quit", "world"));
+    }
+
+    @Test
+    void ruleDisabledByDefaults_notInterested() {
+        EventConfig config = new EventConfig(disabledDefaults);
+        config.putEventRule("player.join", TestEventRuleFactory.create(null, null, null, "player_join", null, null, null));
+        EventInterestIndex index = new EventInterestIndex(config);
+        assertFalse(index.isInterested("player.join", null));
+    }
+
+    @Test
+    void wildcardRule_interested() {
+        EventConfig config = new EventConfig(enabledDefaults);
+        config.putEventRule("player.*", TestEventRuleFactory.create("generic", "default"));
+        EventInterestIndex index = new EventInterestIndex(config);
+        assertTrue(index.isInterested("player.move", null));
+        assertFalse(index.isInterested("block.break", null));
+    }
+
+    @Test
+    void moreSpecificEnabledRule_makesBaseKeyInterested() {
+        EventConfig config = new EventConfig(enabledDefaults);
+        config.putEventRule("player.death.attack.lava", TestEventRuleFactory.create("lava_death", "default"));
+        EventInterestIndex index = new EventInterestIndex(config);
+        assertTrue(index.isInterested("player.death", null));
+        assertFalse(index.isInterested("player.join", null));
+    }
+
+    @Test
+    void disabledWorld_notInterestedThere() throws Exception {
+        EventConfig config = new EventConfig(enabledDefaults);
+        config.putEventRule("player.join", TestEventRuleFactory.create("player_join", "default"));
+        config.putWorldConfig("world_nether", createWorldEventConfig(false, Map.of()));
+        EventInterestIndex index = new EventInterestIndex(config);
+        assertFalse(index.isInterested("player.join", "world_nether"));
+        assertTrue(index.isInterested("player.join", "world"));
+        assertTrue(index.isInterestedInAnyWorld("player.join"));
+    }
+
+    @Test
+    void worldOnlyRule_interestedInThatWorldOnly() throws Exception {
+        EventConfig config = new EventConfig(enabledDefaults);
+        config.putWorldConfig("world_nether", createWorldEventConfig(true, Map.of(
+                "player.join", TestEventRuleFactory.create("world_join", "default")
+        )));
+        EventInterestIndex index = new EventInterestIndex(config);
+        assertTrue(index.isInterested("player.join", "world_nether"));
+        assertFalse(index.isInterested("player.join", "world"));
+        assertTrue(index.isInterestedInAnyWorld("player.join"));
+    }
+
+    @Test
+    void worldRuleDisablesGlobal_notInterestedThere() throws Exception {
+        EventConfig config = new EventConfig(enabledDefaults);
+        config.putEventRule("player.join", TestEventRuleFactory.create("global_join", "default"));
+        config.putWorldConfig("world_nether", createWorldEventConfig(true, Map.of(
+                "player.join", TestEventRuleFactory.create(false, null, null, null, null, null, null)
+        )));
+        EventInterestIndex index = new EventInterestIndex(config);
+        assertFalse(index.isInterested("player.join", "world_nether"));
+        assertTrue(index.isInterested("player.join", "world"));
+    }
+
+    private static WorldEventConfig createWorldEventConfig(Boolean enabled, Map<String, EventRule> eventRules) throws Exception {
+        Constructor<WorldEventConfig> ctor = WorldEventConfig.class.getDeclaredConstructor(Boolean.class, Map.class);
+        ctor.setAccessible(true);
+        return ctor.newInstance(enabled, eventRules);
+    }
+}
@@ -0,0 +1,184 @@
+package com.chibashr.allthewebhooks.routing;
+
+import com.chibashr.allthewebhooks.events.EventContext;
+import com.chibashr.allthewebhooks.util.WarningTracker;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Logger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for {@link EventPipeline} and {@link EventContext#capture}.
+ */
+class EventPipelineTest {
+
+    private final WarningTracker warnings = new WarningTracker(Logger.getLogger("EventPipelineTest"));
+
+    @Test
+    void offeredContexts_processedInOrderOnWorker() throws Exception {
+        List<String> seen = new CopyOnWriteArrayList<>();
+        List<String> threads = new CopyOnWriteArrayList<>();
+        CountDownLatch done = new CountDownLatch(3);
+        EventPipeline pipeline = new EventPipeline(8, ctx -> {
+            seen.add(ctx.getEventKey());
+            threads.add(Thread.currentThread().getName());
+            done.countDown();
+        }, warnings);
+
+        assertTrue(pipeline.offer(new EventContext("a")));
+        assertTrue(pipeline.offer(new EventContext("b")));
+        assertTrue(pipeline.offer(new EventContext("c")));
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+
+        assertEquals(List.of("a", "b", "c"), seen);
+        assertFalse(threads.contains(Thread.currentThread().getName()));
+        assertEquals(3, pipeline.getProcessed());
+        pipeline.shutdown(1, TimeUnit.SECONDS);
+    }
+
+    @Test
+    void fullQueue_dropsAndCounts() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch started = new CountDownLatch(1);
+        EventPipeline pipeline = new EventPipeline(1, ctx -> {
+            started.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }, warnings);
+
+        assertTrue(pipeline.offer(new EventContext("busy")));
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        assertTrue(pipeline.offer(new EventContext("queued")));
+        assertFalse(pipeline.offer(new EventContext("overflow")));
+        assertEquals(1, pipeline.getDepth());
+        assertEquals(1, pipeline.getOverflowDropped());
+
+        release.countDown();
+        pipeline.shutdown(1, TimeUnit.SECONDS);
+        assertFalse(pipeline.offer(new EventContext("late")));
+    }
+
+    @Test
+    void processorFailure_doesNotStopWorker() throws Exception {
+        CountDownLatch done = new CountDownLatch(1);
+        EventPipeline pipeline = new EventPipeline(4, ctx -> {
+            if ("bad".equals(ctx.getEventKey())) {
+                throw new IllegalStateException("boom");
+            }
+            done.countDown();
+        }, warnings);
+
+        pipeline.offer(new EventContext("bad"));
+        pipeline.offer(new EventContext("good"));
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+        pipeline.shutdown(1, TimeUnit.SECONDS);
+    }
+
+    @Test
+    void shutdown_drainsQueuedEventsWithoutInterrupting() throws Exception {
+        List<String> seen = new CopyOnWriteArrayList<>();
+        List<Boolean> interrupted = new CopyOnWriteArrayList<>();
+        CountDownLatch release = new CountDownLatch(1);
+        EventPipeline pipeline = new EventPipeline(8, ctx -> {
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            interrupted.add(Thread.currentThread().isInterrupted());
+            seen.add(ctx.getEventKey());
+        }, warnings);
+
+        for (String key : List.of("a", "b", "c", "d")) {
+            assertTrue(pipeline.offer(new EventContext(key)));
+        }
+        new Thread(() -> {
+            sleep(50);
+            release.countDown();
+        }).start();
+        assertEquals(0, pipeline.shutdown(5, TimeUnit.SECONDS));
+        assertEquals(List.of("a", "b", "c", "d"), seen);
+        assertFalse(interrupted.contains(true));
+        assertEquals(0, pipeline.getOverflowDropped());
+    }
+
+    @Test
+    void shutdown_idleWorker_stopsPromptly() throws Exception {
+        CountDownLatch done = new CountDownLatch(1);
+        EventPipeline pipeline = new EventPipeline(4, ctx -> done.countDown(), warnings);
+        pipeline.offer(new EventContext("a"));
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+        long start = System.nanoTime();
+        assertEquals(0, pipeline.shutdown(5, TimeUnit.SECONDS));
+        assertTrue(System.nanoTime() - start < TimeUnit.SECONDS.toNanos(2));
+    }
+
+    @Test
+    void shutdown_pastDeadline_countsLeftovers() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        List<String> seen = new CopyOnWriteArrayList<>();
+        EventPipeline pipeline = new EventPipeline(8, ctx -> {
+            seen.add(ctx.getEventKey());
+            started.countDown();
+            try {
+                new CountDownLatch(1).await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }, warnings);
+
+        assertTrue(pipeline.offer(new EventContext("stuck")));
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        assertTrue(pipeline.offer(new EventContext("left 1")));
+        assertTrue(pipeline.offer(new EventContext("left 2")));
+
+        assertEquals(2, pipeline.shutdown(100, TimeUnit.MILLISECONDS));
+        assertEquals(2, pipeline.getOverflowDropped());
+        assertEquals(0, pipeline.getDepth());
+        assertEquals(List.of("stuck"), seen);
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Test
+    void capture_copiesOnlyProjectedFields() {
+        EventContext context = new EventContext("player.chat");
+        context.put("chat.message", "hello");
+        context.put("chat.raw", "secret");
+
+        EventContext captured = context.capture(Set.of("chat.message", "missing"), Set.of());
+
+        assertEquals("hello", captured.get("chat.message"));
+        assertEquals("player.chat", captured.get("event.name"));
+        assertNull(captured.get("chat.raw"));
+        assertNull(captured.get("missing"));
+        assertNull(captured.getPlayer());
+        assertFalse(captured.hasPermission("any.permission"));
+    }
+
+    @Test
+    void capture_nullFields_copiesEverything() {
+        EventContext context = new EventContext("server.command");
+        context.put("command.name", "say");
+
+        EventContext captured = context.capture(null, null);
+
+        assertEquals("say", captured.get("command.name"));
+        assertEquals("server.command", captured.get("event.name"));
+    }
+}
@@ -1,6 +1,7 @@
 package com.chibashr.allthewebhooks.routing;
 
 import com.chibashr.allthewebhooks.config.EventConfig;
+import com.chibashr.allthewebhooks.config.EventKeyMatcher;
 import com.chibashr.allthewebhooks.config.EventRule;
 import com.chibashr.allthewebhooks.config.EventRuleDefaults;
 import com.chibashr.allthewebhooks.config.TestEventRuleFactory;
@@ -9,7 +10,9 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
 import java.lang.reflect.Constructor;
+import java.util.HashMap;
 import java.util.Map;
+import java.util.Random;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -104,6 +107,84 @@ class EventRuleResolverTest {
         assertEquals("world_join", result.getMessage());
     }
 
+    @Test
+    void resolve_ruleAddedAfterResolve_isMatched() {
+        EventConfig config = new EventConfig(defaults);
+        config.putEventRule("player.*", TestEventRuleFactory.create("generic_player", "default"));
+        assertEquals("player.*", resolver.resolve(config, "player.join", null).getMatchedKey());
+        config.putEventRule("player.join", TestEventRuleFactory.create("player_join", "default"));
+        assertEquals("player.join", resolver.resolve(config, "player.join", null).getMatchedKey());
+    }
+
+    @Test
+    void resolve_sameScore_firstKeyInRuleOrderWins() {
+        EventConfig config = new EventConfig(defaults);
+        config.putEventRule("player.*", TestEventRuleFactory.create("a", "default"));
+        config.putEventRule("*.join", TestEventRuleFactory.create("b", "default"));
+        assertEquals(bruteForceMatch(config.getEventRules(), "player.join"),
+                resolver.resolve(config, "player.join", null).getMatchedKey());
+    }
+
+    /**
+     * The trie index must pick the same rule as scoring every configured key with
+     * {@link EventKeyMatcher}, including wildcards, empty segments and stray dots.
+     */
+    @Test
+    void resolve_matchesScoringEveryKey() throws Exception {
+        String[] segments = {"player", "join", "block", "*", "", "stone"};
+        Random random = new Random(7);
+        for (int round = 0; round < 200; round++) {
+            EventConfig config = new EventConfig(defaults);
+            Map<String, EventRule> worldRules = new HashMap<>();
+            for (int i = 0; i < 1 + random.nextInt(30); i++) {
+                config.putEventRule(randomKey(random, segments), TestEventRuleFactory.create("global", "default"));
+                worldRules.put(randomKey(random, segments), TestEventRuleFactory.create("world", "default"));
+            }
+            config.putWorldConfig("world", createWorldEventConfig(true, worldRules));
+            for (int i = 0; i < 50; i++) {
+                String eventKey = randomKey(random, segments);
+                String expected = bruteForceMatch(worldRules, eventKey);
+                if (expected == null) {
+                    expected = bruteForceMatch(config.getEventRules(), eventKey);
+                }
+                ResolvedEventRule result = resolver.resolve(config, eventKey, "world");
+                assertEquals(expected, result == null ? null : result.getMatchedKey(), eventKey);
+                String globalExpected = bruteForceMatch(config.getEventRules(), eventKey);
+                ResolvedEventRule global = resolver.resolve(config, eventKey, null);
+                assertEquals(globalExpected, global == null ? null : global.getMatchedKey(), eventKey);
+            }
+        }
+    }
+
+    private static String randomKey(Random random, String[] segments) {
+        StringBuilder key = new StringBuilder();
+        int parts = 1 + random.nextInt(4);
+        for (int i = 0; i < parts; i++) {
+            if (i > 0) {
+                key.append('.');
+            }
+            key.append(segments[random.nextInt(segments.length)]);
+        }
+        if (random.nextInt(10) == 0) {
+            key.append('.');
+        }
+        return key.isEmpty() ? "." : key.toString();
+    }
+
+    /** The resolver's selection before rules were indexed. */
+    private static String bruteForceMatch(Map<String, EventRule> rules, String eventKey) {
+        String bestKey = null;
+        EventKeyMatcher.MatchScore bestScore = EventKeyMatcher.MatchScore.NO_MATCH;
+        for (String configuredKey : rules.keySet()) {
+            EventKeyMatcher.MatchScore score = EventKeyMatcher.score(configuredKey, eventKey);
+            if (score.isBetterThan(bestScore)) {
+                bestScore = score;
+                bestKey = configuredKey;
+            }
+        }
+        return bestKey;
+    }
+
     /**
      * Create WorldEventConfig via reflection (constructor is private).
      */
@@ -0,0 +1,75 @@
+package com.chibashr.allthewebhooks.routing;
+
+import com.chibashr.allthewebhooks.config.ConfigurationSnapshot;
+import com.chibashr.allthewebhooks.config.EventConfig;
+import com.chibashr.allthewebhooks.config.EventRuleDefaults;
+import com.chibashr.allthewebhooks.config.MessageConfig;
+import com.chibashr.allthewebhooks.config.PluginConfig;
+import com.chibashr.allthewebhooks.config.TestEventRuleFactory;
+import com.chibashr.allthewebhooks.util.RedactionPolicy;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for {@link FieldProjection}.
+ */
+class FieldProjectionTest {
+
+    private final EventRuleDefaults defaults = new EventRuleDefaults(true, "default", null, "generic", null);
+
+    @Test
+    void conditionsAndPlaceholders_projected() {
+        EventConfig config = new EventConfig(defaults);
+        config.putEventRule("player.chat", TestEventRuleFactory.create(
+                true, null, null, "chat", null, Map.of("event.message", Map.of("not", "")), null));
+        MessageConfig messages = new MessageConfig();
+        messages.put("chat", "{player.name|upper}: {event.message}");
+        FieldProjection projection = projection(config, messages, null);
+        assertEquals(Set.of("player.name", "event.message"), projection.fieldsFor("player.chat"));
+        assertEquals(Set.of(), projection.fieldsFor("player.join"));
+    }
+
+    @Test
+    void defaultMessage_usedWhenRuleHasNone() {
+        EventConfig config = new EventConfig(defaults);
+        config.putEventRule("player.join", TestEventRuleFactory.create(null, "default"));
+        MessageConfig messages = new MessageConfig();
+        messages.put("generic", "{event.name} in {world.name}");
+        FieldProjection projection = projection(config, messages, null);
+        assertEquals(Set.of("event.name", "world.name"), projection.fieldsFor("player.join"));
+    }
+
+    @Test
+    void redactedPlaceholders_notProjected() {
+        EventConfig config = new EventConfig(defaults);
+        config.putEventRule("player.join", TestEventRuleFactory.create("join", "default"));
+        MessageConfig messages = new MessageConfig();
+        messages.put("join", "{player.name} {player.ip}");
+        FieldProjection projection = projection(config, messages, new RedactionPolicy(true, List.of("player.ip")));
+        assertEquals(Set.of("player.name"), projection.fieldsFor("player.join"));
+    }
+
+    @Test
+    void wildcardAndDescendantRules_unioned() {
+        EventConfig config = new EventConfig(defaults);
+        config.putEventRule("player.*", TestEventRuleFactory.create("a", "default"));
+        config.putEventRule("player.death.attack.lava", TestEventRuleFactory.create("b", "default"));
+        MessageConfig messages = new MessageConfig();
+        messages.put("a", "{player.name}");
+        messages.put("b", "{event.cause}");
+        FieldProjection projection = projection(config, messages, null);
+        assertEquals(Set.of("player.name", "event.cause"), projection.fieldsFor("player.death"));
+        assertEquals(Set.of("player.name"), projection.fieldsFor("player.quit"));
+        assertEquals(Set.of("player.name"), projection.getRouteFields().get("player.*"));
+    }
+
+    private static FieldProjection projection(EventConfig config, MessageConfig messages, RedactionPolicy redaction) {
+        ConfigurationSnapshot snapshot = new ConfigurationSnapshot(PluginConfig.builder().build(), messages, config);
+        return new FieldProjection(snapshot, redaction);
+    }
+}
@@ -0,0 +1,144 @@
+package com.chibashr.allthewebhooks.rules;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for {@link CompiledConditions}.
+ */
+class CompiledConditionsTest {
+
+    @Test
+    void fold_agreesWithEqualsIgnoreCase() {
+        String[] samples = {"a", "A", "z", "Z", "_", "0", "é", "É", "ß", "ẞ", "ı", "I", "i", "İ", "µ", "μ", "Μ",
+                "ÿ", "Ÿ", "ǅ", "ǆ", "Ǆ", "Σ", "σ", "ς", "K", "k", "K", "Å", "å", "Å", "𐐀", "𐐨"};
+        for (String a : samples) {
+            for (String b : samples) {
+                assertEquals(a.equalsIgnoreCase(b), CompiledConditions.fold(a).equals(CompiledConditions.fold(b)), a + " vs " + b);
+            }
+        }
+        String ascii = "diamond_ore";
+        assertSame(ascii, CompiledConditions.fold(ascii));
+        assertEquals("diamond_ore", CompiledConditions.fold("DIAMOND_ORE"));
+    }
+
+    @Test
+    void equals_largeList_usesSetAndMatchesIgnoringCase() {
+        List<String> blocks = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            blocks.add("BLOCK_" + i);
+        }
+        CompiledConditions conditions = CompiledConditions.compile(Map.of("block.type", Map.of("equals", blocks)));
+        assertTrue(conditions.test(Map.of("block.type", "block_42")));
+        assertFalse(conditions.test(Map.of("block.type", "block_100")));
+        assertFalse(conditions.test(Map.of()));
+
+        CompiledConditions not = CompiledConditions.compile(Map.of("block.type", Map.of("NOT", blocks)));
+        assertFalse(not.test(Map.of("block.type", "Block_7")));
+        assertTrue(not.test(Map.of("block.type", "STONE")));
+    }
+
+    @Test
+    void equals_nestedListsAndNullItems() {
+        CompiledConditions conditions = CompiledConditions.compile(
+                Map.of("x", Map.of("equals", Arrays.asList("a", Arrays.asList("b", null)))));
+        assertTrue(conditions.test(Map.of("x", "B")));
+        assertTrue(conditions.test(Map.of()));
+        assertTrue(conditions.test(Map.of("x", "NULL")));
+        assertFalse(conditions.test(Map.of("x", "c")));
+    }
+
+    @Test
+    void equals_numbersCompareAsText() {
+        CompiledConditions conditions = CompiledConditions.compile(Map.of("damage.amount", 5));
+        assertTrue(conditions.test(Map.of("damage.amount", 5)));
+        assertTrue(conditions.test(Map.of("damage.amount", "5")));
+        assertFalse(conditions.test(Map.of("damage.amount", 5.0)));
+    }
+
+    @Test
+    void compare_literalsParsedOnce_unparsableIsZero() {
+        Map<String, Object> operators = new HashMap<>();
+        operators.put("greater-than-or-equal", "2.5");
+        operators.put("Less-Than", "10");
+        CompiledConditions conditions = CompiledConditions.compile(Map.of("damage.amount", operators));
+        assertTrue(conditions.test(Map.of("damage.amount", 2.5)));
+        assertTrue(conditions.test(Map.of("damage.amount", "9.99")));
+        assertFalse(conditions.test(Map.of("damage.amount", 10)));
+        assertFalse(conditions.test(Map.of("damage.amount", "lots")));
+
+        CompiledConditions unparsable = CompiledConditions.compile(Map.of("damage.amount", Map.of("less-than", "abc")));
+        assertTrue(unparsable.test(Map.of("damage.amount", -1)));
+        assertFalse(unparsable.test(Map.of()));
+    }
+
+    @Test
+    void unknownOperator_neverMatchesAndIsReported() {
+        CompiledConditions conditions = CompiledConditions.compile(
+                Map.of("block.type", Map.of("equals", "STONE", "equal", "STONE")));
+        assertFalse(conditions.test(Map.of("block.type", "STONE")));
+        assertEquals(List.of("block.type: unknown operator 'equal'"), conditions.problems());
+        assertEquals(List.of(), CompiledConditions.compile(Map.of("block.type", "STONE")).problems());
+    }
+
+    @Test
+    void keywordOperators_matchIgnoringCase() {
+        CompiledConditions chat = CompiledConditions.compile(Map.of("chat.message",
+                Map.of("contains-any", List.of("grief", "free diamonds"))));
+        assertTrue(chat.test(Map.of("chat.message", "who GRIEFED my base")));
+        assertTrue(chat.test(Map.of("chat.message", "get free diamonds at")));
+        assertFalse(chat.test(Map.of("chat.message", "hello")));
+        assertFalse(chat.test(Map.of()));
+
+        CompiledConditions word = CompiledConditions.compile(Map.of("chat.message", Map.of("contains-word", "grief")));
+        assertFalse(word.test(Map.of("chat.message", "who griefed my base")));
+        assertTrue(word.test(Map.of("chat.message", "no grief please")));
+
+        CompiledConditions command = CompiledConditions.compile(Map.of("command.raw",
+                Map.of("starts-with-any", List.of("/op ", "/give "), "not", "/give Steve dirt")));
+        assertTrue(command.test(Map.of("command.raw", "/OP Alex")));
+        assertFalse(command.test(Map.of("command.raw", "/give Steve dirt")));
+        assertFalse(command.test(Map.of("command.raw", "/help")));
+    }
+
+    @Test
+    void keywordOperators_readWordListFiles() throws Exception {
+        Path dir = Files.createTempDirectory("atw-words");
+        try {
+            Files.writeString(dir.resolve("flagged.txt"), "# flagged terms\n\nGrief\n  free diamonds  \n");
+            CompiledConditions conditions = CompiledConditions.compile(Map.of("chat.message",
+                    Map.of("contains-any", List.of("file:flagged.txt", "spam"))), dir);
+            assertEquals(List.of(), conditions.problems());
+            assertTrue(conditions.test(Map.of("chat.message", "griefing")));
+            assertTrue(conditions.test(Map.of("chat.message", "FREE DIAMONDS")));
+            assertTrue(conditions.test(Map.of("chat.message", "spam")));
+            assertFalse(conditions.test(Map.of("chat.message", "# flagged terms")));
+
+            CompiledConditions missing = CompiledConditions.compile(Map.of("chat.message",
+                    Map.of("contains-any", List.of("file:missing.txt", "file:../outside.txt"))), dir);
+            assertEquals(2, missing.problems().size());
+            assertTrue(missing.problems().get(0).startsWith("chat.message: contains-any word list missing.txt cannot be read"));
+            assertEquals("chat.message: contains-any word list ../outside.txt is outside the events.yaml folder",
+                    missing.problems().get(1));
+            assertFalse(missing.test(Map.of("chat.message", "anything")));
+        } finally {
+            Files.deleteIfExists(dir.resolve("flagged.txt"));
+            Files.deleteIfExists(dir);
+        }
+    }
+
+    @Test
+    void emptyConditions_alwaysMatch() {
+        assertSame(CompiledConditions.ALWAYS, CompiledConditions.compile(null));
+        assertTrue(CompiledConditions.compile(Map.of("x", Map.of())).test(Map.of()));
+    }
+}
@@ -0,0 +1,125 @@
+package com.chibashr.allthewebhooks.rules;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for {@link KeywordAutomaton}, checked against naive scans.
+ */
+class KeywordAutomatonTest {
+
+    @Test
+    void containsAny_overlappingTerms() {
+        KeywordAutomaton automaton = KeywordAutomaton.build(List.of("he", "she", "his", "hers"));
+        assertTrue(automaton.containsAny("ushers"));
+        assertTrue(automaton.containsAny("aHIS"));
+        assertFalse(automaton.containsAny("hi, hs? no: h-e"));
+        assertFalse(automaton.containsAny(""));
+        assertEquals(4, automaton.size());
+    }
+
+    @Test
+    void containsWord_requiresBoundaries() {
+        KeywordAutomaton automaton = KeywordAutomaton.build(List.of("ass", "grief", "free diamonds"));
+        assertFalse(automaton.containsWord("a classic pass"));
+        assertTrue(automaton.containsWord("what an ASS!"));
+        assertTrue(automaton.containsWord("ass"));
+        assertFalse(automaton.containsWord("griefer_alert"));
+        assertTrue(automaton.containsWord("stop the grief, please"));
+        assertTrue(automaton.containsWord("get Free Diamonds now"));
+        assertFalse(automaton.containsWord("free diamondsss"));
+    }
+
+    @Test
+    void containsWord_shorterTermInsideLongerMatch() {
+        // "b" ends inside "ab" at the same position; only "b" has a boundary before it.
+        KeywordAutomaton automaton = KeywordAutomaton.build(List.of("ab", "b"));
+        assertTrue(automaton.containsWord("a b"));
+        assertFalse(automaton.containsWord("cab"));
+        assertTrue(automaton.containsWord("x ab"));
+    }
+
+    @Test
+    void startsWithAny_prefixOnly() {
+        KeywordAutomaton automaton = KeywordAutomaton.build(List.of("/op", "/give", "/gamemode creative"));
+        assertTrue(automaton.startsWithAny("/OP Steve"));
+        assertTrue(automaton.startsWithAny("/gamemode creative Alex"));
+        assertFalse(automaton.startsWithAny("/gamemode survival"));
+        assertFalse(automaton.startsWithAny("say /op"));
+        assertFalse(automaton.startsWithAny("/o"));
+    }
+
+    @Test
+    void emptyAndNullTermsSkipped() {
+        List<String> terms = new ArrayList<>();
+        terms.add("");
+        terms.add(null);
+        KeywordAutomaton automaton = KeywordAutomaton.build(terms);
+        assertEquals(0, automaton.size());
+        assertFalse(automaton.containsAny("anything"));
+        assertFalse(automaton.startsWithAny("anything"));
+    }
+
+    @Test
+    void randomTexts_matchNaiveScan() {
+        Random random = new Random(7);
+        for (int round = 0; round < 200; round++) {
+            List<String> terms = new ArrayList<>();
+            for (int i = 0; i < 1 + random.nextInt(20); i++) {
+                terms.add(randomText(random, 1 + random.nextInt(4)));
+            }
+            KeywordAutomaton automaton = KeywordAutomaton.build(terms);
+            for (int j = 0; j < 20; j++) {
+                String text = randomText(random, random.nextInt(30));
+                assertEquals(naiveContains(terms, text), automaton.containsAny(text), terms + " in " + text);
+                assertEquals(naiveWord(terms, text), automaton.containsWord(text), terms + " words in " + text);
+                assertEquals(naiveStarts(terms, text), automaton.startsWithAny(text), terms + " prefix of " + text);
+            }
+        }
+    }
+
+    private static String randomText(Random random, int length) {
+        String alphabet = "abAB _.";
+        StringBuilder builder = new StringBuilder();
+        for (int i = 0; i < length; i++) {
+            builder.append(alphabet.charAt(random.nextInt(alphabet.length())));
+        }
+        return builder.toString();
+    }
+
+    private static boolean naiveContains(List<String> terms, String text) {
+        String lower = text.toLowerCase(Locale.ROOT);
+        return terms.stream().anyMatch(term -> lower.contains(term.toLowerCase(Locale.ROOT)));
+    }
+
+    private static boolean naiveStarts(List<String> terms, String text) {
+        String lower = text.toLowerCase(Locale.ROOT);
+        return terms.stream().anyMatch(term -> lower.startsWith(term.toLowerCase(Locale.ROOT)));
+    }
+
+    private static boolean naiveWord(List<String> terms, String text) {
+        String lower = text.toLowerCase(Locale.ROOT);
+        for (String term : terms) {
+            String needle = term.toLowerCase(Locale.ROOT);
+            for (int at = lower.indexOf(needle); at >= 0; at = lower.indexOf(needle, at + 1)) {
+                int end = at + needle.length();
+                boolean before = at == 0 || !isWordChar(lower.charAt(at - 1));
+                boolean after = end == lower.length() || !isWordChar(lower.charAt(end));
+                if (before && after) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    private static boolean isWordChar(char c) {
+        return c == '_' || Character.isLetterOrDigit(c);
+    }
+}
@@ -0,0 +1,120 @@
+package com.chibashr.allthewebhooks.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for {@link LinearRegex}, mostly against {@link java.util.regex.Pattern} as the reference.
+ */
+class LinearRegexTest {
+    private static final List<String> INPUTS = List.of(
+            "", "a", "aaa", "abc", "abcabc", "/srv/worlds/survival", "Steve joined the game",
+            "x1 y22 z333", "foo.bar_baz-qux", "line one\nline two\n", "end\r\n", "AbC aBc", "aaab", "ba");
+
+    @Test
+    void replaceAll_matchesJavaRegex() {
+        List<String[]> cases = List.of(
+                new String[] {"^.*/([^/]+)$", "$1"},
+                new String[] {"^true$", "hardcore"},
+                new String[] {"a", "b"},
+                new String[] {"a*", "-"},
+                new String[] {"a*?", "-"},
+                new String[] {"a+?", "<$0>"},
+                new String[] {"(a|ab)(c|bcd)?", "[$1,$2]"},
+                new String[] {"(a|b)*c", "<$1>"},
+                new String[] {"\\d+", "#"},
+                new String[] {"\\D\\d{2,}", "[$0]"},
+                new String[] {"\\w+", "w"},
+                new String[] {"\\W", ""},
+                new String[] {"\\s+", " "},
+                new String[] {"[^a-c]", "."},
+                new String[] {"[a-c-]+", "_"},
+                new String[] {"[\\w.]+", "<$0>"},
+                new String[] {"(?i)abc", "x"},
+                new String[] {"a(?i:b)c", "x"},
+                new String[] {"\\bj\\w+", "J"},
+                new String[] {"\\B", "|"},
+                new String[] {"$", "!"},
+                new String[] {"\\z", "!"},
+                new String[] {"^", ">"},
+                new String[] {"line$", "L"},
+                new String[] {".", "?"},
+                new String[] {"(?<first>\\w)(\\w*)", "${first}.$2"},
+                new String[] {"(?:ab)+", "$0$0"},
+                new String[] {"a{2}", "2"},
+                new String[] {"a{1,2}?", "m"},
+                new String[] {"(a)|(b)", "[$1$2]"},
+                new String[] {"\\Q.b\\E", "dot"},
+                new String[] {"\\.|-", "\\$"},
+                new String[] {"(\\w)(\\w)(\\w)(\\w)(\\w)(\\w)(\\w)(\\w)(\\w)(\\w)", "$10$11"},
+                new String[] {"(a+)+b", "<$1>"},
+                new String[] {"\\x61|\\u0062|\\0143", "%"},
+                new String[] {"\\r\\n|\\n", "\\\\n"});
+        for (String[] c : cases) {
+            LinearRegex regex = LinearRegex.compile(c[0]);
+            Pattern pattern = Pattern.compile(c[0]);
+            for (String input : INPUTS) {
+                assertEquals(pattern.matcher(input).replaceAll(c[1]), regex.replaceAll(input, regex.replacement(c[1])),
+                        c[0] + " / " + c[1] + " on \"" + input + "\"");
+                assertEquals(pattern.matcher(input).find(), regex.find(input), c[0] + " find on \"" + input + "\"");
+            }
+        }
+    }
+
+    @Test
+    void replaceAll_supplementaryCharacters() {
+        LinearRegex regex = LinearRegex.compile(".");
+        assertEquals("??", regex.replaceAll("😀a", regex.replacement("?")));
+        LinearRegex empty = LinearRegex.compile("");
+        assertEquals("-😀-", empty.replaceAll("😀", empty.replacement("-")));
+    }
+
+    @Test
+    void pathologicalPatterns_runInLinearTime() {
+        String input = "a".repeat(5_000) + "!";
+        long start = System.nanoTime();
+        for (String source : List.of("(a+)+$", "(a|aa)*$", "(a*)*b", "(\\w+\\s?)+$", "(.*a){20}")) {
+            LinearRegex regex = LinearRegex.compile(source);
+            regex.replaceAll(input, regex.replacement("x"));
+        }
+        // A backtracking engine needs longer than the age of the universe for the first pattern.
+        assertTrue(System.nanoTime() - start < 30_000_000_000L);
+        LinearRegex regex = LinearRegex.compile("(a+)+$");
+        assertEquals("aaab", regex.replaceAll("aaab", regex.replacement("x")));
+        assertEquals("x", regex.replaceAll("aaaa", regex.replacement("x")));
+    }
+
+    @Test
+    void compile_rejectsBacktrackingFeatures() {
+        for (String source : List.of("(a)\\1", "(?<n>a)\\k<n>", "a(?=b)", "a(?!b)", "(?<=a)b", "(?<!a)b",
+                "a++", "(?>a)", "\\p{L}", "[a-z&&[^c]]", "(?s).", "(?m)^a")) {
+            assertThrows(IllegalArgumentException.class, () -> LinearRegex.compile(source), source);
+        }
+    }
+
+    @Test
+    void compile_rejectsMalformedPatterns() {
+        for (String source : List.of("[", "(", ")", "*a", "a{", "a{3,1}", "a**", "[b-a]", "\\")) {
+            assertThrows(IllegalArgumentException.class, () -> LinearRegex.compile(source), source);
+        }
+    }
+
+    @Test
+    void compile_rejectsOversizedPrograms() {
+        assertThrows(IllegalArgumentException.class, () -> LinearRegex.compile("((a{100}){100}){100}"));
+    }
+
+    @Test
+    void replacement_errorsOnlyWhenMatched() {
+        LinearRegex regex = LinearRegex.compile("(a)");
+        LinearRegex.Replacement missingGroup = regex.replacement("$2");
+        assertEquals("bcd", regex.replaceAll("bcd", missingGroup));
+        assertThrows(IndexOutOfBoundsException.class, () -> regex.replaceAll("abc", missingGroup));
+        assertThrows(IllegalArgumentException.class, () -> regex.replaceAll("abc", regex.replacement("x\\")));
+        assertThrows(IllegalArgumentException.class, () -> regex.replaceAll("abc", regex.replacement("${nope}")));
+    }
+}
@@ -6,12 +6,15 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
+import java.util.List;
 import java.util.Map;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
@@ -174,6 +177,40 @@ class MessageResolverTest {
         assertEquals("Val: hello", result);
     }
 
+    @Test
+    void resolve_backreferenceRegex_rejectedAndWarns() {
+        String result = MessageResolver.resolve(
+                "Val: {key|regex:(l)\\1:L}",
+                Map.of("key", "hello"),
+                null,
+                warningTracker,
+                PluginConfig.builder().build()
+        );
+        assertEquals("Val: hello", result);
+        verify(warningTracker).warnOnce(eq("placeholder-regex-error:key"), anyString());
+    }
+
+    @Test
+    void resolve_catastrophicRegex_completes() {
+        String result = MessageResolver.resolve(
+                "{key|regex:(a+)+$:x}",
+                Map.of("key", "a".repeat(10_000) + "!"),
+                null,
+                warningTracker,
+                PluginConfig.builder().build()
+        );
+        assertEquals("a".repeat(10_000) + "!", result);
+    }
+
+    @Test
+    void regexProblems_listsRejectedPatterns() {
+        assertEquals(List.of(), MessageResolver.regexProblems("{a|regex:^x$:y} {b|upper}"));
+        List<String> problems = MessageResolver.regexProblems("{a|regex:(?=x):y} {b|trim|regex:[:y}");
+        assertEquals(2, problems.size());
+        assertTrue(problems.get(0).startsWith("{a}: regex (?=x): lookaround is not supported"));
+        assertTrue(problems.get(1).startsWith("{b}: regex [: Unclosed character class"));
+    }
+
     @Test
     void parseTransformSpec_escapedColon_preservedInRegexArgs() {
         MessageResolver.TransformSpec spec = MessageResolver.parseTransformSpec("regex:foo\\:bar:baz\\:qux");
@@ -439,4 +476,13 @@ class MessageResolverTest {
         );
         assertEquals("WORLD", result);
     }
+
+    @Test
+    void placeholderKeys_stripsTransformsAndDeduplicates() {
+        assertEquals(
+                List.of("player.name", "world.name"),
+                List.copyOf(MessageResolver.placeholderKeys("{player.name|upper} in {world.name} ({player.name})"))
+        );
+        assertEquals(List.of(), List.copyOf(MessageResolver.placeholderKeys(null)));
+    }
 }
@@ -0,0 +1,83 @@
+package com.chibashr.allthewebhooks.util;
+
+import com.chibashr.allthewebhooks.config.PluginConfig;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.logging.Logger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for {@link MessageTemplate}.
+ */
+class MessageTemplateTest {
+    private final WarningTracker warningTracker = new WarningTracker(Logger.getLogger("MessageTemplateTest"));
+    private final PluginConfig config = PluginConfig.builder().validateOnStartup(false).validateOnReload(false).build();
+
+    @Test
+    void render_noPlaceholders_returnsTemplateInstance() {
+        String template = "Server started";
+        assertSame(template, MessageTemplate.compile(template, null).render(Map.of(), warningTracker, config));
+    }
+
+    @Test
+    void render_nullOrEmpty_returnsEmpty() {
+        assertEquals("", MessageTemplate.compile(null, null).render(Map.of(), warningTracker, config));
+        assertEquals("", MessageTemplate.compile("", null).render(Map.of(), warningTracker, config));
+    }
+
+    @Test
+    void render_literalsAndPlaceholders_inOrder() {
+        MessageTemplate template = MessageTemplate.compile("[{world.name}] {player.name} joined ({count})", null);
+        assertEquals("[world] Steve joined (3)",
+                template.render(Map.of("world.name", "world", "player.name", "Steve", "count", 3), warningTracker, config));
+        assertEquals("[nether] Alex joined ()",
+                template.render(Map.of("world.name", "nether", "player.name", "Alex"), warningTracker, config));
+    }
+
+    @Test
+    void render_transformChain_boundOnce() {
+        MessageTemplate template = MessageTemplate.compile(
+                "{world.name|regex:^.*/([^/]+)$:$1|upper} {mode|map:true:hardcore:false:normal}", null);
+        assertEquals("SURVIVAL hardcore",
+                template.render(Map.of("world.name", "/srv/worlds/survival", "mode", "true"), warningTracker, config));
+        assertEquals("NETHER normal",
+                template.render(Map.of("world.name", "/srv/worlds/nether", "mode", "false"), warningTracker, config));
+    }
+
+    @Test
+    void render_redactionDecidedAtCompile() {
+        RedactionPolicy redaction = new RedactionPolicy(true, List.of("player.ip"));
+        MessageTemplate template = MessageTemplate.compile("{player.name} from {player.ip|upper}", redaction);
+        assertEquals("Steve from [REDACTED]",
+                template.render(Map.of("player.name", "Steve", "player.ip", "10.0.0.1"), warningTracker, config));
+    }
+
+    @Test
+    void render_invalidRegex_keepsValue() {
+        MessageTemplate template = MessageTemplate.compile("{player.name|regex:[:x}", null);
+        assertEquals("Steve", template.render(Map.of("player.name", "Steve"), warningTracker, config));
+    }
+
+    @Test
+    void render_matchesResolve() {
+        RedactionPolicy redaction = new RedactionPolicy(true, List.of("secret.*"));
+        Map<String, Object> context = Map.of("player.name", " Steve ", "secret.token", "abc", "path", "a/b/c");
+        for (String source : List.of("{player.name|trim|truncate:3}", "$1 \\ {path|last-path-segment} $",
+                "{secret.token}", "{{player.name}}", "{missing|default:none}")) {
+            assertEquals(MessageResolver.resolve(source, context, redaction, warningTracker, config),
+                    MessageTemplate.compile(source, redaction).render(context, warningTracker, config), source);
+        }
+    }
+
+    @Test
+    void compileAll_keyedByMessageId() {
+        Map<String, MessageTemplate> templates = MessageTemplate.compileAll(
+                Map.of("join", "{player.name} joined", "start", "Server started"), null);
+        assertEquals(2, templates.size());
+        assertEquals("Steve joined", templates.get("join").render(Map.of("player.name", "Steve"), warningTracker, config));
+        assertEquals("Server started", templates.get("start").render(Map.of(), warningTracker, config));
+    }
+}
@@ -0,0 +1,75 @@
+package com.chibashr.allthewebhooks.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for {@link PropertyAccessor}.
+ */
+class PropertyAccessorTest {
+
+    public static class Sample {
+        public String getName() {
+            return "steve";
+        }
+
+        public int getLevel() {
+            return 7;
+        }
+
+        public boolean isOnline() {
+            return true;
+        }
+
+        public String isNotAGetter() {
+            return "x";
+        }
+
+        public String getWithArg(int i) {
+            return "x";
+        }
+
+        public String getBroken() {
+            throw new IllegalStateException("boom");
+        }
+    }
+
+    @Test
+    void gettersOf_findsGetAndBooleanIsGetters() {
+        Map<String, PropertyAccessor> byName = byProperty(Sample.class);
+        assertEquals(Set.of("name", "level", "online", "broken"), byName.keySet());
+    }
+
+    @Test
+    void get_readsValuesIncludingPrimitives() {
+        Map<String, PropertyAccessor> byName = byProperty(Sample.class);
+        Sample sample = new Sample();
+        assertEquals("steve", byName.get("name").get(sample));
+        assertEquals(7, byName.get("level").get(sample));
+        assertEquals(true, byName.get("online").get(sample));
+        assertEquals(int.class, byName.get("level").returnType());
+    }
+
+    @Test
+    void get_propagatesGetterException() {
+        PropertyAccessor broken = byProperty(Sample.class).get("broken");
+        assertThrows(IllegalStateException.class, () -> broken.get(new Sample()));
+    }
+
+    @Test
+    void gettersOf_cachedPerClass() {
+        assertSame(PropertyAccessor.gettersOf(Sample.class), PropertyAccessor.gettersOf(Sample.class));
+    }
+
+    private static Map<String, PropertyAccessor> byProperty(Class<?> cls) {
+        List<PropertyAccessor> getters = PropertyAccessor.gettersOf(cls);
+        return getters.stream().collect(Collectors.toMap(PropertyAccessor::property, Function.identity()));
+    }
+}
@@ -0,0 +1,153 @@
+package com.chibashr.allthewebhooks.webhook;
+
+import com.chibashr.allthewebhooks.config.WebhookDefinition;
+import org.junit.jupiter.api.Test;
+
+import java.net.http.HttpClient;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for {@link CircuitBreaker} and its use by {@link DeliveryScheduler}.
+ */
+class CircuitBreakerTest {
+
+    private static final CircuitBreaker.Settings SETTINGS = new CircuitBreaker.Settings(true, 0.5, 4, 4, 3, 1000, false);
+
+    @Test
+    void opensOnFailureRatioOnceMinimumCallsSeen() {
+        CircuitBreaker breaker = new CircuitBreaker();
+        assertFalse(breaker.onFailure(SETTINGS, false, 0));
+        assertFalse(breaker.onSuccess(SETTINGS));
+        assertFalse(breaker.onSuccess(SETTINGS));
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.state());
+        assertTrue(breaker.onFailure(SETTINGS, false, 0));
+        assertEquals(CircuitBreaker.State.OPEN, breaker.state());
+        assertEquals("2/4 requests failed", breaker.lastReason());
+    }
+
+    @Test
+    void opensOnConsecutiveTimeouts() {
+        CircuitBreaker.Settings settings = new CircuitBreaker.Settings(true, 1.0, 20, 20, 3, 1000, false);
+        CircuitBreaker breaker = new CircuitBreaker();
+        assertFalse(breaker.onFailure(settings, true, 0));
+        assertFalse(breaker.onFailure(settings, true, 0));
+        assertTrue(breaker.onFailure(settings, true, 0));
+        assertEquals("3 timeouts in a row", breaker.lastReason());
+    }
+
+    @Test
+    void halfOpenLetsOneProbeThrough() {
+        CircuitBreaker breaker = new CircuitBreaker();
+        for (int i = 0; i < 4; i++) {
+            breaker.onFailure(SETTINGS, false, 0);
+        }
+        long later = TimeUnit.MILLISECONDS.toNanos(1000);
+        assertFalse(breaker.permits(SETTINGS, later - 1));
+        assertTrue(breaker.isOpen(SETTINGS, later - 1));
+        assertTrue(breaker.permits(SETTINGS, later));
+        assertTrue(breaker.onSend(SETTINGS, later));
+        assertEquals(CircuitBreaker.State.HALF_OPEN, breaker.state());
+        assertFalse(breaker.permits(SETTINGS, later));
+
+        assertTrue(breaker.onFailure(SETTINGS, false, later));
+        assertEquals(CircuitBreaker.State.OPEN, breaker.state());
+
+        long retry = later + TimeUnit.MILLISECONDS.toNanos(1000);
+        assertTrue(breaker.onSend(SETTINGS, retry));
+        assertTrue(breaker.onSuccess(SETTINGS));
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.state());
+        assertTrue(breaker.permits(SETTINGS, retry));
+    }
+
+    @Test
+    void disabledBreakerNeverOpens() {
+        CircuitBreaker breaker = new CircuitBreaker();
+        for (int i = 0; i < 10; i++) {
+            assertFalse(breaker.onFailure(CircuitBreaker.Settings.DISABLED, true, 0));
+        }
+        assertTrue(breaker.permits(CircuitBreaker.Settings.DISABLED, 0));
+    }
+
+    @Test
+    void scheduler_shortCircuitsWhileOpenAndClosesAfterProbe() throws Exception {
+        try (DiscordStub stub = new DiscordStub(50, 1000)) {
+            stub.force(500, 500);
+            CircuitBreaker.Settings settings = new CircuitBreaker.Settings(true, 0.5, 2, 2, 0, 300, true);
+            List<CircuitBreaker.State> transitions = new CopyOnWriteArrayList<>();
+            CountDownLatch failed = new CountDownLatch(2);
+            CountDownLatch delivered = new CountDownLatch(1);
+            DeliveryScheduler scheduler = new DeliveryScheduler(HttpClient.newHttpClient(), new DeliveryScheduler.Listener() {
+                @Override
+                public void delivered(PendingWebhook message, int status, long rttNanos) {
+                    delivered.countDown();
+                }
+
+                @Override
+                public void failed(PendingWebhook message, int status, Throwable error) {
+                    failed.countDown();
+                }
+
+                @Override
+                public void breakerChanged(String webhook, CircuitBreaker.State state, String reason) {
+                    transitions.add(state);
+                }
+            }, () -> RetryPolicy.NONE, () -> settings, 100);
+
+            assertTrue(scheduler.submit(message(stub, "a")));
+            assertTrue(scheduler.submit(message(stub, "b")));
+            assertTrue(failed.await(5, TimeUnit.SECONDS));
+            assertEquals(List.of(CircuitBreaker.State.OPEN), transitions);
+            assertFalse(scheduler.submit(message(stub, "short-circuited")));
+            assertEquals(1L, scheduler.getShortCircuited());
+            assertEquals("open", scheduler.getRouteStats().get(0).breaker());
+
+            Thread.sleep(350);
+            assertTrue(scheduler.submit(message(stub, "probe")));
+            assertTrue(delivered.await(5, TimeUnit.SECONDS));
+            assertEquals(List.of(CircuitBreaker.State.OPEN, CircuitBreaker.State.HALF_OPEN, CircuitBreaker.State.CLOSED),
+                    transitions);
+            assertEquals(3, stub.requests());
+            scheduler.shutdown();
+        }
+    }
+
+    @Test
+    void scheduler_spoolMode_reportsFullQueueWhileOpen() throws Exception {
+        try (DiscordStub stub = new DiscordStub(1000, 1000)) {
+            stub.force(500, 500);
+            CircuitBreaker.Settings settings = new CircuitBreaker.Settings(true, 0.5, 2, 2, 0, 60_000, false);
+            CountDownLatch failed = new CountDownLatch(2);
+            DeliveryScheduler scheduler = new DeliveryScheduler(HttpClient.newHttpClient(), new DeliveryScheduler.Listener() {
+                @Override
+                public void delivered(PendingWebhook message, int status, long rttNanos) {
+                }
+
+                @Override
+                public void failed(PendingWebhook message, int status, Throwable error) {
+                    failed.countDown();
+                }
+            }, () -> RetryPolicy.NONE, () -> settings, 2);
+
+            assertTrue(scheduler.submit(message(stub, "a")));
+            assertTrue(scheduler.submit(message(stub, "b")));
+            assertTrue(failed.await(5, TimeUnit.SECONDS));
+            assertEquals(DeliveryScheduler.Admission.QUEUED, scheduler.offer(message(stub, "held 1")));
+            assertEquals(DeliveryScheduler.Admission.QUEUED, scheduler.offer(message(stub, "held 2")));
+            assertEquals(DeliveryScheduler.Admission.FULL_WHILE_OPEN, scheduler.offer(message(stub, "outage")));
+            assertEquals(1L, scheduler.getFullWhileOpen());
+            assertEquals(0L, scheduler.getOverflowDropped());
+            assertEquals(0L, scheduler.getShortCircuited());
+            assertEquals(2, stub.requests());
+            scheduler.shutdown();
+        }
+    }
+
+    private static PendingWebhook message(DiscordStub stub, String content) {
+        return new PendingWebhook("player.join", new WebhookDefinition(stub.url(), 5000), content, null, System.nanoTime());
+    }
+}
@@ -0,0 +1,153 @@
+package com.chibashr.allthewebhooks.webhook;
+
+import com.chibashr.allthewebhooks.config.WebhookDefinition;
+import org.junit.jupiter.api.Test;
+
+import java.net.http.HttpClient;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for {@link ConcurrencyLimit} and {@link LatencyRecorder}, plus adaptation against
+ * {@link DiscordStub} with injected latency.
+ */
+class ConcurrencyLimitTest {
+
+    private static final ConcurrencyLimit.Settings ADAPTIVE = new ConcurrencyLimit.Settings(true, 4, 1.5);
+    private static final long MS = TimeUnit.MILLISECONDS.toNanos(1);
+
+    @Test
+    void growsWhileLatencyFlat_shrinksWhenLatencyRises() {
+        ConcurrencyLimit limit = new ConcurrencyLimit();
+        assertEquals(4, limit.limit(ADAPTIVE, 64));
+        for (int i = 0; i < 50; i++) {
+            limit.onSample(ADAPTIVE, 64, 10 * MS, limit.limit(ADAPTIVE, 64), false);
+        }
+        int grown = limit.limit(ADAPTIVE, 64);
+        assertTrue(grown > 10, "limit " + grown);
+        assertEquals(10.0, limit.longRttMillis(), 0.01);
+
+        for (int i = 0; i < 30; i++) {
+            limit.onSample(ADAPTIVE, 64, 100 * MS, limit.limit(ADAPTIVE, 64), false);
+        }
+        assertTrue(limit.limit(ADAPTIVE, 64) < grown / 2, "limit " + limit.limit(ADAPTIVE, 64));
+    }
+
+    @Test
+    void failuresBackOff_andCeilingHolds() {
+        ConcurrencyLimit limit = new ConcurrencyLimit();
+        for (int i = 0; i < 200; i++) {
+            limit.onSample(ADAPTIVE, 16, 10 * MS, 16, false);
+        }
+        assertEquals(16, limit.limit(ADAPTIVE, 16));
+        for (int i = 0; i < 20; i++) {
+            limit.onSample(ADAPTIVE, 16, 10 * MS, 16, true);
+        }
+        assertTrue(limit.limit(ADAPTIVE, 16) < 12, "limit " + limit.limit(ADAPTIVE, 16));
+    }
+
+    @Test
+    void doesNotGrowWhenLimitUnused() {
+        ConcurrencyLimit limit = new ConcurrencyLimit();
+        for (int i = 0; i < 50; i++) {
+            limit.onSample(ADAPTIVE, 64, 10 * MS, 1, false);
+        }
+        assertEquals(4, limit.limit(ADAPTIVE, 64));
+    }
+
+    @Test
+    void fixedSettingsUseMaxInFlight() {
+        ConcurrencyLimit limit = new ConcurrencyLimit();
+        limit.onSample(ConcurrencyLimit.Settings.FIXED, 8, 10 * MS, 8, true);
+        assertEquals(8, limit.limit(ConcurrencyLimit.Settings.FIXED, 8));
+        assertEquals(0, limit.limit(ConcurrencyLimit.Settings.FIXED, 0));
+    }
+
+    @Test
+    void latencyRecorder_nearestRankPercentiles() {
+        LatencyRecorder recorder = new LatencyRecorder();
+        assertEquals(0.0, recorder.percentilesMillis(50)[0], 0.0);
+        for (int i = 1; i <= 100; i++) {
+            recorder.record(i * MS);
+        }
+        double[] p = recorder.percentilesMillis(50, 90, 99);
+        assertEquals(50.0, p[0], 0.001);
+        assertEquals(90.0, p[1], 0.001);
+        assertEquals(99.0, p[2], 0.001);
+    }
+
+    @Test
+    void scheduler_adaptsToStubLatency() throws Exception {
+        try (DiscordStub stub = new DiscordStub(100_000, 1000)) {
+            stub.setLatencyMillis(10);
+            WebhookDefinition webhook = new WebhookDefinition(stub.url(), 5000, null, "relay", 1000, 32, false);
+            CountDownLatch fast = new CountDownLatch(200);
+            CountDownLatch[] slow = {new CountDownLatch(60)};
+            DeliveryScheduler scheduler = new DeliveryScheduler(HttpClient.newHttpClient(), new DeliveryScheduler.Listener() {
+                @Override
+                public void delivered(PendingWebhook message, int status, long rttNanos) {
+                    if (message.content().startsWith("fast")) {
+                        fast.countDown();
+                    } else {
+                        slow[0].countDown();
+                    }
+                }
+
+                @Override
+                public void failed(PendingWebhook message, int status, Throwable error) {
+                }
+            }, () -> RetryPolicy.NONE, () -> CircuitBreaker.Settings.DISABLED, () -> ADAPTIVE, 1000);
+
+            for (int i = 0; i < 200; i++) {
+                scheduler.submit(new PendingWebhook("player.join", webhook, "fast " + i, null, System.nanoTime()));
+            }
+            assertTrue(fast.await(20, TimeUnit.SECONDS));
+            int grown = scheduler.getRouteStats().get(0).concurrencyLimit();
+            assertTrue(grown > 4, "limit " + grown);
+            assertTrue(stub.maxConcurrent() > 4);
+            assertTrue(stub.maxConcurrent() <= 32);
+
+            stub.setLatencyMillis(200);
+            for (int i = 0; i < 60; i++) {
+                scheduler.submit(new PendingWebhook("player.join", webhook, "slow " + i, null, System.nanoTime()));
+            }
+            assertTrue(slow[0].await(30, TimeUnit.SECONDS));
+            DeliveryScheduler.RouteStats stats = scheduler.getRouteStats().get(0);
+            assertTrue(stats.concurrencyLimit() < grown, "limit " + stats.concurrencyLimit() + " was " + grown);
+            assertTrue(stats.p99Millis() >= 200, "p99 " + stats.p99Millis());
+            scheduler.shutdown();
+        }
+    }
+
+    @Test
+    void scheduler_withoutRateLimitHeaders_growsPastOneInFlight() throws Exception {
+        try (DiscordStub stub = new DiscordStub(100_000, 1000)) {
+            stub.setRateLimitHeaders(false);
+            stub.setLatencyMillis(10);
+            WebhookDefinition webhook = new WebhookDefinition(stub.url(), 5000, null, "relay", 1000, 16, false);
+            CountDownLatch delivered = new CountDownLatch(200);
+            DeliveryScheduler scheduler = new DeliveryScheduler(HttpClient.newHttpClient(), new DeliveryScheduler.Listener() {
+                @Override
+                public void delivered(PendingWebhook message, int status, long rttNanos) {
+                    delivered.countDown();
+                }
+
+                @Override
+                public void failed(PendingWebhook message, int status, Throwable error) {
+                }
+            }, () -> RetryPolicy.NONE, () -> CircuitBreaker.Settings.DISABLED, () -> ADAPTIVE, 1000);
+
+            for (int i = 0; i < 200; i++) {
+                scheduler.submit(new PendingWebhook("player.join", webhook, "relay " + i, null, System.nanoTime()));
+            }
+            assertTrue(delivered.await(20, TimeUnit.SECONDS));
+            int limit = scheduler.getRouteStats().get(0).concurrencyLimit();
+            assertTrue(limit > 4, "limit " + limit);
+            assertTrue(stub.maxConcurrent() > 4, "max concurrent " + stub.maxConcurrent());
+            assertTrue(stub.maxConcurrent() <= 16, "max concurrent " + stub.maxConcurrent());
+            scheduler.shutdown();
+        }
+    }
+}
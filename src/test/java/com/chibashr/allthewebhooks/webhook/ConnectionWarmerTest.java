@@ -0,0 +1,215 @@
+package com.chibashr.allthewebhooks.webhook;
+
+import com.chibashr.allthewebhooks.config.WebhookDefinition;
+import com.chibashr.allthewebhooks.util.WorkerThreads;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import com.sun.net.httpserver.HttpsConfigurator;
+import com.sun.net.httpserver.HttpsServer;
+import org.junit.jupiter.api.Test;
+
+import javax.net.ssl.KeyManagerFactory;
+import javax.net.ssl.SSLContext;
+import javax.net.ssl.TrustManagerFactory;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.InetSocketAddress;
+import java.net.http.HttpClient;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.KeyStore;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests {@link ConnectionWarmer} through {@link DeliveryScheduler#prepare} against local HTTP and
+ * HTTPS servers. The HTTPS certificate is generated with keytool for each run.
+ */
+class ConnectionWarmerTest {
+    private static final ConnectionWarmer.Settings WARM = new ConnectionWarmer.Settings(true, 0, "auto");
+
+    @Test
+    void warmUp_http_connectsBeforeFirstMessage() throws Exception {
+        try (Stub stub = new Stub(null)) {
+            CountDownLatch delivered = new CountDownLatch(1);
+            DeliveryScheduler scheduler = scheduler(HttpClient.newHttpClient(), delivered);
+            scheduler.prepare(List.of(stub.webhook()), WARM);
+
+            awaitTrue(() -> host(scheduler).probes() == 2);
+            ConnectionWarmer.HostStats host = host(scheduler);
+            assertEquals("HTTP/1.1", host.version());
+            assertTrue(host.dnsMillis() >= 0);
+            assertTrue(host.connectMillis() >= 0);
+            assertTrue(host.requestMillis() > 0);
+            assertEquals(0, host.probeFailures());
+            assertEquals(List.of("HEAD", "HEAD"), List.copyOf(stub.methods));
+
+            scheduler.submit(new PendingWebhook("server.enable", stub.webhook(), "up", null, System.nanoTime()));
+            assertTrue(delivered.await(10, TimeUnit.SECONDS));
+            assertEquals(List.of("HEAD", "HEAD", "POST HTTP/1.1"), List.copyOf(stub.methods));
+            scheduler.shutdown();
+        }
+    }
+
+    @Test
+    void warmUp_https_usesNegotiatedVersion() throws Exception {
+        Path dir = Files.createTempDirectory("atw-tls");
+        try {
+            SSLContext tls = selfSigned(dir);
+            try (Stub stub = new Stub(tls)) {
+                HttpClient client = HttpClient.newBuilder().sslContext(tls).build();
+                DeliveryScheduler scheduler = scheduler(client, new CountDownLatch(1));
+                scheduler.prepare(List.of(stub.webhook()), WARM);
+
+                awaitTrue(() -> host(scheduler).probes() == 2);
+                ConnectionWarmer.HostStats host = host(scheduler);
+                assertTrue(host.host().startsWith("https://localhost:"), host.host());
+                // The JDK server speaks HTTP/1.1 only, so ALPN settles on it.
+                assertEquals("HTTP/1.1", host.version());
+                assertEquals(0, host.probeFailures());
+                assertTrue(host.connectMillis() >= 0);
+                scheduler.shutdown();
+            }
+        } finally {
+            try (var files = Files.list(dir)) {
+                for (Path file : files.toList()) {
+                    Files.deleteIfExists(file);
+                }
+            }
+            Files.deleteIfExists(dir);
+        }
+    }
+
+    @Test
+    void idleHost_probedAgain() throws Exception {
+        try (Stub stub = new Stub(null)) {
+            DeliveryScheduler scheduler = scheduler(HttpClient.newHttpClient(), new CountDownLatch(1));
+            scheduler.prepare(List.of(stub.webhook()), new ConnectionWarmer.Settings(true, 200, "auto"));
+
+            awaitTrue(() -> host(scheduler).probes() >= 3);
+            scheduler.shutdown();
+        }
+    }
+
+    @Test
+    void warmUpDisabled_sendsNothingAndForcedVersionApplies() throws Exception {
+        try (Stub stub = new Stub(null)) {
+            CountDownLatch delivered = new CountDownLatch(1);
+            DeliveryScheduler scheduler = scheduler(HttpClient.newHttpClient(), delivered);
+            scheduler.prepare(List.of(stub.webhook()), new ConnectionWarmer.Settings(false, 0, "http1.1"));
+
+            Thread.sleep(200);
+            assertTrue(stub.methods.isEmpty());
+            assertEquals("HTTP/1.1", host(scheduler).version());
+            scheduler.submit(new PendingWebhook("server.enable", stub.webhook(), "up", null, System.nanoTime()));
+            assertTrue(delivered.await(10, TimeUnit.SECONDS));
+            assertEquals(List.of("POST HTTP/1.1"), List.copyOf(stub.methods));
+            scheduler.shutdown();
+        }
+    }
+
+    private static DeliveryScheduler scheduler(HttpClient client, CountDownLatch delivered) {
+        return new DeliveryScheduler(client, new DeliveryScheduler.Listener() {
+            @Override
+            public void delivered(PendingWebhook message, int status, long rttNanos) {
+                delivered.countDown();
+            }
+
+            @Override
+            public void failed(PendingWebhook message, int status, Throwable error) {
+            }
+        }, () -> RetryPolicy.NONE, () -> CircuitBreaker.Settings.DISABLED,
+                () -> ConcurrencyLimit.Settings.FIXED, WorkerThreads.platform(), 100);
+    }
+
+    private static ConnectionWarmer.HostStats host(DeliveryScheduler scheduler) {
+        List<ConnectionWarmer.HostStats> hosts = scheduler.getHostStats();
+        assertEquals(1, hosts.size());
+        return hosts.get(0);
+    }
+
+    private static void awaitTrue(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (!condition.getAsBoolean()) {
+            assertTrue(System.nanoTime() < deadline, "condition not met in time");
+            Thread.sleep(20);
+        }
+    }
+
+    private static SSLContext selfSigned(Path dir) throws Exception {
+        Path keystore = dir.resolve("stub.p12");
+        char[] password = "changeit".toCharArray();
+        Process keytool = new ProcessBuilder(
+                Path.of(System.getProperty("java.home"), "bin", "keytool").toString(),
+                "-genkeypair", "-alias", "stub", "-keyalg", "RSA", "-keysize", "2048", "-validity", "2",
+                "-dname", "CN=localhost", "-ext", "SAN=dns:localhost,ip:127.0.0.1",
+                "-storetype", "PKCS12", "-keystore", keystore.toString(),
+                "-storepass", "changeit", "-keypass", "changeit")
+                .redirectErrorStream(true)
+                .start();
+        keytool.getInputStream().readAllBytes();
+        assertEquals(0, keytool.waitFor());
+        KeyStore store = KeyStore.getInstance("PKCS12");
+        try (InputStream in = Files.newInputStream(keystore)) {
+            store.load(in, password);
+        }
+        KeyManagerFactory keys = KeyManagerFactory.getInstance(KeyManagerFactory.getDefaultAlgorithm());
+        keys.init(store, password);
+        TrustManagerFactory trust = TrustManagerFactory.getInstance(TrustManagerFactory.getDefaultAlgorithm());
+        trust.init(store);
+        SSLContext context = SSLContext.getInstance("TLS");
+        context.init(keys.getKeyManagers(), trust.getTrustManagers(), null);
+        return context;
+    }
+
+    /** Answers every request with 204 and records "HEAD", or "POST <protocol>" for sends. */
+    private static final class Stub implements AutoCloseable {
+        private final HttpServer server;
+        private final ExecutorService executor = Executors.newCachedThreadPool();
+        private final Queue<String> methods = new ConcurrentLinkedQueue<>();
+        private final String url;
+
+        Stub(SSLContext tls) throws IOException {
+            if (tls == null) {
+                server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+            } else {
+                HttpsServer https = HttpsServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+                https.setHttpsConfigurator(new HttpsConfigurator(tls));
+                server = https;
+            }
+            server.createContext("/", this::handle);
+            server.setExecutor(executor);
+            server.start();
+            String host = tls == null ? "http://127.0.0.1:" : "https://localhost:";
+            url = host + server.getAddress().getPort() + "/api/webhooks/1/token";
+        }
+
+        WebhookDefinition webhook() {
+            return new WebhookDefinition(url, 5000);
+        }
+
+        private void handle(HttpExchange exchange) throws IOException {
+            try (InputStream in = exchange.getRequestBody()) {
+                in.readAllBytes();
+            }
+            String method = exchange.getRequestMethod();
+            methods.add("HEAD".equals(method) ? method : method + " " + exchange.getProtocol());
+            exchange.sendResponseHeaders(204, -1);
+            exchange.close();
+        }
+
+        @Override
+        public void close() {
+            server.stop(0);
+            executor.shutdownNow();
+        }
+    }
+}
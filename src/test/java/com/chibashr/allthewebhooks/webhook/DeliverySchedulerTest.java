@@ -0,0 +1,341 @@
+package com.chibashr.allthewebhooks.webhook;
+
+import com.chibashr.allthewebhooks.config.WebhookDefinition;
+import com.chibashr.allthewebhooks.util.WorkerThreads;
+import org.junit.jupiter.api.Test;
+
+import java.net.http.HttpClient;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests {@link DeliveryScheduler} against {@link DiscordStub}, a local server with Discord's
+ * bucket semantics.
+ */
+class DeliverySchedulerTest {
+
+    @Test
+    void burst_isPacedByBucketWithout429() throws Exception {
+        try (DiscordStub stub = new DiscordStub(5, 300)) {
+            int messages = 20;
+            CountDownLatch delivered = new CountDownLatch(messages);
+            AtomicInteger failures = new AtomicInteger();
+            DeliveryScheduler scheduler = scheduler(delivered, failures);
+
+            long start = System.nanoTime();
+            for (int i = 0; i < messages; i++) {
+                assertTrue(scheduler.submit(message(stub, "join " + i)));
+            }
+            assertTrue(delivered.await(10, TimeUnit.SECONDS));
+            long elapsedMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+            assertEquals(0, stub.tooManyRequests());
+            assertEquals(0, failures.get());
+            assertEquals(messages, stub.accepted().size());
+            // 20 messages at 5 per 300 ms window need at least three window resets.
+            assertTrue(elapsedMs >= 600, "elapsed " + elapsedMs + " ms");
+            assertEquals(0, scheduler.getBacklog());
+            scheduler.shutdown();
+        }
+    }
+
+    @Test
+    void tooManyRequests_requeuedUntilRetryAfter() throws Exception {
+        try (DiscordStub stub = new DiscordStub(10, 400)) {
+            stub.force(429);
+            CountDownLatch delivered = new CountDownLatch(1);
+            AtomicInteger failures = new AtomicInteger();
+            DeliveryScheduler scheduler = scheduler(delivered, failures);
+
+            long start = System.nanoTime();
+            scheduler.submit(message(stub, "server.enable"));
+            assertTrue(delivered.await(10, TimeUnit.SECONDS));
+            long elapsedMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+            assertEquals(1, stub.tooManyRequests());
+            assertEquals(1, scheduler.getRateLimitedResponses());
+            assertEquals(0, failures.get());
+            assertEquals(1, stub.accepted().size());
+            assertTrue(elapsedMs >= 300, "elapsed " + elapsedMs + " ms");
+            scheduler.shutdown();
+        }
+    }
+
+    @Test
+    void serverError_reportedAsFailure() throws Exception {
+        try (DiscordStub stub = new DiscordStub(10, 1000)) {
+            stub.force(500);
+            CountDownLatch failed = new CountDownLatch(1);
+            DeliveryScheduler scheduler = new DeliveryScheduler(HttpClient.newHttpClient(), new DeliveryScheduler.Listener() {
+                @Override
+                public void delivered(PendingWebhook message, int status, long rttNanos) {
+                }
+
+                @Override
+                public void failed(PendingWebhook message, int status, Throwable error) {
+                    assertEquals(500, status);
+                    failed.countDown();
+                }
+            }, () -> RetryPolicy.NONE, 100);
+            scheduler.submit(message(stub, "x"));
+            assertTrue(failed.await(10, TimeUnit.SECONDS));
+            scheduler.shutdown();
+        }
+    }
+
+    @Test
+    void transientErrors_retriedThenDelivered() throws Exception {
+        try (DiscordStub stub = new DiscordStub(10, 1000)) {
+            stub.force(500, 503);
+            CountDownLatch delivered = new CountDownLatch(1);
+            AtomicInteger deliveredAttempt = new AtomicInteger();
+            AtomicInteger retries = new AtomicInteger();
+            AtomicInteger failures = new AtomicInteger();
+            DeliveryScheduler scheduler = new DeliveryScheduler(HttpClient.newHttpClient(), new DeliveryScheduler.Listener() {
+                @Override
+                public void delivered(PendingWebhook message, int status, long rttNanos) {
+                    deliveredAttempt.set(message.attempt());
+                    delivered.countDown();
+                }
+
+                @Override
+                public void failed(PendingWebhook message, int status, Throwable error) {
+                    failures.incrementAndGet();
+                }
+
+                @Override
+                public void retrying(PendingWebhook message, int status, Throwable error, long delayNanos) {
+                    retries.incrementAndGet();
+                }
+            }, () -> new RetryPolicy(5, 10, 50, 10_000), 100);
+
+            scheduler.submit(message(stub, "x"));
+            assertTrue(delivered.await(10, TimeUnit.SECONDS));
+            assertEquals(3, deliveredAttempt.get());
+            assertEquals(2, retries.get());
+            assertEquals(0, failures.get());
+            assertEquals(0, scheduler.getRetryBacklog());
+            scheduler.shutdown();
+        }
+    }
+
+    @Test
+    void attemptsExhausted_finalFailure() throws Exception {
+        try (DiscordStub stub = new DiscordStub(10, 1000)) {
+            stub.force(500, 500, 500);
+            CountDownLatch failed = new CountDownLatch(1);
+            AtomicInteger failedAttempt = new AtomicInteger();
+            DeliveryScheduler scheduler = new DeliveryScheduler(HttpClient.newHttpClient(), new DeliveryScheduler.Listener() {
+                @Override
+                public void delivered(PendingWebhook message, int status, long rttNanos) {
+                }
+
+                @Override
+                public void failed(PendingWebhook message, int status, Throwable error) {
+                    failedAttempt.set(message.attempt());
+                    failed.countDown();
+                }
+            }, () -> new RetryPolicy(2, 1, 5, 10_000), 100);
+
+            scheduler.submit(message(stub, "x"));
+            assertTrue(failed.await(10, TimeUnit.SECONDS));
+            assertEquals(2, failedAttempt.get());
+            assertEquals(2, stub.requests());
+            scheduler.shutdown();
+        }
+    }
+
+    @Test
+    void awaitIdle_waitsForPacedSendsToFinish() throws Exception {
+        try (DiscordStub stub = new DiscordStub(3, 200)) {
+            stub.setLatencyMillis(20);
+            CountDownLatch delivered = new CountDownLatch(8);
+            AtomicInteger failures = new AtomicInteger();
+            DeliveryScheduler scheduler = scheduler(delivered, failures);
+            for (int i = 0; i < 8; i++) {
+                scheduler.submit(message(stub, "stop " + i));
+            }
+            assertTrue(scheduler.getOutstanding() > 0);
+
+            assertTrue(scheduler.awaitIdle(System.nanoTime() + TimeUnit.SECONDS.toNanos(5)));
+            assertEquals(0, scheduler.getOutstanding());
+            assertEquals(8, stub.accepted().size());
+            assertEquals(0, stub.tooManyRequests());
+            scheduler.shutdown();
+        }
+    }
+
+    @Test
+    void awaitIdle_reportsOutstandingAtDeadline() throws Exception {
+        try (DiscordStub stub = new DiscordStub(1, 5000)) {
+            CountDownLatch delivered = new CountDownLatch(1);
+            AtomicInteger failures = new AtomicInteger();
+            DeliveryScheduler scheduler = scheduler(delivered, failures);
+            for (int i = 0; i < 4; i++) {
+                scheduler.submit(message(stub, "stop " + i));
+            }
+
+            long start = System.nanoTime();
+            assertFalse(scheduler.awaitIdle(start + TimeUnit.MILLISECONDS.toNanos(300)));
+            assertTrue(System.nanoTime() - start < TimeUnit.SECONDS.toNanos(2));
+            assertEquals(3, scheduler.getOutstanding());
+            assertEquals(1, stub.accepted().size());
+            scheduler.shutdown();
+        }
+    }
+
+    @Test
+    void awaitIdle_countsRetryBeingScheduled() throws Exception {
+        try (DiscordStub stub = new DiscordStub(10, 1000)) {
+            stub.force(500);
+            AtomicInteger failures = new AtomicInteger();
+            DeliveryScheduler scheduler = new DeliveryScheduler(HttpClient.newHttpClient(), new DeliveryScheduler.Listener() {
+                @Override
+                public void delivered(PendingWebhook message, int status, long rttNanos) {
+                }
+
+                @Override
+                public void failed(PendingWebhook message, int status, Throwable error) {
+                    failures.incrementAndGet();
+                }
+            }, () -> new RetryPolicy(3, 100, 100, 10_000), 100);
+
+            scheduler.submit(message(stub, "x"));
+            assertTrue(scheduler.awaitIdle(System.nanoTime() + TimeUnit.SECONDS.toNanos(5)));
+            assertEquals(1, stub.accepted().size());
+            assertEquals(2, stub.requests());
+            assertEquals(0, failures.get());
+            scheduler.shutdown();
+        }
+    }
+
+    @Test
+    void tooManyRequests_failsOncePastDeadline() throws Exception {
+        try (DiscordStub stub = new DiscordStub(10, 100)) {
+            int[] forced = new int[100];
+            Arrays.fill(forced, 429);
+            stub.force(forced);
+            CountDownLatch failed = new CountDownLatch(1);
+            AtomicInteger failedStatus = new AtomicInteger();
+            DeliveryScheduler scheduler = new DeliveryScheduler(HttpClient.newHttpClient(), new DeliveryScheduler.Listener() {
+                @Override
+                public void delivered(PendingWebhook message, int status, long rttNanos) {
+                }
+
+                @Override
+                public void failed(PendingWebhook message, int status, Throwable error) {
+                    failedStatus.set(status);
+                    failed.countDown();
+                }
+            }, () -> new RetryPolicy(5, 10, 50, 400), 100);
+
+            scheduler.submit(message(stub, "x"));
+            assertTrue(failed.await(5, TimeUnit.SECONDS));
+            assertEquals(429, failedStatus.get());
+            assertTrue(stub.tooManyRequests() < 100, "429s " + stub.tooManyRequests());
+            assertEquals(0, scheduler.getOutstanding());
+            scheduler.shutdown();
+        }
+    }
+
+    @Test
+    void slowWebhook_doesNotDelayOthers() throws Exception {
+        try (DiscordStub slow = new DiscordStub(50, 1000); DiscordStub fast = new DiscordStub(50, 1000)) {
+            slow.setLatencyMillis(1500);
+            WebhookDefinition slowHook = new WebhookDefinition(slow.url(), 5000, null, "moderation", 2, 1, true);
+            WebhookDefinition fastHook = new WebhookDefinition(fast.url(), 5000, null, "default", 0, 4, false);
+            CountDownLatch fastDelivered = new CountDownLatch(5);
+            DeliveryScheduler scheduler = new DeliveryScheduler(HttpClient.newHttpClient(), new DeliveryScheduler.Listener() {
+                @Override
+                public void delivered(PendingWebhook message, int status, long rttNanos) {
+                    if (message.webhook() == fastHook) {
+                        fastDelivered.countDown();
+                    }
+                }
+
+                @Override
+                public void failed(PendingWebhook message, int status, Throwable error) {
+                }
+            }, () -> RetryPolicy.NONE, 100);
+
+            // One request in flight plus two queued fill the slow webhook's bulkhead.
+            for (int i = 0; i < 3; i++) {
+                assertTrue(scheduler.submit(new PendingWebhook("punish", slowHook, "slow " + i, null, System.nanoTime())));
+            }
+            assertFalse(scheduler.submit(new PendingWebhook("punish", slowHook, "overflow", null, System.nanoTime())));
+
+            long start = System.nanoTime();
+            for (int i = 0; i < 5; i++) {
+                assertTrue(scheduler.submit(new PendingWebhook("player.join", fastHook, "fast " + i, null, System.nanoTime())));
+            }
+            assertTrue(fastDelivered.await(1, TimeUnit.SECONDS));
+            assertTrue(System.nanoTime() - start < TimeUnit.MILLISECONDS.toNanos(1000));
+
+            List<DeliveryScheduler.RouteStats> stats = scheduler.getRouteStats();
+            assertEquals("default", stats.get(0).webhook());
+            assertEquals(5L, stats.get(0).completed());
+            assertEquals("moderation", stats.get(1).webhook());
+            assertEquals(1, stats.get(1).inFlight());
+            assertEquals(2, stats.get(1).waiting());
+            assertTrue(fast.maxConcurrent() <= 4);
+            scheduler.shutdown();
+        }
+    }
+
+    @Test
+    void virtualThreads_retryAndDeliverOnVirtualWorkers() throws Exception {
+        try (DiscordStub stub = new DiscordStub(10, 1000); WorkerThreads workers = WorkerThreads.virtual()) {
+            stub.force(503);
+            CountDownLatch delivered = new CountDownLatch(1);
+            AtomicBoolean deliveredOnVirtual = new AtomicBoolean();
+            AtomicInteger retries = new AtomicInteger();
+            DeliveryScheduler scheduler = new DeliveryScheduler(workers.newHttpClient(), new DeliveryScheduler.Listener() {
+                @Override
+                public void delivered(PendingWebhook message, int status, long rttNanos) {
+                    deliveredOnVirtual.set(Thread.currentThread().isVirtual());
+                    delivered.countDown();
+                }
+
+                @Override
+                public void failed(PendingWebhook message, int status, Throwable error) {
+                }
+
+                @Override
+                public void retrying(PendingWebhook message, int status, Throwable error, long delayNanos) {
+                    retries.incrementAndGet();
+                }
+            }, () -> new RetryPolicy(3, 10, 50, 10_000), () -> CircuitBreaker.Settings.DISABLED,
+                    () -> ConcurrencyLimit.Settings.FIXED, workers, 100);
+
+            scheduler.submit(message(stub, "x"));
+            assertTrue(delivered.await(10, TimeUnit.SECONDS));
+            assertEquals(1, retries.get());
+            assertTrue(deliveredOnVirtual.get());
+            scheduler.shutdown();
+        }
+    }
+
+    private static DeliveryScheduler scheduler(CountDownLatch delivered, AtomicInteger failures) {
+        return new DeliveryScheduler(HttpClient.newHttpClient(), new DeliveryScheduler.Listener() {
+            @Override
+            public void delivered(PendingWebhook message, int status, long rttNanos) {
+                delivered.countDown();
+            }
+
+            @Override
+            public void failed(PendingWebhook message, int status, Throwable error) {
+                failures.incrementAndGet();
+            }
+        }, () -> RetryPolicy.NONE, 1000);
+    }
+
+    private static PendingWebhook message(DiscordStub stub, String content) {
+        return new PendingWebhook("player.join", new WebhookDefinition(stub.url(), 5000), content, null, System.nanoTime());
+    }
+}
@@ -0,0 +1,146 @@
+package com.chibashr.allthewebhooks.webhook;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Locale;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Local HTTP server that emulates a Discord webhook's rate-limit bucket: {@code limit} requests
+ * per fixed window, rate-limit headers on every response, and a 429 with {@code Retry-After}
+ * once the window is used up. Tests can queue forced status codes and add per-request latency.
+ */
+final class DiscordStub implements AutoCloseable {
+    private final HttpServer server;
+    private final ExecutorService executor = Executors.newCachedThreadPool();
+    private final int limit;
+    private final long windowMillis;
+    private final List<String> accepted = new CopyOnWriteArrayList<>();
+    private final Queue<Integer> forcedStatuses = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger requests = new AtomicInteger();
+    private final AtomicInteger tooManyRequests = new AtomicInteger();
+    private final AtomicInteger concurrent = new AtomicInteger();
+    private final AtomicInteger maxConcurrent = new AtomicInteger();
+    private volatile long latencyMillis;
+    private volatile boolean rateLimitHeaders = true;
+    private long windowStart;
+    private int used;
+
+    DiscordStub(int limit, long windowMillis) throws IOException {
+        this.limit = limit;
+        this.windowMillis = windowMillis;
+        this.server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/", this::handle);
+        server.setExecutor(executor);
+        server.start();
+    }
+
+    String url() {
+        return "http://127.0.0.1:" + server.getAddress().getPort() + "/api/webhooks/1/token";
+    }
+
+    /** Status codes returned (in order) instead of normal handling; a forced 429 carries Retry-After. */
+    void force(int... statuses) {
+        for (int status : statuses) {
+            forcedStatuses.add(status);
+        }
+    }
+
+    void setLatencyMillis(long latencyMillis) {
+        this.latencyMillis = latencyMillis;
+    }
+
+    /** With false, responses carry no {@code X-RateLimit-*} headers, like a local relay. */
+    void setRateLimitHeaders(boolean rateLimitHeaders) {
+        this.rateLimitHeaders = rateLimitHeaders;
+    }
+
+    List<String> accepted() {
+        return accepted;
+    }
+
+    int requests() {
+        return requests.get();
+    }
+
+    int tooManyRequests() {
+        return tooManyRequests.get();
+    }
+
+    int maxConcurrent() {
+        return maxConcurrent.get();
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        int inFlight = concurrent.incrementAndGet();
+        maxConcurrent.accumulateAndGet(inFlight, Math::max);
+        try {
+            requests.incrementAndGet();
+            String body;
+            try (InputStream in = exchange.getRequestBody()) {
+                body = new String(in.readAllBytes(), StandardCharsets.UTF_8);
+            }
+            if (latencyMillis > 0) {
+                Thread.sleep(latencyMillis);
+            }
+            Integer forced = forcedStatuses.poll();
+            int status;
+            long resetAfterMillis;
+            int remaining;
+            synchronized (this) {
+                long now = System.currentTimeMillis();
+                if (now - windowStart >= windowMillis) {
+                    windowStart = now;
+                    used = 0;
+                }
+                resetAfterMillis = windowMillis - (now - windowStart);
+                if (forced != null) {
+                    status = forced;
+                } else if (used >= limit) {
+                    status = 429;
+                } else {
+                    used++;
+                    status = 204;
+                }
+                remaining = Math.max(0, limit - used);
+            }
+            String resetAfter = String.format(Locale.ROOT, "%.3f", resetAfterMillis / 1000.0);
+            if (rateLimitHeaders) {
+                exchange.getResponseHeaders().add("X-RateLimit-Limit", String.valueOf(limit));
+                exchange.getResponseHeaders().add("X-RateLimit-Remaining", String.valueOf(remaining));
+                exchange.getResponseHeaders().add("X-RateLimit-Reset-After", resetAfter);
+                exchange.getResponseHeaders().add("X-RateLimit-Bucket", "stub-bucket");
+            }
+            if (status == 429) {
+                tooManyRequests.incrementAndGet();
+                exchange.getResponseHeaders().add("Retry-After", resetAfter);
+            } else if (status == 204) {
+                accepted.add(body);
+            }
+            exchange.sendResponseHeaders(status, -1);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            exchange.sendResponseHeaders(500, -1);
+        } finally {
+            concurrent.decrementAndGet();
+            exchange.close();
+        }
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+}
@@ -0,0 +1,209 @@
+package com.chibashr.allthewebhooks.webhook;
+
+import com.chibashr.allthewebhooks.config.WebhookDefinition;
+import com.chibashr.allthewebhooks.stats.StatsTracker;
+import com.chibashr.allthewebhooks.util.WarningTracker;
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.logging.Logger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for {@link DispatchRing} and {@link DispatchQueue} overflow policies.
+ */
+class DispatchQueueTest {
+
+    private static final WebhookDefinition WEBHOOK = new WebhookDefinition("http://localhost/hook", 1000);
+
+    private final StatsTracker stats = new StatsTracker();
+    private final WarningTracker warnings = new WarningTracker(Logger.getLogger("DispatchQueueTest"));
+
+    @Test
+    void ring_roundsCapacityAndIsFifo() {
+        DispatchRing<Integer> ring = new DispatchRing<>(3);
+        assertEquals(4, ring.capacity());
+        for (int i = 0; i < 4; i++) {
+            assertTrue(ring.offer(i));
+        }
+        assertFalse(ring.offer(4));
+        assertEquals(4, ring.getHighWaterMark());
+        assertEquals(Integer.valueOf(0), ring.peek());
+        for (int i = 0; i < 4; i++) {
+            assertEquals(Integer.valueOf(i), ring.poll());
+        }
+        assertNull(ring.poll());
+        assertTrue(ring.isEmpty());
+    }
+
+    @Test
+    void ring_concurrentProducersLoseNothing() throws Exception {
+        DispatchRing<Integer> ring = new DispatchRing<>(64);
+        int producers = 4;
+        int perProducer = 10_000;
+        List<Thread> threads = new ArrayList<>();
+        for (int p = 0; p < producers; p++) {
+            int base = p * perProducer;
+            Thread thread = new Thread(() -> {
+                for (int i = 0; i < perProducer; i++) {
+                    while (!ring.offer(base + i)) {
+                        Thread.onSpinWait();
+                    }
+                }
+            });
+            threads.add(thread);
+            thread.start();
+        }
+        Set<Integer> seen = new HashSet<>();
+        while (seen.size() < producers * perProducer) {
+            Integer value = ring.poll();
+            if (value != null) {
+                assertTrue(seen.add(value));
+            }
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        assertNull(ring.poll());
+    }
+
+    @Test
+    void queuedMessages_sentByDrainer() throws Exception {
+        CountDownLatch sent = new CountDownLatch(2);
+        List<String> keys = new CopyOnWriteArrayList<>();
+        DispatchQueue queue = queue(4, message -> {
+            keys.add(message.eventKey());
+            sent.countDown();
+        });
+        queue.enqueue(message("a"), DispatchQueue.OverflowPolicy.DROP_NEWEST, 0);
+        queue.enqueue(message("b"), DispatchQueue.OverflowPolicy.DROP_NEWEST, 0);
+        assertTrue(sent.await(5, TimeUnit.SECONDS));
+        assertEquals(List.of("a", "b"), keys);
+        queue.shutdown(1, TimeUnit.SECONDS);
+    }
+
+    @Test
+    void dropNewest_and_dropOldest() throws Exception {
+        List<String> keys = new CopyOnWriteArrayList<>();
+        CountDownLatch release = new CountDownLatch(1);
+        DispatchQueue queue = blockedQueue(keys, release);
+
+        queue.enqueue(message("first"), DispatchQueue.OverflowPolicy.DROP_NEWEST, 0);
+        awaitDepth(queue, 0);
+        queue.enqueue(message("a"), DispatchQueue.OverflowPolicy.DROP_NEWEST, 0);
+        queue.enqueue(message("b"), DispatchQueue.OverflowPolicy.DROP_NEWEST, 0);
+        queue.enqueue(message("c"), DispatchQueue.OverflowPolicy.DROP_NEWEST, 0);
+        assertEquals(1, queue.getOverflowDropped());
+        queue.enqueue(message("d"), DispatchQueue.OverflowPolicy.DROP_OLDEST, 0);
+        assertEquals(2, queue.getOverflowDropped());
+        assertEquals(2, stats.getDropped());
+
+        release.countDown();
+        queue.shutdown(2, TimeUnit.SECONDS);
+        assertEquals(List.of("first", "b", "d"), keys);
+    }
+
+    @Test
+    void block_waitsForSpaceUntilTimeout() throws Exception {
+        List<String> keys = new CopyOnWriteArrayList<>();
+        CountDownLatch release = new CountDownLatch(1);
+        DispatchQueue queue = blockedQueue(keys, release);
+        queue.enqueue(message("first"), DispatchQueue.OverflowPolicy.DROP_NEWEST, 0);
+        awaitDepth(queue, 0);
+        queue.enqueue(message("a"), DispatchQueue.OverflowPolicy.DROP_NEWEST, 0);
+        queue.enqueue(message("b"), DispatchQueue.OverflowPolicy.DROP_NEWEST, 0);
+
+        long start = System.nanoTime();
+        queue.enqueue(message("timeout"), DispatchQueue.OverflowPolicy.BLOCK, 50);
+        assertTrue(System.nanoTime() - start >= TimeUnit.MILLISECONDS.toNanos(40));
+        assertEquals(1, queue.getOverflowDropped());
+
+        release.countDown();
+        queue.enqueue(message("waited"), DispatchQueue.OverflowPolicy.BLOCK, 5000);
+        queue.shutdown(2, TimeUnit.SECONDS);
+        assertTrue(keys.contains("waited"));
+        assertFalse(keys.contains("timeout"));
+    }
+
+    @Test
+    void spill_sendsAfterRingAndReplaysOnRestart() throws Exception {
+        File spillFile = new File(Files.createTempDirectory("atw-spill").toFile(), "cache/dispatch-spill.bin");
+        CountDownLatch release = new CountDownLatch(1);
+        List<String> keys = new CopyOnWriteArrayList<>();
+        DispatchQueue queue = new DispatchQueue(2, spillFile, message -> {
+            keys.add(message.eventKey());
+            awaitQuietly(release);
+        }, message -> { }, stats, warnings, () -> false);
+        queue.enqueue(message("first"), DispatchQueue.OverflowPolicy.SPILL, 0);
+        awaitDepth(queue, 0);
+        queue.enqueue(message("a"), DispatchQueue.OverflowPolicy.SPILL, 0);
+        queue.enqueue(message("b"), DispatchQueue.OverflowPolicy.SPILL, 0);
+        queue.enqueue(message("spilled"), DispatchQueue.OverflowPolicy.SPILL, 0);
+        assertEquals(1, queue.getSpilled());
+        assertEquals(1, queue.getSpillPending());
+        assertTrue(spillFile.isFile());
+
+        // Simulate a restart before the spill is drained: the new queue replays it.
+        DispatchQueue restarted = new DispatchQueue(2, spillFile, message -> keys.add("replayed:" + message.eventKey()),
+                message -> { }, stats, warnings, () -> false);
+        long deadline = System.currentTimeMillis() + 5000;
+        while (!keys.contains("replayed:spilled") && System.currentTimeMillis() < deadline) {
+            Thread.sleep(5);
+        }
+        assertTrue(keys.contains("replayed:spilled"));
+        restarted.shutdown(1, TimeUnit.SECONDS);
+        release.countDown();
+        queue.shutdown(1, TimeUnit.SECONDS);
+    }
+
+    @Test
+    void overflowPolicy_fromConfig() {
+        assertEquals(DispatchQueue.OverflowPolicy.DROP_OLDEST, DispatchQueue.OverflowPolicy.fromConfig("drop-oldest"));
+        assertEquals(DispatchQueue.OverflowPolicy.SPILL, DispatchQueue.OverflowPolicy.fromConfig(" Spill "));
+        assertEquals(DispatchQueue.OverflowPolicy.DROP_NEWEST, DispatchQueue.OverflowPolicy.fromConfig("bogus"));
+        assertEquals(DispatchQueue.OverflowPolicy.DROP_NEWEST, DispatchQueue.OverflowPolicy.fromConfig(null));
+    }
+
+    /** Capacity-2 queue whose sender holds the drainer on the first message until released. */
+    private DispatchQueue blockedQueue(List<String> keys, CountDownLatch release) throws Exception {
+        return queue(2, message -> {
+            keys.add(message.eventKey());
+            awaitQuietly(release);
+        });
+    }
+
+    private DispatchQueue queue(int capacity, Consumer<PendingWebhook> sender) throws Exception {
+        File spillFile = new File(Files.createTempDirectory("atw-queue").toFile(), "spill.bin");
+        return new DispatchQueue(capacity, spillFile, sender, message -> { }, stats, warnings, () -> false);
+    }
+
+    private static PendingWebhook message(String key) {
+        return new PendingWebhook(key, WEBHOOK, "content", null, System.nanoTime());
+    }
+
+    private static void awaitDepth(DispatchQueue queue, int depth) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (queue.getDepth() != depth && System.currentTimeMillis() < deadline) {
+            Thread.sleep(1);
+        }
+        assertEquals(depth, queue.getDepth());
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,123 @@
+package com.chibashr.allthewebhooks.webhook;
+
+import com.chibashr.allthewebhooks.config.WebhookDefinition;
+import com.chibashr.allthewebhooks.util.WarningTracker;
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.logging.Logger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for {@link DurableSpool}: replay, acknowledgement, recycling, corruption and the disk budget.
+ */
+class DurableSpoolTest {
+
+    private static final int SEGMENT = 64 * 1024;
+    private static final WebhookDefinition WEBHOOK = new WebhookDefinition("http://localhost/hook", 1000, "Server");
+
+    private final WarningTracker warnings = new WarningTracker(Logger.getLogger("DurableSpoolTest"));
+
+    @Test
+    void pendingMessages_replayedAfterReopen() throws Exception {
+        File dir = Files.createTempDirectory("atw-spool").toFile();
+        DurableSpool spool = new DurableSpool(dir, SEGMENT, 1024 * 1024, 10, warnings);
+        PendingWebhook first = spool.append(message("player.join", "joined"));
+        PendingWebhook second = spool.append(message("player.quit", "left é"));
+        PendingWebhook third = spool.append(message("player.chat", "hi"));
+        assertNotEquals(DurableSpool.NO_REF, first.spoolRef());
+        spool.ack(second);
+        spool.ack(second);
+        assertEquals(2, spool.getPendingRecords());
+        spool.close();
+
+        DurableSpool reopened = new DurableSpool(dir, SEGMENT, 1024 * 1024, 10, warnings);
+        List<PendingWebhook> recovered = reopened.takeRecovered();
+        assertEquals(2, recovered.size());
+        assertEquals("player.join", recovered.get(0).eventKey());
+        assertEquals("joined", recovered.get(0).content());
+        assertEquals("player.chat", recovered.get(1).eventKey());
+        assertEquals(WEBHOOK, recovered.get(1).webhook());
+        assertEquals("bot", recovered.get(1).username());
+        assertTrue(reopened.isFromPreviousRun(third));
+        assertTrue(reopened.takeRecovered().isEmpty());
+
+        PendingWebhook fresh = reopened.append(message("player.join", "again"));
+        assertFalse(reopened.isFromPreviousRun(fresh));
+        reopened.close();
+    }
+
+    @Test
+    void acknowledgedSegments_recycled() throws Exception {
+        File dir = Files.createTempDirectory("atw-spool").toFile();
+        DurableSpool spool = new DurableSpool(dir, SEGMENT, 16L * SEGMENT, 10, warnings);
+        List<PendingWebhook> written = new ArrayList<>();
+        for (int i = 0; i < 40; i++) {
+            written.add(spool.append(message("player.join", "x".repeat(8000))));
+        }
+        assertTrue(spool.getSegmentCount() > 3);
+        for (PendingWebhook message : written) {
+            spool.ack(message);
+        }
+        assertEquals(0, spool.getPendingRecords());
+        assertTrue(spool.getSegmentCount() <= 3, "segments " + spool.getSegmentCount());
+        spool.close();
+
+        DurableSpool reopened = new DurableSpool(dir, SEGMENT, 16L * SEGMENT, 10, warnings);
+        assertTrue(reopened.takeRecovered().isEmpty());
+        reopened.close();
+    }
+
+    @Test
+    void corruptRecord_endsReplayOfItsSegment() throws Exception {
+        File dir = Files.createTempDirectory("atw-spool").toFile();
+        DurableSpool spool = new DurableSpool(dir, SEGMENT, 1024 * 1024, 10, warnings);
+        spool.append(message("player.join", "one"));
+        spool.append(message("player.join", "two"));
+        spool.append(message("player.join", "three"));
+        spool.close();
+
+        try (RandomAccessFile file = new RandomAccessFile(new File(dir, "segment-0.dat"), "rw")) {
+            file.seek(12);
+            int firstLength = file.readInt();
+            long secondBody = 12 + 9 + firstLength + 9;
+            file.seek(secondBody + 2);
+            int value = file.read();
+            file.seek(secondBody + 2);
+            file.write(value ^ 0xFF);
+        }
+
+        DurableSpool reopened = new DurableSpool(dir, SEGMENT, 1024 * 1024, 10, warnings);
+        List<PendingWebhook> recovered = reopened.takeRecovered();
+        assertEquals(1, recovered.size());
+        assertEquals("one", recovered.get(0).content());
+        reopened.close();
+    }
+
+    @Test
+    void diskBudget_evictsOldestSegment() throws Exception {
+        File dir = Files.createTempDirectory("atw-spool").toFile();
+        DurableSpool spool = new DurableSpool(dir, SEGMENT, 2L * SEGMENT, 10, warnings);
+        PendingWebhook oldest = spool.append(message("player.join", "x".repeat(8000)));
+        for (int i = 0; i < 30; i++) {
+            spool.append(message("player.join", "x".repeat(8000)));
+        }
+        assertTrue(spool.getEvicted() > 0);
+        assertTrue(spool.getSegmentCount() <= 2, "segments " + spool.getSegmentCount());
+        assertTrue(spool.getDiskBytes() <= 2L * SEGMENT);
+        // Acknowledging an evicted record is a no-op.
+        int pending = spool.getPendingRecords();
+        spool.ack(oldest);
+        assertEquals(pending, spool.getPendingRecords());
+        spool.close();
+    }
+
+    private static PendingWebhook message(String eventKey, String content) {
+        return new PendingWebhook(eventKey, WEBHOOK, content, "bot", System.nanoTime());
+    }
+}
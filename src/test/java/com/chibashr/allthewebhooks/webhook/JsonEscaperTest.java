@@ -2,7 +2,11 @@ package com.chibashr.allthewebhooks.webhook;
 
 import org.junit.jupiter.api.Test;
 
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
 
 /**
  * Unit tests for {@link JsonEscaper}.
@@ -53,4 +57,45 @@ class JsonEscaperTest {
     void escape_multipleSpecialChars_allEscaped() {
         assertEquals("line1\\nline2\\t\\\"quoted\\\"", JsonEscaper.escape("line1\nline2\t\"quoted\""));
     }
+
+    @Test
+    void escape_controlCharacters_escaped() {
+        assertEquals("\\b\\f\\u0000\\u001f\\u000b", JsonEscaper.escape("\b\f\u0000\u001f\u000b"));
+    }
+
+    @Test
+    void escape_nothingToEscape_returnsInput() {
+        String input = "plain text";
+        assertSame(input, JsonEscaper.escape(input));
+    }
+
+    @Test
+    void escapeUtf8_matchesEscapeThenEncode() {
+        String input = "caf\u00e9 \"\u2603\" \uD83D\uDE00\n\u0001end";
+        assertEquals(JsonEscaper.escape(input), utf8(input));
+    }
+
+    @Test
+    void escapeUtf8_plainAscii_copiedAsIs() {
+        assertEquals("Steve joined the game", utf8("Steve joined the game"));
+    }
+
+    @Test
+    void escapeUtf8_loneSurrogate_replaced() {
+        assertEquals("a?b", utf8("a\uD83Db"));
+    }
+
+    @Test
+    void escapeUtf8_writesAtOffset() {
+        byte[] out = new byte[32];
+        out[0] = 'x';
+        int end = JsonEscaper.escapeUtf8("\"y", out, 1);
+        assertEquals("x\\\"y", new String(out, 0, end, StandardCharsets.UTF_8));
+    }
+
+    private static String utf8(String input) {
+        byte[] out = new byte[input.length() * JsonEscaper.MAX_BYTES_PER_CHAR];
+        int end = JsonEscaper.escapeUtf8(input, out, 0);
+        return new String(Arrays.copyOf(out, end), StandardCharsets.UTF_8);
+    }
 }
@@ -0,0 +1,64 @@
+package com.chibashr.allthewebhooks.webhook;
+
+import com.chibashr.allthewebhooks.config.WebhookDefinition;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.net.http.HttpTimeoutException;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for {@link RetryPolicy} and {@link FailureSummary}.
+ */
+class RetryPolicyTest {
+
+    @Test
+    void backoff_fullJitterWithinCappedExponentialCeiling() {
+        RetryPolicy policy = new RetryPolicy(10, 100, 1000, 60_000);
+        for (int i = 0; i < 200; i++) {
+            assertTrue(policy.backoffNanos(2) <= TimeUnit.MILLISECONDS.toNanos(100));
+            assertTrue(policy.backoffNanos(4) <= TimeUnit.MILLISECONDS.toNanos(400));
+            long capped = policy.backoffNanos(20);
+            assertTrue(capped >= 0 && capped <= TimeUnit.MILLISECONDS.toNanos(1000));
+        }
+    }
+
+    @Test
+    void nextDelay_respectsAttemptsAndDeadline() {
+        RetryPolicy policy = new RetryPolicy(3, 0, 0, 1000);
+        long now = System.nanoTime();
+        PendingWebhook first = new PendingWebhook("k", new WebhookDefinition("http://x", 1000), "c", null, now);
+        assertEquals(0, policy.nextDelayNanos(first, now));
+        assertEquals(0, policy.nextDelayNanos(first.nextAttempt(), now));
+        assertEquals(-1, policy.nextDelayNanos(first.nextAttempt().nextAttempt(), now));
+        assertEquals(-1, policy.nextDelayNanos(first, now + TimeUnit.SECONDS.toNanos(2)));
+        assertEquals(-1, RetryPolicy.NONE.nextDelayNanos(first, now));
+    }
+
+    @Test
+    void retryable_timeoutsIoAnd5xxOnly() {
+        assertTrue(RetryPolicy.isRetryable(-1, new HttpTimeoutException("timed out")));
+        assertTrue(RetryPolicy.isRetryable(-1, new CompletionException(new IOException("reset"))));
+        assertFalse(RetryPolicy.isRetryable(-1, new IllegalArgumentException("bad url")));
+        assertTrue(RetryPolicy.isRetryable(500, null));
+        assertTrue(RetryPolicy.isRetryable(408, null));
+        assertFalse(RetryPolicy.isRetryable(404, null));
+        assertFalse(RetryPolicy.isRetryable(400, null));
+    }
+
+    @Test
+    void failureSummary_groupsByEventAndReason() {
+        FailureSummary summary = new FailureSummary();
+        assertNull(summary.drain(60));
+        summary.failed("player.join", 500, null);
+        summary.failed("player.join", 500, null);
+        summary.failed("player.join", -1, new HttpTimeoutException("t"));
+        summary.retried();
+        String line = summary.drain(60);
+        assertEquals("Webhook failures in the last 60s: 3 final, 1 retried. player.join: 2x status 500, 1x timeout;", line);
+        assertNull(summary.drain(60));
+    }
+}
@@ -0,0 +1,97 @@
+package com.chibashr.allthewebhooks.webhook;
+
+import com.chibashr.allthewebhooks.config.WebhookDefinition;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.net.URI;
+import java.net.http.HttpRequest;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.Flow;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for {@link WebhookRequests}.
+ */
+class WebhookRequestsTest {
+    private static final WebhookDefinition PLAIN = new WebhookDefinition("https://discord.test/api/webhooks/1/a", 5000);
+    private static final WebhookDefinition NAMED = new WebhookDefinition("https://discord.test/api/webhooks/2/b", 2500, "Server \"Bot\"");
+
+    @Test
+    void build_contentOnly() {
+        HttpRequest request = new WebhookRequests().build(message(PLAIN, "Steve joined", null));
+        assertEquals("{\"content\":\"Steve joined\"}", body(request));
+        assertEquals(URI.create(PLAIN.url()), request.uri());
+        assertEquals("POST", request.method());
+        assertEquals(Duration.ofMillis(5000), request.timeout().orElseThrow());
+        assertEquals("application/json", request.headers().firstValue("Content-Type").orElseThrow());
+    }
+
+    @Test
+    void build_defaultUsernameFromCompiledSuffix() {
+        WebhookRequests requests = new WebhookRequests();
+        requests.compile(List.of(NAMED));
+        HttpRequest request = requests.build(message(NAMED, "line1\nline2", ""));
+        assertEquals("{\"content\":\"line1\\nline2\",\"username\":\"Server \\\"Bot\\\"\"}", body(request));
+        assertEquals(Duration.ofMillis(2500), request.timeout().orElseThrow());
+    }
+
+    @Test
+    void build_messageUsernameOverridesDefault() {
+        HttpRequest request = new WebhookRequests().build(message(NAMED, "café ☃", "Alex"));
+        assertEquals("{\"content\":\"café ☃\",\"username\":\"Alex\"}", body(request));
+    }
+
+    @Test
+    void build_reusedBufferDoesNotLeakPreviousBody() {
+        WebhookRequests requests = new WebhookRequests();
+        HttpRequest first = requests.build(message(PLAIN, "a much longer first message", null));
+        HttpRequest second = requests.build(message(PLAIN, "short", null));
+        assertEquals("{\"content\":\"a much longer first message\"}", body(first));
+        assertEquals("{\"content\":\"short\"}", body(second));
+    }
+
+    @Test
+    void build_invalidUrl_throwsOnSend() {
+        WebhookDefinition invalid = new WebhookDefinition("not a url", 5000);
+        WebhookRequests requests = new WebhookRequests();
+        requests.compile(List.of(invalid, PLAIN));
+        assertThrows(IllegalArgumentException.class, () -> requests.build(message(invalid, "x", null)));
+        assertEquals("{\"content\":\"x\"}", body(requests.build(message(PLAIN, "x", null))));
+    }
+
+    private static PendingWebhook message(WebhookDefinition webhook, String content, String username) {
+        return new PendingWebhook("player.join", webhook, content, username, System.nanoTime());
+    }
+
+    private static String body(HttpRequest request) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        request.bodyPublisher().orElseThrow().subscribe(new Flow.Subscriber<>() {
+            @Override
+            public void onSubscribe(Flow.Subscription subscription) {
+                subscription.request(Long.MAX_VALUE);
+            }
+
+            @Override
+            public void onNext(ByteBuffer item) {
+                byte[] bytes = new byte[item.remaining()];
+                item.get(bytes);
+                out.writeBytes(bytes);
+            }
+
+            @Override
+            public void onError(Throwable throwable) {
+                fail(throwable);
+            }
+
+            @Override
+            public void onComplete() {
+            }
+        });
+        return out.toString(StandardCharsets.UTF_8);
+    }
+}